@@ -0,0 +1,62 @@
+package com.healthcare.ai.impl;
+
+import com.healthcare.benchmark.BenchmarkFixtures;
+import com.healthcare.model.Facility;
+import com.healthcare.model.Patient;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class HealthcareDataProviderBenchmark {
+
+    private HealthcareDataProvider dataProvider;
+    private Patient patient;
+    private Facility facility;
+
+    @Setup
+    public void setUp() {
+        // The conversion helpers only read their argument, so no repositories are needed
+        dataProvider = new HealthcareDataProvider(null, null, null, null, null);
+        facility = BenchmarkFixtures.facility(7);
+        patient = BenchmarkFixtures.patient(4242, facility);
+    }
+
+    @Benchmark
+    public Map<String, Object> convertToPatientMap() {
+        return dataProvider.convertToPatientMap(patient);
+    }
+
+    @Benchmark
+    public Map<String, Object> convertToSearchResultMap() {
+        return dataProvider.convertToSearchResultMap(patient);
+    }
+
+    @Benchmark
+    public Map<String, Object> convertToFacilityMap() {
+        return dataProvider.convertToFacilityMap(facility);
+    }
+
+    @Benchmark
+    public String maskSensitiveInfo() {
+        return dataProvider.maskSensitiveInfo(patient.getMedicalRecordNumber());
+    }
+
+    @Benchmark
+    public String maskEmail() {
+        return dataProvider.maskEmail(patient.getEmail());
+    }
+
+    @Benchmark
+    public int calculateAge() {
+        return dataProvider.calculateAge(patient.getDateOfBirth());
+    }
+}
@@ -0,0 +1,46 @@
+package com.healthcare.ai.impl;
+
+import com.healthcare.benchmark.BenchmarkFixtures;
+import com.healthcare.dto.ChatRequest;
+import com.healthcare.dto.ChatResponse;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class LocalAIServiceBenchmark {
+
+    // One query per intent branch in LocalAIService.processQuery
+    @Param({
+        "List sample patient profiles",
+        "Analyze patient distribution by facility type",
+        "Show me all hospitals",
+        "How many patients are there?",
+        "Search for patient named smith",
+        "help",
+        "Good morning"
+    })
+    private String query;
+
+    private LocalAIService localAIService;
+    private ChatRequest chatRequest;
+
+    @Setup
+    public void setUp() {
+        localAIService = new LocalAIService(BenchmarkFixtures.dataProvider());
+        chatRequest = new ChatRequest(query);
+    }
+
+    @Benchmark
+    public ChatResponse processQuery() {
+        return localAIService.processQuery(chatRequest);
+    }
+}
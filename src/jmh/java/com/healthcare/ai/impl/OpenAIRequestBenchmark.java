@@ -0,0 +1,45 @@
+package com.healthcare.ai.impl;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.healthcare.benchmark.BenchmarkFixtures;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.net.http.HttpClient;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class OpenAIRequestBenchmark {
+
+    private static final String QUERY = "Which facility has the most elderly patients?";
+
+    private OpenAIService openAIService;
+    private ObjectMapper objectMapper;
+
+    @Setup
+    public void setUp() {
+        objectMapper = BenchmarkFixtures.objectMapper();
+        openAIService = new OpenAIService(objectMapper, null, HttpClient.newHttpClient(), new SimpleMeterRegistry());
+    }
+
+    @Benchmark
+    public Map<String, Object> buildRequest() {
+        List<Map<String, Object>> tools = openAIService.createToolDefinitions();
+        return openAIService.createChatRequest(QUERY, tools);
+    }
+
+    @Benchmark
+    public String buildAndSerializeRequest() throws JsonProcessingException {
+        return objectMapper.writeValueAsString(buildRequest());
+    }
+}
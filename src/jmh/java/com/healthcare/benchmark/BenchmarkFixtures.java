@@ -0,0 +1,151 @@
+package com.healthcare.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.healthcare.ai.DataProvider;
+import com.healthcare.config.PooledSmileFactory;
+import com.healthcare.dto.PatientDTO;
+import com.healthcare.model.Address;
+import com.healthcare.model.Facility;
+import com.healthcare.model.Patient;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+public final class BenchmarkFixtures {
+
+    private static final String[] FIRST_NAMES = {"John", "Maria", "Ahmed", "Wei", "Fatima", "Liam", "Sofia", "Omar"};
+    private static final String[] LAST_NAMES = {"Smith", "Garcia", "Hassan", "Chen", "Ali", "Murphy", "Rossi", "Khan"};
+
+    private BenchmarkFixtures() {
+    }
+
+    // Mirrors the Spring Boot defaults plus application.yml (ISO dates instead of timestamps)
+    public static ObjectMapper objectMapper() {
+        return Jackson2ObjectMapperBuilder.json()
+            .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .build();
+    }
+
+    // The mapper behind Accept: application/x-jackson-smile, configured as objectMapper()
+    public static ObjectMapper smileObjectMapper() {
+        return Jackson2ObjectMapperBuilder.json()
+            .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .factory(new PooledSmileFactory())
+            .build();
+    }
+
+    public static Facility facility(long id) {
+        Facility.FacilityType[] types = Facility.FacilityType.values();
+        return Facility.builder()
+            .id(id)
+            .name("Facility " + id)
+            .type(types[(int) (id % types.length)])
+            .address(Address.valueOf(id + " Main Street, Springfield, IL 62701"))
+            .isActive(true)
+            .build();
+    }
+
+    public static Patient patient(long id, Facility facility) {
+        int i = (int) id;
+        return Patient.builder()
+            .id(id)
+            .facility(facility)
+            .firstName(FIRST_NAMES[i % FIRST_NAMES.length])
+            .lastName(LAST_NAMES[(i / FIRST_NAMES.length) % LAST_NAMES.length])
+            .email("patient" + id + "@example.com")
+            .phone("+1-555-" + String.format("%07d", id))
+            .dateOfBirth(LocalDate.of(1940 + i % 80, 1 + i % 12, 1 + i % 28))
+            .gender(Patient.Gender.values()[i % Patient.Gender.values().length])
+            .medicalRecordNumber(String.format("MRN-%08d", id))
+            .address(Address.valueOf(id + " Oak Avenue, Apt " + (i % 40) + ", Springfield, IL 62704"))
+            .build();
+    }
+
+    public static List<Patient> patients(int count) {
+        List<Patient> patients = new ArrayList<>(count);
+        for (int i = 1; i <= count; i++) {
+            patients.add(patient(i, facility(1 + i % 10)));
+        }
+        return patients;
+    }
+
+    public static PatientDTO patientDTO(Patient patient) {
+        PatientDTO dto = new PatientDTO();
+        dto.setId(patient.getId());
+        dto.setFacilityId(patient.getFacility().getId());
+        dto.setFirstName(patient.getFirstName());
+        dto.setLastName(patient.getLastName());
+        dto.setEmail(patient.getEmail());
+        dto.setPhone(patient.getPhone());
+        dto.setDateOfBirth(patient.getDateOfBirth());
+        dto.setGender(patient.getGender());
+        dto.setMedicalRecordNumber(patient.getMedicalRecordNumber());
+        dto.setAddress(patient.getAddress());
+        return dto;
+    }
+
+    // In-memory DataProvider so AI benchmarks measure intent handling rather than the database
+    public static DataProvider dataProvider() {
+        return new DataProvider() {
+            private final List<Map<String, Object>> patients = List.of(
+                Map.of("id", 1L, "firstName", "John", "lastName", "Smith", "facility", "Facility 1"),
+                Map.of("id", 2L, "firstName", "Maria", "lastName", "Garcia", "facility", "Facility 2"),
+                Map.of("id", 3L, "firstName", "Wei", "lastName", "Chen", "facility", "Facility 3"));
+            private final List<Map<String, Object>> facilities = List.of(
+                Map.of("id", 1L, "name", "Facility 1", "type", "HOSPITAL"),
+                Map.of("id", 2L, "name", "Facility 2", "type", "CLINIC"));
+
+            @Override
+            public List<Map<String, Object>> getSamplePatients(int count) {
+                return patients;
+            }
+
+            @Override
+            public List<Map<String, Object>> searchPatients(String searchTerm, Long facilityId, int limit) {
+                return patients;
+            }
+
+            @Override
+            public long getPatientCount() {
+                return 125_000L;
+            }
+
+            @Override
+            public List<Map<String, Object>> getFacilities(String type, String location, int limit) {
+                return facilities;
+            }
+
+            @Override
+            public List<Map<String, Object>> getFacilitiesWithPatientCounts(int limit) {
+                return facilities;
+            }
+
+            @Override
+            public List<Map<String, Object>> findNearestFacilities(double latitude, double longitude, String type, int limit) {
+                return facilities;
+            }
+
+            @Override
+            public Map<String, Long> getFacilityStats() {
+                return Map.of("HOSPITAL", 40L, "CLINIC", 120L, "LAB", 25L, "PHARMACY", 60L);
+            }
+
+            @Override
+            public long getFacilityCount() {
+                return 245L;
+            }
+
+            @Override
+            public Map<String, Object> getSystemStats() {
+                return Map.of(
+                    "totalPatients", getPatientCount(),
+                    "totalFacilities", getFacilityCount(),
+                    "facilitiesByType", getFacilityStats(),
+                    "averagePatientsPerFacility", (double) getPatientCount() / getFacilityCount());
+            }
+        };
+    }
+}
@@ -0,0 +1,101 @@
+package com.healthcare.compression;
+
+import com.healthcare.benchmark.BenchmarkFixtures;
+import com.healthcare.dto.PatientDTO;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+
+// CPU time to gzip one JSON patient page per page size and level, with bytes on the wire reported
+// alongside as the wireBytes and rawBytes counters. gzipUnpooled is a new GZIPOutputStream per
+// response, as without the encoder pool.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ResponseCompressionBenchmark {
+
+    @Param({"1", "20", "100", "500"})
+    private int pageSize;
+
+    @Param({"1", "5", "9"})
+    private int level;
+
+    private byte[] body;
+    private GzipEncoderPool pool;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class WireSize {
+        public long rawBytes;
+        public long wireBytes;
+    }
+
+    @Setup
+    public void setUp() throws IOException {
+        List<PatientDTO> patients = BenchmarkFixtures.patients(pageSize).stream()
+            .map(BenchmarkFixtures::patientDTO)
+            .toList();
+        body = BenchmarkFixtures.objectMapper()
+            .writeValueAsBytes(new PageImpl<>(patients, PageRequest.of(0, pageSize), 125_000L));
+        pool = new GzipEncoderPool(4, level, 8 * 1024, 2 * 1024);
+    }
+
+    @Benchmark
+    public long gzipPooled(WireSize wireSize) throws IOException {
+        CountingOutputStream wire = new CountingOutputStream();
+        GzipEncoder encoder = pool.acquire();
+        try {
+            encoder.begin(wire);
+            encoder.write(body, 0, body.length);
+            encoder.finish();
+        } finally {
+            pool.release(encoder);
+        }
+        wireSize.rawBytes = body.length;
+        wireSize.wireBytes = wire.count;
+        return wire.count;
+    }
+
+    @Benchmark
+    public long gzipUnpooled(WireSize wireSize) throws IOException {
+        CountingOutputStream wire = new CountingOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(wire, 8 * 1024) {
+            {
+                def.setLevel(level);
+            }
+        }) {
+            gzip.write(body);
+        }
+        wireSize.rawBytes = body.length;
+        wireSize.wireBytes = wire.count;
+        return wire.count;
+    }
+
+    private static final class CountingOutputStream extends OutputStream {
+
+        private long count;
+
+        @Override
+        public void write(int b) {
+            count++;
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int length) {
+            count += length;
+        }
+    }
+}
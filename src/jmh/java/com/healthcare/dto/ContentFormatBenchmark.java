@@ -0,0 +1,68 @@
+package com.healthcare.dto;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.healthcare.benchmark.BenchmarkFixtures;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+
+// Pages per second written and read as JSON and as Smile, with the mappers the API uses. Run with
+// several threads so the pooled Smile buffers are shared as they are between requests.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Threads(4)
+public class ContentFormatBenchmark {
+
+    @Param({"json", "smile"})
+    private String format;
+
+    @Param({"20", "100"})
+    private int pageSize;
+
+    private ObjectWriter pageWriter;
+    private ObjectReader contentReader;
+    private Page<PatientDTO> patientPage;
+    private byte[] content;
+
+    @Setup
+    public void setUp() throws IOException {
+        ObjectMapper objectMapper = format.equals("smile")
+            ? BenchmarkFixtures.smileObjectMapper()
+            : BenchmarkFixtures.objectMapper();
+
+        List<PatientDTO> patients = BenchmarkFixtures.patients(pageSize).stream()
+            .map(BenchmarkFixtures::patientDTO)
+            .toList();
+        patientPage = new PageImpl<>(patients, PageRequest.of(0, pageSize), 125_000L);
+
+        pageWriter = objectMapper.writerFor(new TypeReference<Page<PatientDTO>>() { });
+        contentReader = objectMapper.readerFor(new TypeReference<List<PatientDTO>>() { });
+        content = objectMapper.writeValueAsBytes(patients);
+    }
+
+    @Benchmark
+    public byte[] writePatientPage() throws IOException {
+        return pageWriter.writeValueAsBytes(patientPage);
+    }
+
+    @Benchmark
+    public List<PatientDTO> readPatients() throws IOException {
+        return contentReader.readValue(content);
+    }
+}
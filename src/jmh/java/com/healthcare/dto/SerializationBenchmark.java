@@ -0,0 +1,55 @@
+package com.healthcare.dto;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.healthcare.benchmark.BenchmarkFixtures;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SerializationBenchmark {
+
+    @Param({"20", "100"})
+    private int pageSize;
+
+    private ObjectMapper objectMapper;
+    private Page<PatientDTO> patientPage;
+    private ChatResponse chatResponse;
+
+    @Setup
+    public void setUp() {
+        objectMapper = BenchmarkFixtures.objectMapper();
+
+        List<PatientDTO> patients = BenchmarkFixtures.patients(pageSize).stream()
+            .map(BenchmarkFixtures::patientDTO)
+            .toList();
+        patientPage = new PageImpl<>(patients, PageRequest.of(0, pageSize), 125_000L);
+
+        List<Map<String, Object>> data = BenchmarkFixtures.dataProvider().getSamplePatients(3);
+        chatResponse = ChatResponse.success("Here are 3 sample patient profiles from our system.", "local", data);
+    }
+
+    @Benchmark
+    public byte[] serializePatientPage() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(patientPage);
+    }
+
+    @Benchmark
+    public byte[] serializeChatResponse() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(chatResponse);
+    }
+}
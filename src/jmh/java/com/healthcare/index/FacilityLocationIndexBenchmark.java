@@ -0,0 +1,75 @@
+package com.healthcare.index;
+
+import com.healthcare.model.Facility;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+// Compares KD-tree lookups with the linear scan a SQL ORDER BY distance would do
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class FacilityLocationIndexBenchmark {
+
+    @Param({"1000", "50000"})
+    private int facilities;
+
+    private List<FacilityLocation> locations;
+    private KdTree<FacilityLocation> tree;
+    private double[][] queries;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        SplittableRandom random = new SplittableRandom(7);
+        Facility.FacilityType[] types = Facility.FacilityType.values();
+        locations = new ArrayList<>(facilities);
+        for (long id = 1; id <= facilities; id++) {
+            locations.add(new FacilityLocation(id, "Facility " + id, types[(int) (id % types.length)],
+                random.nextDouble(25, 49), random.nextDouble(-124, -67)));
+        }
+        tree = KdTree.build(locations, FacilityLocation.COORDINATES);
+        queries = new double[1024][];
+        for (int i = 0; i < queries.length; i++) {
+            queries[i] = new double[] {random.nextDouble(25, 49), random.nextDouble(-124, -67)};
+        }
+    }
+
+    @Benchmark
+    public List<KdTree.Neighbor<FacilityLocation>> nearestTen() {
+        double[] query = queries[next++ & (queries.length - 1)];
+        return tree.nearest(query[0], query[1], 10);
+    }
+
+    @Benchmark
+    public List<FacilityLocation> linearScanTen() {
+        double[] query = queries[next++ & (queries.length - 1)];
+        double[] target = KdTree.toUnitVector(query[0], query[1]);
+        return locations.stream()
+            .sorted((a, b) -> Double.compare(squaredChord(target, a), squaredChord(target, b)))
+            .limit(10)
+            .toList();
+    }
+
+    @Benchmark
+    public KdTree<FacilityLocation> rebuild() {
+        return KdTree.build(locations, FacilityLocation.COORDINATES);
+    }
+
+    private static double squaredChord(double[] target, FacilityLocation location) {
+        double[] point = KdTree.toUnitVector(location.latitude(), location.longitude());
+        double dx = target[0] - point[0];
+        double dy = target[1] - point[1];
+        double dz = target[2] - point[2];
+        return dx * dx + dy * dy + dz * dz;
+    }
+}
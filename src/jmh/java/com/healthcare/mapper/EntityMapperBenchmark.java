@@ -0,0 +1,60 @@
+package com.healthcare.mapper;
+
+import com.healthcare.benchmark.BenchmarkFixtures;
+import com.healthcare.dto.PageRequestDTO;
+import com.healthcare.dto.PatientDTO;
+import com.healthcare.model.Patient;
+import com.healthcare.repository.SortPlanner;
+import com.healthcare.repository.SortProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.data.domain.Pageable;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class EntityMapperBenchmark {
+
+    @Param({"20", "100"})
+    private int pageSize;
+
+    private EntityMapper entityMapper;
+    private List<Patient> patients;
+    private PageRequestDTO pageRequest;
+
+    @Setup
+    public void setUp() {
+        // toPatientDTO and createPageable do not touch the repository
+        entityMapper = new EntityMapper(null, new SortPlanner(new SortProperties(), new SimpleMeterRegistry()));
+        patients = BenchmarkFixtures.patients(pageSize);
+
+        pageRequest = new PageRequestDTO();
+        pageRequest.setSize(pageSize);
+        pageRequest.setSortBy("lastName");
+        pageRequest.setSortDirection("DESC");
+    }
+
+    @Benchmark
+    public List<PatientDTO> toPatientDTOPage() {
+        List<PatientDTO> dtos = new ArrayList<>(patients.size());
+        for (Patient patient : patients) {
+            dtos.add(entityMapper.toPatientDTO(patient));
+        }
+        return dtos;
+    }
+
+    @Benchmark
+    public Pageable createPageable() {
+        return entityMapper.createPageable(pageRequest, SortPlanner.Endpoint.PATIENTS);
+    }
+}
@@ -4,6 +4,7 @@ import com.healthcare.ai.impl.LocalAIService;
 import com.healthcare.ai.impl.OpenAIService;
 import com.healthcare.dto.ChatRequest;
 import com.healthcare.dto.ChatResponse;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -20,6 +21,7 @@ public class AIChatOrchestrator {
 
     private final List<AIService> aiServices;
     private final LocalAIService localAIService;
+    private final MeterRegistry meterRegistry;
 
     public ChatResponse processQuery(ChatRequest chatRequest) {
         log.info("Processing chat query: {}", chatRequest.getQuery());
@@ -29,6 +31,7 @@ public class AIChatOrchestrator {
             if (!service.isEnabled() || service.getHealth() != ServiceHealth.HEALTHY) {
                 log.debug("Skipping service: {} - Enabled: {}, Health: {}",
                     service.getServiceName(), service.isEnabled(), service.getHealth());
+                recordRoutingDecision(service, service.isEnabled() ? "skipped_unhealthy" : "skipped_disabled");
                 continue;
             }
 
@@ -38,16 +41,20 @@ public class AIChatOrchestrator {
 
                 if (!response.isError()) {
                     log.info("Successfully processed with: {}", service.getServiceName());
+                    recordRoutingDecision(service, "handled");
                     return response;
                 }
 
+                recordRoutingDecision(service, "error_response");
             } catch (Exception e) {
                 log.warn("Service {} failed: {}", service.getServiceName(), e.getMessage());
+                recordRoutingDecision(service, "failed");
             }
         }
 
         // All preferred services failed, use local fallback
         log.info("Using local fallback service");
+        recordRoutingDecision(localAIService, "fallback");
         return localAIService.processQuery(chatRequest);
     }
 
@@ -69,6 +76,12 @@ public class AIChatOrchestrator {
             .collect(Collectors.toList());
     }
 
+    private void recordRoutingDecision(AIService service, String decision) {
+        meterRegistry.counter("healthcare.ai.routing.decisions",
+            "service", service.getServiceName(),
+            "decision", decision).increment();
+    }
+
     private int getServicePriority(AIService service) {
         if (service instanceof OpenAIService) return 100; // Highest priority
         if (service instanceof LocalAIService) return 10;  // Fallback priority
@@ -10,8 +10,9 @@ public interface DataProvider {
     long getPatientCount();
 
     // Facility methods
-    List<Map<String, Object>> getFacilities(String type, int limit);
+    List<Map<String, Object>> getFacilities(String type, String location, int limit);
     List<Map<String, Object>> getFacilitiesWithPatientCounts(int limit);
+    List<Map<String, Object>> findNearestFacilities(double latitude, double longitude, String type, int limit);
     Map<String, Long> getFacilityStats();
     long getFacilityCount();
 
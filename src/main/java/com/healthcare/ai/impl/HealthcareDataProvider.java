@@ -1,17 +1,25 @@
 package com.healthcare.ai.impl;
 
 import com.healthcare.ai.DataProvider;
+import com.healthcare.cache.CacheNames;
+import com.healthcare.index.FacilityLocationIndex;
+import com.healthcare.mapper.EntityMapper;
 import com.healthcare.model.Facility;
 import com.healthcare.model.Facility.FacilityType;
 import com.healthcare.model.Patient;
+import com.healthcare.repository.AddressPredicates;
 import com.healthcare.repository.FacilityRepository;
 import com.healthcare.repository.PatientRepository;
+import com.healthcare.repository.RowCountEstimator;
 import java.util.HashMap;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
 import java.time.Period;
@@ -22,10 +30,14 @@ import java.util.stream.Collectors;
 @Component
 @Slf4j
 @RequiredArgsConstructor
+@Transactional(readOnly = true)
 public class HealthcareDataProvider implements DataProvider {
 
     private final PatientRepository patientRepository;
     private final FacilityRepository facilityRepository;
+    private final FacilityLocationIndex facilityLocationIndex;
+    private final RowCountEstimator rowCountEstimator;
+    private final EntityMapper entityMapper;
 
     @Override
     public List<Map<String, Object>> getSamplePatients(int count) {
@@ -65,10 +77,11 @@ public class HealthcareDataProvider implements DataProvider {
         }
     }
 
+    // Estimated from planner statistics on large tables; exact counts are on the rowcounts JMX endpoint
     @Override
     public long getPatientCount() {
         try {
-            return patientRepository.countByDeletedAtIsNull();
+            return rowCountEstimator.activePatients();
         } catch (Exception e) {
             log.error("Error getting patient count", e);
             return 0;
@@ -76,11 +89,18 @@ public class HealthcareDataProvider implements DataProvider {
     }
 
     @Override
-    public List<Map<String, Object>> getFacilities(String type, int limit) {
+    public List<Map<String, Object>> getFacilities(String type, String location, int limit) {
         try {
             List<Facility> facilities;
 
-            if (type != null) {
+            if (location != null && !location.isBlank()) {
+                FacilityType facilityType = type != null ? FacilityType.valueOf(type) : null;
+                facilities = facilityRepository.findAll((root, query, criteriaBuilder) -> criteriaBuilder.and(
+                    criteriaBuilder.isTrue(root.get("isActive")),
+                    facilityType != null ? criteriaBuilder.equal(root.get("type"), facilityType) : criteriaBuilder.conjunction(),
+                    AddressPredicates.locatedIn(criteriaBuilder, root.get("address"), location)
+                ), PageRequest.of(0, limit)).getContent();
+            } else if (type != null) {
                 facilities = facilityRepository.findByTypeAndIsActiveTrue(
                     Facility.FacilityType.valueOf(type), PageRequest.of(0, limit)).getContent();
             } else {
@@ -100,25 +120,45 @@ public class HealthcareDataProvider implements DataProvider {
     public List<Map<String, Object>> getFacilitiesWithPatientCounts(int limit) {
         try {
             List<Facility> facilities = facilityRepository.findByIsActiveTrue(PageRequest.of(0, limit)).getContent();
+            Map<Long, Long> patientCounts = entityMapper.countPatients(
+                facilities.stream().map(Facility::getId).collect(Collectors.toList()));
 
             return facilities.stream()
-                .map(facility -> {
-                    Long patientCount = facilityRepository.countPatientsByFacilityId(facility.getId());
-                    return Map.<String, Object>of(
-                        "id", facility.getId(),
-                        "name", facility.getName(),
-                        "type", facility.getType().toString(),
-                        "patientCount", patientCount != null ? patientCount : 0,
-                        "address", facility.getAddress()
-                    );
-                }).collect(Collectors.toList());
+                .map(facility -> Map.<String, Object>of(
+                    "id", facility.getId(),
+                    "name", facility.getName(),
+                    "type", facility.getType().toString(),
+                    "patientCount", patientCounts.getOrDefault(facility.getId(), 0L),
+                    "address", facility.getAddress()
+                )).collect(Collectors.toList());
         } catch (Exception e) {
             log.error("Error getting facilities with patient counts", e);
             return List.of();
         }
     }
 
+    // Answered from the in-memory location index; no transaction or connection needed
     @Override
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public List<Map<String, Object>> findNearestFacilities(double latitude, double longitude, String type, int limit) {
+        try {
+            FacilityType facilityType = type != null ? FacilityType.valueOf(type) : null;
+            return facilityLocationIndex.nearest(latitude, longitude, facilityType, limit).stream()
+                .map(neighbor -> Map.<String, Object>of(
+                    "id", neighbor.value().id(),
+                    "name", neighbor.value().name(),
+                    "type", neighbor.value().type().toString(),
+                    "distanceKm", Math.round(neighbor.distanceKm() * 10) / 10.0
+                )).collect(Collectors.toList());
+        } catch (Exception e) {
+            log.error("Error finding nearest facilities", e);
+            return List.of();
+        }
+    }
+
+    // Failures come back empty and are not cached
+    @Override
+    @Cacheable(value = CacheNames.FACILITY_STATS, unless = "#result.isEmpty()")
     public Map<String, Long> getFacilityStats() {
         try {
             Map<FacilityType, Long> result = new HashMap<>();
@@ -141,7 +181,7 @@ public class HealthcareDataProvider implements DataProvider {
     @Override
     public long getFacilityCount() {
         try {
-            return facilityRepository.countByIsActiveTrue();
+            return rowCountEstimator.activeFacilities();
         } catch (Exception e) {
             log.error("Error getting facility count", e);
             return 0;
@@ -149,6 +189,7 @@ public class HealthcareDataProvider implements DataProvider {
     }
 
     @Override
+    @Cacheable(value = CacheNames.SYSTEM_STATS, unless = "#result.containsKey('error')")
     public Map<String, Object> getSystemStats() {
         try {
             long totalPatients = getPatientCount();
@@ -167,7 +208,7 @@ public class HealthcareDataProvider implements DataProvider {
         }
     }
 
-    private Map<String, Object> convertToPatientMap(Patient patient) {
+    Map<String, Object> convertToPatientMap(Patient patient) {
         return Map.of(
             "id", patient.getId(),
             "firstName", patient.getFirstName(),
@@ -180,7 +221,7 @@ public class HealthcareDataProvider implements DataProvider {
         );
     }
 
-    private Map<String, Object> convertToSearchResultMap(Patient patient) {
+    Map<String, Object> convertToSearchResultMap(Patient patient) {
         return Map.of(
             "id", patient.getId(),
             "name", patient.getFirstName() + " " + patient.getLastName(),
@@ -190,7 +231,7 @@ public class HealthcareDataProvider implements DataProvider {
         );
     }
 
-    private Map<String, Object> convertToFacilityMap(Facility facility) {
+    Map<String, Object> convertToFacilityMap(Facility facility) {
         return Map.of(
             "id", facility.getId(),
             "name", facility.getName(),
@@ -199,12 +240,12 @@ public class HealthcareDataProvider implements DataProvider {
         );
     }
 
-    private String maskSensitiveInfo(String value) {
+    String maskSensitiveInfo(String value) {
         if (value == null || value.length() <= 4) return "***";
         return "***" + value.substring(value.length() - 4);
     }
 
-    private String maskEmail(String email) {
+    String maskEmail(String email) {
         if (email == null) return "***";
         int atIndex = email.indexOf('@');
         if (atIndex > 2) {
@@ -213,7 +254,7 @@ public class HealthcareDataProvider implements DataProvider {
         return "***" + email.substring(atIndex);
     }
 
-    private int calculateAge(LocalDate birthDate) {
+    int calculateAge(LocalDate birthDate) {
         return birthDate != null ? Period.between(birthDate, LocalDate.now()).getYears() : 0;
     }
 }
\ No newline at end of file
@@ -4,6 +4,8 @@ import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.healthcare.ai.DataProvider;
 import com.healthcare.ai.ToolExecutor;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
@@ -18,9 +20,13 @@ public class HealthcareToolExecutor implements ToolExecutor {
 
     private final DataProvider dataProvider;
     private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
 
     @Override
     public String execute(String functionName, Map<String, Object> arguments) throws JsonProcessingException {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "success";
+
         try {
             log.info("Executing function: {} with arguments: {}", functionName, arguments);
 
@@ -33,6 +39,8 @@ public class HealthcareToolExecutor implements ToolExecutor {
                     return executeGetFacilities(arguments);
                 case "get_facilities_with_patient_counts":
                     return executeGetFacilitiesWithPatientCounts(arguments);
+                case "find_nearest_facilities":
+                    return executeFindNearestFacilities(arguments);
                 case "get_system_stats":
                     return executeGetSystemStats(arguments);
                 case "get_patient_count":
@@ -40,11 +48,21 @@ public class HealthcareToolExecutor implements ToolExecutor {
                 case "get_facility_count":
                     return executeGetFacilityCount(arguments);
                 default:
+                    outcome = "unsupported";
                     return createErrorResponse("Function not implemented: " + functionName);
             }
         } catch (Exception e) {
+            outcome = "error";
             log.error("Error executing function: {}", functionName, e);
             return createErrorResponse("Error executing function: " + e.getMessage());
+        } finally {
+            // Function names come from the model, so unknown ones share a single tag value
+            sample.stop(Timer.builder("healthcare.ai.tool.executions")
+                .description("Chat tool function executions")
+                .tag("function", supports(functionName) ? functionName : "unknown")
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(meterRegistry));
         }
     }
 
@@ -60,6 +78,7 @@ public class HealthcareToolExecutor implements ToolExecutor {
             "search_patients",
             "get_facilities",
             "get_facilities_with_patient_counts",
+            "find_nearest_facilities",
             "get_system_stats",
             "get_patient_count",
             "get_facility_count"
@@ -87,7 +106,8 @@ public class HealthcareToolExecutor implements ToolExecutor {
 
     private String executeGetFacilities(Map<String, Object> arguments) throws JsonProcessingException {
         String type = (String) arguments.get("type");
-        List<Map<String, Object>> facilities = dataProvider.getFacilities(type, 20);
+        String location = (String) arguments.get("location");
+        List<Map<String, Object>> facilities = dataProvider.getFacilities(type, location, 20);
         return objectMapper.writeValueAsString(facilities);
     }
 
@@ -97,6 +117,17 @@ public class HealthcareToolExecutor implements ToolExecutor {
         return objectMapper.writeValueAsString(facilities);
     }
 
+    private String executeFindNearestFacilities(Map<String, Object> arguments) throws JsonProcessingException {
+        if (!(arguments.get("latitude") instanceof Number latitude) || !(arguments.get("longitude") instanceof Number longitude)) {
+            return createErrorResponse("latitude and longitude are required");
+        }
+        String type = (String) arguments.get("type");
+        int limit = arguments.containsKey("limit") ? Math.min(((Number) arguments.get("limit")).intValue(), 20) : 5;
+        List<Map<String, Object>> facilities = dataProvider.findNearestFacilities(
+            latitude.doubleValue(), longitude.doubleValue(), type, limit);
+        return objectMapper.writeValueAsString(facilities);
+    }
+
     private String executeGetSystemStats(Map<String, Object> arguments) throws JsonProcessingException {
         Map<String, Object> stats = dataProvider.getSystemStats();
         return objectMapper.writeValueAsString(stats);
@@ -121,7 +121,7 @@ public class LocalAIService implements AIService {
 
     private ChatResponse handleFacilities(String query) {
         String type = extractFacilityType(query);
-        List<Map<String, Object>> facilities = dataProvider.getFacilities(type, 10);
+        List<Map<String, Object>> facilities = dataProvider.getFacilities(type, null, 10);
 
         String typeText = type != null ? type.toLowerCase() + " " : "";
         String answer = String.format(
@@ -6,6 +6,8 @@ import com.healthcare.ai.ServiceHealth;
 import com.healthcare.ai.ToolExecutor;
 import com.healthcare.dto.ChatRequest;
 import com.healthcare.dto.ChatResponse;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
@@ -38,9 +40,12 @@ public class OpenAIService implements AIService {
 
     private final ObjectMapper objectMapper;
     private final ToolExecutor toolExecutor;
+    private final HttpClient httpClient;
+    private final MeterRegistry meterRegistry;
 
-    private boolean healthy = true;
-    private String lastError;
+    // Read and written by concurrent request threads
+    private volatile boolean healthy = true;
+    private volatile String lastError;
 
     @Override
     public ChatResponse processQuery(ChatRequest chatRequest) {
@@ -80,13 +85,13 @@ public class OpenAIService implements AIService {
         List<Map<String, Object>> tools = createToolDefinitions();
         Map<String, Object> request = createChatRequest(query, tools);
 
-        String responseBody = makeApiCall(request);
+        String responseBody = makeApiCall("completion", request);
         Map<String, Object> response = objectMapper.readValue(responseBody, Map.class);
 
         return processApiResponse(response, query);
     }
 
-    private Map<String, Object> createChatRequest(String query, List<Map<String, Object>> tools) {
+    Map<String, Object> createChatRequest(String query, List<Map<String, Object>> tools) {
         Map<String, Object> request = new HashMap<>();
         request.put("model", model);
         request.put("messages", List.of(
@@ -119,7 +124,7 @@ public class OpenAIService implements AIService {
         return Map.of("role", "user", "content", content);
     }
 
-    private List<Map<String, Object>> createToolDefinitions() {
+    List<Map<String, Object>> createToolDefinitions() {
         return List.of(
             createTool("get_sample_patients",
                 "Get sample patient profiles from the healthcare system",
@@ -138,10 +143,14 @@ public class OpenAIService implements AIService {
             createTool("get_facilities",
                 "Get list of healthcare facilities with their details",
                 Map.of("type", Map.of(
-                    "type", "string",
-                    "description", "Filter by facility type",
-                    "enum", List.of("HOSPITAL", "CLINIC", "LAB", "PHARMACY", "OTHER")
-                ))),
+                        "type", "string",
+                        "description", "Filter by facility type",
+                        "enum", List.of("HOSPITAL", "CLINIC", "LAB", "PHARMACY", "OTHER")
+                    ),
+                    "location", Map.of(
+                        "type", "string",
+                        "description", "Filter by city, region/state or postal code, e.g. Springfield, IL or 62701"
+                    ))),
 
             createTool("get_facilities_with_patient_counts",
                 "Get facilities with their patient counts for analysis",
@@ -150,6 +159,19 @@ public class OpenAIService implements AIService {
                     "description", "Maximum number of facilities to return, default is 20"
                 ))),
 
+            createTool("find_nearest_facilities",
+                "Find the facilities closest to a location, nearest first, with distances in kilometres",
+                Map.of(
+                    "latitude", Map.of("type", "number", "description", "Latitude of the location in decimal degrees"),
+                    "longitude", Map.of("type", "number", "description", "Longitude of the location in decimal degrees"),
+                    "type", Map.of(
+                        "type", "string",
+                        "description", "Filter by facility type",
+                        "enum", List.of("HOSPITAL", "CLINIC", "LAB", "PHARMACY", "OTHER")
+                    ),
+                    "limit", Map.of("type", "integer", "description", "Number of facilities to return, default is 5")
+                )),
+
             createTool("get_system_stats",
                 "Get system statistics including patient counts and facility counts",
                 Map.of()),
@@ -179,28 +201,41 @@ public class OpenAIService implements AIService {
         );
     }
 
-    private String makeApiCall(Map<String, Object> requestBody) throws Exception {
-        HttpClient client = HttpClient.newHttpClient();
-        String requestJson = objectMapper.writeValueAsString(requestBody);
-
-        log.debug("OpenAI API Request: {}", requestJson);
+    private String makeApiCall(String callType, Map<String, Object> requestBody) throws Exception {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "error";
 
-        HttpRequest request = HttpRequest.newBuilder()
-            .uri(URI.create(apiUrl))
-            .header("Content-Type", "application/json")
-            .header("Authorization", "Bearer " + apiKey)
-            .POST(HttpRequest.BodyPublishers.ofString(requestJson))
-            .build();
-
-        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
-
-        log.debug("OpenAI API Response Status: {}", response.statusCode());
-
-        if (response.statusCode() != 200) {
-            handleApiError(response);
+        try {
+            String requestJson = objectMapper.writeValueAsString(requestBody);
+
+            log.debug("OpenAI API Request: {}", requestJson);
+
+            HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create(apiUrl))
+                .header("Content-Type", "application/json")
+                .header("Authorization", "Bearer " + apiKey)
+                .POST(HttpRequest.BodyPublishers.ofString(requestJson))
+                .build();
+
+            HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+
+            log.debug("OpenAI API Response Status: {}", response.statusCode());
+
+            if (response.statusCode() != 200) {
+                outcome = "http_" + response.statusCode();
+                handleApiError(response);
+            }
+
+            outcome = "success";
+            return response.body();
+        } finally {
+            sample.stop(Timer.builder("healthcare.ai.openai.calls")
+                .description("OpenAI chat completion API calls")
+                .tag("type", callType)
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(meterRegistry));
         }
-
-        return response.body();
     }
 
     private void handleApiError(HttpResponse<String> response) throws Exception {
@@ -265,7 +300,7 @@ public class OpenAIService implements AIService {
         request.put("messages", messages);
         request.put("max_tokens", 500);
 
-        String responseBody = makeApiCall(request);
+        String responseBody = makeApiCall("tool_result", request);
         Map<String, Object> response = objectMapper.readValue(responseBody, Map.class);
         Map<String, Object> finalMessage = extractMessage(response);
 
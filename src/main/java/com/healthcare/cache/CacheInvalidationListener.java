@@ -0,0 +1,106 @@
+package com.healthcare.cache;
+
+import com.healthcare.datasource.NotificationListener;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+// Applies other instances' invalidations. Notifications arriving within the coalesce window are
+// applied as one batch, so a burst of writes evicts each key once. Every (re)connect clears all
+// caches, since whatever was sent while the connection was down is lost.
+@Component
+public class CacheInvalidationListener extends NotificationListener {
+
+    static final String APPLICATION_NAME = "healthcare-cache-listener";
+
+    private final CacheInvalidator cacheInvalidator;
+    private final CacheInvalidationProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final Counter notifications;
+    private final Counter batches;
+    private final Counter reconnects;
+
+    public CacheInvalidationListener(HikariDataSource primaryDataSource, CacheInvalidator cacheInvalidator,
+                                     CacheInvalidationProperties properties, MeterRegistry meterRegistry) {
+        super(primaryDataSource, APPLICATION_NAME);
+        this.cacheInvalidator = cacheInvalidator;
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        this.notifications = Counter.builder("healthcare.cache.invalidation.notifications")
+            .description("Invalidation notifications received from any instance")
+            .register(meterRegistry);
+        this.batches = Counter.builder("healthcare.cache.invalidation.batches")
+            .description("Coalesced batches of notifications applied")
+            .register(meterRegistry);
+        this.reconnects = Counter.builder("healthcare.cache.invalidation.reconnects")
+            .description("Times the listener connection was lost and re-established")
+            .register(meterRegistry);
+    }
+
+    @PostConstruct
+    void registerGauge() {
+        Gauge.builder("healthcare.cache.invalidation.listening", this, listener -> listener.isListening() ? 1 : 0)
+            .description("1 while the listener holds a LISTEN connection")
+            .register(meterRegistry);
+    }
+
+    // Safety net for invalidations no notification covers, such as a read that raced a write
+    @Scheduled(fixedDelayString = "${app.cache-invalidation.full-flush-interval:PT10M}",
+        initialDelayString = "${app.cache-invalidation.full-flush-interval:PT10M}")
+    public void flushAll() {
+        cacheInvalidator.clearAll();
+    }
+
+    @Override
+    protected boolean isEnabled() {
+        return properties.isListenerEnabled();
+    }
+
+    @Override
+    protected String channel() {
+        return properties.getChannel();
+    }
+
+    @Override
+    protected Duration coalesceWindow() {
+        return properties.getCoalesceWindow();
+    }
+
+    @Override
+    protected Duration idleCheckInterval() {
+        return properties.getIdleCheckInterval();
+    }
+
+    @Override
+    protected Duration reconnectDelay() {
+        return properties.getReconnectDelay();
+    }
+
+    @Override
+    protected void connected(boolean reconnected) {
+        if (reconnected) {
+            reconnects.increment();
+        }
+        cacheInvalidator.clearAll();
+    }
+
+    @Override
+    protected void received(List<String> payloads) {
+        Set<String> entries = new HashSet<>();
+        for (String payload : payloads) {
+            notifications.increment();
+            entries.addAll(Arrays.asList(payload.split("\n")));
+        }
+        cacheInvalidator.apply(entries);
+        batches.increment();
+    }
+}
@@ -0,0 +1,29 @@
+package com.healthcare.cache;
+
+import java.time.Duration;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties("app.cache-invalidation")
+public class CacheInvalidationProperties {
+
+    // Whether this instance listens for other instances' invalidations; it notifies either way
+    private boolean listenerEnabled = true;
+
+    private String channel = "cache_invalidation";
+
+    // After a notification arrives, further ones are collected this long and applied together
+    private Duration coalesceWindow = Duration.ofMillis(50);
+
+    // A coalesced batch naming more keys of one cache than this clears the whole cache instead
+    private int maxKeysPerCache = 500;
+
+    // How long the listener waits for notifications before checking its connection is still alive
+    private Duration idleCheckInterval = Duration.ofSeconds(10);
+
+    private Duration reconnectDelay = Duration.ofSeconds(1);
+
+    // Every cache is cleared this often as well, bounding staleness from anything notifications miss
+    private Duration fullFlushInterval = Duration.ofMinutes(10);
+}
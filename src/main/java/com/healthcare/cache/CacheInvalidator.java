@@ -0,0 +1,126 @@
+package com.healthcare.cache;
+
+import com.healthcare.config.TransactionCallbacks;
+import com.healthcare.datasource.Notifications;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import javax.sql.DataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+// Invalidates cached entries on every instance when a change commits. The entries a transaction
+// touches are collected and sent as one NOTIFY just before it commits, on the transaction's own
+// connection, so PostgreSQL delivers the message on commit and drops it on rollback. This instance
+// evicts right after the commit as well, without waiting for its own notification to come back.
+//
+// A message is a newline-separated list of cache:id, cache:* and * entries.
+@Slf4j
+@Component
+public class CacheInvalidator {
+
+    static final String ALL = "*";
+
+    private final CacheManager cacheManager;
+    private final JdbcTemplate jdbcTemplate;
+    private final CacheInvalidationProperties properties;
+    private final Counter keyEvictions;
+    private final Counter cacheClears;
+    private final Counter fullFlushes;
+
+    // The primary DataSource: inside a transaction JdbcTemplate uses the connection JPA holds
+    public CacheInvalidator(CacheManager cacheManager, DataSource dataSource, CacheInvalidationProperties properties,
+                            MeterRegistry meterRegistry) {
+        this.cacheManager = cacheManager;
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.properties = properties;
+        this.keyEvictions = invalidations("key", meterRegistry);
+        this.cacheClears = invalidations("cache", meterRegistry);
+        this.fullFlushes = invalidations("all", meterRegistry);
+    }
+
+    private static Counter invalidations(String scope, MeterRegistry meterRegistry) {
+        return Counter.builder("healthcare.cache.invalidations")
+            .description("Cache entries evicted, caches cleared and full flushes, local and remote")
+            .tag("scope", scope)
+            .register(meterRegistry);
+    }
+
+    // A facility's own entry, and the stats that count facilities
+    public void facilityChanged(Long facilityId) {
+        publish(Set.of(entry(CacheNames.FACILITIES, facilityId),
+            entry(CacheNames.FACILITY_STATS, ALL),
+            entry(CacheNames.SYSTEM_STATS, ALL)));
+    }
+
+    // Patients were added to or removed from these facilities, which changes their patient counts
+    public void patientCountsChanged(Collection<Long> facilityIds) {
+        Set<String> entries = new LinkedHashSet<>();
+        facilityIds.forEach(facilityId -> entries.add(entry(CacheNames.FACILITIES, facilityId)));
+        entries.add(entry(CacheNames.SYSTEM_STATS, ALL));
+        publish(entries);
+    }
+
+    private static String entry(String cacheName, Object key) {
+        return cacheName + ":" + key;
+    }
+
+    private void publish(Set<String> entries) {
+        TransactionCallbacks.<Set<String>>collect(this, LinkedHashSet::new, pending -> pending.addAll(entries),
+            this::sendNotification, this::apply);
+    }
+
+    private void sendNotification(Set<String> entries) {
+        Notifications.send(jdbcTemplate, properties.getChannel(), String.join("\n", entries), () -> {
+            // Too many keys for one message: clear the caches they belong to instead
+            Set<String> caches = new LinkedHashSet<>();
+            entries.forEach(entry -> caches.add(entry(entry.substring(0, entry.indexOf(':')), ALL)));
+            return String.join("\n", caches);
+        });
+    }
+
+    // Applies entries from this instance or from a notification; ids are Long, as in every cache here
+    void apply(Collection<String> entries) {
+        if (entries.contains(ALL)) {
+            clearAll();
+            return;
+        }
+        Map<String, Set<String>> keysByCache = new HashMap<>();
+        for (String entry : entries) {
+            int separator = entry.indexOf(':');
+            if (separator > 0) {
+                keysByCache.computeIfAbsent(entry.substring(0, separator), name -> new LinkedHashSet<>())
+                    .add(entry.substring(separator + 1));
+            }
+        }
+        keysByCache.forEach((cacheName, keys) -> {
+            Cache cache = cacheManager.getCache(cacheName);
+            if (cache == null) {
+                log.debug("Ignoring invalidation of unknown cache {}", cacheName);
+            } else if (keys.contains(ALL) || keys.size() > properties.getMaxKeysPerCache()) {
+                cache.clear();
+                cacheClears.increment();
+            } else {
+                keys.forEach(key -> cache.evict(Long.valueOf(key)));
+                keyEvictions.increment(keys.size());
+            }
+        });
+    }
+
+    public void clearAll() {
+        cacheManager.getCacheNames().forEach(cacheName -> {
+            Cache cache = cacheManager.getCache(cacheName);
+            if (cache != null) {
+                cache.clear();
+            }
+        });
+        fullFlushes.increment();
+    }
+}
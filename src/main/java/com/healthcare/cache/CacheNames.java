@@ -0,0 +1,18 @@
+package com.healthcare.cache;
+
+// Caches declared in spring.cache.cache-names. Entries are keyed by id, or hold a single
+// no-argument result, so an invalidation message can name them as cache:id or cache:*.
+public final class CacheNames {
+
+    // FacilityDTO by facility id, including its patient count
+    public static final String FACILITIES = "facilities";
+
+    // Active facilities per type, as given to the chat tools
+    public static final String FACILITY_STATS = "facility-stats";
+
+    // Patient and facility totals, as given to the chat tools
+    public static final String SYSTEM_STATS = "system-stats";
+
+    private CacheNames() {
+    }
+}
@@ -0,0 +1,359 @@
+package com.healthcare.compression;
+
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.util.List;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+
+// A response that is gzipped once it outgrows the staging buffer, or at its first flush when it is a
+// stream. Until then its bytes and any Content-Length are held back, so a small response goes out
+// as it is, with its length. The decision is made from the headers as they stand at the first write.
+// Every response of a compressible type varies by Accept-Encoding, including those sent as they are
+// because they are small or the client does not accept gzip.
+final class CompressingResponse extends HttpServletResponseWrapper {
+
+    // Flushed by the server between events or lines, which must then reach the client
+    private static final List<MediaType> STREAMING = List.of(MediaType.TEXT_EVENT_STREAM, MediaType.APPLICATION_NDJSON);
+
+    private enum State { UNDECIDED, STAGING, COMPRESSING, IDENTITY }
+
+    private final GzipEncoderPool pool;
+    private final List<MediaType> mimeTypes;
+    private final boolean acceptsGzip;
+    private State state = State.UNDECIDED;
+    private boolean streaming;
+    private GzipEncoder encoder;
+    private int staged;
+    private long heldContentLength = -1;
+    private long rawBytes;
+    private long wireBytes;
+    private ServletOutputStream outputStream;
+    private PrintWriter writer;
+
+    CompressingResponse(HttpServletResponse response, GzipEncoderPool pool, List<MediaType> mimeTypes,
+                        boolean acceptsGzip) {
+        super(response);
+        this.pool = pool;
+        this.mimeTypes = mimeTypes;
+        this.acceptsGzip = acceptsGzip;
+    }
+
+    @Override
+    public ServletOutputStream getOutputStream() throws IOException {
+        if (writer != null) {
+            throw new IllegalStateException("getWriter() has already been called for this response");
+        }
+        if (outputStream == null) {
+            outputStream = new CompressingOutputStream(super.getOutputStream());
+        }
+        return outputStream;
+    }
+
+    @Override
+    public PrintWriter getWriter() throws IOException {
+        if (writer == null) {
+            if (outputStream != null) {
+                throw new IllegalStateException("getOutputStream() has already been called for this response");
+            }
+            outputStream = new CompressingOutputStream(super.getOutputStream());
+            writer = new PrintWriter(new OutputStreamWriter(outputStream, getCharacterEncoding()));
+        }
+        return writer;
+    }
+
+    @Override
+    public void flushBuffer() throws IOException {
+        if (writer != null) {
+            writer.flush();
+        }
+        if (outputStream != null) {
+            outputStream.flush();
+        } else if (state == State.UNDECIDED) {
+            // Headers only, for now; a stream compresses from here
+            decide();
+            flush(super.getOutputStream());
+        } else {
+            super.flushBuffer();
+        }
+    }
+
+    @Override
+    public void setContentLength(int length) {
+        setContentLengthLong(length);
+    }
+
+    @Override
+    public void setContentLengthLong(long length) {
+        if (state == State.IDENTITY) {
+            super.setContentLengthLong(length);
+        } else {
+            heldContentLength = length;
+        }
+    }
+
+    @Override
+    public void setHeader(String name, String value) {
+        if (HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name) && value != null) {
+            setContentLengthLong(Long.parseLong(value));
+        } else {
+            super.setHeader(name, value);
+        }
+    }
+
+    @Override
+    public void addHeader(String name, String value) {
+        if (HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name) && value != null) {
+            setContentLengthLong(Long.parseLong(value));
+        } else {
+            super.addHeader(name, value);
+        }
+    }
+
+    @Override
+    public void setIntHeader(String name, int value) {
+        setHeader(name, Integer.toString(value));
+    }
+
+    @Override
+    public void addIntHeader(String name, int value) {
+        addHeader(name, Integer.toString(value));
+    }
+
+    // The container writes the error page itself, straight to the connection
+    @Override
+    public void sendError(int status, String message) throws IOException {
+        super.sendError(status, message);
+        state = State.IDENTITY;
+        release();
+    }
+
+    @Override
+    public void sendError(int status) throws IOException {
+        super.sendError(status);
+        state = State.IDENTITY;
+        release();
+    }
+
+    @Override
+    public void resetBuffer() {
+        super.resetBuffer();
+        staged = 0;
+    }
+
+    @Override
+    public void reset() {
+        super.reset();
+        release();
+        state = State.UNDECIDED;
+        staged = 0;
+        heldContentLength = -1;
+    }
+
+    boolean acceptsGzip() {
+        return acceptsGzip;
+    }
+
+    boolean compressed() {
+        return state == State.COMPRESSING;
+    }
+
+    long rawBytes() {
+        return rawBytes;
+    }
+
+    long wireBytes() {
+        return wireBytes;
+    }
+
+    // Sends whatever is still staged or buffered once the response is complete
+    void finish() throws IOException {
+        try {
+            if (writer != null) {
+                writer.flush();
+            }
+            switch (state) {
+                case STAGING -> {
+                    state = State.IDENTITY;
+                    super.setContentLengthLong(staged);
+                    super.getOutputStream().write(encoder.staging, 0, staged);
+                }
+                case COMPRESSING -> {
+                    encoder.finish();
+                    rawBytes = encoder.rawBytes();
+                    wireBytes = encoder.wireBytes();
+                }
+                case UNDECIDED -> {
+                    if (compressibleType() != null) {
+                        varyByAcceptEncoding();
+                    }
+                    identity();
+                }
+                case IDENTITY -> {
+                }
+            }
+        } finally {
+            release();
+        }
+    }
+
+    // Drops the encoder of a response that failed before it was complete
+    void discard() {
+        release();
+    }
+
+    private void decide() {
+        MediaType mediaType = compressibleType();
+        if (mediaType == null) {
+            identity();
+            return;
+        }
+        varyByAcceptEncoding();
+        if (!acceptsGzip || getStatus() == HttpServletResponse.SC_PARTIAL_CONTENT ||
+            getHeader(HttpHeaders.CONTENT_ENCODING) != null) {
+            identity();
+            return;
+        }
+        streaming = STREAMING.stream().anyMatch(type -> type.isCompatibleWith(mediaType));
+        encoder = pool.acquire();
+        state = State.STAGING;
+    }
+
+    // The content type when it is one that gets gzipped, otherwise null
+    private MediaType compressibleType() {
+        String contentType = getContentType();
+        if (contentType == null) {
+            return null;
+        }
+        MediaType mediaType;
+        try {
+            mediaType = MediaType.parseMediaType(contentType);
+        } catch (InvalidMediaTypeException e) {
+            return null;
+        }
+        return mimeTypes.stream().anyMatch(type -> type.includes(mediaType)) ? mediaType : null;
+    }
+
+    private void varyByAcceptEncoding() {
+        if (getHeaders(HttpHeaders.VARY).stream().noneMatch(vary -> vary.toLowerCase().contains("accept-encoding"))) {
+            super.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        }
+    }
+
+    // The ETag gets a gzip variant, so caches and range requests never take the gzipped and identity
+    // bodies for the same representation; ETags accepts either variant in If-Match and If-None-Match
+    private void compress(ServletOutputStream target) throws IOException {
+        state = State.COMPRESSING;
+        super.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+        String eTag = getHeader(HttpHeaders.ETAG);
+        if (eTag != null) {
+            super.setHeader(HttpHeaders.ETAG, ResponseCompressionFilter.gzipETag(eTag));
+        }
+        encoder.begin(target);
+        encoder.write(encoder.staging, 0, staged);
+        staged = 0;
+    }
+
+    private void identity() {
+        if (state != State.IDENTITY && heldContentLength >= 0) {
+            super.setContentLengthLong(heldContentLength);
+        }
+        state = State.IDENTITY;
+        release();
+    }
+
+    private void write(ServletOutputStream target, byte[] bytes, int offset, int length) throws IOException {
+        if (state == State.UNDECIDED) {
+            decide();
+        }
+        switch (state) {
+            case STAGING -> {
+                if (staged + length <= encoder.staging.length) {
+                    System.arraycopy(bytes, offset, encoder.staging, staged, length);
+                    staged += length;
+                } else {
+                    compress(target);
+                    encoder.write(bytes, offset, length);
+                }
+            }
+            case COMPRESSING -> encoder.write(bytes, offset, length);
+            default -> target.write(bytes, offset, length);
+        }
+    }
+
+    // Responses that are not streams are complete only at finish(), so their flushes are left for then
+    private void flush(ServletOutputStream target) throws IOException {
+        switch (state) {
+            case STAGING -> {
+                if (streaming) {
+                    compress(target);
+                    encoder.flush();
+                    target.flush();
+                }
+            }
+            case COMPRESSING -> {
+                if (streaming) {
+                    encoder.flush();
+                    target.flush();
+                }
+            }
+            default -> target.flush();
+        }
+    }
+
+    private void release() {
+        if (encoder != null) {
+            pool.release(encoder);
+            encoder = null;
+        }
+    }
+
+    private final class CompressingOutputStream extends ServletOutputStream {
+
+        private final ServletOutputStream target;
+
+        private CompressingOutputStream(ServletOutputStream target) {
+            this.target = target;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[] {(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int length) throws IOException {
+            CompressingResponse.this.write(target, bytes, offset, length);
+        }
+
+        @Override
+        public void flush() throws IOException {
+            if (state == State.UNDECIDED) {
+                decide();
+            }
+            CompressingResponse.this.flush(target);
+        }
+
+        // finish() completes the response; closing early would cut off the gzip trailer
+        @Override
+        public void close() throws IOException {
+            flush();
+        }
+
+        @Override
+        public boolean isReady() {
+            return target.isReady();
+        }
+
+        @Override
+        public void setWriteListener(WriteListener writeListener) {
+            target.setWriteListener(writeListener);
+        }
+    }
+}
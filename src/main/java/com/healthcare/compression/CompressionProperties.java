@@ -0,0 +1,31 @@
+package com.healthcare.compression;
+
+import java.util.List;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.http.MediaType;
+import org.springframework.util.unit.DataSize;
+
+@Data
+@ConfigurationProperties("app.compression")
+public class CompressionProperties {
+
+    // Gzip responses for clients that send Accept-Encoding: gzip
+    private boolean enabled = true;
+
+    // Smaller responses are sent as they are: the gzip framing and the CPU would not pay for themselves.
+    // Streamed responses (NDJSON, SSE) are compressed from their first flush whatever their size.
+    private DataSize minResponseSize = DataSize.ofKilobytes(2);
+
+    // Deflate level from 1 (fastest) to 9 (smallest)
+    private int level = 5;
+
+    private List<MediaType> mimeTypes = List.of(MediaType.APPLICATION_JSON, MediaType.parseMediaType("application/*+json"),
+        MediaType.APPLICATION_NDJSON, MediaType.TEXT_EVENT_STREAM);
+
+    // Compressed output collected before each write to the connection
+    private DataSize bufferSize = DataSize.ofKilobytes(8);
+
+    // Idle encoders kept for reuse, each holding a deflater and its buffers
+    private int poolSize = 64;
+}
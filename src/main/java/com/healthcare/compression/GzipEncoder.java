@@ -0,0 +1,105 @@
+package com.healthcare.compression;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+// Gzip framing around a raw deflater, written to any output stream. Unlike GZIPOutputStream it can be
+// reset and reused, so the native deflater state and the buffers are allocated once per pooled encoder
+// rather than once per response. Also carries the buffer a response is staged in until it is known to
+// be worth compressing.
+final class GzipEncoder {
+
+    private static final byte[] HEADER = {0x1f, (byte) 0x8b, Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, (byte) 0xff};
+
+    final byte[] staging;
+
+    private final Deflater deflater;
+    private final CRC32 crc = new CRC32();
+    private final byte[] output;
+    private OutputStream target;
+    private long rawBytes;
+    private long wireBytes;
+
+    GzipEncoder(int level, int bufferSize, int stagingSize) {
+        this.deflater = new Deflater(level, true);
+        this.output = new byte[bufferSize];
+        this.staging = new byte[stagingSize];
+    }
+
+    void begin(OutputStream target) throws IOException {
+        this.target = target;
+        target.write(HEADER);
+        wireBytes = HEADER.length;
+    }
+
+    void write(byte[] bytes, int offset, int length) throws IOException {
+        if (length == 0) {
+            return;
+        }
+        crc.update(bytes, offset, length);
+        rawBytes += length;
+        // The deflater reads from the caller's array, so all of it is consumed before returning
+        deflater.setInput(bytes, offset, length);
+        while (!deflater.needsInput()) {
+            drain(Deflater.NO_FLUSH);
+        }
+    }
+
+    // Everything written so far becomes decodable by the client, at the cost of a few bytes
+    void flush() throws IOException {
+        int produced;
+        do {
+            produced = drain(Deflater.SYNC_FLUSH);
+        } while (produced == output.length);
+    }
+
+    void finish() throws IOException {
+        deflater.finish();
+        while (!deflater.finished()) {
+            drain(Deflater.NO_FLUSH);
+        }
+        byte[] trailer = new byte[8];
+        writeIntLE(trailer, 0, crc.getValue());
+        writeIntLE(trailer, 4, rawBytes);
+        target.write(trailer);
+        wireBytes += trailer.length;
+    }
+
+    long rawBytes() {
+        return rawBytes;
+    }
+
+    long wireBytes() {
+        return wireBytes;
+    }
+
+    void reset() {
+        deflater.reset();
+        crc.reset();
+        target = null;
+        rawBytes = 0;
+        wireBytes = 0;
+    }
+
+    void end() {
+        deflater.end();
+    }
+
+    private int drain(int flush) throws IOException {
+        int produced = deflater.deflate(output, 0, output.length, flush);
+        if (produced > 0) {
+            target.write(output, 0, produced);
+            wireBytes += produced;
+        }
+        return produced;
+    }
+
+    private static void writeIntLE(byte[] bytes, int offset, long value) {
+        bytes[offset] = (byte) value;
+        bytes[offset + 1] = (byte) (value >> 8);
+        bytes[offset + 2] = (byte) (value >> 16);
+        bytes[offset + 3] = (byte) (value >> 24);
+    }
+}
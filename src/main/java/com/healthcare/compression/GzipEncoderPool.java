@@ -0,0 +1,33 @@
+package com.healthcare.compression;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+// Idle encoders shared by all requests. A request that finds none creates one; one released into a
+// full pool is discarded along with its native deflater.
+final class GzipEncoderPool {
+
+    private final BlockingQueue<GzipEncoder> idle;
+    private final int level;
+    private final int bufferSize;
+    private final int stagingSize;
+
+    GzipEncoderPool(int size, int level, int bufferSize, int stagingSize) {
+        this.idle = new ArrayBlockingQueue<>(size);
+        this.level = level;
+        this.bufferSize = bufferSize;
+        this.stagingSize = stagingSize;
+    }
+
+    GzipEncoder acquire() {
+        GzipEncoder encoder = idle.poll();
+        return encoder != null ? encoder : new GzipEncoder(level, bufferSize, stagingSize);
+    }
+
+    void release(GzipEncoder encoder) {
+        encoder.reset();
+        if (!idle.offer(encoder)) {
+            encoder.end();
+        }
+    }
+}
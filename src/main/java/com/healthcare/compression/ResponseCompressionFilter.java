@@ -0,0 +1,137 @@
+package com.healthcare.compression;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.zip.Deflater;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.WebUtils;
+
+// Gzips JSON, NDJSON and SSE responses for clients that accept it, with the level and size threshold
+// from app.compression, using pooled deflaters and buffers. Streamed responses (NDJSON, SSE) complete
+// on a later async dispatch, which is when their gzip trailer is written. Smile is left as it is.
+// Clients that do not accept gzip still pass through, so their responses carry Vary: Accept-Encoding.
+@Component
+public class ResponseCompressionFilter extends OncePerRequestFilter {
+
+    private static final String GZIP_ETAG_SUFFIX = "-gzip";
+
+    private final CompressionProperties properties;
+    private final GzipEncoderPool pool;
+    private final Counter compressed;
+    private final Counter identity;
+    private final Counter rawBytes;
+    private final Counter wireBytes;
+
+    public ResponseCompressionFilter(CompressionProperties properties, MeterRegistry meterRegistry) {
+        if (properties.getLevel() < Deflater.BEST_SPEED || properties.getLevel() > Deflater.BEST_COMPRESSION) {
+            throw new IllegalArgumentException("app.compression.level must be between 1 and 9");
+        }
+        this.properties = properties;
+        this.pool = new GzipEncoderPool(properties.getPoolSize(), properties.getLevel(),
+            (int) properties.getBufferSize().toBytes(), (int) properties.getMinResponseSize().toBytes());
+        this.compressed = Counter.builder("healthcare.compression.responses")
+            .description("Responses to clients accepting gzip, by whether they were compressed")
+            .tag("encoding", "gzip")
+            .register(meterRegistry);
+        this.identity = Counter.builder("healthcare.compression.responses")
+            .description("Responses to clients accepting gzip, by whether they were compressed")
+            .tag("encoding", "identity")
+            .register(meterRegistry);
+        this.rawBytes = Counter.builder("healthcare.compression.bytes")
+            .description("Bytes of gzipped responses before and after compression")
+            .baseUnit("bytes")
+            .tag("stage", "raw")
+            .register(meterRegistry);
+        this.wireBytes = Counter.builder("healthcare.compression.bytes")
+            .description("Bytes of gzipped responses before and after compression")
+            .baseUnit("bytes")
+            .tag("stage", "wire")
+            .register(meterRegistry);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !properties.isEnabled();
+    }
+
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        return false;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+        throws ServletException, IOException {
+        CompressingResponse compressing = isAsyncDispatch(request)
+            ? WebUtils.getNativeResponse(response, CompressingResponse.class)
+            : new CompressingResponse(response, pool, properties.getMimeTypes(), acceptsGzip(request));
+        if (compressing == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        try {
+            filterChain.doFilter(request, isAsyncDispatch(request) ? response : compressing);
+        } catch (IOException | ServletException | RuntimeException e) {
+            compressing.discard();
+            throw e;
+        }
+        if (!isAsyncStarted(request)) {
+            compressing.finish();
+            if (compressing.acceptsGzip()) {
+                record(compressing);
+            }
+        }
+    }
+
+    private void record(CompressingResponse response) {
+        if (response.compressed()) {
+            compressed.increment();
+            rawBytes.increment(response.rawBytes());
+            wireBytes.increment(response.wireBytes());
+        } else {
+            identity.increment();
+        }
+    }
+
+    // The ETag a gzipped response is sent with: a strong tag must differ between content codings
+    public static String gzipETag(String eTag) {
+        int end = eTag.lastIndexOf('"');
+        return end > 0 ? eTag.substring(0, end) + GZIP_ETAG_SUFFIX + eTag.substring(end) : eTag + GZIP_ETAG_SUFFIX;
+    }
+
+    // gzip, or *, without q=0
+    static boolean acceptsGzip(HttpServletRequest request) {
+        for (String header : Collections.list(request.getHeaders(HttpHeaders.ACCEPT_ENCODING))) {
+            for (String coding : header.split(",")) {
+                String[] parts = coding.split(";");
+                String name = parts[0].strip();
+                if ((name.equalsIgnoreCase("gzip") || name.equals("*")) && !refused(parts)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static boolean refused(String[] parts) {
+        for (int i = 1; i < parts.length; i++) {
+            String parameter = parts[i].strip();
+            if (parameter.startsWith("q=")) {
+                try {
+                    return Double.parseDouble(parameter.substring(2)) == 0;
+                } catch (NumberFormatException e) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,26 @@
+package com.healthcare.config;
+
+import org.hibernate.boot.model.FunctionContributions;
+import org.hibernate.boot.model.FunctionContributor;
+import org.hibernate.type.BasicType;
+import org.hibernate.type.StandardBasicTypes;
+
+// HQL functions over JSONB address columns. The rendered SQL must match the expression indexes
+// created in V2__Address_jsonb.sql exactly, otherwise PostgreSQL falls back to a sequential scan.
+// Registered through META-INF/services/org.hibernate.boot.model.FunctionContributor.
+public class AddressFunctionContributor implements FunctionContributor {
+
+    @Override
+    public void contributeFunctions(FunctionContributions functionContributions) {
+        BasicType<String> stringType = functionContributions.getTypeConfiguration()
+            .getBasicTypeRegistry()
+            .resolve(StandardBasicTypes.STRING);
+
+        functionContributions.getFunctionRegistry()
+            .registerPattern("address_city", "lower(?1->>'city')", stringType);
+        functionContributions.getFunctionRegistry()
+            .registerPattern("address_region", "lower(?1->>'region')", stringType);
+        functionContributions.getFunctionRegistry()
+            .registerPattern("address_postal_code", "lower(?1->>'postalCode')", stringType);
+    }
+}
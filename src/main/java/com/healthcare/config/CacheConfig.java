@@ -0,0 +1,11 @@
+package com.healthcare.config;
+
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Configuration;
+
+// In-process caches from spring.cache.*; each instance keeps its own, and CacheInvalidator keeps
+// them coherent across instances
+@Configuration
+@EnableCaching
+public class CacheConfig {
+}
@@ -0,0 +1,71 @@
+package com.healthcare.config;
+
+import com.healthcare.datasource.DataSourceRoutingProperties;
+import com.healthcare.datasource.ReplicaDataSources;
+import com.healthcare.datasource.ReplicaRoutingDataSource;
+import com.healthcare.diagnostics.QueryDiagnosticsListener;
+import com.healthcare.diagnostics.QueryDiagnosticsProperties;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import javax.sql.DataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.transaction.PlatformTransactionManager;
+
+// Spring Boot skips its JDBC DataSource auto-configuration once an R2DBC ConnectionFactory is
+// present, so the blocking pool used by JPA is declared here from the usual spring.datasource.* keys.
+// The JPA transaction manager is primary so @Transactional keeps using it alongside the R2DBC one.
+@Configuration
+@EnableConfigurationProperties(DataSourceProperties.class)
+public class DataSourceConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties dataSourceProperties) {
+        return dataSourceProperties.initializeDataSourceBuilder()
+            .type(HikariDataSource.class)
+            .build();
+    }
+
+    @Bean
+    public ReplicaDataSources replicaDataSources(DataSourceRoutingProperties routingProperties,
+                                                 MeterRegistry meterRegistry) {
+        return new ReplicaDataSources(routingProperties, meterRegistry);
+    }
+
+    // With replicas configured, read-only transactions are routed to them; the lazy proxy defers
+    // the connection lookup until the transaction's read-only flag is known. The diagnostics proxy
+    // sits outermost so it sees every statement regardless of where it is routed.
+    @Bean
+    @Primary
+    public DataSource dataSource(HikariDataSource primaryDataSource, ReplicaDataSources replicaDataSources,
+                                 QueryDiagnosticsProperties diagnosticsProperties, MeterRegistry meterRegistry) {
+        DataSource dataSource = primaryDataSource;
+        if (!replicaDataSources.isEmpty()) {
+            ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource(primaryDataSource, replicaDataSources, meterRegistry);
+            routing.afterPropertiesSet();
+            dataSource = new LazyConnectionDataSourceProxy(routing);
+        }
+        if (!diagnosticsProperties.isEnabled()) {
+            return dataSource;
+        }
+        return ProxyDataSourceBuilder.create(dataSource)
+            .name("diagnostics")
+            .listener(new QueryDiagnosticsListener(diagnosticsProperties, meterRegistry))
+            .build();
+    }
+
+    @Bean
+    @Primary
+    public PlatformTransactionManager transactionManager(EntityManagerFactory entityManagerFactory) {
+        return new JpaTransactionManager(entityManagerFactory);
+    }
+}
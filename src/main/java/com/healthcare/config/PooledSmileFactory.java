@@ -0,0 +1,50 @@
+package com.healthcare.config;
+
+import com.fasterxml.jackson.core.ObjectCodec;
+import com.fasterxml.jackson.core.util.BufferRecycler;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+
+// Smile factory whose generators and parsers borrow their buffers from a fixed set of shared
+// recyclers instead of one per thread. Jackson's default keeps a recycler in a thread local, which
+// never gets reused when every request runs on a fresh virtual thread. BufferRecycler hands out each
+// buffer atomically, so threads sharing a stripe never share a buffer; one that finds its stripe's
+// buffer taken allocates a fresh one, as without pooling.
+public class PooledSmileFactory extends SmileFactory {
+
+    private static final int STRIPES = Integer.highestOneBit(Runtime.getRuntime().availableProcessors() * 2);
+
+    // Buffers are not state worth serializing; a deserialized factory gets its own through readResolve
+    private final transient BufferRecycler[] recyclers;
+
+    public PooledSmileFactory() {
+        this.recyclers = newRecyclers();
+    }
+
+    private PooledSmileFactory(PooledSmileFactory source, ObjectCodec codec) {
+        super(source, codec);
+        this.recyclers = newRecyclers();
+    }
+
+    @Override
+    public BufferRecycler _getBufferRecycler() {
+        return recyclers[(int) Thread.currentThread().threadId() & (STRIPES - 1)];
+    }
+
+    @Override
+    public SmileFactory copy() {
+        return new PooledSmileFactory(this, null);
+    }
+
+    @Override
+    protected Object readResolve() {
+        return new PooledSmileFactory(this, _objectCodec);
+    }
+
+    private static BufferRecycler[] newRecyclers() {
+        BufferRecycler[] recyclers = new BufferRecycler[STRIPES];
+        for (int i = 0; i < STRIPES; i++) {
+            recyclers[i] = new BufferRecycler();
+        }
+        return recyclers;
+    }
+}
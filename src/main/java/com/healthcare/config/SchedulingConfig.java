@@ -0,0 +1,11 @@
+package com.healthcare.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+// Replica health checks, the outbox relay, live feed heartbeats, index rebuilds and maintenance
+// jobs all run from @Scheduled methods on the scheduler Spring Boot configures from spring.task.scheduling.*
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
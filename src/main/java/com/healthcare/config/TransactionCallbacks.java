@@ -0,0 +1,64 @@
+package com.healthcare.config;
+
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+// Work tied to the outcome of the surrounding transaction, for in-memory state and notifications
+// that must only reflect committed writes. Outside a transaction the work runs right away.
+public final class TransactionCallbacks {
+
+    private TransactionCallbacks() {
+    }
+
+    public static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    // Collects into one value per transaction and key, created on first use, so beforeCommit and
+    // afterCommit run once with everything the transaction added rather than once per call
+    @SuppressWarnings("unchecked")
+    public static <T> void collect(Object key, Supplier<T> create, Consumer<T> add,
+                                   Consumer<T> beforeCommit, Consumer<T> afterCommit) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            T value = create.get();
+            add.accept(value);
+            beforeCommit.accept(value);
+            afterCommit.accept(value);
+            return;
+        }
+        T pending = (T) TransactionSynchronizationManager.getResource(key);
+        if (pending == null) {
+            T collected = create.get();
+            TransactionSynchronizationManager.bindResource(key, collected);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void beforeCommit(boolean readOnly) {
+                    beforeCommit.accept(collected);
+                }
+
+                @Override
+                public void afterCommit() {
+                    afterCommit.accept(collected);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(key);
+                }
+            });
+            pending = collected;
+        }
+        add.accept(pending);
+    }
+}
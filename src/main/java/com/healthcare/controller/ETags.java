@@ -0,0 +1,73 @@
+package com.healthcare.controller;
+
+import com.healthcare.compression.ResponseCompressionFilter;
+import com.healthcare.dto.FacilityDTO;
+import com.healthcare.dto.PatientDTO;
+import jakarta.servlet.http.HttpServletResponse;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.WebRequest;
+
+// Strong ETags built from row versions, so conditional requests are answered without
+// serializing or hashing the body. A Smile response carries the tag's Smile variant and a gzipped
+// one its gzip variant, either of which conditional requests may send back instead.
+final class ETags {
+
+    private static final String SMILE_SUFFIX = "-smile";
+
+    private static final Pattern VERSION_TAG = Pattern.compile("\"(\\d+)(?:-\\d+)?(?:-smile)?(?:-gzip)?\"");
+
+    private ETags() {
+    }
+
+    static String of(PatientDTO patient) {
+        return "\"" + patient.getVersion() + "\"";
+    }
+
+    // The patient count is part of the representation but not of the facility's row version
+    static String of(FacilityDTO facility) {
+        return "\"" + facility.getVersion() + "-" + facility.getPatientCount() + "\"";
+    }
+
+    // The same tag for the Smile encoding of the representation
+    static String smile(String eTag) {
+        int end = eTag.lastIndexOf('"');
+        return end > 0 ? eTag.substring(0, end) + SMILE_SUFFIX + eTag.substring(end) : eTag + SMILE_SUFFIX;
+    }
+
+    // Answers If-None-Match with a bodiless 304 when it names any variant of eTag; the 304 then
+    // carries the variant the client holds, and the Vary the full response would have had
+    static boolean checkNotModified(WebRequest request, String eTag) {
+        if (request instanceof NativeWebRequest nativeRequest
+            && nativeRequest.getNativeResponse(HttpServletResponse.class) instanceof HttpServletResponse response) {
+            response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+        }
+        String[] ifNoneMatch = request.getHeaderValues(HttpHeaders.IF_NONE_MATCH);
+        if (ifNoneMatch != null) {
+            List<String> variants = List.of(ResponseCompressionFilter.gzipETag(smile(eTag)), smile(eTag),
+                ResponseCompressionFilter.gzipETag(eTag));
+            for (String variant : variants) {
+                for (String header : ifNoneMatch) {
+                    if (header.contains(variant)) {
+                        return request.checkNotModified(variant);
+                    }
+                }
+            }
+        }
+        return request.checkNotModified(eTag);
+    }
+
+    // Row version required by an If-Match header, or null without a precondition. Only the
+    // version is compared, so a facility update is not refused because its patient count moved.
+    // Weak or malformed tags never match.
+    static Long ifMatchVersion(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.strip().equals("*")) {
+            return null;
+        }
+        Matcher matcher = VERSION_TAG.matcher(ifMatch.strip());
+        return matcher.matches() ? Long.valueOf(matcher.group(1)) : -1L;
+    }
+}
@@ -1,15 +1,30 @@
 package com.healthcare.controller;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.healthcare.dto.AddressFilterDTO;
+import com.healthcare.dto.BatchGetRequestDTO;
+import com.healthcare.dto.BatchGetResponseDTO;
 import com.healthcare.dto.FacilityDTO;
+import com.healthcare.dto.NearestFacilityDTO;
 import com.healthcare.dto.PageRequestDTO;
 import com.healthcare.dto.PatientDTO;
+import com.healthcare.dto.PatientField;
+import com.healthcare.live.LiveFeedHub;
+import com.healthcare.mapper.JsonMergePatch;
 import com.healthcare.model.Facility;
 import com.healthcare.service.FacilityService;
+import jakarta.persistence.EntityNotFoundException;
 import jakarta.validation.Valid;
+import java.util.List;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 @RestController
 @RequestMapping("/api/facilities")
@@ -17,6 +32,7 @@ import org.springframework.web.bind.annotation.*;
 public class FacilityController {
 
     private final FacilityService facilityService;
+    private final LiveFeedHub liveFeedHub;
 
     @GetMapping
     public ResponseEntity<Page<FacilityDTO>> getAllFacilities(
@@ -25,7 +41,10 @@ public class FacilityController {
         @RequestParam(defaultValue = "id") String sortBy,
         @RequestParam(defaultValue = "ASC") String sortDirection,
         @RequestParam(required = false) String search,
-        @RequestParam(required = false) Facility.FacilityType type) {
+        @RequestParam(required = false) Facility.FacilityType type,
+        @RequestParam(required = false) String city,
+        @RequestParam(required = false) String region,
+        @RequestParam(required = false) String postalCode) {
 
         PageRequestDTO pageRequest = new PageRequestDTO();
         pageRequest.setPage(page);
@@ -33,27 +52,62 @@ public class FacilityController {
         pageRequest.setSortBy(sortBy);
         pageRequest.setSortDirection(sortDirection);
 
-        Page<FacilityDTO> facilities = facilityService.getAllFacilities(pageRequest, search, type);
+        AddressFilterDTO addressFilter = new AddressFilterDTO();
+        addressFilter.setCity(city);
+        addressFilter.setRegion(region);
+        addressFilter.setPostalCode(postalCode);
+
+        Page<FacilityDTO> facilities = facilityService.getAllFacilities(pageRequest, search, type, addressFilter);
         return ResponseEntity.ok(facilities);
     }
 
+    @GetMapping("/nearest")
+    public ResponseEntity<List<NearestFacilityDTO>> getNearestFacilities(
+        @RequestParam double lat,
+        @RequestParam double lon,
+        @RequestParam(required = false) Facility.FacilityType type,
+        @RequestParam(defaultValue = "5") int k) {
+
+        return ResponseEntity.ok(facilityService.findNearestFacilities(lat, lon, type, k));
+    }
+
     @GetMapping("/{id}")
-    public ResponseEntity<FacilityDTO> getFacilityById(@PathVariable Long id) {
+    public ResponseEntity<FacilityDTO> getFacilityById(@PathVariable Long id, WebRequest request) {
         FacilityDTO facility = facilityService.getFacilityById(id);
-        return ResponseEntity.ok(facility);
+        String eTag = ETags.of(facility);
+        if (ETags.checkNotModified(request, eTag)) {
+            return null;
+        }
+        return ResponseEntity.ok().eTag(eTag).body(facility);
+    }
+
+    @PostMapping("/batch-get")
+    public ResponseEntity<BatchGetResponseDTO<FacilityDTO>> getFacilitiesByIds(@Valid @RequestBody BatchGetRequestDTO request) {
+        return ResponseEntity.ok(facilityService.getFacilitiesByIds(request.getIds()));
     }
 
     @PostMapping
     public ResponseEntity<FacilityDTO> createFacility(@Valid @RequestBody FacilityDTO facilityDTO) {
         FacilityDTO created = facilityService.createFacility(facilityDTO);
-        return ResponseEntity.ok(created);
+        return ResponseEntity.ok().eTag(ETags.of(created)).body(created);
     }
 
     @PutMapping("/{id}")
     public ResponseEntity<FacilityDTO> updateFacility(@PathVariable Long id,
+        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
         @Valid @RequestBody FacilityDTO facilityDTO) {
+        facilityDTO.setVersion(ETags.ifMatchVersion(ifMatch));
         FacilityDTO updated = facilityService.updateFacility(id, facilityDTO);
-        return ResponseEntity.ok(updated);
+        return ResponseEntity.ok().eTag(ETags.of(updated)).body(updated);
+    }
+
+    // JSON Merge Patch (RFC 7396): only the members sent are changed
+    @PatchMapping(value = "/{id}", consumes = {JsonMergePatch.MEDIA_TYPE, MediaType.APPLICATION_JSON_VALUE})
+    public ResponseEntity<FacilityDTO> patchFacility(@PathVariable Long id,
+        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+        @RequestBody JsonNode patch) {
+        FacilityDTO patched = facilityService.patchFacility(id, patch, ETags.ifMatchVersion(ifMatch));
+        return ResponseEntity.ok().eTag(ETags.of(patched)).body(patched);
     }
 
     @DeleteMapping("/{id}")
@@ -62,15 +116,15 @@ public class FacilityController {
         return ResponseEntity.noContent().build();
     }
 
-    // Add this method to FacilityController.java
     @GetMapping("/{facilityId}/patients")
-    public ResponseEntity<Page<PatientDTO>> getPatientsByFacility(
+    public ResponseEntity<Page<?>> getPatientsByFacility(
         @PathVariable Long facilityId,
         @RequestParam(defaultValue = "0") int page,
         @RequestParam(defaultValue = "20") int size,
         @RequestParam(defaultValue = "id") String sortBy,
         @RequestParam(defaultValue = "ASC") String sortDirection,
-        @RequestParam(required = false) String search) {
+        @RequestParam(required = false) String search,
+        @RequestParam(required = false) String fields) {
 
         PageRequestDTO pageRequest = new PageRequestDTO();
         pageRequest.setPage(page);
@@ -78,7 +132,28 @@ public class FacilityController {
         pageRequest.setSortBy(sortBy);
         pageRequest.setSortDirection(sortDirection);
 
+        if (fields != null) {
+            return ResponseEntity.ok(facilityService.getPatientsByFacility(facilityId, pageRequest, search,
+                PatientField.parse(fields)));
+        }
         Page<PatientDTO> patients = facilityService.getPatientsByFacility(facilityId, pageRequest, search);
         return ResponseEntity.ok(patients);
     }
+
+    // Server-sent events for this facility's admissions, transfers in and out, updates and removals,
+    // replacing polling of the listing above
+    @GetMapping(value = "/{facilityId}/patients/live", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> subscribeToPatientChanges(@PathVariable Long facilityId) {
+        try {
+            facilityService.getFacilityById(facilityId);
+        } catch (EntityNotFoundException e) {
+            // Without a body: the error handler's JSON is not acceptable to an event-stream client
+            return ResponseEntity.notFound().build();
+        }
+        return liveFeedHub.subscribe(facilityId)
+            .map(ResponseEntity::ok)
+            .orElseGet(() -> ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "30")
+                .build());
+    }
 }
\ No newline at end of file
@@ -0,0 +1,39 @@
+package com.healthcare.controller;
+
+import com.healthcare.config.SmileConfig;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.json.AbstractJackson2HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+// Bodies written by Jackson are JSON or Smile depending on Accept, so caches are told to key on it,
+// and a Smile body takes the Smile variant of its ETag: the two encodings of a version are
+// different representations and must not validate each other's cached bytes.
+@RestControllerAdvice
+public class NegotiatedResponseAdvice implements ResponseBodyAdvice<Object> {
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return AbstractJackson2HttpMessageConverter.class.isAssignableFrom(converterType);
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+                                  Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        HttpHeaders headers = response.getHeaders();
+        if (!headers.getVary().contains(HttpHeaders.ACCEPT)) {
+            headers.add(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+        }
+        String eTag = headers.getETag();
+        if (eTag != null && SmileConfig.APPLICATION_SMILE.isCompatibleWith(selectedContentType)) {
+            headers.setETag(ETags.smile(eTag));
+        }
+        return body;
+    }
+}
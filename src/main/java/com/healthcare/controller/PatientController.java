@@ -1,14 +1,38 @@
 package com.healthcare.controller;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.healthcare.config.SmileConfig;
+import com.healthcare.dto.BatchGetRequestDTO;
+import com.healthcare.dto.BatchGetResponseDTO;
+import com.healthcare.dto.PatientChangeDTO;
 import com.healthcare.dto.PatientDTO;
+import com.healthcare.dto.PatientField;
 import com.healthcare.dto.PageRequestDTO;
+import com.healthcare.dto.PatientImportDTO;
 import com.healthcare.dto.PatientSearchDTO;
+import com.healthcare.live.LiveFeedHub;
+import com.healthcare.mapper.JsonMergePatch;
 import com.healthcare.service.PatientService;
+import com.healthcare.service.ReactivePatientService;
 import jakarta.validation.Valid;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.util.StreamUtils;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import reactor.core.publisher.Flux;
 
 
 @RestController
@@ -17,14 +41,19 @@ import org.springframework.web.bind.annotation.*;
 public class PatientController {
 
     private final PatientService patientService;
+    private final ReactivePatientService reactivePatientService;
+    private final LiveFeedHub liveFeedHub;
+    private final MappingJackson2SmileHttpMessageConverter smileConverter;
 
+    // fields=id,firstName,medicalRecordNumber returns just those fields, read without the other columns
     @GetMapping
-    public ResponseEntity<Page<PatientDTO>> getAllPatients(
+    public ResponseEntity<Page<?>> getAllPatients(
         @RequestParam(defaultValue = "0") int page,
         @RequestParam(defaultValue = "20") int size,
         @RequestParam(defaultValue = "id") String sortBy,
         @RequestParam(defaultValue = "ASC") String sortDirection,
-        @RequestParam(required = false) String search) {
+        @RequestParam(required = false) String search,
+        @RequestParam(required = false) String fields) {
 
         PageRequestDTO pageRequest = new PageRequestDTO();
         pageRequest.setPage(page);
@@ -32,27 +61,107 @@ public class PatientController {
         pageRequest.setSortBy(sortBy);
         pageRequest.setSortDirection(sortDirection);
 
+        if (fields != null) {
+            return ResponseEntity.ok(patientService.getAllPatients(pageRequest, search, PatientField.parse(fields)));
+        }
         Page<PatientDTO> patients = patientService.getAllPatients(pageRequest, search);
         return ResponseEntity.ok(patients);
     }
 
+    // Creates, updates and soft deletes in (updated_at, id) order, streamed one JSON object per line
+    // over R2DBC. Resume with the cursor of the last line processed; fewer lines than limit means
+    // the client has caught up. Both encodings of the feed vary by Accept.
+    @GetMapping(value = "/changes", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<Flux<PatientChangeDTO>> getChanges(
+        @RequestParam(required = false) String since,
+        @RequestParam(defaultValue = "10000") int limit) {
+        return ResponseEntity.ok()
+            .varyBy(HttpHeaders.ACCEPT)
+            .body(reactivePatientService.getChanges(since, limit));
+    }
+
+    // The same feed as Smile values back to back, for clients that read it with ObjectReader.readValues.
+    // One generator writes the whole response, so field names are sent once rather than per change.
+    // The lower quality keeps NDJSON for clients that accept anything.
+    @GetMapping(value = "/changes", produces = SmileConfig.APPLICATION_SMILE_VALUE + ";q=0.9")
+    public ResponseEntity<StreamingResponseBody> getChangesAsSmile(
+        @RequestParam(required = false) String since,
+        @RequestParam(defaultValue = "10000") int limit) {
+        Flux<PatientChangeDTO> changes = reactivePatientService.getChanges(since, limit);
+        ObjectWriter writer = smileConverter.getObjectMapper().writerFor(PatientChangeDTO.class);
+        return ResponseEntity.ok()
+            .contentType(SmileConfig.APPLICATION_SMILE)
+            .varyBy(HttpHeaders.ACCEPT)
+            .body(outputStream -> {
+                // Closing the stream cancels the query if the client goes away mid-response
+                try (Stream<PatientChangeDTO> stream = changes.toStream();
+                     SequenceWriter sequence = writer.writeValues(StreamUtils.nonClosing(outputStream))) {
+                    Iterator<PatientChangeDTO> iterator = stream.iterator();
+                    while (iterator.hasNext()) {
+                        sequence.write(iterator.next());
+                    }
+                }
+            });
+    }
+
+    // Server-sent events for patient changes at every facility, as they are relayed
+    @GetMapping(value = "/live", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> subscribeToChanges() {
+        return liveFeedHub.subscribe(null)
+            .map(ResponseEntity::ok)
+            .orElseGet(() -> ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "30")
+                .build());
+    }
+
     @GetMapping("/{id}")
-    public ResponseEntity<PatientDTO> getPatientById(@PathVariable Long id) {
+    public ResponseEntity<PatientDTO> getPatientById(@PathVariable Long id, WebRequest request) {
         PatientDTO patient = patientService.getPatientById(id);
-        return ResponseEntity.ok(patient);
+        String eTag = ETags.of(patient);
+        if (ETags.checkNotModified(request, eTag)) {
+            return null;
+        }
+        return ResponseEntity.ok().eTag(eTag).body(patient);
+    }
+
+    @PostMapping("/batch-get")
+    public ResponseEntity<BatchGetResponseDTO<?>> getPatientsByIds(@Valid @RequestBody BatchGetRequestDTO request,
+        @RequestParam(required = false) String fields) {
+        if (fields != null) {
+            return ResponseEntity.ok(patientService.getPatientsByIds(request.getIds(), PatientField.parse(fields)));
+        }
+        BatchGetResponseDTO<PatientDTO> patients = patientService.getPatientsByIds(request.getIds());
+        return ResponseEntity.ok(patients);
     }
 
     @PostMapping
     public ResponseEntity<PatientDTO> createPatient(@Valid @RequestBody PatientDTO patientDTO) {
         PatientDTO createdPatient = patientService.createPatient(patientDTO);
-        return ResponseEntity.ok(createdPatient);
+        return ResponseEntity.ok().eTag(ETags.of(createdPatient)).body(createdPatient);
+    }
+
+    @PostMapping("/import")
+    public ResponseEntity<List<PatientDTO>> importPatients(@Valid @RequestBody PatientImportDTO importDTO) {
+        List<PatientDTO> importedPatients = patientService.importPatients(importDTO.getPatients());
+        return ResponseEntity.ok(importedPatients);
     }
 
     @PutMapping("/{id}")
     public ResponseEntity<PatientDTO> updatePatient(@PathVariable Long id,
+        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
         @Valid @RequestBody PatientDTO patientDTO) {
+        patientDTO.setVersion(ETags.ifMatchVersion(ifMatch));
         PatientDTO updatedPatient = patientService.updatePatient(id, patientDTO);
-        return ResponseEntity.ok(updatedPatient);
+        return ResponseEntity.ok().eTag(ETags.of(updatedPatient)).body(updatedPatient);
+    }
+
+    // JSON Merge Patch (RFC 7396): only the members sent are changed
+    @PatchMapping(value = "/{id}", consumes = {JsonMergePatch.MEDIA_TYPE, MediaType.APPLICATION_JSON_VALUE})
+    public ResponseEntity<PatientDTO> patchPatient(@PathVariable Long id,
+        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+        @RequestBody JsonNode patch) {
+        PatientDTO patchedPatient = patientService.patchPatient(id, patch, ETags.ifMatchVersion(ifMatch));
+        return ResponseEntity.ok().eTag(ETags.of(patchedPatient)).body(patchedPatient);
     }
 
     @DeleteMapping("/{id}")
@@ -61,14 +170,21 @@ public class PatientController {
         return ResponseEntity.noContent().build();
     }
 
+    @PostMapping("/{id}/restore")
+    public ResponseEntity<PatientDTO> restorePatient(@PathVariable Long id) {
+        PatientDTO restoredPatient = patientService.restorePatient(id);
+        return ResponseEntity.ok(restoredPatient);
+    }
+
     @GetMapping("/facility/{facilityId}")
-    public ResponseEntity<Page<PatientDTO>> getPatientsByFacility(
+    public ResponseEntity<Page<?>> getPatientsByFacility(
         @PathVariable Long facilityId,
         @RequestParam(defaultValue = "0") int page,
         @RequestParam(defaultValue = "20") int size,
         @RequestParam(defaultValue = "id") String sortBy,
         @RequestParam(defaultValue = "ASC") String sortDirection,
-        @RequestParam(required = false) String search) {
+        @RequestParam(required = false) String search,
+        @RequestParam(required = false) String fields) {
 
         PageRequestDTO pageRequest = new PageRequestDTO();
         pageRequest.setPage(page);
@@ -76,19 +192,27 @@ public class PatientController {
         pageRequest.setSortBy(sortBy);
         pageRequest.setSortDirection(sortDirection);
 
+        if (fields != null) {
+            return ResponseEntity.ok(patientService.getPatientsByFacility(facilityId, pageRequest, search,
+                PatientField.parse(fields)));
+        }
         Page<PatientDTO> patients = patientService.getPatientsByFacility(facilityId, pageRequest, search);
         return ResponseEntity.ok(patients);
     }
 
     @GetMapping("/search")
-    public ResponseEntity<Page<PatientDTO>> searchPatients(
+    public ResponseEntity<Page<?>> searchPatients(
         @RequestParam(defaultValue = "0") int page,
         @RequestParam(defaultValue = "20") int size,
         @RequestParam(required = false) String firstName,
         @RequestParam(required = false) String lastName,
         @RequestParam(required = false) String email,
         @RequestParam(required = false) Long facilityId,
-        @RequestParam(required = false) String medicalRecordNumber) {
+        @RequestParam(required = false) String medicalRecordNumber,
+        @RequestParam(required = false) String city,
+        @RequestParam(required = false) String region,
+        @RequestParam(required = false) String postalCode,
+        @RequestParam(required = false) String fields) {
 
         PageRequestDTO pageRequest = new PageRequestDTO();
         pageRequest.setPage(page);
@@ -100,7 +224,13 @@ public class PatientController {
         searchDTO.setEmail(email);
         searchDTO.setFacilityId(facilityId);
         searchDTO.setMedicalRecordNumber(medicalRecordNumber);
+        searchDTO.getAddress().setCity(city);
+        searchDTO.getAddress().setRegion(region);
+        searchDTO.getAddress().setPostalCode(postalCode);
 
+        if (fields != null) {
+            return ResponseEntity.ok(patientService.searchPatients(pageRequest, searchDTO, PatientField.parse(fields)));
+        }
         Page<PatientDTO> patients = patientService.searchPatients(pageRequest, searchDTO);
         return ResponseEntity.ok(patients);
     }
@@ -0,0 +1,38 @@
+package com.healthcare.controller;
+
+import com.healthcare.dto.PatientDTO;
+import com.healthcare.service.ReactivePatientService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+// Read-only patient endpoints backed by R2DBC. Lists are returned as a JSON array, or streamed
+// row by row when the client explicitly accepts application/x-ndjson.
+@RestController
+@RequestMapping("/api/reactive/patients")
+@RequiredArgsConstructor
+public class ReactivePatientController {
+
+    private final ReactivePatientService reactivePatientService;
+
+    @GetMapping
+    public Flux<PatientDTO> getPatients(
+        @RequestParam(defaultValue = "0") int page,
+        @RequestParam(defaultValue = "20") int size) {
+        return reactivePatientService.getPatients(page, size);
+    }
+
+    @GetMapping("/{id}")
+    public Mono<PatientDTO> getPatientById(@PathVariable Long id) {
+        return reactivePatientService.getPatientById(id);
+    }
+
+    @GetMapping("/facility/{facilityId}")
+    public Flux<PatientDTO> getPatientsByFacility(
+        @PathVariable Long facilityId,
+        @RequestParam(defaultValue = "0") int page,
+        @RequestParam(defaultValue = "20") int size) {
+        return reactivePatientService.getPatientsByFacility(facilityId, page, size);
+    }
+}
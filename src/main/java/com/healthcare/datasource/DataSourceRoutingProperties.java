@@ -0,0 +1,35 @@
+package com.healthcare.datasource;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties("app.datasource")
+public class DataSourceRoutingProperties {
+
+    // Read replicas; when empty every statement goes to spring.datasource
+    private List<Replica> replicas = new ArrayList<>();
+
+    // Replicas lagging further behind than this are skipped until they catch up
+    private Duration maxReplicaLag = Duration.ofSeconds(5);
+
+    // After a write, reads from the same client stay on the primary for this long
+    private Duration readYourWritesWindow = Duration.ofSeconds(5);
+
+    // Must return the replica's lag in seconds. The default reports 0 when all received WAL
+    // has been replayed, so an idle primary does not look like a lagging replica.
+    private String replicaLagQuery = "SELECT CASE WHEN NOT pg_is_in_recovery() " +
+        "OR pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0 " +
+        "ELSE COALESCE(EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()), 0) END";
+
+    @Data
+    public static class Replica {
+        private String url;
+        private String username;
+        private String password;
+        private int maximumPoolSize = 10;
+    }
+}
@@ -0,0 +1,194 @@
+package com.healthcare.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.locks.ReentrantLock;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.context.SmartLifecycle;
+
+// Receives NOTIFY messages on one channel. LISTEN needs a session that stays open, so this holds a
+// dedicated connection outside the pool, read by one platform thread named after the application
+// name it connects with. Notifications arriving within the coalesce window are handed over as one
+// batch, in arrival order. Nothing sent while the connection is down is ever delivered, so
+// subclasses are told about every (re)connect and must treat a reconnect as possibly missed messages.
+@Slf4j
+public abstract class NotificationListener implements SmartLifecycle {
+
+    private final HikariDataSource primaryDataSource;
+    private final String applicationName;
+    private volatile boolean running;
+    private volatile boolean listening;
+    private volatile Connection connection;
+    // Not a monitor: stop() waits for the listener thread while holding it
+    private final ReentrantLock lifecycleLock = new ReentrantLock();
+    private Thread thread;
+
+    // Connects with the primary's URL and credentials but not through its pool
+    protected NotificationListener(HikariDataSource primaryDataSource, String applicationName) {
+        this.primaryDataSource = primaryDataSource;
+        this.applicationName = applicationName;
+    }
+
+    protected abstract boolean isEnabled();
+
+    protected abstract String channel();
+
+    protected abstract Duration coalesceWindow();
+
+    // How long to wait for notifications before checking the connection is still alive
+    protected abstract Duration idleCheckInterval();
+
+    protected abstract Duration reconnectDelay();
+
+    // Called on the listener thread once LISTEN is in place; reconnected is false the first time
+    protected abstract void connected(boolean reconnected);
+
+    // Called on the listener thread with the payloads of one coalesced batch
+    protected abstract void received(List<String> payloads);
+
+    @Override
+    public void start() {
+        lifecycleLock.lock();
+        try {
+            if (!isEnabled() || running) {
+                return;
+            }
+            running = true;
+            thread = Thread.ofPlatform().name(applicationName).daemon().start(this::run);
+        } finally {
+            lifecycleLock.unlock();
+        }
+    }
+
+    @Override
+    public void stop() {
+        lifecycleLock.lock();
+        try {
+            running = false;
+            closeConnection();
+            if (thread != null) {
+                // Wakes it from a reconnect pause
+                thread.interrupt();
+                try {
+                    thread.join(idleCheckInterval().toMillis());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                thread = null;
+            }
+        } finally {
+            lifecycleLock.unlock();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    public boolean isListening() {
+        return listening;
+    }
+
+    private void run() {
+        boolean connectedBefore = false;
+        while (running) {
+            try (Connection listenerConnection = connect()) {
+                connection = listenerConnection;
+                try (Statement statement = listenerConnection.createStatement()) {
+                    statement.execute("LISTEN " + channel());
+                }
+                listening = true;
+                connected(connectedBefore);
+                connectedBefore = true;
+                log.debug("Listening for notifications on {}", channel());
+                receive(listenerConnection);
+            } catch (SQLException | RuntimeException e) {
+                if (running) {
+                    log.warn("Listener on {} lost its connection; reconnecting in {}", channel(), reconnectDelay(), e);
+                }
+            } finally {
+                listening = false;
+                connection = null;
+            }
+            pause();
+        }
+    }
+
+    private Connection connect() throws SQLException {
+        Properties connectionProperties = new Properties();
+        connectionProperties.setProperty("user", primaryDataSource.getUsername());
+        if (primaryDataSource.getPassword() != null) {
+            connectionProperties.setProperty("password", primaryDataSource.getPassword());
+        }
+        connectionProperties.setProperty("ApplicationName", applicationName);
+        connectionProperties.setProperty("tcpKeepAlive", "true");
+        Connection listenerConnection = DriverManager.getConnection(primaryDataSource.getJdbcUrl(), connectionProperties);
+        listenerConnection.setAutoCommit(true);
+        return listenerConnection;
+    }
+
+    private void receive(Connection listenerConnection) throws SQLException {
+        PGConnection pgConnection = listenerConnection.unwrap(PGConnection.class);
+        int idleMillis = Math.toIntExact(idleCheckInterval().toMillis());
+        while (running) {
+            PGNotification[] received = pgConnection.getNotifications(idleMillis);
+            if (received == null || received.length == 0) {
+                // Nothing for a while: make sure the connection is still there
+                if (!listenerConnection.isValid(Math.max(1, idleMillis / 1000))) {
+                    throw new SQLException("Listener connection on " + channel() + " is no longer valid");
+                }
+                continue;
+            }
+            List<String> payloads = new ArrayList<>();
+            collect(received, payloads);
+            long deadline = System.nanoTime() + coalesceWindow().toNanos();
+            long remainingMillis;
+            while ((remainingMillis = (deadline - System.nanoTime()) / 1_000_000) > 0) {
+                collect(pgConnection.getNotifications(Math.toIntExact(remainingMillis)), payloads);
+            }
+            received(payloads);
+        }
+    }
+
+    private static void collect(PGNotification[] received, List<String> payloads) {
+        if (received == null) {
+            return;
+        }
+        for (PGNotification notification : received) {
+            payloads.add(notification.getParameter());
+        }
+    }
+
+    private void pause() {
+        if (!running) {
+            return;
+        }
+        try {
+            Thread.sleep(reconnectDelay());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            running = false;
+        }
+    }
+
+    private void closeConnection() {
+        Connection listenerConnection = connection;
+        if (listenerConnection != null) {
+            try {
+                listenerConnection.close();
+            } catch (SQLException e) {
+                log.debug("Closing the listener connection on {} failed", channel(), e);
+            }
+        }
+    }
+}
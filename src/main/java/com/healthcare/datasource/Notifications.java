@@ -0,0 +1,32 @@
+package com.healthcare.datasource;
+
+import java.nio.charset.StandardCharsets;
+import java.util.function.Supplier;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+// Sends NOTIFY messages for NotificationListener subclasses on other instances to receive. Inside a
+// transaction the message goes out on its connection, so PostgreSQL delivers it on commit only.
+public final class Notifications {
+
+    // NOTIFY payloads must stay under 8000 bytes
+    private static final int MAX_PAYLOAD_BYTES = 7_900;
+
+    private Notifications() {
+    }
+
+    // Sends a payload that always fits, such as a few ids
+    public static void send(JdbcTemplate jdbcTemplate, String channel, String payload) {
+        send(jdbcTemplate, channel, payload, () -> {
+            throw new IllegalArgumentException(
+                "Notification on " + channel + " exceeds " + MAX_PAYLOAD_BYTES + " bytes");
+        });
+    }
+
+    // Sends the payload, or the smaller one when it does not fit in a notification
+    public static void send(JdbcTemplate jdbcTemplate, String channel, String payload, Supplier<String> smaller) {
+        if (payload.getBytes(StandardCharsets.UTF_8).length > MAX_PAYLOAD_BYTES) {
+            payload = smaller.get();
+        }
+        jdbcTemplate.queryForList("SELECT pg_notify(?, ?)", channel, payload);
+    }
+}
@@ -0,0 +1,52 @@
+package com.healthcare.datasource;
+
+import java.time.Duration;
+import java.util.function.LongConsumer;
+
+// Per-request read-your-writes state. A client that wrote recently is pinned to the primary until
+// the window expires; ReadYourWritesFilter carries the deadline between requests in a cookie.
+public final class ReadYourWrites {
+
+    private static final ThreadLocal<Session> CURRENT = new ThreadLocal<>();
+
+    private ReadYourWrites() {
+    }
+
+    static void begin(long pinnedUntilMillis, Duration window, LongConsumer onWrite) {
+        CURRENT.set(new Session(pinnedUntilMillis, window.toMillis(), onWrite));
+    }
+
+    static void end() {
+        CURRENT.remove();
+    }
+
+    public static boolean isPinned() {
+        Session session = CURRENT.get();
+        return session != null && session.pinnedUntilMillis > System.currentTimeMillis();
+    }
+
+    static void recordWrite() {
+        Session session = CURRENT.get();
+        if (session == null) {
+            return;
+        }
+        session.pinnedUntilMillis = System.currentTimeMillis() + session.windowMillis;
+        if (!session.notified) {
+            session.notified = true;
+            session.onWrite.accept(session.pinnedUntilMillis);
+        }
+    }
+
+    private static final class Session {
+        private final long windowMillis;
+        private final LongConsumer onWrite;
+        private long pinnedUntilMillis;
+        private boolean notified;
+
+        private Session(long pinnedUntilMillis, long windowMillis, LongConsumer onWrite) {
+            this.pinnedUntilMillis = pinnedUntilMillis;
+            this.windowMillis = windowMillis;
+            this.onWrite = onWrite;
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.healthcare.datasource;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+// Pins a client to the primary for a short window after it writes, so it reads its own changes
+// even when the replicas have not replayed them yet.
+@Component
+@RequiredArgsConstructor
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+
+    static final String COOKIE_NAME = "HC_PRIMARY_UNTIL";
+
+    private final DataSourceRoutingProperties properties;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return properties.getReplicas().isEmpty();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+        throws ServletException, IOException {
+        ReadYourWrites.begin(pinnedUntil(request), properties.getReadYourWritesWindow(),
+            until -> response.addCookie(pinCookie(request, until)));
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            ReadYourWrites.end();
+        }
+    }
+
+    private long pinnedUntil(HttpServletRequest request) {
+        if (request.getCookies() == null) {
+            return 0;
+        }
+        long latest = System.currentTimeMillis() + properties.getReadYourWritesWindow().toMillis();
+        for (Cookie cookie : request.getCookies()) {
+            if (COOKIE_NAME.equals(cookie.getName())) {
+                try {
+                    // Never honour a deadline further out than one window from now
+                    return Math.min(Long.parseLong(cookie.getValue()), latest);
+                } catch (NumberFormatException e) {
+                    return 0;
+                }
+            }
+        }
+        return 0;
+    }
+
+    private Cookie pinCookie(HttpServletRequest request, long until) {
+        Cookie cookie = new Cookie(COOKIE_NAME, Long.toString(until));
+        cookie.setPath("/");
+        cookie.setHttpOnly(true);
+        cookie.setSecure(request.isSecure());
+        cookie.setMaxAge((int) Math.max(1, properties.getReadYourWritesWindow().toSeconds()));
+        return cookie;
+    }
+}
@@ -0,0 +1,117 @@
+package com.healthcare.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.sql.DataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+// Owns the replica connection pools and tracks which replicas are within the allowed lag.
+// A replica only receives reads after its first successful lag check.
+@Slf4j
+public class ReplicaDataSources implements DisposableBean {
+
+    private static final int LAG_QUERY_TIMEOUT_SECONDS = 2;
+
+    private final DataSourceRoutingProperties properties;
+    private final Map<String, HikariDataSource> replicas = new LinkedHashMap<>();
+    private final Map<String, Double> lagSeconds = new ConcurrentHashMap<>();
+    private final AtomicInteger next = new AtomicInteger();
+    private volatile List<String> healthy = List.of();
+
+    public ReplicaDataSources(DataSourceRoutingProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+
+        List<DataSourceRoutingProperties.Replica> configured = properties.getReplicas();
+        for (int i = 0; i < configured.size(); i++) {
+            String name = "replica-" + (i + 1);
+            replicas.put(name, createPool(name, configured.get(i), meterRegistry));
+            lagSeconds.put(name, Double.NaN);
+            Gauge.builder("healthcare.datasource.replica.lag", lagSeconds, lags -> lags.get(name))
+                .tag("replica", name)
+                .baseUnit("seconds")
+                .register(meterRegistry);
+        }
+    }
+
+    public boolean isEmpty() {
+        return replicas.isEmpty();
+    }
+
+    public Map<String, ? extends DataSource> all() {
+        return replicas;
+    }
+
+    // Round-robin over the replicas that passed the last lag check, or null when there are none
+    public String nextHealthy() {
+        List<String> candidates = healthy;
+        if (candidates.isEmpty()) {
+            return null;
+        }
+        return candidates.get(Math.floorMod(next.getAndIncrement(), candidates.size()));
+    }
+
+    @Scheduled(fixedDelayString = "${app.datasource.lag-check-interval:PT2S}")
+    public void refresh() {
+        if (replicas.isEmpty()) {
+            return;
+        }
+        double maxLag = properties.getMaxReplicaLag().toMillis() / 1000.0;
+        List<String> nowHealthy = new ArrayList<>();
+
+        replicas.forEach((name, dataSource) -> {
+            double lag = measureLag(name, dataSource);
+            lagSeconds.put(name, lag);
+            if (lag <= maxLag) {
+                nowHealthy.add(name);
+            }
+        });
+
+        if (!nowHealthy.equals(healthy)) {
+            log.info("Healthy read replicas changed from {} to {}", healthy, nowHealthy);
+        }
+        healthy = List.copyOf(nowHealthy);
+    }
+
+    private double measureLag(String name, DataSource dataSource) {
+        try {
+            JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+            jdbcTemplate.setQueryTimeout(LAG_QUERY_TIMEOUT_SECONDS);
+            Double lag = jdbcTemplate.queryForObject(properties.getReplicaLagQuery(), Double.class);
+            return lag != null ? lag : Double.POSITIVE_INFINITY;
+        } catch (Exception e) {
+            log.warn("Lag check failed for {}: {}", name, e.getMessage());
+            return Double.POSITIVE_INFINITY;
+        }
+    }
+
+    private static HikariDataSource createPool(String name, DataSourceRoutingProperties.Replica replica,
+                                               MeterRegistry meterRegistry) {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setPoolName(name);
+        dataSource.setJdbcUrl(replica.getUrl());
+        dataSource.setUsername(replica.getUsername());
+        dataSource.setPassword(replica.getPassword());
+        dataSource.setMaximumPoolSize(replica.getMaximumPoolSize());
+        dataSource.setReadOnly(true);
+        // Do not fail startup when a replica is down; the lag check keeps it out of rotation
+        dataSource.setInitializationFailTimeout(-1);
+        dataSource.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+        return dataSource;
+    }
+
+    @Override
+    public void destroy() {
+        replicas.values().forEach(HikariDataSource::close);
+    }
+}
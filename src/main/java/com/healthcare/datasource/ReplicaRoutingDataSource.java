@@ -0,0 +1,64 @@
+package com.healthcare.datasource;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.sql.DataSource;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+// Sends connections for read-only transactions to a healthy replica and everything else to the
+// primary. Must sit behind a LazyConnectionDataSourceProxy so the connection is requested after
+// the transaction's read-only flag has been bound.
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    static final String PRIMARY = "primary";
+
+    private final DataSource primary;
+    private final ReplicaDataSources replicas;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Counter> routingCounters = new ConcurrentHashMap<>();
+
+    public ReplicaRoutingDataSource(DataSource primary, ReplicaDataSources replicas, MeterRegistry meterRegistry) {
+        this.primary = primary;
+        this.replicas = replicas;
+        this.meterRegistry = meterRegistry;
+    }
+
+    // Targets are bound here rather than in the constructor, which must not call overridable setters
+    @Override
+    public void afterPropertiesSet() {
+        Map<Object, Object> targets = new HashMap<>(replicas.all());
+        targets.put(PRIMARY, primary);
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+        setLenientFallback(false);
+        super.afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+            return route(PRIMARY, "no_transaction");
+        }
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            ReadYourWrites.recordWrite();
+            return route(PRIMARY, "write");
+        }
+        if (ReadYourWrites.isPinned()) {
+            return route(PRIMARY, "read_your_writes");
+        }
+        String replica = replicas.nextHealthy();
+        return replica != null ? route(replica, "read_only") : route(PRIMARY, "no_healthy_replica");
+    }
+
+    private String route(String target, String reason) {
+        routingCounters.computeIfAbsent(target + '/' + reason, key -> Counter.builder("healthcare.datasource.routing")
+            .tag("target", target)
+            .tag("reason", reason)
+            .register(meterRegistry)).increment();
+        return target;
+    }
+}
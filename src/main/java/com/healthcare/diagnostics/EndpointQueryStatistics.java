@@ -0,0 +1,69 @@
+package com.healthcare.diagnostics;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import org.springframework.stereotype.Component;
+
+// Per-endpoint aggregates of the request captures; keyed by method and URI pattern so the map
+// stays bounded by the number of mappings.
+@Component
+public class EndpointQueryStatistics {
+
+    private final Map<String, Aggregate> endpoints = new ConcurrentHashMap<>();
+
+    void record(String endpoint, QueryCapture capture, Map<String, Integer> nPlusOneSuspects) {
+        Aggregate aggregate = endpoints.computeIfAbsent(endpoint, key -> new Aggregate());
+        aggregate.requests.increment();
+        aggregate.statements.add(capture.statements());
+        aggregate.maxStatements.accumulate(capture.statements());
+        aggregate.dbTimeNanos.add(capture.dbTime().toNanos());
+        capture.entityLoads().forEach((entity, count) ->
+            aggregate.entityLoads.computeIfAbsent(entity, key -> new LongAdder()).add(count));
+        if (!nPlusOneSuspects.isEmpty()) {
+            aggregate.nPlusOneRequests.increment();
+            aggregate.lastNPlusOneSuspect.set(nPlusOneSuspects.keySet().iterator().next());
+        }
+    }
+
+    public Map<String, Map<String, Object>> snapshot() {
+        Map<String, Map<String, Object>> result = new TreeMap<>();
+        endpoints.forEach((endpoint, aggregate) -> result.put(endpoint, aggregate.toMap()));
+        return result;
+    }
+
+    public void reset() {
+        endpoints.clear();
+    }
+
+    private static final class Aggregate {
+        private final LongAdder requests = new LongAdder();
+        private final LongAdder statements = new LongAdder();
+        private final LongAccumulator maxStatements = new LongAccumulator(Math::max, 0);
+        private final LongAdder dbTimeNanos = new LongAdder();
+        private final LongAdder nPlusOneRequests = new LongAdder();
+        private final Map<String, LongAdder> entityLoads = new ConcurrentHashMap<>();
+        private final AtomicReference<String> lastNPlusOneSuspect = new AtomicReference<>();
+
+        private Map<String, Object> toMap() {
+            long count = Math.max(1, requests.sum());
+            Map<String, Long> loads = new TreeMap<>();
+            entityLoads.forEach((entity, adder) -> loads.put(entity, adder.sum()));
+
+            Map<String, Object> map = new LinkedHashMap<>();
+            map.put("requests", requests.sum());
+            map.put("statements", statements.sum());
+            map.put("avgStatements", (double) statements.sum() / count);
+            map.put("maxStatements", maxStatements.get());
+            map.put("avgDbTimeMillis", dbTimeNanos.sum() / 1e6 / count);
+            map.put("entityLoads", loads);
+            map.put("nPlusOneRequests", nPlusOneRequests.sum());
+            map.put("lastNPlusOneSuspect", lastNPlusOneSuspect.get());
+            return map;
+        }
+    }
+}
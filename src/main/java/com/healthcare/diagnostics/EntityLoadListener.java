@@ -0,0 +1,37 @@
+package com.healthcare.diagnostics;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostLoadEvent;
+import org.hibernate.event.spi.PostLoadEventListener;
+import org.springframework.stereotype.Component;
+
+// Counts hydrated entities per request, which shows lazy associations (e.g. Patient.facility)
+// being loaded one row at a time.
+@Component
+@RequiredArgsConstructor
+public class EntityLoadListener implements PostLoadEventListener {
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    @PostConstruct
+    void register() {
+        entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+            .getServiceRegistry()
+            .requireService(EventListenerRegistry.class)
+            .appendListeners(EventType.POST_LOAD, this);
+    }
+
+    @Override
+    public void onPostLoad(PostLoadEvent event) {
+        RequestQueryStats stats = QueryDiagnostics.current();
+        if (stats != null) {
+            stats.recordEntityLoad(event.getPersister().getEntityName()
+                .substring(event.getPersister().getEntityName().lastIndexOf('.') + 1));
+        }
+    }
+}
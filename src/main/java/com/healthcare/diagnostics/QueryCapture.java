@@ -0,0 +1,50 @@
+package com.healthcare.diagnostics;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Statements and entity loads recorded for one request or one {@link QueryDiagnostics#capture} block.
+ * SQL is kept as Hibernate emits it, with {@code ?} placeholders, so it never carries bound values.
+ */
+public record QueryCapture(int statements, Duration dbTime, Map<String, Integer> statementCounts,
+                           Map<String, Integer> entityLoads) {
+
+    public static final int DEFAULT_N_PLUS_ONE_THRESHOLD = 5;
+
+    public int selects() {
+        return statementCounts.entrySet().stream()
+            .filter(entry -> isSelect(entry.getKey()))
+            .mapToInt(Map.Entry::getValue)
+            .sum();
+    }
+
+    // SELECTs repeated at least threshold times, typically one per row of an earlier result
+    public Map<String, Integer> nPlusOneSuspects(int threshold) {
+        return statementCounts.entrySet().stream()
+            .filter(entry -> entry.getValue() >= threshold && isSelect(entry.getKey()))
+            .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue, (a, b) -> a, LinkedHashMap::new));
+    }
+
+    public QueryCapture assertStatementsAtMost(int budget) {
+        if (statements > budget) {
+            throw new AssertionError("Expected at most " + budget + " statements but " + statements +
+                " were executed: " + statementCounts);
+        }
+        return this;
+    }
+
+    public QueryCapture assertNoNPlusOne() {
+        Map<String, Integer> suspects = nPlusOneSuspects(DEFAULT_N_PLUS_ONE_THRESHOLD);
+        if (!suspects.isEmpty()) {
+            throw new AssertionError("Repeated SELECTs suggest an N+1 pattern: " + suspects);
+        }
+        return this;
+    }
+
+    static boolean isSelect(String sql) {
+        return sql.stripLeading().regionMatches(true, 0, "select", 0, 6);
+    }
+}
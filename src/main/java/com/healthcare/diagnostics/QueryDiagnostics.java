@@ -0,0 +1,66 @@
+package com.healthcare.diagnostics;
+
+import java.util.concurrent.Callable;
+
+/**
+ * Thread-bound query recording. {@link QueryDiagnosticsFilter} opens a scope per HTTP request;
+ * tests can open one around any block of code:
+ *
+ * <pre>
+ * QueryDiagnostics.capture(() -&gt; facilityService.getAllFacilities(page, null, null, null))
+ *     .assertStatementsAtMost(3)
+ *     .assertNoNPlusOne();
+ * </pre>
+ */
+public final class QueryDiagnostics {
+
+    private static final ThreadLocal<RequestQueryStats> CURRENT = new ThreadLocal<>();
+
+    private QueryDiagnostics() {
+    }
+
+    public static QueryCapture capture(Runnable work) {
+        return capture(() -> {
+            work.run();
+            return null;
+        });
+    }
+
+    public static QueryCapture capture(Callable<?> work) {
+        RequestQueryStats outer = CURRENT.get();
+        RequestQueryStats stats = new RequestQueryStats();
+        CURRENT.set(stats);
+        try {
+            work.call();
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        } finally {
+            restore(outer);
+        }
+        return stats.snapshot();
+    }
+
+    static RequestQueryStats begin() {
+        RequestQueryStats stats = new RequestQueryStats();
+        CURRENT.set(stats);
+        return stats;
+    }
+
+    static void end() {
+        CURRENT.remove();
+    }
+
+    static RequestQueryStats current() {
+        return CURRENT.get();
+    }
+
+    private static void restore(RequestQueryStats outer) {
+        if (outer == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(outer);
+        }
+    }
+}
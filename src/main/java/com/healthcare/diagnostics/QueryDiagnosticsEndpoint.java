@@ -0,0 +1,61 @@
+package com.healthcare.diagnostics;
+
+import jakarta.persistence.EntityManagerFactory;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+// GET /actuator/querydiagnostics: per-endpoint statement counts, DB time, entity loads and N+1
+// suspects, plus Hibernate's session-factory statistics. DELETE resets both.
+@Component
+@Endpoint(id = "querydiagnostics")
+@RequiredArgsConstructor
+public class QueryDiagnosticsEndpoint {
+
+    private final EndpointQueryStatistics endpointQueryStatistics;
+    private final EntityManagerFactory entityManagerFactory;
+
+    @ReadOperation
+    public Map<String, Object> diagnostics() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("endpoints", endpointQueryStatistics.snapshot());
+        result.put("hibernate", hibernateStatistics());
+        return result;
+    }
+
+    @DeleteOperation
+    public void reset() {
+        endpointQueryStatistics.reset();
+        statistics().clear();
+    }
+
+    private Map<String, Object> hibernateStatistics() {
+        Statistics statistics = statistics();
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("enabled", statistics.isStatisticsEnabled());
+        if (!statistics.isStatisticsEnabled()) {
+            return result;
+        }
+        result.put("prepareStatementCount", statistics.getPrepareStatementCount());
+        result.put("queryExecutionCount", statistics.getQueryExecutionCount());
+        result.put("queryExecutionMaxTimeMillis", statistics.getQueryExecutionMaxTime());
+        result.put("queryExecutionMaxTimeQuery", statistics.getQueryExecutionMaxTimeQueryString());
+        result.put("entityLoadCount", statistics.getEntityLoadCount());
+        result.put("entityFetchCount", statistics.getEntityFetchCount());
+        result.put("collectionFetchCount", statistics.getCollectionFetchCount());
+        result.put("transactionCount", statistics.getTransactionCount());
+        result.put("sessionOpenCount", statistics.getSessionOpenCount());
+        result.put("connectCount", statistics.getConnectCount());
+        return result;
+    }
+
+    private Statistics statistics() {
+        return entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+}
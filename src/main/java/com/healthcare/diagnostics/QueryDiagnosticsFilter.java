@@ -0,0 +1,68 @@
+package com.healthcare.diagnostics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.Map;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+// Opens a query-recording scope per request and folds the result into the endpoint statistics,
+// warning when the same SELECT repeats often enough to look like an N+1 pattern.
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class QueryDiagnosticsFilter extends OncePerRequestFilter {
+
+    private final QueryDiagnosticsProperties properties;
+    private final EndpointQueryStatistics endpointQueryStatistics;
+    private final MeterRegistry meterRegistry;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !properties.isEnabled() || request.getRequestURI().startsWith("/actuator");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+        throws ServletException, IOException {
+        RequestQueryStats stats = QueryDiagnostics.begin();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            QueryDiagnostics.end();
+            record(endpoint(request), stats.snapshot());
+        }
+    }
+
+    private void record(String endpoint, QueryCapture capture) {
+        Map<String, Integer> suspects = capture.nPlusOneSuspects(properties.getRepeatedSelectThreshold());
+        endpointQueryStatistics.record(endpoint, capture, suspects);
+
+        DistributionSummary.builder("healthcare.db.statements.per.request")
+            .tag("endpoint", endpoint)
+            .register(meterRegistry)
+            .record(capture.statements());
+
+        if (!suspects.isEmpty()) {
+            Counter.builder("healthcare.db.n_plus_one.suspects")
+                .tag("endpoint", endpoint)
+                .register(meterRegistry)
+                .increment();
+            log.warn("Possible N+1 on {}: {} statements, repeated {}", endpoint, capture.statements(), suspects);
+        }
+    }
+
+    private static String endpoint(HttpServletRequest request) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        return request.getMethod() + " " + (pattern != null ? pattern : "UNMAPPED");
+    }
+}
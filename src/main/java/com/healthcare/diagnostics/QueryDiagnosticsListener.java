@@ -0,0 +1,68 @@
+package com.healthcare.diagnostics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import lombok.extern.slf4j.Slf4j;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.proxy.ParameterSetOperation;
+
+// Records every JDBC statement into the current QueryDiagnostics scope and logs slow ones.
+// Slow-query entries show parameter types only; bound values may be patient data.
+@Slf4j
+public class QueryDiagnosticsListener implements QueryExecutionListener {
+
+    private final long slowQueryThresholdMillis;
+    private final Counter slowQueries;
+
+    public QueryDiagnosticsListener(QueryDiagnosticsProperties properties, MeterRegistry meterRegistry) {
+        this.slowQueryThresholdMillis = properties.getSlowQueryThreshold().toMillis();
+        this.slowQueries = Counter.builder("healthcare.db.slow.queries").register(meterRegistry);
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        long elapsedNanos = TimeUnit.MILLISECONDS.toNanos(execInfo.getElapsedTime());
+        RequestQueryStats stats = QueryDiagnostics.current();
+        if (stats != null) {
+            // Batched statements are split evenly; the split only affects per-statement attribution
+            long share = elapsedNanos / Math.max(1, queryInfoList.size());
+            for (QueryInfo query : queryInfoList) {
+                stats.recordStatement(query.getQuery(), share);
+            }
+        }
+
+        if (execInfo.getElapsedTime() >= slowQueryThresholdMillis) {
+            slowQueries.increment();
+            for (QueryInfo query : queryInfoList) {
+                log.warn("Slow query ({} ms, success={}): {} params={}", execInfo.getElapsedTime(),
+                    execInfo.isSuccess(), query.getQuery(), parameterShapes(query));
+            }
+        }
+    }
+
+    // e.g. [[Long, String, null]] per parameter set; never the values themselves
+    static List<List<String>> parameterShapes(QueryInfo query) {
+        return query.getParametersList().stream()
+            .map(parameters -> parameters.stream()
+                .map(QueryDiagnosticsListener::shape)
+                .collect(Collectors.toList()))
+            .collect(Collectors.toList());
+    }
+
+    private static String shape(ParameterSetOperation operation) {
+        Object[] args = operation.getArgs();
+        if (operation.getMethod().getName().equals("setNull") || args.length < 2 || args[1] == null) {
+            return "null";
+        }
+        return args[1].getClass().getSimpleName();
+    }
+}
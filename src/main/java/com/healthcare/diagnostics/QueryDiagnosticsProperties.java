@@ -0,0 +1,19 @@
+package com.healthcare.diagnostics;
+
+import java.time.Duration;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties("app.diagnostics")
+public class QueryDiagnosticsProperties {
+
+    // Wraps the JDBC DataSource with the diagnostics listener
+    private boolean enabled = true;
+
+    // Statements at or above this duration are logged with their parameter shapes
+    private Duration slowQueryThreshold = Duration.ofMillis(200);
+
+    // The same SELECT repeated this many times in one request is reported as a likely N+1
+    private int repeatedSelectThreshold = QueryCapture.DEFAULT_N_PLUS_ONE_THRESHOLD;
+}
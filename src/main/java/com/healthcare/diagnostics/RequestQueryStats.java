@@ -0,0 +1,29 @@
+package com.healthcare.diagnostics;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Mutable per-thread accumulator behind QueryCapture; only ever touched by the thread that owns it
+class RequestQueryStats {
+
+    private final Map<String, Integer> statementCounts = new LinkedHashMap<>();
+    private final Map<String, Integer> entityLoads = new LinkedHashMap<>();
+    private int statements;
+    private long dbNanos;
+
+    void recordStatement(String sql, long elapsedNanos) {
+        statements++;
+        dbNanos += elapsedNanos;
+        statementCounts.merge(sql, 1, Integer::sum);
+    }
+
+    void recordEntityLoad(String entityName) {
+        entityLoads.merge(entityName, 1, Integer::sum);
+    }
+
+    QueryCapture snapshot() {
+        return new QueryCapture(statements, Duration.ofNanos(dbNanos),
+            Map.copyOf(statementCounts), Map.copyOf(entityLoads));
+    }
+}
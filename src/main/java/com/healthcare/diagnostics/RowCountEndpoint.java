@@ -0,0 +1,43 @@
+package com.healthcare.diagnostics;
+
+import com.healthcare.repository.FacilityRepository;
+import com.healthcare.repository.PatientRepository;
+import com.healthcare.repository.RowCountEstimator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.OptionalLong;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.jmx.annotation.JmxEndpoint;
+import org.springframework.stereotype.Component;
+
+// JMX only, since actuator HTTP endpoints are not secured: exact active patient and facility counts
+// for admins, next to the estimates the chat tools and stats use, and how far off those are.
+// Counting exactly reads every active row, so this is slow on large tables.
+@Component
+@JmxEndpoint(id = "rowcounts")
+@RequiredArgsConstructor
+public class RowCountEndpoint {
+
+    private final RowCountEstimator rowCountEstimator;
+    private final PatientRepository patientRepository;
+    private final FacilityRepository facilityRepository;
+
+    @ReadOperation
+    public Map<String, Object> rowCounts() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("patients", compare(patientRepository.countByDeletedAtIsNull(), rowCountEstimator.estimateActivePatients()));
+        result.put("facilities", compare(facilityRepository.countByIsActiveTrue(), rowCountEstimator.estimateActiveFacilities()));
+        return result;
+    }
+
+    private static Map<String, Object> compare(long exact, OptionalLong estimate) {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("exact", exact);
+        if (estimate.isPresent()) {
+            result.put("estimate", estimate.getAsLong());
+            result.put("relativeError", exact == 0 ? null : (double) (estimate.getAsLong() - exact) / exact);
+        }
+        return result;
+    }
+}
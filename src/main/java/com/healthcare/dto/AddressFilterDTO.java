@@ -0,0 +1,18 @@
+package com.healthcare.dto;
+
+import lombok.Data;
+
+@Data
+public class AddressFilterDTO {
+    private String city;
+    private String region;
+    private String postalCode;
+
+    public boolean isEmpty() {
+        return isBlank(city) && isBlank(region) && isBlank(postalCode);
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+}
@@ -0,0 +1,14 @@
+package com.healthcare.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import java.util.List;
+import lombok.Data;
+
+@Data
+public class BatchGetRequestDTO {
+    @NotEmpty(message = "At least one id is required")
+    @Size(max = 1000, message = "At most 1000 ids can be fetched at once")
+    private List<@NotNull(message = "Ids must not be null") Long> ids;
+}
@@ -0,0 +1,16 @@
+package com.healthcare.dto;
+
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Found records in the order their ids were requested (duplicates once), plus the ids that do not
+// exist or are not active
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchGetResponseDTO<T> {
+    private List<T> found;
+    private List<Long> missing;
+}
@@ -1,6 +1,10 @@
 package com.healthcare.dto;
 
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.healthcare.model.Address;
 import com.healthcare.model.Facility;
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import lombok.Data;
@@ -15,8 +19,20 @@ public class FacilityDTO {
     @NotNull(message = "Facility type is required")
     private Facility.FacilityType type;
 
-    @NotBlank(message = "Address is required")
-    private String address;
+    @NotNull(message = "Address is required")
+    private Address address;
+
+    @DecimalMin(value = "-90.0", message = "Latitude must be between -90 and 90")
+    @DecimalMax(value = "90.0", message = "Latitude must be between -90 and 90")
+    private Double latitude;
+
+    @DecimalMin(value = "-180.0", message = "Longitude must be between -180 and 180")
+    @DecimalMax(value = "180.0", message = "Longitude must be between -180 and 180")
+    private Double longitude;
 
     private Long patientCount;
-}
\ No newline at end of file
+
+    // Row version, sent back as the ETag; the If-Match header carries it on updates
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private Long version;
+}
@@ -0,0 +1,18 @@
+package com.healthcare.dto;
+
+import com.healthcare.model.Facility;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class NearestFacilityDTO {
+    private Long id;
+    private String name;
+    private Facility.FacilityType type;
+    private Double latitude;
+    private Double longitude;
+    private double distanceKm;
+}
@@ -0,0 +1,24 @@
+package com.healthcare.dto;
+
+import java.time.LocalDateTime;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// One line of the patient change feed: the patient's current state, or only its id once it is
+// soft-deleted. The cursor covers this change and every one before it.
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PatientChangeDTO {
+
+    public enum ChangeType {
+        CREATED, UPDATED, DELETED
+    }
+
+    private ChangeType type;
+    private Long id;
+    private LocalDateTime changedAt;
+    private String cursor;
+    private PatientDTO patient;
+}
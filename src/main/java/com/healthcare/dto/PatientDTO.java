@@ -1,5 +1,7 @@
 package com.healthcare.dto;
 
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.healthcare.model.Address;
 import com.healthcare.model.Patient;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
@@ -34,5 +36,9 @@ public class PatientDTO {
 
     private String medicalRecordNumber;
 
-    private String address;
-}
\ No newline at end of file
+    private Address address;
+
+    // Row version, sent back as the ETag; the If-Match header carries it on updates
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private Long version;
+}
@@ -0,0 +1,26 @@
+package com.healthcare.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// One event of the live patient feed. previousFacilityId is only set on TRANSFERRED. It names the
+// change but carries no patient details, which would reach every subscriber and every session
+// listening on the channel: clients fetch the patient by id, and version tells them whether the
+// copy they hold (its ETag) is already current.
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PatientFeedEventDTO {
+
+    public enum EventType {
+        CREATED, UPDATED, TRANSFERRED, DELETED, RESTORED
+    }
+
+    private Long eventId;
+    private EventType type;
+    private Long patientId;
+    private Long version;
+    private Long facilityId;
+    private Long previousFacilityId;
+}
@@ -0,0 +1,46 @@
+package com.healthcare.dto;
+
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.stream.Collectors;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+// PatientDTO fields a client can ask for with fields=, and the entity attribute each one is read from
+@Getter
+@RequiredArgsConstructor
+public enum PatientField {
+    ID("id", "id"),
+    FACILITY_ID("facilityId", "facility.id"),
+    FIRST_NAME("firstName", "firstName"),
+    LAST_NAME("lastName", "lastName"),
+    EMAIL("email", "email"),
+    PHONE("phone", "phone"),
+    DATE_OF_BIRTH("dateOfBirth", "dateOfBirth"),
+    GENDER("gender", "gender"),
+    MEDICAL_RECORD_NUMBER("medicalRecordNumber", "medicalRecordNumber"),
+    ADDRESS("address", "address"),
+    VERSION("version", "version");
+
+    private final String property;
+    private final String attribute;
+
+    // A comma-separated list such as "id,firstName,medicalRecordNumber". id is always included, so
+    // rows can be matched to batch ids and fetched in full later.
+    public static Set<PatientField> parse(String fields) {
+        Set<PatientField> parsed = EnumSet.of(ID);
+        for (String property : fields.split(",")) {
+            if (property.isBlank()) {
+                continue;
+            }
+            parsed.add(Arrays.stream(values())
+                .filter(field -> field.property.equals(property.strip()))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("Unknown field '" + property.strip() +
+                    "'; available fields: " + Arrays.stream(values()).map(PatientField::getProperty)
+                    .collect(Collectors.joining(", ")))));
+        }
+        return parsed;
+    }
+}
@@ -0,0 +1,14 @@
+package com.healthcare.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import java.util.List;
+import lombok.Data;
+
+@Data
+public class PatientImportDTO {
+    @NotEmpty(message = "At least one patient is required")
+    @Size(max = 1000, message = "At most 1000 patients can be imported at once")
+    private List<@Valid PatientDTO> patients;
+}
@@ -9,4 +9,5 @@ public class PatientSearchDTO {
     private String email;
     private Long facilityId;
     private String medicalRecordNumber;
+    private AddressFilterDTO address = new AddressFilterDTO();
 }
\ No newline at end of file
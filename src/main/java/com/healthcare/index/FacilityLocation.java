@@ -0,0 +1,23 @@
+package com.healthcare.index;
+
+import com.healthcare.model.Facility;
+
+public record FacilityLocation(Long id, String name, Facility.FacilityType type, Double latitude, Double longitude) {
+
+    static final KdTree.Coordinates<FacilityLocation> COORDINATES = new KdTree.Coordinates<>() {
+        @Override
+        public double latitude(FacilityLocation location) {
+            return location.latitude();
+        }
+
+        @Override
+        public double longitude(FacilityLocation location) {
+            return location.longitude();
+        }
+    };
+
+    public static FacilityLocation of(Facility facility) {
+        return new FacilityLocation(facility.getId(), facility.getName(), facility.getType(),
+            facility.getLatitude(), facility.getLongitude());
+    }
+}
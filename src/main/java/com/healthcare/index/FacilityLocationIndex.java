@@ -0,0 +1,173 @@
+package com.healthcare.index;
+
+import com.healthcare.config.TransactionCallbacks;
+import com.healthcare.model.Facility;
+import com.healthcare.repository.FacilityRepository;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+// In-memory nearest-neighbour index over active facilities with coordinates. Reads use an
+// immutable snapshot (one KD-tree for all facilities, one per type), published by compare-and-set,
+// so lookups take no lock. A write only changes the location map under a short lock; the snapshot is
+// rebuilt on a thread of its own, once for all the writes that arrived while the last rebuild ran.
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class FacilityLocationIndex implements DisposableBean {
+
+    private final FacilityRepository facilityRepository;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final ReentrantLock reloadLock = new ReentrantLock();
+    private final AtomicReference<Snapshot> snapshot = new AtomicReference<>(Snapshot.of(0, List.of()));
+    private final ExecutorService rebuilder = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "facility-index-rebuild");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // Guarded by lock; a null in changedDuringReload is a removal
+    private final Map<Long, FacilityLocation> locations = new HashMap<>();
+    private final Map<Long, FacilityLocation> changedDuringReload = new LinkedHashMap<>();
+    private boolean reloading;
+    private boolean rebuildPending;
+    private long version;
+
+    // Full reload at startup and periodically, which also picks up writes made by other instances.
+    // The query runs without the lock. Writes committed while it runs are replayed over its result:
+    // those it already saw are set to the same values again, and later ones are not lost.
+    @Scheduled(fixedDelayString = "${app.geo.refresh-interval:PT5M}")
+    public void reload() {
+        reloadLock.lock();
+        try {
+            lock.lock();
+            try {
+                reloading = true;
+            } finally {
+                lock.unlock();
+            }
+            List<FacilityLocation> current;
+            long currentVersion;
+            try {
+                List<FacilityLocation> active = facilityRepository.findActiveLocations();
+                lock.lock();
+                try {
+                    locations.clear();
+                    active.forEach(location -> locations.put(location.id(), location));
+                    changedDuringReload.forEach(this::put);
+                    current = List.copyOf(locations.values());
+                    currentVersion = ++version;
+                } finally {
+                    lock.unlock();
+                }
+            } finally {
+                lock.lock();
+                try {
+                    reloading = false;
+                    changedDuringReload.clear();
+                } finally {
+                    lock.unlock();
+                }
+            }
+            publish(Snapshot.of(currentVersion, current));
+            log.debug("Facility location index loaded with {} facilities", current.size());
+        } finally {
+            reloadLock.unlock();
+        }
+    }
+
+    // Applied once the surrounding transaction commits, so rolled-back writes never reach the index
+    public void update(Facility facility) {
+        FacilityLocation location = FacilityLocation.of(facility);
+        boolean indexable = Boolean.TRUE.equals(facility.getIsActive())
+            && location.latitude() != null && location.longitude() != null;
+        TransactionCallbacks.afterCommit(() -> apply(location.id(), indexable ? location : null));
+    }
+
+    public List<KdTree.Neighbor<FacilityLocation>> nearest(double latitude, double longitude,
+                                                           Facility.FacilityType type, int k) {
+        Snapshot current = snapshot.get();
+        KdTree<FacilityLocation> tree = type == null ? current.all() : current.byType().get(type);
+        return tree == null ? List.of() : tree.nearest(latitude, longitude, k);
+    }
+
+    public int size() {
+        return snapshot.get().all().size();
+    }
+
+    @Override
+    public void destroy() {
+        rebuilder.shutdownNow();
+    }
+
+    private void apply(Long id, FacilityLocation location) {
+        boolean schedule;
+        lock.lock();
+        try {
+            put(id, location);
+            if (reloading) {
+                changedDuringReload.put(id, location);
+            }
+            schedule = !rebuildPending;
+            rebuildPending = true;
+        } finally {
+            lock.unlock();
+        }
+        if (schedule) {
+            rebuilder.execute(this::rebuild);
+        }
+    }
+
+    // Takes every write made up to now, including those that arrived while it was queued
+    private void rebuild() {
+        List<FacilityLocation> current;
+        long currentVersion;
+        lock.lock();
+        try {
+            rebuildPending = false;
+            current = List.copyOf(locations.values());
+            currentVersion = version;
+        } finally {
+            lock.unlock();
+        }
+        publish(Snapshot.of(currentVersion, current));
+    }
+
+    private void put(Long id, FacilityLocation location) {
+        if (location != null) {
+            locations.put(id, location);
+        } else {
+            locations.remove(id);
+        }
+        version++;
+    }
+
+    // A reload and a rebuild build their trees concurrently; the one taken from the later map wins
+    private void publish(Snapshot next) {
+        snapshot.accumulateAndGet(next, (current, candidate) -> candidate.version() > current.version() ? candidate : current);
+    }
+
+    private record Snapshot(long version, KdTree<FacilityLocation> all,
+                            Map<Facility.FacilityType, KdTree<FacilityLocation>> byType) {
+
+        static Snapshot of(long version, List<FacilityLocation> locations) {
+            Map<Facility.FacilityType, KdTree<FacilityLocation>> byType = new EnumMap<>(Facility.FacilityType.class);
+            locations.stream()
+                .collect(Collectors.groupingBy(FacilityLocation::type))
+                .forEach((type, group) -> byType.put(type, KdTree.build(group, FacilityLocation.COORDINATES)));
+            return new Snapshot(version, KdTree.build(locations, FacilityLocation.COORDINATES), byType);
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package com.healthcare.index;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Immutable k-nearest-neighbour index over points on the Earth's surface.
+ *
+ * <p>Points are stored as 3D unit vectors, where straight-line (chord) distance orders points the
+ * same way great-circle distance does. A plain Euclidean KD-tree is therefore exact, with no
+ * special cases at the poles or the antimeridian. The tree is implicit: each {@code [lo, hi)}
+ * range is stored with its median at {@code (lo + hi) >>> 1}.
+ */
+public final class KdTree<T> {
+
+    public static final double EARTH_RADIUS_KM = 6371.0088;
+
+    private final double[] xs;
+    private final double[] ys;
+    private final double[] zs;
+    private final Object[] values;
+
+    private KdTree(double[] xs, double[] ys, double[] zs, Object[] values) {
+        this.xs = xs;
+        this.ys = ys;
+        this.zs = zs;
+        this.values = values;
+    }
+
+    public interface Coordinates<T> {
+        double latitude(T value);
+
+        double longitude(T value);
+    }
+
+    public record Neighbor<T>(T value, double distanceKm) {
+    }
+
+    public static <T> KdTree<T> build(List<T> items, Coordinates<T> coordinates) {
+        int n = items.size();
+        double[][] points = new double[n][];
+        Integer[] order = new Integer[n];
+        for (int i = 0; i < n; i++) {
+            T item = items.get(i);
+            points[i] = toUnitVector(coordinates.latitude(item), coordinates.longitude(item));
+            order[i] = i;
+        }
+        arrange(order, points, 0, n, 0);
+
+        double[] xs = new double[n];
+        double[] ys = new double[n];
+        double[] zs = new double[n];
+        Object[] values = new Object[n];
+        for (int i = 0; i < n; i++) {
+            double[] point = points[order[i]];
+            xs[i] = point[0];
+            ys[i] = point[1];
+            zs[i] = point[2];
+            values[i] = items.get(order[i]);
+        }
+        return new KdTree<>(xs, ys, zs, values);
+    }
+
+    public int size() {
+        return values.length;
+    }
+
+    // Nearest first; fewer than k when the tree is smaller
+    public List<Neighbor<T>> nearest(double latitude, double longitude, int k) {
+        if (k <= 0 || values.length == 0) {
+            return List.of();
+        }
+        double[] query = toUnitVector(latitude, longitude);
+        // Max-heap of tree positions by squared chord distance, capped at k entries
+        PriorityQueue<double[]> best = new PriorityQueue<>(k + 1, Comparator.comparingDouble((double[] e) -> e[0]).reversed());
+        search(query, 0, values.length, 0, k, best);
+
+        List<double[]> found = new ArrayList<>(best);
+        found.sort(Comparator.comparingDouble(e -> e[0]));
+        List<Neighbor<T>> result = new ArrayList<>(found.size());
+        for (double[] entry : found) {
+            @SuppressWarnings("unchecked")
+            T value = (T) values[(int) entry[1]];
+            result.add(new Neighbor<>(value, chordToKm(entry[0])));
+        }
+        return result;
+    }
+
+    private void search(double[] query, int lo, int hi, int depth, int k, PriorityQueue<double[]> best) {
+        if (lo >= hi) {
+            return;
+        }
+        int mid = (lo + hi) >>> 1;
+        double dx = query[0] - xs[mid];
+        double dy = query[1] - ys[mid];
+        double dz = query[2] - zs[mid];
+        double distance = dx * dx + dy * dy + dz * dz;
+        if (best.size() < k) {
+            best.add(new double[] {distance, mid});
+        } else if (distance < best.peek()[0]) {
+            best.poll();
+            best.add(new double[] {distance, mid});
+        }
+
+        double split = switch (depth % 3) {
+            case 0 -> dx;
+            case 1 -> dy;
+            default -> dz;
+        };
+        if (split < 0) {
+            search(query, lo, mid, depth + 1, k, best);
+            if (best.size() < k || split * split < best.peek()[0]) {
+                search(query, mid + 1, hi, depth + 1, k, best);
+            }
+        } else {
+            search(query, mid + 1, hi, depth + 1, k, best);
+            if (best.size() < k || split * split < best.peek()[0]) {
+                search(query, lo, mid, depth + 1, k, best);
+            }
+        }
+    }
+
+    private static void arrange(Integer[] order, double[][] points, int lo, int hi, int depth) {
+        if (hi - lo <= 1) {
+            return;
+        }
+        int axis = depth % 3;
+        Arrays.sort(order, lo, hi, Comparator.comparingDouble(i -> points[i][axis]));
+        int mid = (lo + hi) >>> 1;
+        arrange(order, points, lo, mid, depth + 1);
+        arrange(order, points, mid + 1, hi, depth + 1);
+    }
+
+    static double[] toUnitVector(double latitude, double longitude) {
+        double lat = Math.toRadians(latitude);
+        double lon = Math.toRadians(longitude);
+        double cosLat = Math.cos(lat);
+        return new double[] {cosLat * Math.cos(lon), cosLat * Math.sin(lon), Math.sin(lat)};
+    }
+
+    static double chordToKm(double squaredChord) {
+        return 2 * EARTH_RADIUS_KM * Math.asin(Math.min(1.0, Math.sqrt(squaredChord) / 2));
+    }
+}
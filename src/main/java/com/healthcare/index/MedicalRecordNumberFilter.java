@@ -0,0 +1,129 @@
+package com.healthcare.index;
+
+import com.healthcare.config.TransactionCallbacks;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import java.util.concurrent.locks.ReentrantLock;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+// Bloom filter of the medical record numbers held by active patients. A negative answer means no
+// active patient has the MRN, so the duplicate check skips its query; a positive one still needs
+// the query. The filter only grows between rebuilds: soft deletes and MRN changes leave stale bits
+// that cost a query, never a wrong answer. Writes by other instances are only seen after the next
+// rebuild, which is why the partial unique index on active MRNs remains the real guarantee.
+@Slf4j
+@Component
+public class MedicalRecordNumberFilter {
+
+    private static final String ACTIVE_MRNS =
+        "SELECT medical_record_number FROM patients WHERE deleted_at IS NULL AND medical_record_number IS NOT NULL";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final MedicalRecordNumberFilterProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final Counter skippedChecks;
+    private final Counter queriedChecks;
+    // null until the first rebuild finishes; every check queries until then
+    private volatile BloomFilter current;
+    // Filter being rebuilt, which receives writes committed while it loads
+    private volatile BloomFilter next;
+    // One rebuild at a time. Not a monitor, as the scan runs while it is held.
+    private final ReentrantLock rebuildLock = new ReentrantLock();
+
+    // Reads the primary directly: a lagging replica would miss recent MRNs
+    public MedicalRecordNumberFilter(HikariDataSource primaryDataSource, MedicalRecordNumberFilterProperties properties,
+                                     MeterRegistry meterRegistry) {
+        this.jdbcTemplate = new JdbcTemplate(primaryDataSource);
+        this.jdbcTemplate.setFetchSize(10_000);
+        this.transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(primaryDataSource));
+        this.transactionTemplate.setReadOnly(true);
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        this.skippedChecks = Counter.builder("healthcare.mrn.filter.checks")
+            .description("MRN duplicate checks answered by the Bloom filter or by a query")
+            .tag("result", "skipped")
+            .register(meterRegistry);
+        this.queriedChecks = Counter.builder("healthcare.mrn.filter.checks")
+            .description("MRN duplicate checks answered by the Bloom filter or by a query")
+            .tag("result", "queried")
+            .register(meterRegistry);
+    }
+
+    @PostConstruct
+    void registerGauge() {
+        Gauge.builder("healthcare.mrn.filter.false.positive.rate", this,
+                filter -> filter.current == null ? 1.0 : filter.current.expectedFalsePositiveRate())
+            .description("Estimated share of unused MRNs the filter still reports as possibly taken")
+            .register(meterRegistry);
+    }
+
+    // Full rebuild at startup and periodically, which also drops bits of deleted patients and
+    // picks up writes made by other instances
+    @Scheduled(fixedDelayString = "${app.mrn-filter.rebuild-interval:PT1H}")
+    public void rebuild() {
+        rebuildLock.lock();
+        try {
+            if (!properties.isEnabled()) {
+                current = null;
+                return;
+            }
+            long started = System.nanoTime();
+            long active = jdbcTemplate.queryForObject("SELECT count(*) FROM (" + ACTIVE_MRNS + ") mrns", Long.class);
+            BloomFilter rebuilt = BloomFilter.create(Math.max(properties.getExpectedInsertions(), active * 2),
+                properties.getFalsePositiveRate());
+            // Published before the scan, so a write committed after the scan's snapshot still lands in it
+            next = rebuilt;
+            try {
+                // Inside a transaction so the driver streams rows with the fetch size instead of buffering them all
+                transactionTemplate.executeWithoutResult(status ->
+                    jdbcTemplate.query(ACTIVE_MRNS, (RowCallbackHandler) row -> rebuilt.put(row.getString(1))));
+                current = rebuilt;
+            } finally {
+                next = null;
+            }
+            log.debug("MRN filter rebuilt with {} active MRNs in {} ms", active,
+                (System.nanoTime() - started) / 1_000_000);
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+
+    // false only when no active patient has the MRN, as of the last rebuild plus this instance's writes
+    public boolean mightExist(String medicalRecordNumber) {
+        BloomFilter filter = current;
+        if (filter != null && !filter.mightContain(medicalRecordNumber)) {
+            skippedChecks.increment();
+            return false;
+        }
+        queriedChecks.increment();
+        return true;
+    }
+
+    // Applied once the surrounding transaction commits, so rolled-back writes never reach the filter
+    public void add(String medicalRecordNumber) {
+        if (medicalRecordNumber == null) {
+            return;
+        }
+        TransactionCallbacks.afterCommit(() -> {
+            // next is read first: once a rebuild has swapped it into current, it is visible below
+            BloomFilter loading = next;
+            if (loading != null) {
+                loading.put(medicalRecordNumber);
+            }
+            BloomFilter filter = current;
+            if (filter != null) {
+                filter.put(medicalRecordNumber);
+            }
+        });
+    }
+}
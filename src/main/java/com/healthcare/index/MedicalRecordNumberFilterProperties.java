@@ -0,0 +1,16 @@
+package com.healthcare.index;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties("app.mrn-filter")
+public class MedicalRecordNumberFilterProperties {
+
+    private boolean enabled = true;
+
+    // Lower bound for the filter size; a rebuild sizes it for twice the active MRNs when that is larger
+    private long expectedInsertions = 1_000_000;
+
+    private double falsePositiveRate = 0.01;
+}
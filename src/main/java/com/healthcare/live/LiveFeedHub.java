@@ -0,0 +1,336 @@
+package com.healthcare.live;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.io.IOException;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+// Live feed subscribers on this instance, each an async SSE response that holds no thread while idle.
+// Events are queued per subscriber and written by a small shared pool, so a slow client never holds
+// up the listener or other subscribers. A subscriber whose queue is full gets a resync event and is
+// disconnected: rather than silently missing events, it reloads the state it shows and subscribes again.
+// Writes block once a client stops reading, so one that outlasts the send timeout is given up on the
+// same way, and the pool gets a thread in its place until the write returns.
+@Slf4j
+@Component
+public class LiveFeedHub implements SmartLifecycle {
+
+    static final String RESYNC_OVERFLOW = "overflow";
+    static final String RESYNC_RECONNECT = "reconnect";
+    static final String RESYNC_STALLED = "stalled";
+
+    // Frames are built once and written to every subscriber as they are
+    private static final Set<ResponseBodyEmitter.DataWithMediaType> SUBSCRIBED =
+        SseEmitter.event().comment("subscribed").build();
+
+    private final ObjectMapper objectMapper;
+    private final LiveFeedProperties properties;
+    private final Set<Subscriber> everything = ConcurrentHashMap.newKeySet();
+    private final Map<Long, Set<Subscriber>> byFacility = new ConcurrentHashMap<>();
+    private final AtomicInteger subscribers = new AtomicInteger();
+    private final ThreadPoolExecutor flushExecutor;
+    // Core and maximum size move together, one delta at a time
+    private final ReentrantLock resizeLock = new ReentrantLock();
+    private final Counter sent;
+    private final Counter dropped;
+    private final MeterRegistry meterRegistry;
+    private volatile boolean running;
+
+    public LiveFeedHub(ObjectMapper objectMapper, LiveFeedProperties properties, MeterRegistry meterRegistry) {
+        this.objectMapper = objectMapper;
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        this.flushExecutor = new ThreadPoolExecutor(properties.getFlushThreads(), properties.getFlushThreads(),
+            0, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(),
+            Thread.ofPlatform().name("live-feed-", 0).daemon().factory());
+        this.sent = Counter.builder("healthcare.live.events")
+            .description("Frames written to live feed subscribers, or events dropped from a full queue")
+            .tag("result", "sent")
+            .register(meterRegistry);
+        this.dropped = Counter.builder("healthcare.live.events")
+            .description("Frames written to live feed subscribers, or events dropped from a full queue")
+            .tag("result", "dropped")
+            .register(meterRegistry);
+        Gauge.builder("healthcare.live.subscribers", subscribers, AtomicInteger::get)
+            .description("Open live feed subscriptions on this instance")
+            .register(meterRegistry);
+    }
+
+    // Empty when this instance already serves maxSubscribers; facilityId null subscribes to all facilities
+    public Optional<SseEmitter> subscribe(Long facilityId) {
+        if (subscribers.incrementAndGet() > properties.getMaxSubscribers()) {
+            subscribers.decrementAndGet();
+            return Optional.empty();
+        }
+        SseEmitter emitter = new SseEmitter(properties.getSubscriberTimeout().toMillis());
+        Subscriber subscriber = new Subscriber(emitter, facilityId);
+        emitter.onCompletion(() -> remove(subscriber));
+        emitter.onTimeout(() -> {
+            remove(subscriber);
+            emitter.complete();
+        });
+        emitter.onError(error -> remove(subscriber));
+        if (facilityId == null) {
+            everything.add(subscriber);
+        } else {
+            // compute, not computeIfAbsent: adding must not race remove() dropping the facility's set
+            byFacility.compute(facilityId, (id, facilitySubscribers) -> {
+                Set<Subscriber> updated = facilitySubscribers == null ? ConcurrentHashMap.newKeySet() : facilitySubscribers;
+                updated.add(subscriber);
+                return updated;
+            });
+        }
+        subscriber.offer(SUBSCRIBED);
+        return Optional.of(emitter);
+    }
+
+    // A notification from LiveFeedPublisher, sent to subscribers of everything and of the facilities involved
+    void publish(String payload) {
+        JsonNode event;
+        try {
+            event = objectMapper.readTree(payload);
+        } catch (JsonProcessingException e) {
+            log.warn("Ignoring unreadable live feed notification", e);
+            return;
+        }
+        Set<ResponseBodyEmitter.DataWithMediaType> frame = SseEmitter.event()
+            .id(event.path("eventId").asText())
+            .name(event.path("type").asText())
+            .data(payload, MediaType.APPLICATION_JSON)
+            .build();
+        everything.forEach(subscriber -> subscriber.offer(frame));
+        offerToFacility(event.path("facilityId"), frame);
+        JsonNode previousFacilityId = event.path("previousFacilityId");
+        if (!previousFacilityId.equals(event.path("facilityId"))) {
+            offerToFacility(previousFacilityId, frame);
+        }
+    }
+
+    private void offerToFacility(JsonNode facilityId, Set<ResponseBodyEmitter.DataWithMediaType> frame) {
+        if (facilityId.canConvertToLong()) {
+            byFacility.getOrDefault(facilityId.asLong(), Set.of()).forEach(subscriber -> subscriber.offer(frame));
+        }
+    }
+
+    // Every subscriber may have missed events
+    void resyncAll(String reason) {
+        forEachSubscriber(subscriber -> subscriber.resync(reason));
+    }
+
+    // Only to subscribers with nothing queued; any other frame keeps the connection alive just as well
+    @Scheduled(fixedDelayString = "${app.live-feed.heartbeat-interval:PT15S}")
+    public void heartbeat() {
+        Set<ResponseBodyEmitter.DataWithMediaType> frame = SseEmitter.event().comment("heartbeat").build();
+        forEachSubscriber(subscriber -> subscriber.heartbeat(frame));
+    }
+
+    // A stalled write keeps its thread, so the pool is topped up to keep flushThreads free for everyone else
+    @Scheduled(fixedDelayString = "${app.live-feed.send-check-interval:PT1S}")
+    public void checkStalledWrites() {
+        long now = System.nanoTime();
+        forEachSubscriber(subscriber -> subscriber.checkStalled(now));
+    }
+
+    private void resizeFlushPool(int delta) {
+        resizeLock.lock();
+        try {
+            int size = flushExecutor.getMaximumPoolSize() + delta;
+            if (delta > 0) {
+                flushExecutor.setMaximumPoolSize(size);
+                flushExecutor.setCorePoolSize(size);
+            } else {
+                flushExecutor.setCorePoolSize(size);
+                flushExecutor.setMaximumPoolSize(size);
+            }
+        } finally {
+            resizeLock.unlock();
+        }
+    }
+
+    private void forEachSubscriber(Consumer<Subscriber> action) {
+        everything.forEach(action);
+        byFacility.values().forEach(facilitySubscribers -> facilitySubscribers.forEach(action));
+    }
+
+    private void remove(Subscriber subscriber) {
+        if (!subscriber.closed.compareAndSet(false, true)) {
+            return;
+        }
+        subscribers.decrementAndGet();
+        if (subscriber.facilityId == null) {
+            everything.remove(subscriber);
+        } else {
+            byFacility.computeIfPresent(subscriber.facilityId, (id, facilitySubscribers) -> {
+                facilitySubscribers.remove(subscriber);
+                return facilitySubscribers.isEmpty() ? null : facilitySubscribers;
+            });
+        }
+    }
+
+    @Override
+    public void start() {
+        running = true;
+    }
+
+    // Ends every subscription before the web server's graceful shutdown waits for open requests
+    @Override
+    public void stop() {
+        running = false;
+        forEachSubscriber(subscriber -> {
+            remove(subscriber);
+            subscriber.emitter.complete();
+        });
+        flushExecutor.shutdown();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private final class Subscriber {
+
+        private final SseEmitter emitter;
+        private final Long facilityId;
+        private final Queue<Set<ResponseBodyEmitter.DataWithMediaType>> queue = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger queued = new AtomicInteger();
+        private final AtomicBoolean flushing = new AtomicBoolean();
+        private final AtomicBoolean closed = new AtomicBoolean();
+        // System.nanoTime() when the write in progress started, 0 between writes
+        private final AtomicLong writeStarted = new AtomicLong();
+        private final AtomicBoolean stalled = new AtomicBoolean();
+        private volatile String resyncReason;
+
+        private Subscriber(SseEmitter emitter, Long facilityId) {
+            this.emitter = emitter;
+            this.facilityId = facilityId;
+        }
+
+        void offer(Set<ResponseBodyEmitter.DataWithMediaType> frame) {
+            if (closed.get() || resyncReason != null) {
+                return;
+            }
+            if (queued.incrementAndGet() > properties.getBufferSize()) {
+                queued.decrementAndGet();
+                dropped.increment();
+                resync(RESYNC_OVERFLOW);
+                return;
+            }
+            queue.add(frame);
+            schedule();
+        }
+
+        void heartbeat(Set<ResponseBodyEmitter.DataWithMediaType> frame) {
+            if (queued.get() == 0) {
+                offer(frame);
+            }
+        }
+
+        void resync(String reason) {
+            if (closed.get() || resyncReason != null) {
+                return;
+            }
+            resyncReason = reason;
+            meterRegistry.counter("healthcare.live.resyncs", "reason", reason).increment();
+            schedule();
+        }
+
+        void checkStalled(long now) {
+            long started = writeStarted.get();
+            if (started == 0 || now - started < properties.getSendTimeout().toNanos()
+                || !stalled.compareAndSet(false, true)) {
+                return;
+            }
+            resizeFlushPool(1);
+            if (writeStarted.get() == 0 && stalled.compareAndSet(true, false)) {
+                // Finished meanwhile
+                resizeFlushPool(-1);
+                return;
+            }
+            log.debug("Live feed subscriber stopped reading; resyncing it once its write returns");
+            resync(RESYNC_STALLED);
+        }
+
+        private void schedule() {
+            if (flushing.compareAndSet(false, true)) {
+                try {
+                    flushExecutor.execute(this::flush);
+                } catch (RuntimeException e) {
+                    // Shutting down: stop() completes the emitter
+                    flushing.set(false);
+                }
+            }
+        }
+
+        // Runs on one flush thread at a time per subscriber, so frames are written in order
+        private void flush() {
+            try {
+                while (!closed.get()) {
+                    if (resyncReason != null) {
+                        dropped.increment(queued.getAndSet(0));
+                        queue.clear();
+                        send(SseEmitter.event().name("resync")
+                            .data("{\"reason\":\"" + resyncReason + "\"}", MediaType.APPLICATION_JSON).build());
+                        remove(this);
+                        emitter.complete();
+                        return;
+                    }
+                    Set<ResponseBodyEmitter.DataWithMediaType> frame = queue.poll();
+                    if (frame == null) {
+                        break;
+                    }
+                    queued.decrementAndGet();
+                    send(frame);
+                    sent.increment();
+                }
+            } catch (IOException | IllegalStateException e) {
+                // The client went away; the container completes the request
+                log.debug("Live feed subscriber disconnected", e);
+                remove(this);
+                return;
+            } finally {
+                flushing.set(false);
+            }
+            // Frames offered after the last poll but before flushing was cleared
+            if (!closed.get() && (!queue.isEmpty() || resyncReason != null)) {
+                schedule();
+            }
+        }
+
+        private void send(Set<ResponseBodyEmitter.DataWithMediaType> frame) throws IOException {
+            writeStarted.set(System.nanoTime());
+            try {
+                emitter.send(frame);
+            } finally {
+                writeStarted.set(0);
+                if (stalled.compareAndSet(true, false)) {
+                    resizeFlushPool(-1);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.healthcare.live;
+
+import com.healthcare.datasource.NotificationListener;
+import com.zaxxer.hikari.HikariDataSource;
+import java.time.Duration;
+import java.util.List;
+import org.springframework.stereotype.Component;
+
+// Hands live feed notifications to this instance's subscribers as they arrive. Events sent while
+// the connection was down are lost, so a reconnect tells every subscriber to resync.
+@Component
+public class LiveFeedListener extends NotificationListener {
+
+    static final String APPLICATION_NAME = "healthcare-live-feed-listener";
+
+    private final LiveFeedHub hub;
+    private final LiveFeedProperties properties;
+
+    public LiveFeedListener(HikariDataSource primaryDataSource, LiveFeedHub hub, LiveFeedProperties properties) {
+        super(primaryDataSource, APPLICATION_NAME);
+        this.hub = hub;
+        this.properties = properties;
+    }
+
+    @Override
+    protected boolean isEnabled() {
+        return properties.isListenerEnabled();
+    }
+
+    @Override
+    protected String channel() {
+        return properties.getChannel();
+    }
+
+    // Delivered one by one, without waiting for more
+    @Override
+    protected Duration coalesceWindow() {
+        return Duration.ZERO;
+    }
+
+    @Override
+    protected Duration idleCheckInterval() {
+        return properties.getIdleCheckInterval();
+    }
+
+    @Override
+    protected Duration reconnectDelay() {
+        return properties.getReconnectDelay();
+    }
+
+    @Override
+    protected void connected(boolean reconnected) {
+        if (reconnected) {
+            hub.resyncAll(LiveFeedHub.RESYNC_RECONNECT);
+        }
+    }
+
+    @Override
+    protected void received(List<String> payloads) {
+        payloads.forEach(hub::publish);
+    }
+}
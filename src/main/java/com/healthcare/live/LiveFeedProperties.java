@@ -0,0 +1,40 @@
+package com.healthcare.live;
+
+import java.time.Duration;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties("app.live-feed")
+public class LiveFeedProperties {
+
+    // Whether this instance serves subscribers; relaying instances publish either way
+    private boolean listenerEnabled = true;
+
+    private String channel = "patient_feed";
+
+    // Events queued per subscriber; one more and the subscriber is told to resync and disconnected
+    private int bufferSize = 256;
+
+    // Comment line sent to subscribers that got nothing else meanwhile, keeping proxies from timing out
+    private Duration heartbeatInterval = Duration.ofSeconds(15);
+
+    // Subscriptions are closed after this long; EventSource clients reconnect on their own
+    private Duration subscriberTimeout = Duration.ofMinutes(30);
+
+    // Further subscriptions are refused with 503
+    private int maxSubscribers = 10_000;
+
+    // Threads writing queued events to subscribers, shared by all of them
+    private int flushThreads = 8;
+
+    // A write blocked longer than this means the client stopped reading: it is told to resync, and its
+    // thread is replaced until the write returns (at the latest when server.tomcat.connection-timeout ends it)
+    private Duration sendTimeout = Duration.ofSeconds(5);
+
+    private Duration sendCheckInterval = Duration.ofSeconds(1);
+
+    private Duration idleCheckInterval = Duration.ofSeconds(10);
+
+    private Duration reconnectDelay = Duration.ofSeconds(1);
+}
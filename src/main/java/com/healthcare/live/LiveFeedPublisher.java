@@ -0,0 +1,54 @@
+package com.healthcare.live;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.healthcare.datasource.Notifications;
+import com.healthcare.dto.PatientFeedEventDTO;
+import com.healthcare.model.OutboxEvent;
+import com.healthcare.outbox.ChangeEvent;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+// Turns relayed patient changes into live feed notifications for every instance. Each change is
+// relayed by exactly one instance, which sends it with NOTIFY; all instances, including that one,
+// receive it through LiveFeedListener. The NOTIFY joins the relay's transaction, so it goes out when
+// the relayed batch commits and is dropped along with it if the batch rolls back and is redelivered.
+@Component
+public class LiveFeedPublisher {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final LiveFeedProperties properties;
+
+    // The relay's own pool, so the NOTIFY runs on the connection of its transaction
+    public LiveFeedPublisher(HikariDataSource primaryDataSource, ObjectMapper objectMapper,
+                             LiveFeedProperties properties) {
+        this.jdbcTemplate = new JdbcTemplate(primaryDataSource);
+        this.objectMapper = objectMapper;
+        this.properties = properties;
+    }
+
+    @EventListener
+    public void onChange(ChangeEvent change) throws JsonProcessingException {
+        if (change.aggregateType() != OutboxEvent.AggregateType.PATIENT) {
+            return;
+        }
+        JsonNode payload = change.payload();
+        PatientFeedEventDTO event = new PatientFeedEventDTO(change.id(), typeOf(change), change.aggregateId(),
+            payload.path("version").asLong(), payload.path("facilityId").asLong(), change.previousFacilityId());
+        Notifications.send(jdbcTemplate, properties.getChannel(), objectMapper.writeValueAsString(event));
+    }
+
+    private static PatientFeedEventDTO.EventType typeOf(ChangeEvent change) {
+        return switch (change.eventType()) {
+            case CREATED -> PatientFeedEventDTO.EventType.CREATED;
+            case UPDATED -> change.previousFacilityId() != null
+                ? PatientFeedEventDTO.EventType.TRANSFERRED : PatientFeedEventDTO.EventType.UPDATED;
+            case DELETED -> PatientFeedEventDTO.EventType.DELETED;
+            case RESTORED -> PatientFeedEventDTO.EventType.RESTORED;
+        };
+    }
+}
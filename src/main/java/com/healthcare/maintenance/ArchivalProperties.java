@@ -0,0 +1,27 @@
+package com.healthcare.maintenance;
+
+import java.time.Duration;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties("app.archival")
+public class ArchivalProperties {
+
+    private boolean enabled = true;
+
+    // Soft-deleted patients stay in the hot table, restorable in place, for this long
+    private Duration retention = Duration.ofDays(90);
+
+    // Rows moved per transaction
+    private int batchSize = 1_000;
+
+    // Pause between batches, leaving I/O and WAL headroom for regular traffic
+    private Duration batchPause = Duration.ofMillis(50);
+
+    // A run stops after this long; the next run continues with what is left
+    private Duration maxRunTime = Duration.ofMinutes(30);
+
+    // Vacuums patients after a run that moved rows, so the freed space is reusable straight away
+    private boolean vacuumAfterRun = true;
+}
@@ -0,0 +1,26 @@
+package com.healthcare.maintenance;
+
+import java.time.Duration;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties("app.partitioning")
+public class PartitioningProperties {
+
+    // Hash partitions of patients by facility_id; fixed once the table is partitioned
+    private int partitions = 16;
+
+    // Rows copied per backfill transaction
+    private int batchSize = 5_000;
+
+    // Pause between backfill batches, leaving I/O and WAL headroom for regular traffic
+    private Duration batchPause = Duration.ofMillis(20);
+
+    // Longest the final swap waits for its exclusive lock before giving up; starting the migration again retries it
+    private Duration swapLockTimeout = Duration.ofSeconds(5);
+
+    // Acknowledges that unique indexes on patients, such as the active-MRN one, only hold within a
+    // facility once partitioned; without it the migration refuses to start
+    private boolean perFacilityUniqueIndexes;
+}
@@ -0,0 +1,154 @@
+package com.healthcare.maintenance;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+// Moves patients soft-deleted longer ago than the retention period into patients_archive. Each
+// batch deletes and inserts in one statement and one transaction, so a crash or restart loses
+// nothing and the next run simply picks up the remaining rows. SKIP LOCKED keeps batches off rows
+// a request is updating, and lets several instances run the job at once without conflicts.
+// PatientService.restorePatient moves a row back. Scheduled runs go to a thread of their own, since
+// a run can take up to max-run-time and would otherwise hold one of the scheduler's threads.
+@Slf4j
+@Component
+public class PatientArchiver implements DisposableBean {
+
+    private static final String COLUMNS = "id, facility_id, first_name, last_name, email, phone, date_of_birth, gender, " +
+        "medical_record_number, address, created_at, updated_at, deleted_at, version";
+
+    static final String ARCHIVE_BATCH =
+        "WITH batch AS (" +
+        "    SELECT id, facility_id FROM patients WHERE deleted_at < ? ORDER BY deleted_at LIMIT ? FOR UPDATE SKIP LOCKED), " +
+        "moved AS (" +
+        "    DELETE FROM patients p USING batch WHERE p.id = batch.id AND p.facility_id = batch.facility_id RETURNING p.*), " +
+        "archived AS (" +
+        "    INSERT INTO patients_archive (" + COLUMNS + ") SELECT " + COLUMNS + " FROM moved) " +
+        "SELECT count(*) AS moved_rows, coalesce(sum(pg_column_size(moved.*)), 0) AS moved_bytes FROM moved";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ArchivalProperties properties;
+    private final Counter archivedRows;
+    private final Counter reclaimedBytes;
+    private final Map<String, AtomicLong> tableBytes = Map.of("patients", new AtomicLong(), "patients_archive", new AtomicLong());
+    private final AtomicLong deadTuples = new AtomicLong();
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "patient-archiver");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // Same pool as PatientPartitioningMigrator: never routed to a replica, and kept out of the
+    // slow-query diagnostics
+    public PatientArchiver(HikariDataSource primaryDataSource, ArchivalProperties properties, MeterRegistry meterRegistry) {
+        this.jdbcTemplate = new JdbcTemplate(primaryDataSource);
+        this.transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(primaryDataSource));
+        this.properties = properties;
+        this.archivedRows = Counter.builder("healthcare.archival.rows")
+            .description("Soft-deleted patients moved to patients_archive")
+            .register(meterRegistry);
+        this.reclaimedBytes = Counter.builder("healthcare.archival.reclaimed")
+            .description("Row bytes removed from patients by archival, reusable once vacuumed")
+            .baseUnit("bytes")
+            .register(meterRegistry);
+        tableBytes.forEach((table, bytes) -> Gauge.builder("healthcare.archival.table.size", bytes, AtomicLong::get)
+            .description("Total size of the table including indexes, as of the last archival run")
+            .tag("table", table)
+            .baseUnit("bytes")
+            .register(meterRegistry));
+        Gauge.builder("healthcare.archival.dead.tuples", deadTuples, AtomicLong::get)
+            .description("Dead tuples in patients after the last archival run")
+            .register(meterRegistry);
+    }
+
+    @Scheduled(cron = "${app.archival.cron:0 30 3 * * *}")
+    public void archive() {
+        if (properties.isEnabled()) {
+            LocalDateTime cutoff = LocalDateTime.now().minus(properties.getRetention());
+            executor.execute(() -> {
+                try {
+                    archiveDeletedBefore(cutoff);
+                } catch (RuntimeException e) {
+                    log.error("Patient archival failed; the next run picks up the remaining rows", e);
+                }
+            });
+        }
+    }
+
+    // Returns the number of rows moved; 0 when another run in this instance is still going
+    public long archiveDeletedBefore(LocalDateTime cutoff) {
+        if (!running.compareAndSet(false, true)) {
+            return 0;
+        }
+        try {
+            long deadline = System.nanoTime() + properties.getMaxRunTime().toNanos();
+            long moved = 0;
+            while (System.nanoTime() < deadline) {
+                Map<String, Object> batch = transactionTemplate.execute(status ->
+                    jdbcTemplate.queryForMap(ARCHIVE_BATCH, cutoff, properties.getBatchSize()));
+                long rows = ((Number) batch.get("moved_rows")).longValue();
+                archivedRows.increment(rows);
+                reclaimedBytes.increment(((Number) batch.get("moved_bytes")).doubleValue());
+                moved += rows;
+                if (rows < properties.getBatchSize()) {
+                    break;
+                }
+                pause();
+            }
+            if (moved > 0) {
+                log.info("Archived {} patients deleted before {}", moved, cutoff);
+                if (properties.isVacuumAfterRun()) {
+                    jdbcTemplate.execute("VACUUM (ANALYZE) patients");
+                }
+            }
+            refreshTableStats();
+            return moved;
+        } finally {
+            running.set(false);
+        }
+    }
+
+    // Stats are summed over the table and its partitions, in case patients is partitioned
+    private void refreshTableStats() {
+        tableBytes.forEach((table, bytes) -> bytes.set(jdbcTemplate.queryForObject(
+            "SELECT coalesce(sum(pg_total_relation_size(relid)), 0) FROM " + withPartitions(table), Long.class)));
+        deadTuples.set(jdbcTemplate.queryForObject(
+            "SELECT coalesce(sum(n_dead_tup), 0) FROM pg_stat_user_tables WHERE relid IN (SELECT relid FROM " +
+                withPartitions("patients") + ")", Long.class));
+    }
+
+    private static String withPartitions(String table) {
+        return "(SELECT '" + table + "'::regclass AS relid UNION ALL " +
+            "SELECT inhrelid FROM pg_inherits WHERE inhparent = '" + table + "'::regclass) tables";
+    }
+
+    private void pause() {
+        try {
+            Thread.sleep(properties.getBatchPause().toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Archival interrupted", e);
+        }
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+}
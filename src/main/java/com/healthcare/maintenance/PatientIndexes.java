@@ -0,0 +1,48 @@
+package com.healthcare.maintenance;
+
+import java.sql.Connection;
+import java.util.List;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+
+// Builds an index on patients without blocking writes, whether or not PatientPartitioningMigrator
+// has partitioned the table. PostgreSQL cannot build an index CONCURRENTLY on a partitioned table,
+// so there the index is declared ON ONLY the parent, built CONCURRENTLY on each partition and
+// attached; the parent index becomes valid once every partition has one. A unique index gains
+// facility_id, the partition key, and so only holds within a facility. Each step is idempotent,
+// so a migration interrupted part way through can be run again. Needs an autocommit connection.
+public final class PatientIndexes {
+
+    private PatientIndexes() {
+    }
+
+    public static void create(Connection connection, String name, boolean unique, String columns, String predicate) {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(new SingleConnectionDataSource(connection, true));
+        String where = predicate != null ? " WHERE " + predicate : "";
+        String kind = unique ? "UNIQUE INDEX" : "INDEX";
+
+        String relkind = jdbcTemplate.queryForObject("SELECT relkind::text FROM pg_class WHERE oid = 'patients'::regclass",
+            String.class);
+        if (!"p".equals(relkind)) {
+            jdbcTemplate.execute("CREATE " + kind + " CONCURRENTLY IF NOT EXISTS " + name +
+                " ON patients (" + columns + ")" + where);
+            return;
+        }
+
+        Boolean valid = jdbcTemplate.queryForObject("SELECT (SELECT indisvalid FROM pg_index WHERE indexrelid = to_regclass(?))",
+            Boolean.class, name);
+        if (Boolean.TRUE.equals(valid)) {
+            return;
+        }
+        String partitionedColumns = unique ? columns + ", facility_id" : columns;
+        jdbcTemplate.execute("CREATE " + kind + " IF NOT EXISTS " + name + " ON ONLY patients (" + partitionedColumns + ")" + where);
+        List<String> partitions = jdbcTemplate.queryForList(
+            "SELECT inhrelid::regclass::text FROM pg_inherits WHERE inhparent = 'patients'::regclass ORDER BY 1", String.class);
+        for (String partition : partitions) {
+            String partitionIndex = name + "_" + partition;
+            jdbcTemplate.execute("CREATE " + kind + " CONCURRENTLY IF NOT EXISTS " + partitionIndex +
+                " ON " + partition + " (" + partitionedColumns + ")" + where);
+            jdbcTemplate.execute("ALTER INDEX " + name + " ATTACH PARTITION " + partitionIndex);
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.healthcare.maintenance;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.boot.actuate.endpoint.jmx.annotation.JmxEndpoint;
+import org.springframework.stereotype.Component;
+
+// JMX only, since actuator HTTP endpoints are not secured: the status operation reports the
+// migration phase and backfill progress, start starts or resumes the online migration in the background.
+@Component
+@JmxEndpoint(id = "patientpartitioning")
+@RequiredArgsConstructor
+public class PatientPartitioningEndpoint {
+
+    private final PatientPartitioningMigrator migrator;
+
+    @ReadOperation
+    public PatientPartitioningMigrator.Status status() {
+        return migrator.status();
+    }
+
+    @WriteOperation
+    public PatientPartitioningMigrator.Status start() {
+        migrator.startAsync();
+        return migrator.status();
+    }
+}
@@ -0,0 +1,310 @@
+package com.healthcare.maintenance;
+
+import com.zaxxer.hikari.HikariDataSource;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+// Moves patients into a table hash-partitioned by facility_id while the application keeps
+// running:
+//   1. create patients_partitioned with the same columns and indexes, plus a trigger that mirrors
+//      every write on patients into it
+//   2. backfill existing rows in small id-ordered batches, checkpointed so a restart resumes
+//   3. reconcile rows that raced with the backfill
+//   4. swap the table names in one short transaction under an exclusive lock
+// The old table stays behind as patients_unpartitioned for rollback. Unique indexes gain
+// facility_id, since PostgreSQL only enforces uniqueness within a partition, so the database then
+// only rejects a duplicate active MRN within one facility; PatientServiceImpl's check still spans
+// facilities but no longer stops two concurrent inserts. The migration refuses to start until
+// app.partitioning.per-facility-unique-indexes accepts that. Index migrations written with
+// PatientIndexes work on either shape of the table.
+@Slf4j
+@Component
+public class PatientPartitioningMigrator implements DisposableBean {
+
+    public enum Phase { NOT_STARTED, COPYING, PARTITIONED }
+
+    public record Status(Phase phase, boolean running, Integer partitions, Long copiedThroughId, Long maxId,
+                         String lastError) {
+    }
+
+    static final String TARGET = "patients_partitioned";
+    static final String RETIRED = "patients_unpartitioned";
+    private static final String CHECKPOINT = "patients_partitioning_checkpoint";
+    private static final String TRIGGER = "patients_partitioning_mirror";
+    private static final String SEQUENCE = "patients_partitioned_id_seq";
+    private static final String NEW_INDEX_SUFFIX = "_part";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final PartitioningProperties properties;
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "patient-partitioning");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final AtomicBoolean running = new AtomicBoolean();
+    private volatile String lastError;
+
+    // Talks to the primary pool directly: DDL must never be routed to a replica, and the long
+    // backfill statements would otherwise flood the slow-query diagnostics
+    public PatientPartitioningMigrator(HikariDataSource primaryDataSource, PartitioningProperties properties) {
+        this.jdbcTemplate = new JdbcTemplate(primaryDataSource);
+        this.transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(primaryDataSource));
+        this.properties = properties;
+    }
+
+    public Status status() {
+        Phase phase = phase();
+        Integer partitions = null;
+        Long copiedThroughId = null;
+        Long maxId = null;
+        if (phase != Phase.NOT_STARTED) {
+            partitions = jdbcTemplate.queryForObject("SELECT count(*)::int FROM pg_inherits WHERE inhparent = ?::regclass",
+                Integer.class, phase == Phase.COPYING ? TARGET : "patients");
+        }
+        if (phase == Phase.COPYING) {
+            copiedThroughId = jdbcTemplate.queryForObject("SELECT last_id FROM " + CHECKPOINT, Long.class);
+            maxId = jdbcTemplate.queryForObject("SELECT max(id) FROM patients", Long.class);
+        }
+        return new Status(phase, running.get(), partitions, copiedThroughId, maxId, lastError);
+    }
+
+    // Starts or resumes the migration on a background thread; a no-op while one is running
+    public boolean startAsync() {
+        if (!running.compareAndSet(false, true)) {
+            return false;
+        }
+        executor.execute(() -> {
+            try {
+                migrate();
+            } catch (RuntimeException e) {
+                lastError = e.getMessage();
+                log.error("Patient partitioning stopped; it resumes from its checkpoint when started again", e);
+            } finally {
+                running.set(false);
+            }
+        });
+        return true;
+    }
+
+    public void migrate() {
+        lastError = null;
+        if (phase() == Phase.PARTITIONED) {
+            log.info("patients is already partitioned");
+            return;
+        }
+        if (phase() == Phase.NOT_STARTED) {
+            prepare();
+        }
+        backfill();
+        reconcile();
+        swap();
+    }
+
+    Phase phase() {
+        String kind = jdbcTemplate.queryForObject("SELECT relkind::text FROM pg_class WHERE oid = 'patients'::regclass",
+            String.class);
+        if ("p".equals(kind)) {
+            return Phase.PARTITIONED;
+        }
+        Boolean copying = jdbcTemplate.queryForObject("SELECT to_regclass(?) IS NOT NULL", Boolean.class, TARGET);
+        return Boolean.TRUE.equals(copying) ? Phase.COPYING : Phase.NOT_STARTED;
+    }
+
+    private void prepare() {
+        int partitions = properties.getPartitions();
+        if (partitions < 2) {
+            throw new IllegalArgumentException("At least 2 partitions are required");
+        }
+        List<String> globalUnique = jdbcTemplate.queryForList(
+            "SELECT c.relname FROM pg_index i JOIN pg_class c ON c.oid = i.indexrelid " +
+                "WHERE i.indrelid = 'patients'::regclass AND i.indisunique AND NOT i.indisprimary", String.class);
+        if (!globalUnique.isEmpty() && !properties.isPerFacilityUniqueIndexes()) {
+            throw new IllegalStateException("Unique indexes " + globalUnique + " would only hold within a facility " +
+                "once patients is partitioned; set app.partitioning.per-facility-unique-indexes=true to accept that");
+        }
+        log.info("Creating {} with {} hash partitions", TARGET, partitions);
+
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.execute("CREATE TABLE " + TARGET + " (LIKE patients INCLUDING DEFAULTS INCLUDING CONSTRAINTS) " +
+                "PARTITION BY HASH (facility_id)");
+            // Identity columns cannot be partitioned before PostgreSQL 17, so ids come from a plain
+            // sequence that takes over from the current one at the swap
+            jdbcTemplate.execute("CREATE SEQUENCE " + SEQUENCE);
+            jdbcTemplate.execute("ALTER TABLE " + TARGET + " ALTER COLUMN id SET DEFAULT nextval('" + SEQUENCE + "')");
+            jdbcTemplate.execute("ALTER TABLE " + TARGET + " ADD PRIMARY KEY (id, facility_id)");
+            jdbcTemplate.execute("ALTER TABLE " + TARGET + " ADD FOREIGN KEY (facility_id) REFERENCES facilities (id)");
+            for (int remainder = 0; remainder < partitions; remainder++) {
+                jdbcTemplate.execute(String.format("CREATE TABLE patients_p%d PARTITION OF %s " +
+                    "FOR VALUES WITH (MODULUS %d, REMAINDER %d)", remainder, TARGET, partitions, remainder));
+            }
+            // The parent is empty, so plain CREATE INDEX is instant and cascades to every partition
+            copyIndexes();
+
+            jdbcTemplate.execute("CREATE TABLE " + CHECKPOINT + " (last_id BIGINT NOT NULL)");
+            jdbcTemplate.execute("INSERT INTO " + CHECKPOINT + " VALUES (0)");
+            installMirrorTrigger();
+        });
+    }
+
+    private void copyIndexes() {
+        List<Map<String, Object>> indexes = jdbcTemplate.queryForList(
+            "SELECT c.relname AS name, i.indisunique AS is_unique, pg_get_indexdef(i.indexrelid) AS definition, " +
+                "pg_get_expr(i.indpred, i.indrelid) AS predicate, i.indexprs IS NULL AS plain_columns, " +
+                "(SELECT string_agg(quote_ident(a.attname), ', ' ORDER BY k.ord) " +
+                "   FROM unnest(i.indkey) WITH ORDINALITY k(attnum, ord) " +
+                "   JOIN pg_attribute a ON a.attrelid = i.indrelid AND a.attnum = k.attnum) AS columns " +
+                "FROM pg_index i JOIN pg_class c ON c.oid = i.indexrelid " +
+                "WHERE i.indrelid = 'patients'::regclass AND NOT i.indisprimary");
+
+        for (Map<String, Object> index : indexes) {
+            String name = (String) index.get("name");
+            String newName = name + NEW_INDEX_SUFFIX;
+            if (!(Boolean) index.get("is_unique")) {
+                jdbcTemplate.execute(((String) index.get("definition")).replaceFirst(
+                    "^CREATE INDEX \\S+ ON (ONLY )?(\\S+\\.)?patients ", "CREATE INDEX " + newName + " ON " + TARGET + " "));
+            } else if ((Boolean) index.get("plain_columns")) {
+                String predicate = (String) index.get("predicate");
+                jdbcTemplate.execute("CREATE UNIQUE INDEX " + newName + " ON " + TARGET +
+                    " (" + index.get("columns") + ", facility_id)" + (predicate != null ? " WHERE " + predicate : ""));
+            } else {
+                log.warn("Skipping unique expression index {}; it cannot be enforced across partitions", name);
+            }
+        }
+    }
+
+    // Row-level trigger keeping the target in step with every committed write. An UPDATE is a
+    // delete plus an upsert so a facility change moves the row between partitions; the upsert
+    // overwrites a stale copy a concurrent backfill batch may have inserted first.
+    private void installMirrorTrigger() {
+        List<String> columns = jdbcTemplate.queryForList(
+            "SELECT quote_ident(attname) FROM pg_attribute WHERE attrelid = 'patients'::regclass " +
+                "AND attnum > 0 AND NOT attisdropped ORDER BY attnum", String.class);
+        String updates = columns.stream()
+            .map(column -> column + " = EXCLUDED." + column)
+            .collect(Collectors.joining(", "));
+
+        jdbcTemplate.execute("CREATE OR REPLACE FUNCTION " + TRIGGER + "() RETURNS trigger AS $$\n" +
+            "BEGIN\n" +
+            "    IF TG_OP IN ('UPDATE', 'DELETE') THEN\n" +
+            "        DELETE FROM " + TARGET + " WHERE id = OLD.id AND facility_id = OLD.facility_id;\n" +
+            "    END IF;\n" +
+            "    IF TG_OP IN ('INSERT', 'UPDATE') THEN\n" +
+            "        INSERT INTO " + TARGET + " SELECT NEW.* ON CONFLICT (id, facility_id) DO UPDATE SET " + updates + ";\n" +
+            "    END IF;\n" +
+            "    RETURN NULL;\n" +
+            "END\n" +
+            "$$ LANGUAGE plpgsql");
+        jdbcTemplate.execute("CREATE TRIGGER " + TRIGGER + " AFTER INSERT OR UPDATE OR DELETE ON patients " +
+            "FOR EACH ROW EXECUTE FUNCTION " + TRIGGER + "()");
+    }
+
+    private void backfill() {
+        long copied = 0;
+        while (true) {
+            Long batchEnd = transactionTemplate.execute(status -> {
+                long from = jdbcTemplate.queryForObject("SELECT last_id FROM " + CHECKPOINT + " FOR UPDATE", Long.class);
+                Long to = jdbcTemplate.queryForObject(
+                    "SELECT max(id) FROM (SELECT id FROM patients WHERE id > ? ORDER BY id LIMIT ?) batch",
+                    Long.class, from, properties.getBatchSize());
+                if (to == null) {
+                    return null;
+                }
+                jdbcTemplate.update("INSERT INTO " + TARGET + " SELECT * FROM patients WHERE id > ? AND id <= ? " +
+                    "ON CONFLICT (id, facility_id) DO NOTHING", from, to);
+                jdbcTemplate.update("UPDATE " + CHECKPOINT + " SET last_id = ?", to);
+                return to;
+            });
+            if (batchEnd == null) {
+                break;
+            }
+            copied++;
+            if (copied % 100 == 0) {
+                log.info("Partitioning backfill copied through patient id {}", batchEnd);
+            }
+            pause();
+        }
+    }
+
+    // A row hard-deleted while a backfill batch was copying it can survive in the target; drop
+    // such rows and copy any the backfill missed, one id range at a time
+    private void reconcile() {
+        Long maxId = jdbcTemplate.queryForObject(
+            "SELECT greatest((SELECT max(id) FROM patients), (SELECT max(id) FROM " + TARGET + "))", Long.class);
+        long step = (long) properties.getBatchSize() * 10;
+        for (long from = 0; maxId != null && from <= maxId; from += step) {
+            long to = from + step;
+            int removed = jdbcTemplate.update("DELETE FROM " + TARGET + " t WHERE t.id > ? AND t.id <= ? AND NOT EXISTS " +
+                "(SELECT 1 FROM patients p WHERE p.id = t.id AND p.facility_id = t.facility_id)", from, to);
+            int added = jdbcTemplate.update("INSERT INTO " + TARGET + " SELECT p.* FROM patients p WHERE p.id > ? AND p.id <= ? " +
+                "AND NOT EXISTS (SELECT 1 FROM " + TARGET + " t WHERE t.id = p.id AND t.facility_id = p.facility_id) " +
+                "ON CONFLICT (id, facility_id) DO NOTHING", from, to);
+            if (removed + added > 0) {
+                log.info("Partitioning reconcile fixed ids ({}, {}]: {} removed, {} added", from, to, removed, added);
+            }
+            pause();
+        }
+    }
+
+    private void swap() {
+        List<String> oldIndexes = jdbcTemplate.queryForList(
+            "SELECT c.relname FROM pg_index i JOIN pg_class c ON c.oid = i.indexrelid " +
+                "WHERE i.indrelid = 'patients'::regclass AND NOT i.indisprimary", String.class);
+        String oldSequence = jdbcTemplate.queryForObject("SELECT pg_get_serial_sequence('patients', 'id')", String.class);
+
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.execute("SET LOCAL lock_timeout = '" + properties.getSwapLockTimeout().toMillis() + "ms'");
+            jdbcTemplate.execute("LOCK TABLE patients IN ACCESS EXCLUSIVE MODE");
+            jdbcTemplate.execute("DROP TRIGGER " + TRIGGER + " ON patients");
+            jdbcTemplate.execute("DROP FUNCTION " + TRIGGER + "()");
+            jdbcTemplate.execute("ALTER TABLE patients RENAME TO " + RETIRED);
+            for (String index : oldIndexes) {
+                jdbcTemplate.execute("ALTER INDEX " + index + " RENAME TO " + index + "_unpartitioned");
+                if (Boolean.TRUE.equals(jdbcTemplate.queryForObject("SELECT to_regclass(?) IS NOT NULL", Boolean.class,
+                    index + NEW_INDEX_SUFFIX))) {
+                    jdbcTemplate.execute("ALTER INDEX " + index + NEW_INDEX_SUFFIX + " RENAME TO " + index);
+                }
+            }
+            jdbcTemplate.execute("ALTER INDEX patients_pkey RENAME TO " + RETIRED + "_pkey");
+            jdbcTemplate.execute("ALTER INDEX " + TARGET + "_pkey RENAME TO patients_pkey");
+            jdbcTemplate.execute("ALTER TABLE " + TARGET + " RENAME TO patients");
+            if (oldSequence != null) {
+                // Nothing can take an id from the old sequence while the lock is held
+                jdbcTemplate.queryForObject("SELECT setval(?::regclass, nextval(?::regclass))", Long.class,
+                    SEQUENCE, oldSequence);
+                jdbcTemplate.execute("ALTER SEQUENCE " + oldSequence + " RENAME TO " + RETIRED + "_id_seq");
+            }
+            jdbcTemplate.execute("ALTER SEQUENCE " + SEQUENCE + " RENAME TO patients_id_seq");
+            jdbcTemplate.execute("ALTER SEQUENCE patients_id_seq OWNED BY patients.id");
+            jdbcTemplate.execute("ALTER TABLE patients ALTER COLUMN id SET DEFAULT nextval('patients_id_seq')");
+            jdbcTemplate.execute("DROP TABLE " + CHECKPOINT);
+        });
+        // Sets the visibility maps of the freshly written partitions so index-only scans work straight away
+        jdbcTemplate.execute("VACUUM (ANALYZE) patients");
+        log.info("patients is now partitioned; the previous table is kept as {}", RETIRED);
+    }
+
+    private void pause() {
+        try {
+            Thread.sleep(properties.getBatchPause().toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Partitioning interrupted", e);
+        }
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+}
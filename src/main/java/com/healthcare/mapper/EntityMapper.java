@@ -6,10 +6,13 @@ import com.healthcare.dto.PatientDTO;
 import com.healthcare.model.Facility;
 import com.healthcare.model.Patient;
 import com.healthcare.repository.FacilityRepository;
+import com.healthcare.repository.SortPlanner;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
-import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Component;
 
 @Component
@@ -17,6 +20,7 @@ import org.springframework.stereotype.Component;
 public class EntityMapper {
 
     private final FacilityRepository facilityRepository;
+    private final SortPlanner sortPlanner;
 
     public PatientDTO toPatientDTO(Patient patient) {
         PatientDTO dto = new PatientDTO();
@@ -30,25 +34,49 @@ public class EntityMapper {
         dto.setGender(patient.getGender());
         dto.setMedicalRecordNumber(patient.getMedicalRecordNumber());
         dto.setAddress(patient.getAddress());
+        dto.setVersion(patient.getVersion());
         return dto;
     }
 
     public FacilityDTO toFacilityDTO(Facility facility) {
+        Long patientCount = facilityRepository.countPatientsByFacilityId(facility.getId());
+        return toFacilityDTO(facility, patientCount);
+    }
+
+    public FacilityDTO toFacilityDTO(Facility facility, Long patientCount) {
         FacilityDTO dto = new FacilityDTO();
         dto.setId(facility.getId());
         dto.setName(facility.getName());
         dto.setType(facility.getType());
         dto.setAddress(facility.getAddress());
-
-        Long patientCount = facilityRepository.countPatientsByFacilityId(facility.getId());
+        dto.setLatitude(facility.getLatitude());
+        dto.setLongitude(facility.getLongitude());
         dto.setPatientCount(patientCount);
-
+        dto.setVersion(facility.getVersion());
         return dto;
     }
 
-    public Pageable createPageable(PageRequestDTO pageRequest) {
-        Sort sort = Sort.by(pageRequest.getSortDirection().equalsIgnoreCase("DESC") ?
-            Sort.Direction.DESC : Sort.Direction.ASC, pageRequest.getSortBy());
-        return PageRequest.of(pageRequest.getPage(), pageRequest.getSize(), sort);
+    // Resolves patient counts for the whole page with one aggregate query instead of one per facility
+    public Page<FacilityDTO> toFacilityDTOPage(Page<Facility> facilities) {
+        Map<Long, Long> patientCounts = countPatients(facilities.map(Facility::getId).getContent());
+        return facilities.map(facility ->
+            toFacilityDTO(facility, patientCounts.getOrDefault(facility.getId(), 0L)));
+    }
+
+    public Map<Long, Long> countPatients(List<Long> facilityIds) {
+        Map<Long, Long> patientCounts = new HashMap<>();
+        if (facilityIds.isEmpty()) {
+            return patientCounts;
+        }
+
+        for (Object[] row : facilityRepository.countPatientsByFacilityIds(facilityIds)) {
+            patientCounts.put((Long) row[0], (Long) row[1]);
+        }
+        return patientCounts;
+    }
+
+    // Sorted only in orderings an index serves for the endpoint; see SortPlanner
+    public Pageable createPageable(PageRequestDTO pageRequest, SortPlanner.Endpoint endpoint) {
+        return sortPlanner.plan(pageRequest, endpoint);
     }
 }
\ No newline at end of file
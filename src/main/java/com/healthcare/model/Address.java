@@ -0,0 +1,64 @@
+package com.healthcare.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import java.util.Arrays;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Stored as JSONB; city, region and postalCode are indexed (see V2 migration) and queried through
+// the address_city/address_region/address_postal_code HQL functions.
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class Address {
+
+    // Trailing "<region> <postal code>", "<postal code>" or "<region>" of a one-line address
+    private static final Pattern REGION_POSTAL = Pattern.compile("^(.*?)\\s*(\\d{5}(?:-\\d{4})?)?$");
+
+    private String street;
+    private String city;
+    private String region;
+    private String postalCode;
+    private String country;
+
+    // Accepts the one-line form clients sent before addresses were structured, e.g.
+    // "12 Main St, Springfield, IL 62701". Anything that does not split cleanly stays in street.
+    public static Address valueOf(String text) {
+        if (text == null || text.isBlank()) {
+            return null;
+        }
+        String[] parts = Arrays.stream(text.split(","))
+            .map(String::trim)
+            .filter(part -> !part.isEmpty())
+            .toArray(String[]::new);
+        if (parts.length < 3) {
+            return Address.builder().street(text.trim()).build();
+        }
+
+        Matcher last = REGION_POSTAL.matcher(parts[parts.length - 1]);
+        last.matches();
+        return Address.builder()
+            .street(String.join(", ", Arrays.copyOfRange(parts, 0, parts.length - 2)))
+            .city(parts[parts.length - 2])
+            .region(last.group(1).isEmpty() ? null : last.group(1))
+            .postalCode(last.group(2))
+            .build();
+    }
+
+    public String formatted() {
+        String regionPostal = Stream.of(region, postalCode)
+            .filter(value -> value != null && !value.isBlank())
+            .collect(Collectors.joining(" "));
+        return Stream.of(street, city, regionPostal, country)
+            .filter(value -> value != null && !value.isBlank())
+            .collect(Collectors.joining(", "));
+    }
+}
@@ -8,13 +8,18 @@ import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import lombok.*;
 import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.DynamicUpdate;
+import org.hibernate.annotations.JdbcTypeCode;
 import org.hibernate.annotations.UpdateTimestamp;
+import org.hibernate.type.SqlTypes;
 import java.time.LocalDateTime;
 
 @Entity
 @Table(name = "facilities")
+@DynamicUpdate
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -31,8 +36,12 @@ public class Facility {
     @Column(nullable = false)
     private FacilityType type;
 
-    @Column(columnDefinition = "TEXT")
-    private String address;
+    @JdbcTypeCode(SqlTypes.JSON)
+    private Address address;
+
+    private Double latitude;
+
+    private Double longitude;
 
     @CreationTimestamp
     private LocalDateTime createdAt;
@@ -45,6 +54,9 @@ public class Facility {
     @Builder.Default
     private Boolean isActive = true;
 
+    @Version
+    private Long version;
+
     public enum FacilityType {
         HOSPITAL, CLINIC, LAB, PHARMACY, OTHER
     }
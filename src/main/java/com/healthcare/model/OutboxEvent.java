@@ -0,0 +1,55 @@
+package com.healthcare.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.*;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+// Pending change event, written in the transaction that made the change. Read and deleted by
+// OutboxRelay with plain SQL; the entity is only used to insert.
+@Entity
+@Table(name = "outbox_events")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class OutboxEvent {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "aggregate_type", nullable = false)
+    private AggregateType aggregateType;
+
+    @Column(name = "aggregate_id", nullable = false)
+    private Long aggregateId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "event_type", nullable = false)
+    private EventType eventType;
+
+    // Only for patient updates that were transfers: the facility the patient left
+    @Column(name = "previous_facility_id")
+    private Long previousFacilityId;
+
+    // id, version and, for patients, facilityId after the change
+    @JdbcTypeCode(SqlTypes.JSON)
+    @Column(nullable = false)
+    private String payload;
+
+    public enum AggregateType {
+        PATIENT, FACILITY
+    }
+
+    public enum EventType {
+        CREATED, UPDATED, DELETED, RESTORED
+    }
+}
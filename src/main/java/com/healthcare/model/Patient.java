@@ -4,11 +4,16 @@ import jakarta.persistence.*;
 import java.time.LocalDate;
 import lombok.*;
 import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.DynamicUpdate;
+import org.hibernate.annotations.JdbcTypeCode;
 import org.hibernate.annotations.UpdateTimestamp;
+import org.hibernate.type.SqlTypes;
 import java.time.LocalDateTime;
 
 @Entity
 @Table(name = "patients")
+// UPDATEs list only the changed columns, so a patch of one field leaves the rest (and their indexes) alone
+@DynamicUpdate
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -37,11 +42,12 @@ public class Patient {
     @Enumerated(EnumType.STRING)
     private Gender gender;
 
-    @Column(name = "medical_record_number", unique = true)
+    // Unique among active patients only (partial index idx_patients_active_mrn)
+    @Column(name = "medical_record_number")
     private String medicalRecordNumber;
 
-    @Column(columnDefinition = "TEXT")
-    private String address;
+    @JdbcTypeCode(SqlTypes.JSON)
+    private Address address;
 
     @CreationTimestamp
     private LocalDateTime createdAt;
@@ -51,6 +57,9 @@ public class Patient {
 
     private LocalDateTime deletedAt;
 
+    @Version
+    private Long version;
+
     public enum Gender {
         MALE, FEMALE, OTHER, UNSPECIFIED
     }
@@ -0,0 +1,14 @@
+package com.healthcare.outbox;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.healthcare.model.OutboxEvent;
+
+// A committed patient or facility change, published to in-process listeners (@EventListener) by
+// OutboxRelay. Delivery is at least once: a listener can see an event again after a relay failure,
+// and should use the version in the payload to ignore repeats. The payload holds ids and the
+// version only; listeners that need more load the current row. Events of one aggregate arrive in
+// commit order; events of different aggregates may interleave. previousFacilityId is only set on
+// patient updates that moved the patient to another facility.
+public record ChangeEvent(long id, OutboxEvent.AggregateType aggregateType, long aggregateId,
+                          OutboxEvent.EventType eventType, JsonNode payload, Long previousFacilityId) {
+}
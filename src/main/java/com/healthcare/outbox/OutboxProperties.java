@@ -0,0 +1,27 @@
+package com.healthcare.outbox;
+
+import java.time.Duration;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties("app.outbox")
+public class OutboxProperties {
+
+    // Whether this instance relays; events are written either way
+    private boolean relayEnabled = true;
+
+    // Delay between relay runs; a run keeps draining while batches come back full
+    private Duration pollInterval = Duration.ofSeconds(1);
+
+    // Events claimed and dispatched per transaction
+    private int batchSize = 500;
+
+    // An event whose listener failed this many times is moved to outbox_dead_letters
+    private int maxAttempts = 10;
+
+    // Wait before retrying a failed event, doubled after each further failure up to maxRetryBackoff
+    private Duration retryBackoff = Duration.ofSeconds(1);
+
+    private Duration maxRetryBackoff = Duration.ofMinutes(5);
+}
@@ -0,0 +1,219 @@
+package com.healthcare.outbox;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.healthcare.model.OutboxEvent;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.sql.PreparedStatement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+// Drains outbox_events in id order and publishes each row as a ChangeEvent. A batch is claimed,
+// dispatched and deleted in one transaction, so a crash mid-batch redelivers rather than loses.
+// Several instances can relay at once: FOR UPDATE SKIP LOCKED first picks a batch of rows no other
+// relay holds, and only then is a transaction-scoped advisory lock tried for each aggregate in that
+// batch. Rows whose aggregate another relay holds, or that still have an earlier event outside the
+// batch, are left for a later run, so per-aggregate order survives. When a listener fails, the event
+// and every later one of its aggregate back off, exponentially, while other aggregates carry on.
+// After maxAttempts failures the event is moved to outbox_dead_letters and its aggregate goes on.
+@Slf4j
+@Component
+public class OutboxRelay {
+
+    // The advisory locks sit outside the candidates CTE: a filter inside it would run on every row
+    // the scan reads, and under a seq scan plus sort one relay would lock every aggregate in the table
+    static final String CLAIM_BATCH =
+        "WITH candidates AS MATERIALIZED (" +
+        "    SELECT id, aggregate_type, aggregate_id, event_type, payload, previous_facility_id, created_at, " +
+        "           attempts " +
+        "    FROM outbox_events o " +
+        "    WHERE NOT EXISTS (SELECT 1 FROM outbox_events b " +
+        "                      WHERE b.next_attempt_at IS NOT NULL AND b.aggregate_type = o.aggregate_type " +
+        "                        AND b.aggregate_id = o.aggregate_id AND b.id <= o.id " +
+        "                        AND b.next_attempt_at > clock_timestamp()) " +
+        "    ORDER BY id LIMIT ? FOR UPDATE SKIP LOCKED), " +
+        "locked AS MATERIALIZED (" +
+        "    SELECT aggregate_type, aggregate_id " +
+        "    FROM (SELECT DISTINCT aggregate_type, aggregate_id FROM candidates) aggregates " +
+        "    WHERE pg_try_advisory_xact_lock(hashtextextended(aggregate_type || ':' || aggregate_id, 0))) " +
+        "SELECT c.id, c.aggregate_type, c.aggregate_id, c.event_type, c.payload::text AS payload, " +
+        "       c.previous_facility_id, c.attempts, " +
+        "       extract(epoch FROM clock_timestamp() - c.created_at) * 1000 AS lag_millis " +
+        "FROM candidates c JOIN locked USING (aggregate_type, aggregate_id) " +
+        "WHERE NOT EXISTS (SELECT 1 FROM outbox_events e " +
+        "                  WHERE e.aggregate_type = c.aggregate_type AND e.aggregate_id = c.aggregate_id " +
+        "                    AND e.id < c.id AND e.id NOT IN (SELECT id FROM candidates)) " +
+        "ORDER BY c.id";
+
+    static final String DEAD_LETTER =
+        "WITH moved AS (DELETE FROM outbox_events WHERE id = ? " +
+        "    RETURNING id, aggregate_type, aggregate_id, event_type, payload, previous_facility_id, created_at) " +
+        "INSERT INTO outbox_dead_letters (id, aggregate_type, aggregate_id, event_type, payload, " +
+        "    previous_facility_id, created_at, attempts, last_error) " +
+        "SELECT id, aggregate_type, aggregate_id, event_type, payload, previous_facility_id, created_at, ?, ? " +
+        "FROM moved";
+
+    private record Claimed(ChangeEvent event, int attempts, long lagMillis) {
+    }
+
+    private record BatchResult(int claimed, int dispatched) {
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ObjectMapper objectMapper;
+    private final OutboxProperties properties;
+    private final Counter relayed;
+    private final Counter failed;
+    private final Counter deadLettered;
+    private final Timer lag;
+    private final AtomicLong pending = new AtomicLong();
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    // Same pool as PatientArchiver: never routed to a replica, and kept out of the slow-query diagnostics
+    public OutboxRelay(HikariDataSource primaryDataSource, ApplicationEventPublisher eventPublisher,
+                       ObjectMapper objectMapper, OutboxProperties properties, MeterRegistry meterRegistry) {
+        this.jdbcTemplate = new JdbcTemplate(primaryDataSource);
+        this.transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(primaryDataSource));
+        this.eventPublisher = eventPublisher;
+        this.objectMapper = objectMapper;
+        this.properties = properties;
+        this.relayed = Counter.builder("healthcare.outbox.events")
+            .description("Outbox events dispatched to listeners, or whose listener failed")
+            .tag("result", "relayed")
+            .register(meterRegistry);
+        this.failed = Counter.builder("healthcare.outbox.events")
+            .description("Outbox events dispatched to listeners, or whose listener failed")
+            .tag("result", "failed")
+            .register(meterRegistry);
+        this.deadLettered = Counter.builder("healthcare.outbox.events")
+            .description("Outbox events dispatched to listeners, or whose listener failed")
+            .tag("result", "dead_lettered")
+            .register(meterRegistry);
+        this.lag = Timer.builder("healthcare.outbox.lag")
+            .description("Time from writing an outbox event to dispatching it")
+            .publishPercentileHistogram()
+            .register(meterRegistry);
+        Gauge.builder("healthcare.outbox.pending", pending, AtomicLong::get)
+            .description("Outbox events waiting to be relayed, as of the last relay run")
+            .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${app.outbox.poll-interval:PT1S}")
+    public void relay() {
+        if (properties.isRelayEnabled()) {
+            drain();
+        }
+    }
+
+    // Returns the number of events dispatched; 0 when another run in this instance is still going
+    public long drain() {
+        if (!running.compareAndSet(false, true)) {
+            return 0;
+        }
+        try {
+            long dispatched = 0;
+            BatchResult batch;
+            do {
+                batch = transactionTemplate.execute(status -> relayBatch());
+                dispatched += batch.dispatched();
+                // A full batch in which every listener failed is retried on the next run, not in a loop
+            } while (batch.claimed() == properties.getBatchSize() && batch.dispatched() > 0);
+            pending.set(jdbcTemplate.queryForObject("SELECT count(*) FROM outbox_events", Long.class));
+            return dispatched;
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private BatchResult relayBatch() {
+        List<Claimed> batch = jdbcTemplate.query(CLAIM_BATCH, (row, rowNum) -> new Claimed(
+            new ChangeEvent(row.getLong("id"),
+                OutboxEvent.AggregateType.valueOf(row.getString("aggregate_type")),
+                row.getLong("aggregate_id"),
+                OutboxEvent.EventType.valueOf(row.getString("event_type")),
+                readPayload(row.getString("payload")),
+                row.getObject("previous_facility_id", Long.class)),
+            row.getInt("attempts"), row.getLong("lag_millis")), properties.getBatchSize());
+
+        List<Long> dispatched = new ArrayList<>(batch.size());
+        Set<String> blocked = new HashSet<>();
+        for (Claimed claimed : batch) {
+            ChangeEvent event = claimed.event();
+            String aggregate = event.aggregateType() + ":" + event.aggregateId();
+            if (blocked.contains(aggregate)) {
+                continue;
+            }
+            try {
+                eventPublisher.publishEvent(event);
+                dispatched.add(event.id());
+                relayed.increment();
+                lag.record(Duration.ofMillis(claimed.lagMillis()));
+            } catch (RuntimeException e) {
+                blocked.add(aggregate);
+                failed.increment();
+                failed(claimed, aggregate, e);
+            }
+        }
+        if (!dispatched.isEmpty()) {
+            jdbcTemplate.update("DELETE FROM outbox_events WHERE id = ANY (?)", (PreparedStatement statement) ->
+                statement.setArray(1, statement.getConnection().createArrayOf("bigint", dispatched.toArray())));
+        }
+        return new BatchResult(batch.size(), dispatched.size());
+    }
+
+    private void failed(Claimed claimed, String aggregate, RuntimeException e) {
+        ChangeEvent event = claimed.event();
+        int attempts = claimed.attempts() + 1;
+        if (attempts >= properties.getMaxAttempts()) {
+            log.error("Listener failed {} times for outbox event {} ({} {}); moved to outbox_dead_letters",
+                attempts, event.id(), event.eventType(), aggregate, e);
+            jdbcTemplate.update(DEAD_LETTER, event.id(), attempts, e.toString());
+            deadLettered.increment();
+            return;
+        }
+        Duration backoff = backoff(attempts);
+        if (attempts == 1) {
+            log.warn("Listener failed for outbox event {} ({} {}); retrying in {}",
+                event.id(), event.eventType(), aggregate, backoff, e);
+        } else {
+            // The stack trace was logged on the first failure
+            log.warn("Listener failed again for outbox event {} ({} {}), attempt {}: {}; retrying in {}",
+                event.id(), event.eventType(), aggregate, attempts, e.toString(), backoff);
+        }
+        jdbcTemplate.update("UPDATE outbox_events SET attempts = ?, " +
+            "next_attempt_at = clock_timestamp() + ? * interval '1 millisecond' WHERE id = ?",
+            attempts, backoff.toMillis(), event.id());
+    }
+
+    private Duration backoff(int attempts) {
+        Duration backoff = properties.getRetryBackoff().multipliedBy(1L << Math.min(attempts - 1, 30));
+        return backoff.compareTo(properties.getMaxRetryBackoff()) > 0 ? properties.getMaxRetryBackoff() : backoff;
+    }
+
+    private JsonNode readPayload(String payload) {
+        try {
+            return objectMapper.readTree(payload);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Unreadable outbox payload", e);
+        }
+    }
+}
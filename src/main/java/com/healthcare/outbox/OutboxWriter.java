@@ -0,0 +1,67 @@
+package com.healthcare.outbox;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.healthcare.dto.FacilityDTO;
+import com.healthcare.dto.PatientDTO;
+import com.healthcare.model.OutboxEvent;
+import com.healthcare.repository.OutboxEventRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+// Appends change events to the outbox. MANDATORY propagation: an event is only ever written in
+// the transaction of the change it describes, so both commit or neither does. Call it after the
+// entity write is flushed, which keeps outbox ids in commit order for any one aggregate.
+//
+// Payloads carry ids and the row version only, never patient details: the outbox is not archived
+// or purged like patients are, and consumers load the current row when they need more.
+@Component
+@RequiredArgsConstructor
+public class OutboxWriter {
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final ObjectMapper objectMapper;
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void patientChanged(OutboxEvent.EventType eventType, PatientDTO patient) {
+        append(OutboxEvent.AggregateType.PATIENT, patient.getId(), eventType, payload(patient), null);
+    }
+
+    // An update that moved the patient out of previousFacilityId
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void patientTransferred(PatientDTO patient, Long previousFacilityId) {
+        append(OutboxEvent.AggregateType.PATIENT, patient.getId(), OutboxEvent.EventType.UPDATED, payload(patient),
+            previousFacilityId);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void facilityChanged(OutboxEvent.EventType eventType, FacilityDTO facility) {
+        append(OutboxEvent.AggregateType.FACILITY, facility.getId(), eventType,
+            objectMapper.createObjectNode().put("id", facility.getId()).put("version", facility.getVersion()), null);
+    }
+
+    private ObjectNode payload(PatientDTO patient) {
+        return objectMapper.createObjectNode()
+            .put("id", patient.getId())
+            .put("version", patient.getVersion())
+            .put("facilityId", patient.getFacilityId());
+    }
+
+    private void append(OutboxEvent.AggregateType aggregateType, Long aggregateId, OutboxEvent.EventType eventType,
+                        ObjectNode payload, Long previousFacilityId) {
+        try {
+            outboxEventRepository.save(OutboxEvent.builder()
+                .aggregateType(aggregateType)
+                .aggregateId(aggregateId)
+                .eventType(eventType)
+                .previousFacilityId(previousFacilityId)
+                .payload(objectMapper.writeValueAsString(payload))
+                .build());
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize " + aggregateType + " " + aggregateId, e);
+        }
+    }
+}
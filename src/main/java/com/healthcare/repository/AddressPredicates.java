@@ -0,0 +1,42 @@
+package com.healthcare.repository;
+
+import com.healthcare.dto.AddressFilterDTO;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Predicate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+// Criteria predicates on JSONB address columns, built only for the filters that are present so
+// each one can use its expression index.
+public final class AddressPredicates {
+
+    private AddressPredicates() {
+    }
+
+    public static Predicate matching(CriteriaBuilder criteriaBuilder, Expression<?> address, AddressFilterDTO filter) {
+        List<Predicate> predicates = new ArrayList<>();
+        addEquals(predicates, criteriaBuilder, "address_city", address, filter.getCity());
+        addEquals(predicates, criteriaBuilder, "address_region", address, filter.getRegion());
+        addEquals(predicates, criteriaBuilder, "address_postal_code", address, filter.getPostalCode());
+        return criteriaBuilder.and(predicates.toArray(Predicate[]::new));
+    }
+
+    // Free-form location (city, region or postal code), as given to the chat tools
+    public static Predicate locatedIn(CriteriaBuilder criteriaBuilder, Expression<?> address, String location) {
+        List<Predicate> predicates = new ArrayList<>();
+        addEquals(predicates, criteriaBuilder, "address_city", address, location);
+        addEquals(predicates, criteriaBuilder, "address_region", address, location);
+        addEquals(predicates, criteriaBuilder, "address_postal_code", address, location);
+        return criteriaBuilder.or(predicates.toArray(Predicate[]::new));
+    }
+
+    private static void addEquals(List<Predicate> predicates, CriteriaBuilder criteriaBuilder, String function,
+                                  Expression<?> address, String value) {
+        if (value != null && !value.isBlank()) {
+            predicates.add(criteriaBuilder.equal(criteriaBuilder.function(function, String.class, address),
+                value.trim().toLowerCase(Locale.ROOT)));
+        }
+    }
+}
@@ -1,21 +1,22 @@
 package com.healthcare.repository;
 
+import com.healthcare.index.FacilityLocation;
 import com.healthcare.model.Facility;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 @Repository
-public interface FacilityRepository extends JpaRepository<Facility, Long> {
+public interface FacilityRepository extends JpaRepository<Facility, Long>, JpaSpecificationExecutor<Facility> {
 
     Page<Facility> findByIsActiveTrue(Pageable pageable);
 
-    Page<Facility> findByNameContainingIgnoreCaseAndIsActiveTrue(String name, Pageable pageable);
-
     Page<Facility> findByTypeAndIsActiveTrue(Facility.FacilityType type, Pageable pageable);
 
     @Query("SELECT f FROM Facility f WHERE f.isActive = true AND (" +
@@ -26,10 +27,22 @@ public interface FacilityRepository extends JpaRepository<Facility, Long> {
     @Query("SELECT COUNT(p) FROM Patient p WHERE p.facility.id = :facilityId AND p.deletedAt IS NULL")
     Long countPatientsByFacilityId(Long facilityId);
 
+    @Query("SELECT p.facility.id, COUNT(p) FROM Patient p WHERE p.facility.id IN :facilityIds " +
+        "AND p.deletedAt IS NULL GROUP BY p.facility.id")
+    List<Object[]> countPatientsByFacilityIds(Collection<Long> facilityIds);
+
     Optional<Facility> findByIdAndIsActiveTrue(Long id);
 
+    List<Facility> findByIdInAndIsActiveTrue(Collection<Long> ids);
+
+    boolean existsByIdAndIsActiveTrue(Long id);
+
     @Query("SELECT f.type, COUNT(f) FROM Facility f WHERE f.isActive = true GROUP BY f.type")
     List<Object[]> countFacilitiesByType();
 
     long countByIsActiveTrue();
+
+    @Query("SELECT new com.healthcare.index.FacilityLocation(f.id, f.name, f.type, f.latitude, f.longitude) " +
+        "FROM Facility f WHERE f.isActive = true AND f.latitude IS NOT NULL AND f.longitude IS NOT NULL")
+    List<FacilityLocation> findActiveLocations();
 }
\ No newline at end of file
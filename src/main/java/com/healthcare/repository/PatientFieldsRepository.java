@@ -0,0 +1,19 @@
+package com.healthcare.repository;
+
+import com.healthcare.dto.PatientField;
+import com.healthcare.model.Patient;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+
+// Sparse fieldsets: SELECTs only the columns of the requested fields, without loading entities,
+// and returns each row as a map from field name to value
+public interface PatientFieldsRepository {
+
+    Page<Map<String, Object>> findFields(Set<PatientField> fields, Specification<Patient> where, Pageable pageable);
+
+    List<Map<String, Object>> findFields(Set<PatientField> fields, Specification<Patient> where);
+}
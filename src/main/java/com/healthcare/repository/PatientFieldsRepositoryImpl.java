@@ -0,0 +1,91 @@
+package com.healthcare.repository;
+
+import com.healthcare.dto.PatientField;
+import com.healthcare.model.Patient;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.data.support.PageableExecutionUtils;
+
+class PatientFieldsRepositoryImpl implements PatientFieldsRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Page<Map<String, Object>> findFields(Set<PatientField> fields, Specification<Patient> where,
+                                                Pageable pageable) {
+        TypedQuery<Tuple> query = select(fields, where, pageable);
+        if (pageable.isPaged()) {
+            query.setFirstResult((int) pageable.getOffset());
+            query.setMaxResults(pageable.getPageSize());
+        }
+        // Counts only when the page is full or not the first, as Spring Data's own pages do
+        return PageableExecutionUtils.getPage(toRows(fields, query.getResultList()), pageable, () -> count(where));
+    }
+
+    @Override
+    public List<Map<String, Object>> findFields(Set<PatientField> fields, Specification<Patient> where) {
+        return toRows(fields, select(fields, where, Pageable.unpaged()).getResultList());
+    }
+
+    private TypedQuery<Tuple> select(Set<PatientField> fields, Specification<Patient> where, Pageable pageable) {
+        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = criteriaBuilder.createTupleQuery();
+        Root<Patient> root = query.from(Patient.class);
+        query.multiselect(fields.stream().<Selection<?>>map(field -> attribute(root, field)).toList());
+        Predicate predicate = where.toPredicate(root, query, criteriaBuilder);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        query.orderBy(QueryUtils.toOrders(pageable.getSort(), root, criteriaBuilder));
+        return entityManager.createQuery(query);
+    }
+
+    private long count(Specification<Patient> where) {
+        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = criteriaBuilder.createQuery(Long.class);
+        Root<Patient> root = query.from(Patient.class);
+        query.select(criteriaBuilder.count(root));
+        Predicate predicate = where.toPredicate(root, query, criteriaBuilder);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        return entityManager.createQuery(query).getSingleResult();
+    }
+
+    // facility.id reads the facility_id column; no join
+    private static Path<?> attribute(Root<Patient> root, PatientField field) {
+        Path<?> path = root;
+        for (String name : field.getAttribute().split("\\.")) {
+            path = path.get(name);
+        }
+        return path;
+    }
+
+    private static List<Map<String, Object>> toRows(Set<PatientField> fields, List<Tuple> tuples) {
+        return tuples.stream().map(tuple -> {
+            Map<String, Object> row = new LinkedHashMap<>();
+            int i = 0;
+            for (PatientField field : fields) {
+                row.put(field.getProperty(), tuple.get(i++));
+            }
+            return row;
+        }).toList();
+    }
+}
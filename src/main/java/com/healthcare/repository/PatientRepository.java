@@ -1,24 +1,29 @@
 package com.healthcare.repository;
 
 import com.healthcare.model.Patient;
+import java.util.Collection;
 import java.util.List;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import java.util.Optional;
 
 @Repository
-public interface PatientRepository extends JpaRepository<Patient, Long>, JpaSpecificationExecutor<Patient> {
+public interface PatientRepository extends JpaRepository<Patient, Long>, JpaSpecificationExecutor<Patient>,
+    PatientFieldsRepository {
 
     Page<Patient> findByDeletedAtIsNull(Pageable pageable);
 
     @Query("SELECT p FROM Patient p WHERE p.deletedAt IS NULL")
     List<Patient> findPatientsByDeletedAtIsNull(Pageable pageable);
 
+    // Facility-scoped queries compare facility_id directly (no join), so once patients is
+    // partitioned by facility they prune to a single partition, also for generic prepared plans
     Page<Patient> findByFacilityIdAndDeletedAtIsNull(Long facilityId, Pageable pageable);
 
     @Query("SELECT p FROM Patient p WHERE p.deletedAt IS NULL AND (" +
@@ -37,10 +42,34 @@ public interface PatientRepository extends JpaRepository<Patient, Long>, JpaSpec
 
     Optional<Patient> findByIdAndDeletedAtIsNull(Long id);
 
+    List<Patient> findByIdInAndDeletedAtIsNull(Collection<Long> ids);
+
     boolean existsByMedicalRecordNumberAndDeletedAtIsNull(String medicalRecordNumber);
 
+    @Query("SELECT p.medicalRecordNumber FROM Patient p WHERE p.deletedAt IS NULL AND p.medicalRecordNumber IN :medicalRecordNumbers")
+    List<String> findActiveMedicalRecordNumbers(@Param("medicalRecordNumbers") Collection<String> medicalRecordNumbers);
+
     @Query("SELECT COUNT(p) FROM Patient p WHERE p.deletedAt IS NULL")
     long countActivePatients();
 
     long countByDeletedAtIsNull();
-}
\ No newline at end of file
+
+    @Query(value = "SELECT EXISTS (SELECT 1 FROM patients_archive WHERE id = :id)", nativeQuery = true)
+    boolean existsInArchive(@Param("id") Long id);
+
+    // Copies an archived row back, still soft-deleted. Returns 0 when its medical record number
+    // has since been given to an active patient.
+    @Modifying
+    @Query(value = "INSERT INTO patients (id, facility_id, first_name, last_name, email, phone, date_of_birth, gender, " +
+        "medical_record_number, address, created_at, updated_at, deleted_at, version) " +
+        "SELECT id, facility_id, first_name, last_name, email, phone, date_of_birth, gender, " +
+        "medical_record_number, address, created_at, updated_at, deleted_at, version FROM patients_archive a " +
+        "WHERE a.id = :id AND NOT EXISTS (SELECT 1 FROM patients p " +
+        "WHERE p.medical_record_number = a.medical_record_number AND p.deleted_at IS NULL)",
+        nativeQuery = true)
+    int copyFromArchive(@Param("id") Long id);
+
+    @Modifying
+    @Query(value = "DELETE FROM patients_archive WHERE id = :id", nativeQuery = true)
+    int deleteFromArchive(@Param("id") Long id);
+}
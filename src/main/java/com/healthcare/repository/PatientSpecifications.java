@@ -0,0 +1,97 @@
+package com.healthcare.repository;
+
+import com.healthcare.dto.PatientSearchDTO;
+import com.healthcare.model.Patient;
+import jakarta.persistence.criteria.Predicate;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Locale;
+import org.springframework.data.jpa.domain.Specification;
+
+// Criteria versions of the patient filters, for queries that cannot be derived or written as JPQL
+// up front, such as searches over any combination of fields or column-restricted projections.
+// Each LIKE compares lower(column) so it can use the column's trigram index.
+public final class PatientSpecifications {
+
+    private PatientSpecifications() {
+    }
+
+    public static Specification<Patient> active() {
+        return (root, query, criteriaBuilder) -> criteriaBuilder.isNull(root.get("deletedAt"));
+    }
+
+    public static Specification<Patient> inFacility(Long facilityId) {
+        return (root, query, criteriaBuilder) -> criteriaBuilder.equal(root.get("facility").get("id"), facilityId);
+    }
+
+    public static Specification<Patient> withIds(Collection<Long> ids) {
+        return (root, query, criteriaBuilder) -> root.get("id").in(ids);
+    }
+
+    // PatientRepository.searchPatients, or every active patient without a search term
+    public static Specification<Patient> activeMatching(String search) {
+        Specification<Patient> where = active();
+        return search == null || search.trim().isEmpty()
+            ? where : where.and(containing(search, "firstName", "lastName", "email", "medicalRecordNumber"));
+    }
+
+    // PatientRepository.searchPatientsByFacility, or findByFacilityIdAndDeletedAtIsNull without a search term
+    public static Specification<Patient> inFacilityMatching(Long facilityId, String search) {
+        Specification<Patient> where = active().and(inFacility(facilityId));
+        return search == null || search.trim().isEmpty()
+            ? where : where.and(containing(search, "firstName", "lastName"));
+    }
+
+    private static Specification<Patient> containing(String search, String... attributes) {
+        String pattern = "%" + search.toLowerCase(Locale.ROOT) + "%";
+        return (root, query, criteriaBuilder) -> criteriaBuilder.or(Arrays.stream(attributes)
+            .map(attribute -> criteriaBuilder.like(criteriaBuilder.lower(root.get(attribute)), pattern))
+            .toArray(Predicate[]::new));
+    }
+
+    public static Specification<Patient> matching(PatientSearchDTO search) {
+        return (root, query, criteriaBuilder) -> {
+            var predicates = criteriaBuilder.conjunction();
+
+            // Only non-deleted patients
+            predicates = criteriaBuilder.and(predicates,
+                criteriaBuilder.isNull(root.get("deletedAt")));
+
+            if (search.getFirstName() != null && !search.getFirstName().isEmpty()) {
+                predicates = criteriaBuilder.and(predicates,
+                    criteriaBuilder.like(criteriaBuilder.lower(root.get("firstName")),
+                        "%" + search.getFirstName().toLowerCase() + "%"));
+            }
+
+            if (search.getLastName() != null && !search.getLastName().isEmpty()) {
+                predicates = criteriaBuilder.and(predicates,
+                    criteriaBuilder.like(criteriaBuilder.lower(root.get("lastName")),
+                        "%" + search.getLastName().toLowerCase() + "%"));
+            }
+
+            if (search.getEmail() != null && !search.getEmail().isEmpty()) {
+                predicates = criteriaBuilder.and(predicates,
+                    criteriaBuilder.like(criteriaBuilder.lower(root.get("email")),
+                        "%" + search.getEmail().toLowerCase() + "%"));
+            }
+
+            if (search.getFacilityId() != null) {
+                predicates = criteriaBuilder.and(predicates,
+                    criteriaBuilder.equal(root.get("facility").get("id"), search.getFacilityId()));
+            }
+
+            if (search.getMedicalRecordNumber() != null && !search.getMedicalRecordNumber().isEmpty()) {
+                predicates = criteriaBuilder.and(predicates,
+                    criteriaBuilder.like(criteriaBuilder.lower(root.get("medicalRecordNumber")),
+                        "%" + search.getMedicalRecordNumber().toLowerCase() + "%"));
+            }
+
+            if (search.getAddress() != null && !search.getAddress().isEmpty()) {
+                predicates = criteriaBuilder.and(predicates,
+                    AddressPredicates.matching(criteriaBuilder, root.get("address"), search.getAddress()));
+            }
+
+            return predicates;
+        };
+    }
+}
@@ -0,0 +1,104 @@
+package com.healthcare.repository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.OptionalLong;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+import javax.sql.DataSource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+// Active patient and facility counts for the chat tools and stats, which ask for them constantly.
+// An exact COUNT reads every matching row, which takes seconds on a large patients table, so above
+// exactBelow rows the count is estimated from planner statistics the way the planner does it: the
+// tuple density ANALYZE or VACUUM last recorded (pg_class.reltuples / relpages), times the table's
+// current size in pages, times the share of matching rows in ANALYZE's sample (pg_stats). Partitions
+// are summed. The sample is 30,000 rows at the default statistics target, so the share is within
+// about 1%; on top of that come the soft deletes and restores since the last ANALYZE, which
+// autovacuum runs once autovacuum_analyze_scale_factor (10%) of the table has changed.
+@Component
+public class RowCountEstimator {
+
+    // Rows per page as of the last ANALYZE/VACUUM, scaled to the current size, summed over a table or its partitions
+    private static final String ESTIMATED_ROWS =
+        "SELECT CASE WHEN bool_or(c.reltuples < 0) THEN NULL ELSE " +
+        "       sum(CASE WHEN c.relpages > 0 " +
+        "                THEN c.reltuples / c.relpages * (pg_relation_size(c.oid) / current_setting('block_size')::int) " +
+        "                ELSE c.reltuples END) END " +
+        "FROM pg_class c " +
+        "WHERE c.relkind = 'r' AND (c.oid = CAST(? AS regclass) " +
+        "   OR c.oid IN (SELECT inhrelid FROM pg_inherits WHERE inhparent = CAST(? AS regclass)))";
+
+    // Prefers the statistics over all partitions on a partitioned table
+    private static final String ACTIVE_PATIENT_SHARE =
+        "SELECT null_frac FROM pg_stats " +
+        "WHERE schemaname = current_schema() AND tablename = 'patients' AND attname = 'deleted_at' " +
+        "ORDER BY inherited DESC LIMIT 1";
+
+    private static final String ACTIVE_FACILITY_SHARE =
+        "SELECT coalesce(most_common_freqs[array_position(most_common_vals::text::boolean[], true)], 0) " +
+        "FROM pg_stats " +
+        "WHERE schemaname = current_schema() AND tablename = 'facilities' AND attname = 'is_active' " +
+        "ORDER BY inherited DESC LIMIT 1";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final PatientRepository patientRepository;
+    private final FacilityRepository facilityRepository;
+    private final RowCountProperties properties;
+    private final MeterRegistry meterRegistry;
+
+    public RowCountEstimator(DataSource dataSource, PatientRepository patientRepository,
+                             FacilityRepository facilityRepository, RowCountProperties properties,
+                             MeterRegistry meterRegistry) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.patientRepository = patientRepository;
+        this.facilityRepository = facilityRepository;
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+    }
+
+    public long activePatients() {
+        return count("patients", this::estimateActivePatients, patientRepository::countByDeletedAtIsNull);
+    }
+
+    public long activeFacilities() {
+        return count("facilities", this::estimateActiveFacilities, facilityRepository::countByIsActiveTrue);
+    }
+
+    // Empty until the table has been analyzed
+    public OptionalLong estimateActivePatients() {
+        return estimate("patients", ACTIVE_PATIENT_SHARE);
+    }
+
+    public OptionalLong estimateActiveFacilities() {
+        return estimate("facilities", ACTIVE_FACILITY_SHARE);
+    }
+
+    private long count(String table, Supplier<OptionalLong> estimator, LongSupplier exact) {
+        OptionalLong estimate = properties.isEstimate() ? estimator.get() : OptionalLong.empty();
+        if (estimate.isPresent() && estimate.getAsLong() >= properties.getExactBelow()) {
+            counted(table, "estimate").increment();
+            return estimate.getAsLong();
+        }
+        counted(table, "exact").increment();
+        return exact.getAsLong();
+    }
+
+    private OptionalLong estimate(String table, String matchingShareQuery) {
+        Double rows = jdbcTemplate.queryForObject(ESTIMATED_ROWS, Double.class, table, table);
+        Double share = jdbcTemplate.query(matchingShareQuery, resultSet -> resultSet.next() ? resultSet.getDouble(1) : null);
+        if (rows == null || share == null) {
+            return OptionalLong.empty();
+        }
+        return OptionalLong.of(Math.round(rows * share));
+    }
+
+    private Counter counted(String table, String method) {
+        return Counter.builder("healthcare.row.counts")
+            .description("Row counts answered from planner statistics or by counting")
+            .tag("table", table)
+            .tag("method", method)
+            .register(meterRegistry);
+    }
+}
@@ -0,0 +1,15 @@
+package com.healthcare.repository;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties("app.row-counts")
+public class RowCountProperties {
+
+    // Whether the chat tools and stats may use estimates at all
+    private boolean estimate = true;
+
+    // Tables estimated to hold fewer matching rows than this are counted exactly, which is cheap there
+    private long exactBelow = 100_000;
+}
@@ -0,0 +1,128 @@
+package com.healthcare.repository;
+
+import com.healthcare.dto.PageRequestDTO;
+import com.healthcare.model.Facility;
+import com.healthcare.model.Patient;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mapping.PropertyReferenceException;
+import org.springframework.data.mapping.PropertyPath;
+import org.springframework.stereotype.Component;
+
+// Turns a client's sortBy into an ordering an index can serve for the endpoint, always ending in id
+// so pages stay stable. A sort by any other field would make PostgreSQL sort every matching row to
+// return one page; it is downgraded to the endpoint's default order or rejected
+// (app.sorting.unindexed). A sortBy that is not a field at all is rejected with 400.
+@Slf4j
+@Component
+public class SortPlanner {
+
+    private static final String DEFAULT_SORT = "id";
+
+    public enum Endpoint {
+        // idx_patients_active_id, idx_patients_active_last_name_id, idx_patients_name (first_name, last_name),
+        // idx_patients_active_mrn and idx_patients_updated_at_id
+        PATIENTS("patients", Patient.class, Map.of(
+            "id", List.of("id"),
+            "lastName", List.of("lastName", "firstName", "id"),
+            "firstName", List.of("firstName", "lastName", "id"),
+            "medicalRecordNumber", List.of("medicalRecordNumber", "id"),
+            "updatedAt", List.of("updatedAt", "id"))),
+        // idx_patients_active_facility_id (facility_id, id)
+        FACILITY_PATIENTS("facility-patients", Patient.class, Map.of(
+            "id", List.of("id"))),
+        // idx_facilities_active_id, idx_facilities_name and idx_facilities_active_type_id
+        FACILITIES("facilities", Facility.class, Map.of(
+            "id", List.of("id"),
+            "name", List.of("name", "id"),
+            "type", List.of("type", "id")));
+
+        private final String tag;
+        private final Class<?> entity;
+        private final Map<String, List<String>> orderings;
+
+        Endpoint(String tag, Class<?> entity, Map<String, List<String>> orderings) {
+            this.tag = tag;
+            this.entity = entity;
+            this.orderings = new TreeMap<>(orderings);
+        }
+
+        public Set<String> sortable() {
+            return orderings.keySet();
+        }
+    }
+
+    private final SortProperties properties;
+    private final MeterRegistry meterRegistry;
+    // Built once; Sort is immutable
+    private final Map<Endpoint, Map<String, Sort>> ascending = new EnumMap<>(Endpoint.class);
+    private final Map<Endpoint, Map<String, Sort>> descending = new EnumMap<>(Endpoint.class);
+
+    public SortPlanner(SortProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        for (Endpoint endpoint : Endpoint.values()) {
+            Map<String, Sort> ascendingSorts = new HashMap<>();
+            Map<String, Sort> descendingSorts = new HashMap<>();
+            endpoint.orderings.forEach((sortBy, orderProperties) -> {
+                ascendingSorts.put(sortBy, Sort.by(Sort.Direction.ASC, orderProperties.toArray(String[]::new)));
+                descendingSorts.put(sortBy, Sort.by(Sort.Direction.DESC, orderProperties.toArray(String[]::new)));
+            });
+            ascending.put(endpoint, ascendingSorts);
+            descending.put(endpoint, descendingSorts);
+        }
+    }
+
+    public Pageable plan(PageRequestDTO pageRequest, Endpoint endpoint) {
+        String sortBy = pageRequest.getSortBy() == null || pageRequest.getSortBy().isBlank()
+            ? DEFAULT_SORT : pageRequest.getSortBy().strip();
+        Map<String, Sort> sorts = "DESC".equalsIgnoreCase(pageRequest.getSortDirection())
+            ? descending.get(endpoint) : ascending.get(endpoint);
+
+        Sort sort = sorts.get(sortBy);
+        if (sort != null) {
+            planned(endpoint, sortBy, "index").increment();
+        } else if (!isProperty(endpoint, sortBy)) {
+            planned(endpoint, "none", "rejected").increment();
+            throw new IllegalArgumentException("Unknown sort field '" + sortBy + "'; sortable fields: "
+                + String.join(", ", endpoint.sortable()));
+        } else if (properties.getUnindexed() == SortProperties.Unindexed.REJECT) {
+            planned(endpoint, "none", "rejected").increment();
+            throw new IllegalArgumentException("Sorting by '" + sortBy + "' is not supported here; sortable fields: "
+                + String.join(", ", endpoint.sortable()));
+        } else {
+            log.debug("Sorting {} by {} instead of unindexed {}", endpoint.tag, DEFAULT_SORT, sortBy);
+            planned(endpoint, DEFAULT_SORT, "downgraded").increment();
+            sort = sorts.get(DEFAULT_SORT);
+        }
+        return PageRequest.of(pageRequest.getPage(), pageRequest.getSize(), sort);
+    }
+
+    private static boolean isProperty(Endpoint endpoint, String sortBy) {
+        try {
+            PropertyPath.from(sortBy, endpoint.entity);
+            return true;
+        } catch (PropertyReferenceException | IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    private Counter planned(Endpoint endpoint, String sort, String outcome) {
+        return Counter.builder("healthcare.sort.plans")
+            .description("Page sorts served in index order, downgraded to the default order, or rejected")
+            .tag("endpoint", endpoint.tag)
+            .tag("sort", sort)
+            .tag("outcome", outcome)
+            .register(meterRegistry);
+    }
+}
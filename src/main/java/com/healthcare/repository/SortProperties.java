@@ -0,0 +1,19 @@
+package com.healthcare.repository;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties("app.sorting")
+public class SortProperties {
+
+    public enum Unindexed {
+        // Served in the endpoint's default order instead
+        DOWNGRADE,
+        // Answered with 400
+        REJECT
+    }
+
+    // What happens to a sort by a real field that no index can serve for the endpoint
+    private Unindexed unindexed = Unindexed.DOWNGRADE;
+}
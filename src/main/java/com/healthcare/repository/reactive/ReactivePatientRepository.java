@@ -0,0 +1,141 @@
+package com.healthcare.repository.reactive;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.healthcare.dto.PatientChangeDTO;
+import com.healthcare.dto.PatientDTO;
+import com.healthcare.model.Address;
+import com.healthcare.model.Patient;
+import io.r2dbc.spi.Readable;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import lombok.RequiredArgsConstructor;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+// Read-only queries over R2DBC; rows are mapped straight to PatientDTO without going through the
+// JPA entity, so no persistence context or lazy associations are involved.
+@Repository
+@RequiredArgsConstructor
+public class ReactivePatientRepository {
+
+    private static final String SELECT_ACTIVE =
+        "SELECT id, facility_id, first_name, last_name, email, phone, date_of_birth, gender, " +
+            "medical_record_number, address::text AS address, version FROM patients WHERE deleted_at IS NULL";
+
+    // Every patient, including soft-deleted ones, in change-feed order
+    static final String SELECT_CHANGES =
+        "SELECT id, facility_id, first_name, last_name, email, phone, date_of_birth, gender, " +
+            "medical_record_number, address::text AS address, version, created_at, updated_at, deleted_at " +
+            "FROM patients " +
+            "WHERE updated_at < :before";
+
+    // Rows fetched per round trip when a result is streamed
+    private static final int FETCH_SIZE = 256;
+
+    private final DatabaseClient databaseClient;
+    private final ObjectMapper objectMapper;
+
+    public Flux<PatientDTO> findActive(int limit, long offset) {
+        return databaseClient.sql(SELECT_ACTIVE + " ORDER BY id LIMIT :limit OFFSET :offset")
+            .filter(statement -> statement.fetchSize(FETCH_SIZE))
+            .bind("limit", limit)
+            .bind("offset", offset)
+            .map(this::toPatientDTO)
+            .all();
+    }
+
+    public Mono<PatientDTO> findActiveById(Long id) {
+        return databaseClient.sql(SELECT_ACTIVE + " AND id = :id")
+            .bind("id", id)
+            .map(this::toPatientDTO)
+            .one();
+    }
+
+    public Flux<PatientDTO> findActiveByFacility(Long facilityId, int limit, long offset) {
+        return databaseClient.sql(SELECT_ACTIVE + " AND facility_id = :facilityId ORDER BY id LIMIT :limit OFFSET :offset")
+            .filter(statement -> statement.fetchSize(FETCH_SIZE))
+            .bind("facilityId", facilityId)
+            .bind("limit", limit)
+            .bind("offset", offset)
+            .map(this::toPatientDTO)
+            .all();
+    }
+
+    // Changes after the cursor (from the start when it is null) and before the given time, oldest first
+    public Flux<PatientChangeDTO> findChanges(ChangeCursor after, LocalDateTime before, int limit) {
+        String sql = SELECT_CHANGES + (after != null ? " AND (updated_at, id) > (:afterUpdatedAt, :afterId)" : "") +
+            " ORDER BY updated_at, id LIMIT :limit";
+        DatabaseClient.GenericExecuteSpec spec = databaseClient.sql(sql)
+            .filter(statement -> statement.fetchSize(FETCH_SIZE))
+            .bind("before", before)
+            .bind("limit", limit);
+        if (after != null) {
+            spec = spec.bind("afterUpdatedAt", after.updatedAt()).bind("afterId", after.id());
+        }
+        return spec.map(row -> toPatientChangeDTO(row, after)).all();
+    }
+
+    public Mono<Boolean> existsActiveFacility(Long facilityId) {
+        return databaseClient.sql("SELECT 1 FROM facilities WHERE id = :id AND is_active = true")
+            .bind("id", facilityId)
+            .map(row -> Boolean.TRUE)
+            .first()
+            .defaultIfEmpty(Boolean.FALSE);
+    }
+
+    PatientDTO toPatientDTO(Readable row) {
+        PatientDTO dto = new PatientDTO();
+        dto.setId(row.get("id", Long.class));
+        dto.setFacilityId(row.get("facility_id", Long.class));
+        dto.setFirstName(row.get("first_name", String.class));
+        dto.setLastName(row.get("last_name", String.class));
+        dto.setEmail(row.get("email", String.class));
+        dto.setPhone(row.get("phone", String.class));
+        dto.setDateOfBirth(row.get("date_of_birth", LocalDate.class));
+        String gender = row.get("gender", String.class);
+        dto.setGender(gender != null ? Patient.Gender.valueOf(gender) : null);
+        dto.setMedicalRecordNumber(row.get("medical_record_number", String.class));
+        dto.setAddress(readAddress(row.get("address", String.class)));
+        dto.setVersion(row.get("version", Long.class));
+        return dto;
+    }
+
+    private PatientChangeDTO toPatientChangeDTO(Readable row, ChangeCursor after) {
+        Long id = row.get("id", Long.class);
+        LocalDateTime updatedAt = row.get("updated_at", LocalDateTime.class);
+        String cursor = new ChangeCursor(updatedAt, id).encode();
+        if (row.get("deleted_at", LocalDateTime.class) != null) {
+            return new PatientChangeDTO(PatientChangeDTO.ChangeType.DELETED, id, updatedAt, cursor, null);
+        }
+        PatientChangeDTO.ChangeType type = createdAfter(row.get("created_at", LocalDateTime.class), id, after)
+            ? PatientChangeDTO.ChangeType.CREATED : PatientChangeDTO.ChangeType.UPDATED;
+        return new PatientChangeDTO(type, id, updatedAt, cursor, toPatientDTO(row));
+    }
+
+    // New to a client at this cursor, even if updated since: it never received the patient. Compared
+    // like the cursor itself, (created_at, id) against (updated_at, id), so a tie goes by id
+    static boolean createdAfter(LocalDateTime createdAt, long id, ChangeCursor after) {
+        if (after == null) {
+            return true;
+        }
+        if (createdAt == null) {
+            return false;
+        }
+        int byTime = createdAt.compareTo(after.updatedAt());
+        return byTime > 0 || byTime == 0 && id > after.id();
+    }
+
+    private Address readAddress(String json) {
+        if (json == null) {
+            return null;
+        }
+        try {
+            return objectMapper.readValue(json, Address.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Unreadable address JSON", e);
+        }
+    }
+}
@@ -1,22 +1,39 @@
 package com.healthcare.service;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.healthcare.dto.AddressFilterDTO;
+import com.healthcare.dto.BatchGetResponseDTO;
 import com.healthcare.dto.FacilityDTO;
+import com.healthcare.dto.NearestFacilityDTO;
 import com.healthcare.dto.PageRequestDTO;
 import com.healthcare.dto.PatientDTO;
+import com.healthcare.dto.PatientField;
 import com.healthcare.model.Facility;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import org.springframework.data.domain.Page;
 
 public interface FacilityService {
 
-     Page<FacilityDTO> getAllFacilities(PageRequestDTO pageRequest, String search, Facility.FacilityType type);
+     Page<FacilityDTO> getAllFacilities(PageRequestDTO pageRequest, String search, Facility.FacilityType type,
+                                        AddressFilterDTO addressFilter);
 
      FacilityDTO getFacilityById(Long id);
 
+     BatchGetResponseDTO<FacilityDTO> getFacilitiesByIds(List<Long> ids);
+
      FacilityDTO createFacility(FacilityDTO facilityDTO);
 
      FacilityDTO updateFacility(Long id, FacilityDTO facilityDTO);
 
+     FacilityDTO patchFacility(Long id, JsonNode patch, Long expectedVersion);
+
     void softDeleteFacility(Long id);
 
     Page<PatientDTO> getPatientsByFacility(Long facilityId, PageRequestDTO pageRequest, String search);
+    Page<Map<String, Object>> getPatientsByFacility(Long facilityId, PageRequestDTO pageRequest, String search,
+                                                    Set<PatientField> fields);
+
+    List<NearestFacilityDTO> findNearestFacilities(double latitude, double longitude, Facility.FacilityType type, int limit);
 }
\ No newline at end of file
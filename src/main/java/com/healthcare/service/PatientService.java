@@ -1,16 +1,32 @@
 package com.healthcare.service;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.healthcare.dto.BatchGetResponseDTO;
 import com.healthcare.dto.PageRequestDTO;
 import com.healthcare.dto.PatientDTO;
+import com.healthcare.dto.PatientField;
 import com.healthcare.dto.PatientSearchDTO;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import org.springframework.data.domain.Page;
 
 public interface PatientService {
     Page<PatientDTO> getAllPatients(PageRequestDTO pageRequest, String search);
+    Page<Map<String, Object>> getAllPatients(PageRequestDTO pageRequest, String search, Set<PatientField> fields);
     PatientDTO getPatientById(Long id);
+    BatchGetResponseDTO<PatientDTO> getPatientsByIds(List<Long> ids);
+    BatchGetResponseDTO<Map<String, Object>> getPatientsByIds(List<Long> ids, Set<PatientField> fields);
     PatientDTO createPatient(PatientDTO patientDTO);
+    List<PatientDTO> importPatients(List<PatientDTO> patientDTOs);
     PatientDTO updatePatient(Long id, PatientDTO patientDTO);
+    PatientDTO patchPatient(Long id, JsonNode patch, Long expectedVersion);
     void softDeletePatient(Long id);
+    PatientDTO restorePatient(Long id);
     Page<PatientDTO> getPatientsByFacility(Long facilityId, PageRequestDTO pageRequest, String search);
+    Page<Map<String, Object>> getPatientsByFacility(Long facilityId, PageRequestDTO pageRequest, String search,
+                                                    Set<PatientField> fields);
     Page<PatientDTO> searchPatients(PageRequestDTO pageRequest, PatientSearchDTO searchDTO);
+    Page<Map<String, Object>> searchPatients(PageRequestDTO pageRequest, PatientSearchDTO searchDTO,
+                                             Set<PatientField> fields);
 }
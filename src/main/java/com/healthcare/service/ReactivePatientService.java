@@ -0,0 +1,13 @@
+package com.healthcare.service;
+
+import com.healthcare.dto.PatientChangeDTO;
+import com.healthcare.dto.PatientDTO;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+public interface ReactivePatientService {
+    Flux<PatientDTO> getPatients(int page, int size);
+    Mono<PatientDTO> getPatientById(Long id);
+    Flux<PatientDTO> getPatientsByFacility(Long facilityId, int page, int size);
+    Flux<PatientChangeDTO> getChanges(String since, int limit);
+}
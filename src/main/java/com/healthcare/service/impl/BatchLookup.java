@@ -0,0 +1,43 @@
+package com.healthcare.service.impl;
+
+import com.healthcare.dto.BatchGetResponseDTO;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+// Helpers for batch gets: IN-list queries run in chunks of at most CHUNK_SIZE keys, which keeps
+// statements well below the driver's bind-parameter limit and, with in_clause_parameter_padding,
+// lets every request reuse a few cached plans
+final class BatchLookup {
+
+    static final int CHUNK_SIZE = 500;
+
+    private BatchLookup() {
+    }
+
+    static <K, T> List<T> inChunks(Collection<K> keys, Function<List<K>, ? extends Collection<T>> query) {
+        List<K> distinct = List.copyOf(new LinkedHashSet<>(keys));
+        List<T> results = new ArrayList<>(distinct.size());
+        for (int from = 0; from < distinct.size(); from += CHUNK_SIZE) {
+            results.addAll(query.apply(distinct.subList(from, Math.min(from + CHUNK_SIZE, distinct.size()))));
+        }
+        return results;
+    }
+
+    static <T> BatchGetResponseDTO<T> inRequestOrder(List<Long> ids, Map<Long, T> byId) {
+        List<T> found = new ArrayList<>(byId.size());
+        List<Long> missing = new ArrayList<>();
+        for (Long id : new LinkedHashSet<>(ids)) {
+            T value = byId.get(id);
+            if (value != null) {
+                found.add(value);
+            } else {
+                missing.add(id);
+            }
+        }
+        return new BatchGetResponseDTO<>(found, missing);
+    }
+}
@@ -1,36 +1,70 @@
 package com.healthcare.service.impl;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.healthcare.cache.CacheInvalidator;
+import com.healthcare.cache.CacheNames;
+import com.healthcare.dto.AddressFilterDTO;
+import com.healthcare.dto.BatchGetResponseDTO;
 import com.healthcare.dto.FacilityDTO;
+import com.healthcare.dto.NearestFacilityDTO;
 import com.healthcare.dto.PageRequestDTO;
 import com.healthcare.dto.PatientDTO;
+import com.healthcare.dto.PatientField;
+import com.healthcare.index.FacilityLocationIndex;
 import com.healthcare.mapper.EntityMapper;
+import com.healthcare.mapper.JsonMergePatch;
 import com.healthcare.model.Facility;
+import com.healthcare.model.OutboxEvent;
 import com.healthcare.model.Patient;
+import com.healthcare.outbox.OutboxWriter;
+import com.healthcare.repository.AddressPredicates;
 import com.healthcare.repository.FacilityRepository;
 import com.healthcare.repository.PatientRepository;
+import com.healthcare.repository.PatientSpecifications;
+import com.healthcare.repository.SortPlanner;
 import com.healthcare.service.FacilityService;
+import io.micrometer.core.annotation.Timed;
 import jakarta.persistence.EntityNotFoundException;
 import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
 import lombok.RequiredArgsConstructor;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 @Service
 @RequiredArgsConstructor
+@Timed(value = "healthcare.service", histogram = true)
 public class FacilityServiceImpl implements FacilityService {
 
+    private static final int MAX_NEAREST_LIMIT = 100;
+
     private final FacilityRepository facilityRepository;
     private final PatientRepository patientRepository;
     private final EntityMapper facilityMapper;
+    private final FacilityLocationIndex facilityLocationIndex;
+    private final JsonMergePatch jsonMergePatch;
+    private final OutboxWriter outboxWriter;
+    private final CacheInvalidator cacheInvalidator;
 
+    @Transactional(readOnly = true)
     @Override
-    public Page<FacilityDTO> getAllFacilities(final PageRequestDTO pageRequest, final String search, final Facility.FacilityType type) {
-        final Pageable pageable = facilityMapper.createPageable(pageRequest);
+    public Page<FacilityDTO> getAllFacilities(final PageRequestDTO pageRequest, final String search,
+                                              final Facility.FacilityType type, final AddressFilterDTO addressFilter) {
+        final Pageable pageable = facilityMapper.createPageable(pageRequest, SortPlanner.Endpoint.FACILITIES);
         Page<Facility> facilities;
 
-        if (search != null && !search.trim().isEmpty()) {
+        if (addressFilter != null && !addressFilter.isEmpty()) {
+            facilities = facilityRepository.findAll(activeFacilitiesMatching(search, type, addressFilter), pageable);
+        } else if (search != null && !search.trim().isEmpty()) {
             facilities = facilityRepository.searchActiveFacilities(search, pageable);
         } else if (type != null) {
             facilities = facilityRepository.findByTypeAndIsActiveTrue(type, pageable);
@@ -38,9 +72,12 @@ public class FacilityServiceImpl implements FacilityService {
             facilities = facilityRepository.findByIsActiveTrue(pageable);
         }
 
-        return facilities.map(facilityMapper::toFacilityDTO);
+        return facilityMapper.toFacilityDTOPage(facilities);
     }
 
+    // Evicted on every instance when the facility or its patient count changes
+    @Cacheable(CacheNames.FACILITIES)
+    @Transactional(readOnly = true)
     @Override
     public FacilityDTO getFacilityById(final Long id) {
         final Facility facility = facilityRepository.findByIdAndIsActiveTrue(id)
@@ -49,34 +86,91 @@ public class FacilityServiceImpl implements FacilityService {
         return facilityMapper.toFacilityDTO(facility);
     }
 
+    // One IN query and one patient-count aggregate per chunk of ids, instead of two queries per id
+    @Transactional(readOnly = true)
+    @Override
+    public BatchGetResponseDTO<FacilityDTO> getFacilitiesByIds(final List<Long> ids) {
+        final List<Facility> facilities = BatchLookup.inChunks(ids, facilityRepository::findByIdInAndIsActiveTrue);
+        final Map<Long, Long> patientCounts = BatchLookup.inChunks(
+                facilities.stream().map(Facility::getId).toList(),
+                chunk -> facilityMapper.countPatients(chunk).entrySet())
+            .stream()
+            .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
+
+        return BatchLookup.inRequestOrder(ids, facilities.stream()
+            .collect(Collectors.toMap(Facility::getId,
+                facility -> facilityMapper.toFacilityDTO(facility, patientCounts.getOrDefault(facility.getId(), 0L)))));
+    }
+
     @Transactional
     @Override
     public FacilityDTO createFacility(final FacilityDTO facilityDTO) {
+        validateCoordinates(facilityDTO);
+
         final Facility facility = Facility.builder()
             .name(facilityDTO.getName())
             .type(facilityDTO.getType())
             .address(facilityDTO.getAddress())
+            .latitude(facilityDTO.getLatitude())
+            .longitude(facilityDTO.getLongitude())
             .isActive(true)
             .build();
 
         final Facility saved = facilityRepository.save(facility);
+        facilityLocationIndex.update(saved);
 
-        return facilityMapper.toFacilityDTO(saved);
+        final FacilityDTO created = facilityMapper.toFacilityDTO(saved);
+        outboxWriter.facilityChanged(OutboxEvent.EventType.CREATED, created);
+        cacheInvalidator.facilityChanged(saved.getId());
+        return created;
     }
 
     @Transactional
     @Override
     public FacilityDTO updateFacility(final Long id, final FacilityDTO facilityDTO) {
+        validateCoordinates(facilityDTO);
+        return applyUpdate(findForUpdate(id, facilityDTO.getVersion()), facilityDTO);
+    }
+
+    @Transactional
+    @Override
+    public FacilityDTO patchFacility(final Long id, final JsonNode patch, final Long expectedVersion) {
+        final Facility facility = findForUpdate(id, expectedVersion);
+        // The patient count is not patchable, so the base DTO skips counting
+        final FacilityDTO patched = jsonMergePatch.apply(facilityMapper.toFacilityDTO(facility, null), patch);
+        validateCoordinates(patched);
+        return applyUpdate(facility, patched);
+    }
+
+    private Facility findForUpdate(final Long id, final Long expectedVersion) {
         final Facility facility = facilityRepository.findByIdAndIsActiveTrue(id)
             .orElseThrow(() -> new EntityNotFoundException("Facility not found with id: " + id));
 
+        // The version the client last saw (If-Match); @Version also rejects writes racing this one
+        if (expectedVersion != null && !expectedVersion.equals(facility.getVersion())) {
+            throw new ObjectOptimisticLockingFailureException(Facility.class, id);
+        }
+        return facility;
+    }
+
+    private FacilityDTO applyUpdate(final Facility facility, final FacilityDTO facilityDTO) {
+        final Long previousVersion = facility.getVersion();
         facility.setName(facilityDTO.getName());
         facility.setType(facilityDTO.getType());
         facility.setAddress(facilityDTO.getAddress());
+        facility.setLatitude(facilityDTO.getLatitude());
+        facility.setLongitude(facilityDTO.getLongitude());
 
-        final Facility updated = facilityRepository.save(facility);
+        // Flushed here so the response carries the incremented version
+        final Facility updated = facilityRepository.saveAndFlush(facility);
+        facilityLocationIndex.update(updated);
 
-        return facilityMapper.toFacilityDTO(updated);
+        final FacilityDTO result = facilityMapper.toFacilityDTO(updated);
+        if (!Objects.equals(previousVersion, updated.getVersion())) {
+            outboxWriter.facilityChanged(OutboxEvent.EventType.UPDATED, result);
+            cacheInvalidator.facilityChanged(updated.getId());
+        }
+        return result;
     }
 
     @Transactional
@@ -93,14 +187,20 @@ public class FacilityServiceImpl implements FacilityService {
         facility.setIsActive(false);
         facility.setDeletedAt(LocalDateTime.now());
 
-        facilityRepository.save(facility);
+        final Facility deleted = facilityRepository.saveAndFlush(facility);
+        facilityLocationIndex.update(deleted);
+        outboxWriter.facilityChanged(OutboxEvent.EventType.DELETED, facilityMapper.toFacilityDTO(deleted, 0L));
+        cacheInvalidator.facilityChanged(id);
     }
 
+    @Transactional(readOnly = true)
     @Override
     public Page<PatientDTO> getPatientsByFacility(final Long facilityId, final PageRequestDTO pageRequest, final String search) {
-        final FacilityDTO facility = getFacilityById(facilityId); // Ensure facility exists
+        if (!facilityRepository.existsByIdAndIsActiveTrue(facilityId)) {
+            throw new EntityNotFoundException("Facility not found with id: " + facilityId);
+        }
 
-        final Pageable pageable = facilityMapper.createPageable(pageRequest);
+        final Pageable pageable = facilityMapper.createPageable(pageRequest, SortPlanner.Endpoint.FACILITY_PATIENTS);
 
         Page<Patient> patients;
 
@@ -112,4 +212,67 @@ public class FacilityServiceImpl implements FacilityService {
 
         return patients.map(facilityMapper::toPatientDTO);
     }
+
+    // Sparse fieldsets: only the requested columns are read
+    @Transactional(readOnly = true)
+    @Override
+    public Page<Map<String, Object>> getPatientsByFacility(final Long facilityId, final PageRequestDTO pageRequest,
+                                                           final String search, final Set<PatientField> fields) {
+        if (!facilityRepository.existsByIdAndIsActiveTrue(facilityId)) {
+            throw new EntityNotFoundException("Facility not found with id: " + facilityId);
+        }
+
+        final Pageable pageable = facilityMapper.createPageable(pageRequest, SortPlanner.Endpoint.FACILITY_PATIENTS);
+        return patientRepository.findFields(fields, PatientSpecifications.inFacilityMatching(facilityId, search), pageable);
+    }
+
+    // Served from the in-memory location index, so no database round trip
+    @Override
+    public List<NearestFacilityDTO> findNearestFacilities(final double latitude, final double longitude,
+                                                          final Facility.FacilityType type, final int limit) {
+        if (latitude < -90 || latitude > 90 || longitude < -180 || longitude > 180) {
+            throw new IllegalArgumentException("Latitude must be between -90 and 90 and longitude between -180 and 180");
+        }
+        if (limit < 1 || limit > MAX_NEAREST_LIMIT) {
+            throw new IllegalArgumentException("Limit must be between 1 and " + MAX_NEAREST_LIMIT);
+        }
+
+        return facilityLocationIndex.nearest(latitude, longitude, type, limit).stream()
+            .map(neighbor -> new NearestFacilityDTO(
+                neighbor.value().id(),
+                neighbor.value().name(),
+                neighbor.value().type(),
+                neighbor.value().latitude(),
+                neighbor.value().longitude(),
+                neighbor.distanceKm()))
+            .toList();
+    }
+
+    private static void validateCoordinates(final FacilityDTO facilityDTO) {
+        if ((facilityDTO.getLatitude() == null) != (facilityDTO.getLongitude() == null)) {
+            throw new IllegalArgumentException("Latitude and longitude must be provided together");
+        }
+    }
+
+    private Specification<Facility> activeFacilitiesMatching(final String search, final Facility.FacilityType type,
+                                                             final AddressFilterDTO addressFilter) {
+        return (root, query, criteriaBuilder) -> {
+            var predicates = criteriaBuilder.and(
+                criteriaBuilder.isTrue(root.get("isActive")),
+                AddressPredicates.matching(criteriaBuilder, root.get("address"), addressFilter));
+
+            if (type != null) {
+                predicates = criteriaBuilder.and(predicates, criteriaBuilder.equal(root.get("type"), type));
+            }
+
+            if (search != null && !search.trim().isEmpty()) {
+                final String pattern = "%" + search.toLowerCase() + "%";
+                predicates = criteriaBuilder.and(predicates, criteriaBuilder.or(
+                    criteriaBuilder.like(criteriaBuilder.lower(root.get("name")), pattern),
+                    criteriaBuilder.like(criteriaBuilder.lower(root.get("type").as(String.class)), pattern)));
+            }
+
+            return predicates;
+        };
+    }
 }
\ No newline at end of file
@@ -1,37 +1,69 @@
 package com.healthcare.service.impl;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.healthcare.cache.CacheInvalidator;
+import com.healthcare.index.MedicalRecordNumberFilter;
 import com.healthcare.mapper.EntityMapper;
+import com.healthcare.mapper.JsonMergePatch;
 import com.healthcare.service.PatientService;
 
+import com.healthcare.dto.BatchGetResponseDTO;
 import com.healthcare.dto.PatientDTO;
+import com.healthcare.dto.PatientField;
 import com.healthcare.dto.PageRequestDTO;
 import com.healthcare.dto.PatientSearchDTO;
 import com.healthcare.model.Facility;
+import com.healthcare.model.OutboxEvent;
 import com.healthcare.model.Patient;
 import com.healthcare.repository.FacilityRepository;
+import com.healthcare.outbox.OutboxWriter;
 import com.healthcare.repository.PatientRepository;
+import com.healthcare.repository.PatientSpecifications;
+import com.healthcare.repository.SortPlanner;
+import io.micrometer.core.annotation.Timed;
 import jakarta.persistence.EntityNotFoundException;
 import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.sql.SQLException;
 import java.time.LocalDateTime;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
+@Timed(value = "healthcare.service", histogram = true)
 public class PatientServiceImpl implements PatientService {
 
+    // PostgreSQL SQLSTATE unique_violation
+    private static final String UNIQUE_VIOLATION = "23505";
+
     private final PatientRepository patientRepository;
     private final FacilityRepository facilityRepository;
     private final EntityMapper patientMapper;
+    private final JsonMergePatch jsonMergePatch;
+    private final MedicalRecordNumberFilter medicalRecordNumberFilter;
+    private final OutboxWriter outboxWriter;
+    private final CacheInvalidator cacheInvalidator;
 
+    @Transactional(readOnly = true)
     @Override
     public Page<PatientDTO> getAllPatients(PageRequestDTO pageRequest, String search) {
-        Pageable pageable = patientMapper.createPageable(pageRequest);
+        Pageable pageable = patientMapper.createPageable(pageRequest, SortPlanner.Endpoint.PATIENTS);
         Page<Patient> patients;
 
         if (search != null && !search.trim().isEmpty()) {
@@ -43,6 +75,15 @@ public class PatientServiceImpl implements PatientService {
         return patients.map(patientMapper::toPatientDTO);
     }
 
+    // Sparse fieldsets: only the requested columns are read
+    @Transactional(readOnly = true)
+    @Override
+    public Page<Map<String, Object>> getAllPatients(PageRequestDTO pageRequest, String search, Set<PatientField> fields) {
+        Pageable pageable = patientMapper.createPageable(pageRequest, SortPlanner.Endpoint.PATIENTS);
+        return patientRepository.findFields(fields, PatientSpecifications.activeMatching(search), pageable);
+    }
+
+    @Transactional(readOnly = true)
     @Override
     public PatientDTO getPatientById(Long id) {
         Patient patient = patientRepository.findByIdAndDeletedAtIsNull(id)
@@ -51,6 +92,24 @@ public class PatientServiceImpl implements PatientService {
         return patientMapper.toPatientDTO(patient);
     }
 
+    // One IN query per chunk of ids instead of one lookup per id
+    @Transactional(readOnly = true)
+    @Override
+    public BatchGetResponseDTO<PatientDTO> getPatientsByIds(List<Long> ids) {
+        List<Patient> patients = BatchLookup.inChunks(ids, patientRepository::findByIdInAndDeletedAtIsNull);
+        return BatchLookup.inRequestOrder(ids, patients.stream()
+            .collect(Collectors.toMap(Patient::getId, patientMapper::toPatientDTO)));
+    }
+
+    @Transactional(readOnly = true)
+    @Override
+    public BatchGetResponseDTO<Map<String, Object>> getPatientsByIds(List<Long> ids, Set<PatientField> fields) {
+        List<Map<String, Object>> patients = BatchLookup.inChunks(ids, chunk ->
+            patientRepository.findFields(fields, PatientSpecifications.active().and(PatientSpecifications.withIds(chunk))));
+        return BatchLookup.inRequestOrder(ids, patients.stream()
+            .collect(Collectors.toMap(patient -> (Long) patient.get("id"), Function.identity())));
+    }
+
     @Transactional
     @Override
     public PatientDTO createPatient(PatientDTO patientDTO) {
@@ -59,52 +118,120 @@ public class PatientServiceImpl implements PatientService {
             .orElseThrow(() -> new EntityNotFoundException("Facility not found or inactive with id: " + patientDTO.getFacilityId()));
 
         // Check if medical record number is unique
-        if (patientDTO.getMedicalRecordNumber() != null &&
-            patientRepository.existsByMedicalRecordNumberAndDeletedAtIsNull(patientDTO.getMedicalRecordNumber())) {
-            throw new IllegalArgumentException("Medical record number already exists: " + patientDTO.getMedicalRecordNumber());
-        }
+        checkMedicalRecordNumberAvailable(patientDTO.getMedicalRecordNumber());
+
+        Patient saved = saveUnique(() -> patientRepository.saveAndFlush(toPatient(patientDTO, facility)),
+            patientDTO.getMedicalRecordNumber());
+        medicalRecordNumberFilter.add(saved.getMedicalRecordNumber());
+        PatientDTO created = patientMapper.toPatientDTO(saved);
+        outboxWriter.patientChanged(OutboxEvent.EventType.CREATED, created);
+        cacheInvalidator.patientCountsChanged(List.of(facility.getId()));
+        return created;
+    }
 
-        Patient patient = Patient.builder()
-            .facility(facility)
-            .firstName(patientDTO.getFirstName())
-            .lastName(patientDTO.getLastName())
-            .email(patientDTO.getEmail())
-            .phone(patientDTO.getPhone())
-            .dateOfBirth(patientDTO.getDateOfBirth())
-            .gender(patientDTO.getGender())
-            .medicalRecordNumber(patientDTO.getMedicalRecordNumber())
-            .address(patientDTO.getAddress())
-            .build();
+    // All or nothing. Facilities are loaded in one query; MRNs are checked against each other, then
+    // the ones the filter cannot rule out are looked up together in one more.
+    @Transactional
+    @Override
+    public List<PatientDTO> importPatients(List<PatientDTO> patientDTOs) {
+        Set<Long> facilityIds = patientDTOs.stream().map(PatientDTO::getFacilityId).collect(Collectors.toSet());
+        Map<Long, Facility> facilities = facilityRepository.findAllById(facilityIds).stream()
+            .filter(facility -> Boolean.TRUE.equals(facility.getIsActive()))
+            .collect(Collectors.toMap(Facility::getId, Function.identity()));
+        facilityIds.stream()
+            .filter(facilityId -> !facilities.containsKey(facilityId))
+            .findFirst()
+            .ifPresent(facilityId -> {
+                throw new EntityNotFoundException("Facility not found or inactive with id: " + facilityId);
+            });
+
+        Set<String> medicalRecordNumbers = new LinkedHashSet<>();
+        Set<String> duplicates = new LinkedHashSet<>();
+        patientDTOs.stream()
+            .map(PatientDTO::getMedicalRecordNumber)
+            .filter(Objects::nonNull)
+            .filter(medicalRecordNumber -> !medicalRecordNumbers.add(medicalRecordNumber))
+            .forEach(duplicates::add);
+        List<String> candidates = medicalRecordNumbers.stream().filter(medicalRecordNumberFilter::mightExist).toList();
+        duplicates.addAll(BatchLookup.inChunks(candidates, patientRepository::findActiveMedicalRecordNumbers));
+        if (!duplicates.isEmpty()) {
+            throw new DuplicateKeyException("Medical record numbers already exist: " + String.join(", ", duplicates));
+        }
 
-        Patient saved = patientRepository.save(patient);
-        return patientMapper.toPatientDTO(saved);
+        List<Patient> patients = patientDTOs.stream()
+            .map(patientDTO -> toPatient(patientDTO, facilities.get(patientDTO.getFacilityId())))
+            .toList();
+        List<Patient> saved = saveUnique(() -> patientRepository.saveAllAndFlush(patients), null);
+        saved.forEach(patient -> medicalRecordNumberFilter.add(patient.getMedicalRecordNumber()));
+        List<PatientDTO> created = saved.stream().map(patientMapper::toPatientDTO).toList();
+        created.forEach(patient -> outboxWriter.patientChanged(OutboxEvent.EventType.CREATED, patient));
+        cacheInvalidator.patientCountsChanged(facilityIds);
+        return created;
     }
 
     @Transactional
     @Override
     public PatientDTO updatePatient(Long id, PatientDTO patientDTO) {
+        Patient patient = findForUpdate(id, patientDTO.getVersion());
+        return applyUpdate(patient, patientDTO);
+    }
+
+    @Transactional
+    @Override
+    public PatientDTO patchPatient(Long id, JsonNode patch, Long expectedVersion) {
+        Patient patient = findForUpdate(id, expectedVersion);
+        return applyUpdate(patient, jsonMergePatch.apply(patientMapper.toPatientDTO(patient), patch));
+    }
+
+    private Patient findForUpdate(Long id, Long expectedVersion) {
         Patient patient = patientRepository.findByIdAndDeletedAtIsNull(id)
             .orElseThrow(() -> new EntityNotFoundException("Patient not found with id: " + id));
 
+        // The version the client last saw (If-Match); @Version also rejects writes racing this one
+        if (expectedVersion != null && !expectedVersion.equals(patient.getVersion())) {
+            throw new ObjectOptimisticLockingFailureException(Patient.class, id);
+        }
+        return patient;
+    }
+
+    // Facility and MRN are only re-checked when they change. Unchanged fields stay clean, and
+    // @DynamicUpdate limits the UPDATE to the columns that did change.
+    private PatientDTO applyUpdate(Patient patient, PatientDTO patientDTO) {
         // If facility is being updated, validate new facility
-        if (!patient.getFacility().getId().equals(patientDTO.getFacilityId())) {
+        Long previousFacilityId = patient.getFacility().getId();
+        if (!previousFacilityId.equals(patientDTO.getFacilityId())) {
             Facility newFacility = facilityRepository.findByIdAndIsActiveTrue(patientDTO.getFacilityId())
                 .orElseThrow(() -> new EntityNotFoundException("Facility not found or inactive with id: " + patientDTO.getFacilityId()));
             patient.setFacility(newFacility);
         }
 
         // Check if medical record number is unique (if being changed)
-        if (patientDTO.getMedicalRecordNumber() != null &&
-            !patientDTO.getMedicalRecordNumber().equals(patient.getMedicalRecordNumber()) &&
-            patientRepository.existsByMedicalRecordNumberAndDeletedAtIsNull(patientDTO.getMedicalRecordNumber())) {
-            throw new IllegalArgumentException("Medical record number already exists: " + patientDTO.getMedicalRecordNumber());
+        boolean medicalRecordNumberChanged = patientDTO.getMedicalRecordNumber() != null &&
+            !patientDTO.getMedicalRecordNumber().equals(patient.getMedicalRecordNumber());
+        if (medicalRecordNumberChanged) {
+            checkMedicalRecordNumberAvailable(patientDTO.getMedicalRecordNumber());
         }
 
+        Long previousVersion = patient.getVersion();
         updatePatientFields(patient, patientDTO);
 
-        Patient updated = patientRepository.save(patient);
+        // Flushed here so the response carries the incremented version
+        Patient updated = saveUnique(() -> patientRepository.saveAndFlush(patient), patientDTO.getMedicalRecordNumber());
+        if (medicalRecordNumberChanged) {
+            medicalRecordNumberFilter.add(updated.getMedicalRecordNumber());
+        }
 
-        return patientMapper.toPatientDTO(updated);
+        PatientDTO result = patientMapper.toPatientDTO(updated);
+        // An update that changed nothing issued no UPDATE and kept its version; there is nothing to announce
+        boolean transferred = !previousFacilityId.equals(updated.getFacility().getId());
+        if (transferred) {
+            outboxWriter.patientTransferred(result, previousFacilityId);
+            // A transfer moves one patient between the two facilities' counts
+            cacheInvalidator.patientCountsChanged(List.of(previousFacilityId, updated.getFacility().getId()));
+        } else if (!Objects.equals(previousVersion, updated.getVersion())) {
+            outboxWriter.patientChanged(OutboxEvent.EventType.UPDATED, result);
+        }
+        return result;
     }
 
     @Transactional
@@ -114,12 +241,49 @@ public class PatientServiceImpl implements PatientService {
             .orElseThrow(() -> new EntityNotFoundException("Patient not found with id: " + id));
 
         patient.setDeletedAt(LocalDateTime.now());
-        patientRepository.save(patient);
+        // Flushed before the outbox insert, which keeps event ids in commit order per patient
+        Patient deleted = patientRepository.saveAndFlush(patient);
+        outboxWriter.patientChanged(OutboxEvent.EventType.DELETED, patientMapper.toPatientDTO(deleted));
+        cacheInvalidator.patientCountsChanged(List.of(deleted.getFacility().getId()));
+    }
+
+    // Undoes a soft delete, first moving the patient back from the archive if it was archived
+    @Transactional
+    @Override
+    public PatientDTO restorePatient(Long id) {
+        if (!patientRepository.existsById(id)) {
+            if (!patientRepository.existsInArchive(id)) {
+                throw new EntityNotFoundException("Patient not found with id: " + id);
+            }
+            if (patientRepository.copyFromArchive(id) == 0) {
+                throw new DuplicateKeyException("Medical record number of patient " + id + " now belongs to another patient");
+            }
+            patientRepository.deleteFromArchive(id);
+        }
+        Patient patient = patientRepository.findById(id)
+            .orElseThrow(() -> new EntityNotFoundException("Patient not found with id: " + id));
+        if (patient.getDeletedAt() == null) {
+            return patientMapper.toPatientDTO(patient);
+        }
+
+        if (!facilityRepository.existsByIdAndIsActiveTrue(patient.getFacility().getId())) {
+            throw new EntityNotFoundException("Facility not found or inactive with id: " + patient.getFacility().getId());
+        }
+        checkMedicalRecordNumberAvailable(patient.getMedicalRecordNumber());
+
+        patient.setDeletedAt(null);
+        Patient restored = saveUnique(() -> patientRepository.saveAndFlush(patient), patient.getMedicalRecordNumber());
+        medicalRecordNumberFilter.add(restored.getMedicalRecordNumber());
+        PatientDTO result = patientMapper.toPatientDTO(restored);
+        outboxWriter.patientChanged(OutboxEvent.EventType.RESTORED, result);
+        cacheInvalidator.patientCountsChanged(List.of(restored.getFacility().getId()));
+        return result;
     }
 
+    @Transactional(readOnly = true)
     @Override
     public Page<PatientDTO> getPatientsByFacility(Long facilityId, PageRequestDTO pageRequest, String search) {
-        Pageable pageable = patientMapper.createPageable(pageRequest);
+        Pageable pageable = patientMapper.createPageable(pageRequest, SortPlanner.Endpoint.FACILITY_PATIENTS);
         Page<Patient> patients;
 
         if (search != null && !search.trim().isEmpty()) {
@@ -131,49 +295,69 @@ public class PatientServiceImpl implements PatientService {
         return patients.map(patientMapper::toPatientDTO);
     }
 
+    @Transactional(readOnly = true)
+    @Override
+    public Page<Map<String, Object>> getPatientsByFacility(Long facilityId, PageRequestDTO pageRequest, String search,
+                                                           Set<PatientField> fields) {
+        Pageable pageable = patientMapper.createPageable(pageRequest, SortPlanner.Endpoint.FACILITY_PATIENTS);
+        return patientRepository.findFields(fields, PatientSpecifications.inFacilityMatching(facilityId, search), pageable);
+    }
+
+    @Transactional(readOnly = true)
     @Override
     public Page<PatientDTO> searchPatients(PageRequestDTO pageRequest, PatientSearchDTO searchDTO) {
-        Pageable pageable = patientMapper.createPageable(pageRequest);
-        Page<Patient> patients = patientRepository.findAll((root, query, criteriaBuilder) -> {
-            var predicates = criteriaBuilder.conjunction();
-
-            // Only non-deleted patients
-            predicates = criteriaBuilder.and(predicates,
-                criteriaBuilder.isNull(root.get("deletedAt")));
-
-            if (searchDTO.getFirstName() != null && !searchDTO.getFirstName().isEmpty()) {
-                predicates = criteriaBuilder.and(predicates,
-                    criteriaBuilder.like(criteriaBuilder.lower(root.get("firstName")),
-                        "%" + searchDTO.getFirstName().toLowerCase() + "%"));
-            }
+        Pageable pageable = patientMapper.createPageable(pageRequest, SortPlanner.Endpoint.PATIENTS);
+        Page<Patient> patients = patientRepository.findAll(PatientSpecifications.matching(searchDTO), pageable);
 
-            if (searchDTO.getLastName() != null && !searchDTO.getLastName().isEmpty()) {
-                predicates = criteriaBuilder.and(predicates,
-                    criteriaBuilder.like(criteriaBuilder.lower(root.get("lastName")),
-                        "%" + searchDTO.getLastName().toLowerCase() + "%"));
-            }
+        return patients.map(patientMapper::toPatientDTO);
+    }
 
-            if (searchDTO.getEmail() != null && !searchDTO.getEmail().isEmpty()) {
-                predicates = criteriaBuilder.and(predicates,
-                    criteriaBuilder.like(criteriaBuilder.lower(root.get("email")),
-                        "%" + searchDTO.getEmail().toLowerCase() + "%"));
-            }
+    @Transactional(readOnly = true)
+    @Override
+    public Page<Map<String, Object>> searchPatients(PageRequestDTO pageRequest, PatientSearchDTO searchDTO,
+                                                    Set<PatientField> fields) {
+        Pageable pageable = patientMapper.createPageable(pageRequest, SortPlanner.Endpoint.PATIENTS);
+        return patientRepository.findFields(fields, PatientSpecifications.matching(searchDTO), pageable);
+    }
 
-            if (searchDTO.getFacilityId() != null) {
-                predicates = criteriaBuilder.and(predicates,
-                    criteriaBuilder.equal(root.get("facility").get("id"), searchDTO.getFacilityId()));
-            }
+    // The Bloom filter answers most checks for new MRNs without a query
+    private void checkMedicalRecordNumberAvailable(String medicalRecordNumber) {
+        if (medicalRecordNumber != null &&
+            medicalRecordNumberFilter.mightExist(medicalRecordNumber) &&
+            patientRepository.existsByMedicalRecordNumberAndDeletedAtIsNull(medicalRecordNumber)) {
+            throw new DuplicateKeyException("Medical record number already exists: " + medicalRecordNumber);
+        }
+    }
 
-            if (searchDTO.getMedicalRecordNumber() != null && !searchDTO.getMedicalRecordNumber().isEmpty()) {
-                predicates = criteriaBuilder.and(predicates,
-                    criteriaBuilder.like(criteriaBuilder.lower(root.get("medicalRecordNumber")),
-                        "%" + searchDTO.getMedicalRecordNumber().toLowerCase() + "%"));
+    // The partial unique index on active MRNs settles what the checks cannot: a concurrent insert,
+    // or one from another instance the local filter has not seen yet
+    private static <T> T saveUnique(Supplier<T> save, String medicalRecordNumber) {
+        try {
+            return save.get();
+        } catch (DataIntegrityViolationException e) {
+            if (e instanceof DuplicateKeyException ||
+                e.getMostSpecificCause() instanceof SQLException sqlException &&
+                    UNIQUE_VIOLATION.equals(sqlException.getSQLState())) {
+                throw new DuplicateKeyException(medicalRecordNumber != null
+                    ? "Medical record number already exists: " + medicalRecordNumber
+                    : "Medical record number already exists", e);
             }
+            throw e;
+        }
+    }
 
-            return predicates;
-        }, pageable);
-
-        return patients.map(patientMapper::toPatientDTO);
+    private static Patient toPatient(PatientDTO patientDTO, Facility facility) {
+        return Patient.builder()
+            .facility(facility)
+            .firstName(patientDTO.getFirstName())
+            .lastName(patientDTO.getLastName())
+            .email(patientDTO.getEmail())
+            .phone(patientDTO.getPhone())
+            .dateOfBirth(patientDTO.getDateOfBirth())
+            .gender(patientDTO.getGender())
+            .medicalRecordNumber(patientDTO.getMedicalRecordNumber())
+            .address(patientDTO.getAddress())
+            .build();
     }
 
     private void updatePatientFields(Patient patient, PatientDTO patientDTO) {
@@ -0,0 +1,69 @@
+package com.healthcare.service.impl;
+
+import com.healthcare.dto.PatientChangeDTO;
+import com.healthcare.dto.PatientDTO;
+import com.healthcare.repository.reactive.ChangeCursor;
+import com.healthcare.repository.reactive.ReactivePatientRepository;
+import com.healthcare.service.ReactivePatientService;
+import jakarta.persistence.EntityNotFoundException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+@Service
+@RequiredArgsConstructor
+public class ReactivePatientServiceImpl implements ReactivePatientService {
+
+    private final ReactivePatientRepository reactivePatientRepository;
+
+    @Value("${app.reactive.max-page-size:1000}")
+    private int maxPageSize;
+
+    @Value("${app.reactive.changes.max-limit:100000}")
+    private int maxChangesLimit;
+
+    // updated_at is stamped before commit, so a change only enters the feed once it is this old;
+    // transactions that run longer than this can be skipped by a client that already moved past them
+    @Value("${app.reactive.changes.settle-time:5s}")
+    private Duration changesSettleTime;
+
+    @Override
+    public Flux<PatientDTO> getPatients(int page, int size) {
+        validatePage(page, size);
+        return reactivePatientRepository.findActive(size, (long) page * size);
+    }
+
+    @Override
+    public Mono<PatientDTO> getPatientById(Long id) {
+        return reactivePatientRepository.findActiveById(id)
+            .switchIfEmpty(Mono.error(() -> new EntityNotFoundException("Patient not found with id: " + id)));
+    }
+
+    @Override
+    public Flux<PatientDTO> getPatientsByFacility(Long facilityId, int page, int size) {
+        validatePage(page, size);
+        return reactivePatientRepository.existsActiveFacility(facilityId)
+            .flatMapMany(exists -> exists
+                ? reactivePatientRepository.findActiveByFacility(facilityId, size, (long) page * size)
+                : Flux.error(new EntityNotFoundException("Facility not found with id: " + facilityId)));
+    }
+
+    @Override
+    public Flux<PatientChangeDTO> getChanges(String since, int limit) {
+        if (limit < 1 || limit > maxChangesLimit) {
+            throw new IllegalArgumentException("limit must be between 1 and " + maxChangesLimit);
+        }
+        ChangeCursor after = since == null || since.isBlank() ? null : ChangeCursor.decode(since);
+        return reactivePatientRepository.findChanges(after, LocalDateTime.now().minus(changesSettleTime), limit);
+    }
+
+    private void validatePage(int page, int size) {
+        if (page < 0 || size < 1 || size > maxPageSize) {
+            throw new IllegalArgumentException("page must be >= 0 and size between 1 and " + maxPageSize);
+        }
+    }
+}
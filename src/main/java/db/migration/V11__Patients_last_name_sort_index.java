@@ -0,0 +1,22 @@
+package db.migration;
+
+import com.healthcare.maintenance.PatientIndexes;
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+
+// Serves active-patient pages sorted by lastName, which SortPlanner orders by (last_name,
+// first_name, id) so a deep page reads index order instead of sorting every active patient.
+public class V11__Patients_last_name_sort_index extends BaseJavaMigration {
+
+    @Override
+    public void migrate(Context context) {
+        PatientIndexes.create(context.getConnection(), "idx_patients_active_last_name_id", false,
+            "last_name, first_name, id", "deleted_at IS NULL");
+    }
+
+    // Builds its index CONCURRENTLY
+    @Override
+    public boolean canExecuteInTransaction() {
+        return false;
+    }
+}
@@ -0,0 +1,45 @@
+package db.migration;
+
+import com.healthcare.maintenance.PatientIndexes;
+import java.sql.Statement;
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+
+public class V5__Patients_archive extends BaseJavaMigration {
+
+    @Override
+    public void migrate(Context context) throws Exception {
+        // Soft-deleted patients past the retention period are moved here by PatientArchiver, keeping
+        // the hot table and its indexes small. Same columns as patients plus the time of the move.
+        try (Statement statement = context.getConnection().createStatement()) {
+            statement.execute("""
+                CREATE TABLE IF NOT EXISTS patients_archive (
+                    id BIGINT PRIMARY KEY,
+                    facility_id BIGINT NOT NULL,
+                    first_name VARCHAR(100) NOT NULL,
+                    last_name VARCHAR(100) NOT NULL,
+                    email VARCHAR(255),
+                    phone VARCHAR(50),
+                    date_of_birth DATE NOT NULL,
+                    gender VARCHAR(20),
+                    medical_record_number VARCHAR(100),
+                    address JSONB,
+                    created_at TIMESTAMP,
+                    updated_at TIMESTAMP,
+                    deleted_at TIMESTAMP NOT NULL,
+                    archived_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+                )""");
+        }
+
+        // Lets each archival batch find the oldest deletions without scanning the table. Only deleted
+        // rows are indexed, and the archiver keeps those few.
+        PatientIndexes.create(context.getConnection(), "idx_patients_deleted_at", false,
+            "deleted_at", "deleted_at IS NOT NULL");
+    }
+
+    // Builds its index CONCURRENTLY
+    @Override
+    public boolean canExecuteInTransaction() {
+        return false;
+    }
+}
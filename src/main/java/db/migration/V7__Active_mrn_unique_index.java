@@ -0,0 +1,47 @@
+package db.migration;
+
+import com.healthcare.maintenance.PatientIndexes;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+
+// Medical record numbers only need to be unique among active patients, which is what
+// PatientServiceImpl has always checked. The partial unique index enforces that in the database,
+// so concurrent inserts that both pass the check cannot both commit. It also serves the
+// active-MRN lookups, and replaces the table-wide constraint, which blocked reusing the MRN of a
+// soft-deleted patient. That constraint is found by its definition rather than its name, since
+// databases baselined from ddl-auto=update carry a Hibernate-generated name for it. On a
+// partitioned patients table the index only holds within a facility.
+public class V7__Active_mrn_unique_index extends BaseJavaMigration {
+
+    @Override
+    public void migrate(Context context) throws Exception {
+        PatientIndexes.create(context.getConnection(), "idx_patients_active_mrn", true,
+            "medical_record_number", "deleted_at IS NULL");
+
+        try (Statement statement = context.getConnection().createStatement()) {
+            List<String> constraints = new ArrayList<>();
+            try (ResultSet resultSet = statement.executeQuery(
+                "SELECT quote_ident(c.conname) FROM pg_constraint c " +
+                    "JOIN pg_attribute a ON a.attrelid = c.conrelid AND a.attnum = c.conkey[1] " +
+                    "WHERE c.conrelid = 'patients'::regclass AND c.contype = 'u' " +
+                    "AND cardinality(c.conkey) = 1 AND a.attname = 'medical_record_number'")) {
+                while (resultSet.next()) {
+                    constraints.add(resultSet.getString(1));
+                }
+            }
+            for (String constraint : constraints) {
+                statement.execute("ALTER TABLE patients DROP CONSTRAINT " + constraint);
+            }
+        }
+    }
+
+    // Builds its index CONCURRENTLY
+    @Override
+    public boolean canExecuteInTransaction() {
+        return false;
+    }
+}
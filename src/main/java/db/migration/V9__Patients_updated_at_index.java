@@ -0,0 +1,21 @@
+package db.migration;
+
+import com.healthcare.maintenance.PatientIndexes;
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+
+// Serves the change feed, GET /api/patients/changes, which reads patients in (updated_at, id)
+// order from a cursor. Covers soft-deleted rows too, since deletes are part of the feed.
+public class V9__Patients_updated_at_index extends BaseJavaMigration {
+
+    @Override
+    public void migrate(Context context) {
+        PatientIndexes.create(context.getConnection(), "idx_patients_updated_at_id", false, "updated_at, id", null);
+    }
+
+    // Builds its index CONCURRENTLY
+    @Override
+    public boolean canExecuteInTransaction() {
+        return false;
+    }
+}
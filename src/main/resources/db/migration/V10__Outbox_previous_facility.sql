@@ -0,0 +1,3 @@
+-- Set on patient updates that moved the patient to another facility, so listeners such as the live
+-- feed can tell the old facility the patient left. Nullable without a default: a catalog-only change.
+ALTER TABLE outbox_events ADD COLUMN IF NOT EXISTS previous_facility_id BIGINT;
@@ -0,0 +1,31 @@
+-- Retries with backoff for events whose listener failed: the relay skips a row, and every later row
+-- of its aggregate, until next_attempt_at. Nullable without a default, so adding it is catalog-only.
+ALTER TABLE outbox_events ADD COLUMN IF NOT EXISTS next_attempt_at TIMESTAMP;
+
+-- Only rows that failed are ever backing off, so the check for an earlier one stays an index probe
+CREATE INDEX IF NOT EXISTS idx_outbox_events_backing_off
+    ON outbox_events (aggregate_type, aggregate_id, id) WHERE next_attempt_at IS NOT NULL;
+
+-- Events whose listener failed app.outbox.max-attempts times, moved here so later events of their
+-- aggregate can go on. Kept for an operator to inspect and replay by hand.
+CREATE TABLE IF NOT EXISTS outbox_dead_letters (
+    id BIGINT PRIMARY KEY,
+    aggregate_type VARCHAR(20) NOT NULL,
+    aggregate_id BIGINT NOT NULL,
+    event_type VARCHAR(20) NOT NULL,
+    payload JSONB NOT NULL,
+    previous_facility_id BIGINT,
+    created_at TIMESTAMP NOT NULL,
+    attempts INT NOT NULL,
+    last_error TEXT,
+    dead_lettered_at TIMESTAMP NOT NULL DEFAULT clock_timestamp()
+);
+
+-- Payloads now carry only ids and the version; strip the patient and facility details from rows
+-- still waiting to be relayed
+UPDATE outbox_events
+SET payload = CASE aggregate_type
+    WHEN 'PATIENT' THEN jsonb_build_object('id', payload -> 'id', 'version', payload -> 'version',
+                                           'facilityId', payload -> 'facilityId')
+    ELSE jsonb_build_object('id', payload -> 'id', 'version', payload -> 'version')
+END;
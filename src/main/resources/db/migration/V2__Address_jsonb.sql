@@ -0,0 +1,45 @@
+-- Addresses are structured JSONB: {"street", "city", "region", "postalCode", "country"}.
+-- Schemas created by Hibernate before this change hold one-line TEXT addresses such as
+-- "12 Main St, Springfield, IL 62701"; convert them with the same rules as Address.valueOf.
+CREATE OR REPLACE FUNCTION pg_temp.parse_address(text_address TEXT) RETURNS JSONB AS $$
+DECLARE
+    parts TEXT[];
+    n INT;
+    tail TEXT[];
+BEGIN
+    IF text_address IS NULL OR btrim(text_address) = '' THEN
+        RETURN NULL;
+    END IF;
+    parts := array_remove(regexp_split_to_array(btrim(text_address), '\s*,\s*'), '');
+    n := coalesce(array_length(parts, 1), 0);
+    IF n < 3 THEN
+        RETURN jsonb_build_object('street', btrim(text_address));
+    END IF;
+    tail := regexp_match(parts[n], '^(.*?)\s*(\d{5}(?:-\d{4})?)?$');
+    RETURN jsonb_strip_nulls(jsonb_build_object(
+        'street', array_to_string(parts[1:n - 2], ', '),
+        'city', parts[n - 1],
+        'region', nullif(tail[1], ''),
+        'postalCode', tail[2]));
+END;
+$$ LANGUAGE plpgsql IMMUTABLE;
+
+DO $$
+BEGIN
+    IF (SELECT data_type FROM information_schema.columns
+        WHERE table_schema = current_schema() AND table_name = 'facilities' AND column_name = 'address') <> 'jsonb' THEN
+        ALTER TABLE facilities ALTER COLUMN address TYPE JSONB USING pg_temp.parse_address(address);
+    END IF;
+    IF (SELECT data_type FROM information_schema.columns
+        WHERE table_schema = current_schema() AND table_name = 'patients' AND column_name = 'address') <> 'jsonb' THEN
+        ALTER TABLE patients ALTER COLUMN address TYPE JSONB USING pg_temp.parse_address(address);
+    END IF;
+END $$;
+
+-- Expressions must match AddressFunctionContributor, e.g. address_city(f.address) -> lower(address->>'city')
+CREATE INDEX IF NOT EXISTS idx_facilities_address_city ON facilities ((lower(address->>'city'))) WHERE is_active = true;
+CREATE INDEX IF NOT EXISTS idx_facilities_address_region ON facilities ((lower(address->>'region'))) WHERE is_active = true;
+CREATE INDEX IF NOT EXISTS idx_facilities_address_postal_code ON facilities ((lower(address->>'postalCode'))) WHERE is_active = true;
+CREATE INDEX IF NOT EXISTS idx_patients_address_city ON patients ((lower(address->>'city'))) WHERE deleted_at IS NULL;
+CREATE INDEX IF NOT EXISTS idx_patients_address_region ON patients ((lower(address->>'region'))) WHERE deleted_at IS NULL;
+CREATE INDEX IF NOT EXISTS idx_patients_address_postal_code ON patients ((lower(address->>'postalCode'))) WHERE deleted_at IS NULL;
@@ -0,0 +1,12 @@
+-- Facility coordinates for nearest-facility search; both are set or both are null
+ALTER TABLE facilities ADD COLUMN IF NOT EXISTS latitude DOUBLE PRECISION;
+ALTER TABLE facilities ADD COLUMN IF NOT EXISTS longitude DOUBLE PRECISION;
+
+DO $$
+BEGIN
+    IF NOT EXISTS (SELECT 1 FROM pg_constraint WHERE conname = 'chk_facilities_coordinates') THEN
+        ALTER TABLE facilities ADD CONSTRAINT chk_facilities_coordinates CHECK (
+            (latitude IS NULL AND longitude IS NULL) OR
+            (latitude BETWEEN -90 AND 90 AND longitude BETWEEN -180 AND 180));
+    END IF;
+END $$;
@@ -0,0 +1,39 @@
+-- Indexes shaped after the repository queries; QueryPlanRegressionTest checks that each query
+-- still uses them. CONCURRENTLY keeps the tables writable while the indexes build, which makes
+-- Flyway run this migration outside a transaction. A build that fails leaves an INVALID index
+-- behind: drop it and rerun.
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+-- Active-patient pages ordered by id, overall and per facility, plus per-facility counts
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_patients_active_id
+    ON patients (id) WHERE deleted_at IS NULL;
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_patients_active_facility_id
+    ON patients (facility_id, id) WHERE deleted_at IS NULL;
+
+-- Substring search, LOWER(column) LIKE '%term%'
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_patients_first_name_trgm
+    ON patients USING gin (lower(first_name) gin_trgm_ops) WHERE deleted_at IS NULL;
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_patients_last_name_trgm
+    ON patients USING gin (lower(last_name) gin_trgm_ops) WHERE deleted_at IS NULL;
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_patients_email_trgm
+    ON patients USING gin (lower(email) gin_trgm_ops) WHERE deleted_at IS NULL;
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_patients_mrn_trgm
+    ON patients USING gin (lower(medical_record_number) gin_trgm_ops) WHERE deleted_at IS NULL;
+
+-- Active-facility pages ordered by id, overall and per type, and facility search
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_facilities_active_id
+    ON facilities (id) WHERE is_active;
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_facilities_active_type_id
+    ON facilities (type, id) WHERE is_active;
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_facilities_name_trgm
+    ON facilities USING gin (lower(name) gin_trgm_ops) WHERE is_active;
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_facilities_type_trgm
+    ON facilities USING gin (lower(type) gin_trgm_ops) WHERE is_active;
+
+-- Superseded: a boolean key, a key that is always NULL, a duplicate of the MRN unique
+-- constraint, and btree indexes that no leading-wildcard LIKE can use
+DROP INDEX CONCURRENTLY IF EXISTS idx_facilities_active;
+DROP INDEX CONCURRENTLY IF EXISTS idx_facilities_type;
+DROP INDEX CONCURRENTLY IF EXISTS idx_patients_active;
+DROP INDEX CONCURRENTLY IF EXISTS idx_patients_mrn;
+DROP INDEX CONCURRENTLY IF EXISTS idx_patients_email;
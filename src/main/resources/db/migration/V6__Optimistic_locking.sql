@@ -0,0 +1,6 @@
+-- Row versions for optimistic locking and ETags. A constant default makes ADD COLUMN a catalog-only
+-- change, so existing rows start at 0 without a table rewrite.
+ALTER TABLE facilities ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE patients ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
+-- Kept through archival so a restored patient never reuses an ETag it had before
+ALTER TABLE patients_archive ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
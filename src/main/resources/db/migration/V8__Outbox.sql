@@ -0,0 +1,13 @@
+-- Transactional outbox: services insert a row per patient/facility change in the same transaction
+-- as the change itself, and OutboxRelay dispatches and deletes them. Rows only live until they are
+-- relayed, so the table stays small. clock_timestamp() rather than now() so the relay's lag metric
+-- measures from the write, not from the start of a long transaction.
+CREATE TABLE outbox_events (
+    id BIGSERIAL PRIMARY KEY,
+    aggregate_type VARCHAR(20) NOT NULL CHECK (aggregate_type IN ('PATIENT', 'FACILITY')),
+    aggregate_id BIGINT NOT NULL,
+    event_type VARCHAR(20) NOT NULL CHECK (event_type IN ('CREATED', 'UPDATED', 'DELETED', 'RESTORED')),
+    payload JSONB NOT NULL,
+    created_at TIMESTAMP NOT NULL DEFAULT clock_timestamp(),
+    attempts INT NOT NULL DEFAULT 0
+);
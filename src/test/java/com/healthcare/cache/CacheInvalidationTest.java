@@ -0,0 +1,229 @@
+package com.healthcare.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.healthcare.HealthcareApplication;
+import com.healthcare.ai.DataProvider;
+import com.healthcare.dto.FacilityDTO;
+import com.healthcare.dto.PatientDTO;
+import com.healthcare.load.EmbeddedPostgresSupport;
+import com.healthcare.load.LoadProfile;
+import com.healthcare.load.SyntheticDataGenerator;
+import com.healthcare.service.FacilityService;
+import com.healthcare.service.PatientService;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+import javax.sql.DataSource;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.interceptor.SimpleKey;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Runs two application contexts against one database, as two instances behind a load balancer
+ * would. Writes go through the test's own context; the second one caches reads and must drop them
+ * once a write commits, without serving stale data after its listener connection is cut.
+ */
+@Tag("load")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE, properties = {
+    "spring.jpa.show-sql=false",
+    "app.ai.openai.enabled=false",
+    "app.outbox.relay-enabled=false",
+    "logging.level.org.hibernate.SQL=WARN"
+})
+class CacheInvalidationTest {
+
+    private static final String DATABASE = "cache_invalidation";
+    private static final LoadProfile PROFILE = new LoadProfile(20, 400, 20240401L, 0, 1);
+    private static final Duration TIMEOUT = Duration.ofSeconds(10);
+
+    @Autowired
+    private Environment environment;
+
+    @Autowired
+    private FacilityService facilityService;
+
+    @Autowired
+    private PatientService patientService;
+
+    @Autowired
+    private CacheInvalidator cacheInvalidator;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private ConfigurableApplicationContext other;
+    private JdbcTemplate jdbc;
+    private long facilityId;
+
+    @DynamicPropertySource
+    static void database(DynamicPropertyRegistry registry) {
+        EmbeddedPostgresSupport.register(registry, DATABASE);
+    }
+
+    @BeforeAll
+    void startSecondInstance() throws Exception {
+        DataSource rawDataSource = EmbeddedPostgresSupport.instance().getDatabase("postgres", DATABASE);
+        new SyntheticDataGenerator(PROFILE).seed(rawDataSource);
+        jdbc = new JdbcTemplate(rawDataSource);
+        facilityId = jdbc.queryForObject("SELECT min(id) FROM facilities WHERE is_active", Long.class);
+
+        // Command-line arguments, so they win over application.yml as the test's own properties do
+        other = new SpringApplicationBuilder(HealthcareApplication.class)
+            .web(WebApplicationType.NONE)
+            .run(
+                "--spring.datasource.url=" + environment.getProperty("spring.datasource.url"),
+                "--spring.datasource.username=postgres",
+                "--spring.datasource.password=postgres",
+                "--spring.r2dbc.url=" + environment.getProperty("spring.r2dbc.url"),
+                "--spring.r2dbc.username=postgres",
+                "--spring.r2dbc.password=postgres",
+                "--spring.jpa.show-sql=false",
+                "--app.ai.openai.enabled=false",
+                "--app.outbox.relay-enabled=false",
+                "--app.cache-invalidation.coalesce-window=100ms",
+                "--app.cache-invalidation.reconnect-delay=200ms",
+                "--logging.level.org.hibernate.SQL=WARN");
+    }
+
+    @BeforeEach
+    void awaitListener() {
+        eventually(() -> other.getBean(CacheInvalidationListener.class).isListening());
+    }
+
+    @AfterAll
+    void stopSecondInstance() {
+        if (other != null) {
+            other.close();
+        }
+    }
+
+    @Test
+    void committedWritesEvictOnTheOtherInstance() {
+        FacilityService otherFacilities = other.getBean(FacilityService.class);
+        DataProvider otherStats = other.getBean(DataProvider.class);
+        long patientCount = otherFacilities.getFacilityById(facilityId).getPatientCount();
+        long totalPatients = (Long) otherStats.getSystemStats().get("totalPatients");
+        assertThat(cached(CacheNames.FACILITIES, facilityId)).isTrue();
+
+        FacilityDTO facility = facilityService.getFacilityById(facilityId);
+        facility.setName("Renamed By Instance A");
+        facilityService.updateFacility(facilityId, facility);
+        eventually(() -> !cached(CacheNames.FACILITIES, facilityId));
+        assertThat(otherFacilities.getFacilityById(facilityId).getName()).isEqualTo("Renamed By Instance A");
+
+        // A new patient changes the facility's count and the totals
+        PatientDTO patient = new PatientDTO();
+        patient.setFacilityId(facilityId);
+        patient.setFirstName("Cache");
+        patient.setLastName("Coherence");
+        patient.setDateOfBirth(LocalDate.of(1982, 6, 7));
+        patient.setMedicalRecordNumber("MRN-CACHE-1");
+        patientService.createPatient(patient);
+        eventually(() -> !cached(CacheNames.FACILITIES, facilityId) && !cached(CacheNames.SYSTEM_STATS, null));
+        assertThat(otherFacilities.getFacilityById(facilityId).getPatientCount()).isEqualTo(patientCount + 1);
+        assertThat(otherStats.getSystemStats().get("totalPatients")).isEqualTo(totalPatients + 1);
+    }
+
+    @Test
+    void rolledBackWritesInvalidateNothing() throws Exception {
+        other.getBean(FacilityService.class).getFacilityById(facilityId);
+        double received = otherMeters().counter("healthcare.cache.invalidation.notifications").count();
+
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.executeWithoutResult(status -> {
+            cacheInvalidator.facilityChanged(facilityId);
+            status.setRollbackOnly();
+        });
+        // A marker committed afterwards: once it arrives, the rolled-back one would have too
+        cacheInvalidator.patientCountsChanged(List.of(-1L));
+
+        eventually(() -> otherMeters().counter("healthcare.cache.invalidation.notifications").count() > received);
+        assertThat(otherMeters().counter("healthcare.cache.invalidation.notifications").count()).isEqualTo(received + 1);
+        assertThat(cached(CacheNames.FACILITIES, facilityId)).isTrue();
+    }
+
+    @Test
+    void burstsOfWritesAreAppliedInFewBatches() {
+        List<Long> facilityIds = jdbc.queryForList("SELECT id FROM facilities WHERE is_active ORDER BY id", Long.class);
+        FacilityService otherFacilities = other.getBean(FacilityService.class);
+        facilityIds.forEach(otherFacilities::getFacilityById);
+        double received = otherMeters().counter("healthcare.cache.invalidation.notifications").count();
+        double batches = otherMeters().counter("healthcare.cache.invalidation.batches").count();
+
+        for (int round = 0; round < 5; round++) {
+            for (Long id : facilityIds) {
+                FacilityDTO facility = facilityService.getFacilityById(id);
+                facility.setName("Burst " + round + " " + id);
+                facilityService.updateFacility(id, facility);
+            }
+        }
+
+        int writes = 5 * facilityIds.size();
+        eventually(() -> otherMeters().counter("healthcare.cache.invalidation.notifications").count() >= received + writes);
+        eventually(() -> facilityIds.stream().noneMatch(id -> cached(CacheNames.FACILITIES, id)));
+        assertThat(otherMeters().counter("healthcare.cache.invalidation.batches").count() - batches)
+            .isLessThan(writes / 2.0);
+        assertThat(otherFacilities.getFacilityById(facilityIds.get(0)).getName())
+            .isEqualTo("Burst 4 " + facilityIds.get(0));
+    }
+
+    @Test
+    void reconnectingFlushesEveryCache() {
+        other.getBean(FacilityService.class).getFacilityById(facilityId);
+        double reconnects = otherMeters().counter("healthcare.cache.invalidation.reconnects").count();
+
+        jdbc.queryForList("SELECT pg_terminate_backend(pid) FROM pg_stat_activity " +
+            "WHERE application_name = ? AND datname = current_database()", CacheInvalidationListener.APPLICATION_NAME);
+        // Written while nobody listens, and without any notification
+        jdbc.update("UPDATE facilities SET name = 'Renamed Behind The Cache' WHERE id = ?", facilityId);
+
+        eventually(() -> otherMeters().counter("healthcare.cache.invalidation.reconnects").count() > reconnects
+            && other.getBean(CacheInvalidationListener.class).isListening());
+        assertThat(cached(CacheNames.FACILITIES, facilityId)).isFalse();
+        assertThat(other.getBean(FacilityService.class).getFacilityById(facilityId).getName())
+            .isEqualTo("Renamed Behind The Cache");
+    }
+
+    private boolean cached(String cacheName, Long key) {
+        Cache cache = other.getBean(CacheManager.class).getCache(cacheName);
+        return cache.get(key == null ? SimpleKey.EMPTY : key) != null;
+    }
+
+    private MeterRegistry otherMeters() {
+        return other.getBean(MeterRegistry.class);
+    }
+
+    private static void eventually(BooleanSupplier condition) {
+        long deadline = System.nanoTime() + TIMEOUT.toNanos();
+        while (!condition.getAsBoolean()) {
+            assertThat(System.nanoTime()).as("condition met within %s", TIMEOUT).isLessThan(deadline);
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+}
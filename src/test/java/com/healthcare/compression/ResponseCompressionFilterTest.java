@@ -0,0 +1,134 @@
+package com.healthcare.compression;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+class ResponseCompressionFilterTest {
+
+    private final CompressionProperties properties = new CompressionProperties();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ResponseCompressionFilter filter = new ResponseCompressionFilter(properties, meterRegistry);
+
+    @Test
+    void gzipsLargeJsonAndKeepsSmallResponsesAsTheyAre() throws Exception {
+        String large = "[" + "{\"firstName\":\"Maria\",\"lastName\":\"Garcia\"},".repeat(200) + "{}]";
+        MockHttpServletResponse compressed = serve("gzip, deflate", "application/json", large);
+
+        assertThat(compressed.getHeader("Content-Encoding")).isEqualTo("gzip");
+        assertThat(compressed.getHeader("Vary")).isEqualTo("Accept-Encoding");
+        assertThat(compressed.getHeader("Content-Length")).isNull();
+        assertThat(compressed.getContentAsByteArray().length).isLessThan(large.length() / 10);
+        assertThat(gunzip(compressed.getContentAsByteArray())).isEqualTo(large);
+
+        MockHttpServletResponse small = serve("gzip", "application/json", "{\"id\":1}");
+        assertThat(small.getHeader("Content-Encoding")).isNull();
+        assertThat(small.getContentLength()).isEqualTo(8);
+        assertThat(small.getContentAsString()).isEqualTo("{\"id\":1}");
+
+        assertThat(meterRegistry.get("healthcare.compression.responses").tag("encoding", "gzip").counter().count())
+            .isEqualTo(1);
+        assertThat(meterRegistry.get("healthcare.compression.bytes").tag("stage", "raw").counter().count())
+            .isEqualTo(large.length());
+    }
+
+    @Test
+    void leavesOtherTypesAndClientsUncompressed() throws Exception {
+        String large = "x".repeat(10_000);
+
+        assertThat(serve(null, "application/json", large).getHeader("Content-Encoding")).isNull();
+        assertThat(serve("gzip;q=0, identity", "application/json", large).getHeader("Content-Encoding")).isNull();
+        MockHttpServletResponse image = serve("gzip", "image/png", large);
+        assertThat(image.getHeader("Content-Encoding")).isNull();
+        assertThat(image.getContentLength()).isEqualTo(large.length());
+        assertThat(serve("*", "application/problem+json", large).getHeader("Content-Encoding")).isEqualTo("gzip");
+    }
+
+    @Test
+    void compressibleTypesVaryByAcceptEncodingEvenWhenSentAsTheyAre() throws Exception {
+        String large = "x".repeat(10_000);
+
+        assertThat(serve(null, "application/json", large).getHeaders("Vary")).containsExactly("Accept-Encoding");
+        assertThat(serve("identity", "application/json", large).getHeaders("Vary")).containsExactly("Accept-Encoding");
+        assertThat(serve("gzip", "application/json", "{\"id\":1}").getHeaders("Vary"))
+            .containsExactly("Accept-Encoding");
+        assertThat(serve(null, "image/png", large).getHeaders("Vary")).isEmpty();
+        // Only clients that accept gzip are counted
+        assertThat(meterRegistry.get("healthcare.compression.responses").tag("encoding", "identity").counter().count())
+            .isEqualTo(1);
+    }
+
+    @Test
+    void eachStreamFlushIsDecodableBeforeTheResponseEnds() throws Exception {
+        String first = "data:{\"id\":1}\n\n";
+        String second = "data:{\"id\":2}\n\n";
+        MockHttpServletRequest request = request("gzip");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        int[] flushedBytes = new int[2];
+
+        filter.doFilter(request, response, new MockFilterChain(new HttpServlet() {
+            @Override
+            protected void service(HttpServletRequest req, HttpServletResponse resp) throws IOException {
+                resp.setContentType("text/event-stream");
+                resp.getOutputStream().write(first.getBytes(StandardCharsets.UTF_8));
+                resp.flushBuffer();
+                flushedBytes[0] = response.getContentAsByteArray().length;
+                resp.getOutputStream().write(second.getBytes(StandardCharsets.UTF_8));
+                resp.flushBuffer();
+                flushedBytes[1] = response.getContentAsByteArray().length;
+            }
+        }));
+
+        assertThat(response.getHeader("Content-Encoding")).isEqualTo("gzip");
+        byte[] body = response.getContentAsByteArray();
+        assertThat(inflatePrefix(body, flushedBytes[0], first.length())).isEqualTo(first);
+        assertThat(inflatePrefix(body, flushedBytes[1], first.length() + second.length())).isEqualTo(first + second);
+        assertThat(gunzip(body)).isEqualTo(first + second);
+    }
+
+    private MockHttpServletResponse serve(String acceptEncoding, String contentType, String body) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request(acceptEncoding), response, new MockFilterChain(new HttpServlet() {
+            @Override
+            protected void service(HttpServletRequest req, HttpServletResponse resp) throws IOException {
+                byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+                resp.setContentType(contentType);
+                resp.setContentLength(bytes.length);
+                resp.getOutputStream().write(bytes);
+                resp.getOutputStream().flush();
+            }
+        }));
+        return response;
+    }
+
+    private static MockHttpServletRequest request(String acceptEncoding) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/patients");
+        if (acceptEncoding != null) {
+            request.addHeader("Accept-Encoding", acceptEncoding);
+        }
+        return request;
+    }
+
+    private static String gunzip(byte[] body) throws IOException {
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(body))) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    // What a client can decode from the first flushedBytes bytes it has received
+    private static String inflatePrefix(byte[] body, int flushedBytes, int expectedLength) throws IOException {
+        GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(body, 0, flushedBytes));
+        return new String(in.readNBytes(expectedLength), StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,48 @@
+package com.healthcare.controller;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.healthcare.ai.DataProvider;
+import com.healthcare.load.LoadDriver;
+import com.healthcare.load.SeededApiTest;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Checks the city and region filters of the facility listing, the patient search and the chat
+ * tools against the same JSONB fields queried directly, ignoring case.
+ */
+class AddressFilterTest extends SeededApiTest {
+
+    @Autowired
+    private DataProvider dataProvider;
+
+    @Test
+    void addressFiltersMatchJsonbFields() throws Exception {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        long springfield = jdbcTemplate.queryForObject(
+            "SELECT count(*) FROM facilities WHERE is_active AND lower(address->>'city') = 'springfield'", Long.class);
+        long salemInRegion = jdbcTemplate.queryForObject(
+            "SELECT count(*) FROM patients WHERE deleted_at IS NULL AND lower(address->>'city') = 'salem' " +
+                "AND lower(address->>'region') = lower((SELECT address->>'region' FROM patients " +
+                "WHERE address->>'city' = 'Salem' LIMIT 1))", Long.class);
+        String salemRegion = jdbcTemplate.queryForObject(
+            "SELECT address->>'region' FROM patients WHERE address->>'city' = 'Salem' LIMIT 1", String.class);
+
+        ObjectMapper objectMapper = new ObjectMapper();
+        JsonNode facilities = objectMapper.readTree(driver.send(LoadDriver.get(
+            driver.url("/api/facilities?city=SPRINGFIELD&size=1000"))).body());
+        JsonNode patients = objectMapper.readTree(driver.send(LoadDriver.get(
+            driver.url("/api/patients/search?city=salem&region=" + salemRegion + "&size=1"))).body());
+
+        assertThat(springfield).isPositive();
+        assertThat(facilities.get("totalElements").asLong()).isEqualTo(springfield);
+        assertThat(facilities.get("content")).allSatisfy(
+            facility -> assertThat(facility.get("address").get("city").asText()).isEqualTo("Springfield"));
+        assertThat(patients.get("totalElements").asLong()).isEqualTo(salemInRegion);
+        assertThat(dataProvider.getFacilities(null, "springfield", 1000)).hasSize((int) springfield);
+    }
+}
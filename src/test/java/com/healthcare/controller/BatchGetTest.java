@@ -0,0 +1,78 @@
+package com.healthcare.controller;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.healthcare.diagnostics.QueryDiagnostics;
+import com.healthcare.load.LoadDriver;
+import com.healthcare.load.SeededApiTest;
+import com.healthcare.service.FacilityService;
+import com.healthcare.service.PatientService;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.LongStream;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+/**
+ * Fetches patients and facilities by id in batches over HTTP: results come back in request order
+ * with unknown ids listed as missing, and each batch costs one query per chunk of ids.
+ */
+class BatchGetTest extends SeededApiTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Autowired
+    private PatientService patientService;
+
+    @Autowired
+    private FacilityService facilityService;
+
+    @Test
+    void batchGetsReturnRequestOrder() throws Exception {
+        // 600 distinct patients in scattered order, plus an unknown id and a repeat
+        List<Long> ids = scatteredPatientIds();
+        List<Long> expected = List.copyOf(ids);
+        ids.add(Long.MAX_VALUE);
+        ids.add(ids.get(0));
+
+        HttpResponse<String> patients = driver.send(LoadDriver.postJson(driver.url("/api/patients/batch-get"),
+            "{\"ids\": " + ids + "}"));
+        assertThat(patients.statusCode()).isEqualTo(200);
+        JsonNode body = objectMapper.readTree(patients.body());
+        assertThat(body.get("found")).extracting(patient -> patient.get("id").asLong()).isEqualTo(expected);
+        assertThat(body.get("missing")).extracting(JsonNode::asLong).containsExactly(Long.MAX_VALUE);
+
+        List<Long> facilities = List.of(facilityIds[5], facilityIds[1], facilityIds[3]);
+        body = objectMapper.readTree(driver.send(LoadDriver.postJson(driver.url("/api/facilities/batch-get"),
+            "{\"ids\": " + facilities + "}")).body());
+        assertThat(body.get("found")).extracting(facility -> facility.get("id").asLong()).isEqualTo(facilities);
+        assertThat(body.get("found").get(0).get("patientCount").asLong())
+            .isEqualTo(facilityService.getFacilityById(facilityIds[5]).getPatientCount());
+
+        List<Long> tooMany = LongStream.rangeClosed(1, 1_001).boxed().toList();
+        assertThat(driver.send(LoadDriver.postJson(driver.url("/api/patients/batch-get"),
+            "{\"ids\": " + tooMany + "}")).statusCode()).isEqualTo(400);
+    }
+
+    @Test
+    void batchGetsIssueOneQueryPerChunk() {
+        List<Long> ids = scatteredPatientIds();
+        assertThat(QueryDiagnostics.capture(() -> patientService.getPatientsByIds(ids)).statements())
+            .as("statements for 600 patient ids").isEqualTo(2);
+
+        List<Long> facilities = List.of(facilityIds[5], facilityIds[1], facilityIds[3]);
+        assertThat(QueryDiagnostics.capture(() -> facilityService.getFacilitiesByIds(facilities)).statements())
+            .as("statements for 3 facility ids, with their patient counts").isEqualTo(2);
+    }
+
+    private List<Long> scatteredPatientIds() {
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 600; i++) {
+            ids.add(patientIds[(i * 7_919) % patientIds.length]);
+        }
+        return ids;
+    }
+}
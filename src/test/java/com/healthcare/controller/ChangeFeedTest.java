@@ -0,0 +1,67 @@
+package com.healthcare.controller;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.healthcare.load.LoadDriver;
+import com.healthcare.load.SeededApiTest;
+import com.healthcare.repository.reactive.ChangeCursor;
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Checks how the delta-sync feed types a change: CREATED for a patient the client has never
+ * received, even when it was updated after being created, and UPDATED for one it already has,
+ * whatever its row version says.
+ */
+class ChangeFeedTest extends SeededApiTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void patientsCreatedAfterTheCursorAreCreatedEvenOnceUpdated() throws Exception {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        String cursor = jdbcTemplate.queryForObject(
+            "SELECT updated_at, id FROM patients ORDER BY updated_at DESC, id DESC LIMIT 1",
+            (row, rowNum) -> new ChangeCursor(row.getTimestamp("updated_at").toLocalDateTime(), row.getLong("id")))
+            .encode();
+
+        long createdId = objectMapper.readTree(driver.send(LoadDriver.postJson(driver.url("/api/patients"), """
+            {"facilityId": %d, "firstName": "Created", "lastName": "Then Updated", "dateOfBirth": "1982-03-04",
+             "medicalRecordNumber": "MRN-CHANGES-CREATED"}""".formatted(facilityIds[0]))).body()).get("id").asLong();
+        HttpResponse<String> patched = driver.send(HttpRequest.newBuilder(URI.create(driver.url("/api/patients/" + createdId)))
+            .header("Content-Type", "application/merge-patch+json")
+            .method("PATCH", HttpRequest.BodyPublishers.ofString("{\"phone\": \"+1-555-0177\"}"))
+            .build());
+        assertThat(patched.statusCode()).isEqualTo(200);
+        // A row written before row versions existed still has version 0, though it was updated
+        long legacyId = patientIds[patientIds.length - 3];
+        jdbcTemplate.update("UPDATE patients SET updated_at = localtimestamp, version = 0 WHERE id = ?", legacyId);
+
+        List<JsonNode> delta = changes(cursor);
+        assertThat(delta).extracting(change -> change.get("id").asLong()).containsExactly(createdId, legacyId);
+        assertThat(delta).extracting(change -> change.get("type").asText()).containsExactly("CREATED", "UPDATED");
+        assertThat(delta.get(0).get("patient").get("phone").asText()).isEqualTo("+1-555-0177");
+        assertThat(delta.get(0).get("patient").get("version").asLong()).isEqualTo(1);
+    }
+
+    private List<JsonNode> changes(String since) throws Exception {
+        HttpResponse<String> response = driver.send(HttpRequest.newBuilder(
+                URI.create(driver.url("/api/patients/changes?limit=100&since=" + since)))
+            .header("Accept", "application/x-ndjson")
+            .GET()
+            .build());
+        assertThat(response.statusCode()).isEqualTo(200);
+        List<JsonNode> changes = new ArrayList<>();
+        for (String line : response.body().lines().toList()) {
+            changes.add(objectMapper.readTree(line));
+        }
+        return changes;
+    }
+}
@@ -0,0 +1,137 @@
+package com.healthcare.controller;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.healthcare.load.LoadDriver;
+import com.healthcare.load.SeededApiTest;
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks that patient and facility ETags follow the row version: a matching If-None-Match gets
+ * 304, and a PUT whose If-Match names an older version gets 412 instead of overwriting. Gzipped
+ * and Smile responses carry their own tags, which work the same way.
+ */
+class ConditionalRequestsTest extends SeededApiTest {
+
+    @Test
+    void conditionalRequestsUseRowVersionETags() throws Exception {
+        String patientUrl = driver.url("/api/patients/" + patientIds[patientIds.length - 1]);
+        HttpResponse<String> patient = driver.send(LoadDriver.get(patientUrl));
+        String eTag = patient.headers().firstValue("ETag").orElseThrow();
+
+        HttpResponse<String> unchanged = driver.send(conditionalGet(patientUrl, eTag));
+        assertThat(unchanged.statusCode()).isEqualTo(304);
+        assertThat(unchanged.body()).isEmpty();
+
+        HttpResponse<String> updated = driver.send(put(patientUrl, "\"41\"", patient.body()));
+        assertThat(updated.statusCode()).isEqualTo(412);
+
+        JsonNode changed = new ObjectMapper().readTree(patient.body());
+        ((ObjectNode) changed).put("phone", "+1-555-0100");
+        updated = driver.send(put(patientUrl, eTag, changed.toString()));
+        assertThat(updated.statusCode()).isEqualTo(200);
+        String newETag = updated.headers().firstValue("ETag").orElseThrow();
+        assertThat(newETag).isNotEqualTo(eTag);
+        assertThat(driver.send(conditionalGet(patientUrl, eTag)).statusCode()).isEqualTo(200);
+        assertThat(driver.send(conditionalGet(patientUrl, newETag)).statusCode()).isEqualTo(304);
+        // The same stale write again now fails its precondition instead of overwriting
+        assertThat(driver.send(put(patientUrl, eTag, patient.body())).statusCode()).isEqualTo(412);
+
+        String facilityUrl = driver.url("/api/facilities/" + facilityIds[0]);
+        String facilityETag = driver.send(LoadDriver.get(facilityUrl)).headers().firstValue("ETag").orElseThrow();
+        assertThat(driver.send(conditionalGet(facilityUrl, facilityETag)).statusCode()).isEqualTo(304);
+    }
+
+    @Test
+    void gzippedResponsesCarryTheirOwnETag() throws Exception {
+        // A street long enough to take the patient over the compression threshold
+        ObjectNode patient = new ObjectMapper().createObjectNode()
+            .put("facilityId", facilityIds[0])
+            .put("firstName", "Gzip")
+            .put("lastName", "ETag")
+            .put("dateOfBirth", "1980-06-07")
+            .put("medicalRecordNumber", "MRN-ETAG-GZIP");
+        patient.putObject("address").put("street", "Long Road ".repeat(500)).put("city", "Springfield");
+        HttpResponse<String> created = driver.send(LoadDriver.postJson(driver.url("/api/patients"), patient.toString()));
+        assertThat(created.statusCode()).isEqualTo(200);
+        String patientUrl = driver.url("/api/patients/" + new ObjectMapper().readTree(created.body()).get("id").asLong());
+
+        HttpResponse<String> identity = driver.send(LoadDriver.get(patientUrl));
+        String identityETag = identity.headers().firstValue("ETag").orElseThrow();
+        HttpResponse<byte[]> gzipped = driver.sendForBytes(gzip(LoadDriver.get(patientUrl)));
+        assertThat(gzipped.headers().firstValue("Content-Encoding")).hasValue("gzip");
+        String gzipETag = gzipped.headers().firstValue("ETag").orElseThrow();
+        assertThat(gzipETag).startsWith("\"").endsWith("\"").isNotEqualTo(identityETag);
+
+        HttpResponse<byte[]> unchanged = driver.sendForBytes(gzip(conditionalGet(patientUrl, gzipETag)));
+        assertThat(unchanged.statusCode()).isEqualTo(304);
+        assertThat(unchanged.headers().firstValue("ETag")).hasValue(gzipETag);
+        assertThat(driver.send(conditionalGet(patientUrl, identityETag)).statusCode()).isEqualTo(304);
+
+        JsonNode changed = new ObjectMapper().readTree(identity.body());
+        ((ObjectNode) changed).put("phone", "+1-555-0101");
+        HttpResponse<byte[]> updated = driver.sendForBytes(gzip(put(patientUrl, gzipETag, changed.toString())));
+        assertThat(updated.statusCode()).isEqualTo(200);
+        String newGzipETag = updated.headers().firstValue("ETag").orElseThrow();
+        assertThat(newGzipETag).isNotEqualTo(gzipETag);
+        // The old gzip tag now names a stale version
+        assertThat(driver.send(put(patientUrl, gzipETag, identity.body())).statusCode()).isEqualTo(412);
+        assertThat(driver.sendForBytes(gzip(conditionalGet(patientUrl, gzipETag))).statusCode()).isEqualTo(200);
+        assertThat(driver.sendForBytes(gzip(conditionalGet(patientUrl, newGzipETag))).statusCode()).isEqualTo(304);
+    }
+
+    @Test
+    void smileResponsesCarryTheirOwnETagAndVaryByAccept() throws Exception {
+        String patientUrl = driver.url("/api/patients/" + patientIds[patientIds.length - 4]);
+        HttpResponse<String> json = driver.send(LoadDriver.get(patientUrl));
+        String jsonETag = json.headers().firstValue("ETag").orElseThrow();
+        assertThat(json.headers().allValues("Vary")).anyMatch(vary -> vary.contains("Accept"));
+
+        HttpResponse<byte[]> smile = driver.sendForBytes(smile(LoadDriver.get(patientUrl)));
+        assertThat(smile.headers().firstValue("Content-Type")).hasValueSatisfying(
+            type -> assertThat(type).startsWith("application/x-jackson-smile"));
+        assertThat(smile.headers().allValues("Vary")).anyMatch(vary -> vary.contains("Accept"));
+        String smileETag = smile.headers().firstValue("ETag").orElseThrow();
+        assertThat(smileETag).startsWith("\"").endsWith("\"").isNotEqualTo(jsonETag);
+
+        HttpResponse<byte[]> unchanged = driver.sendForBytes(smile(conditionalGet(patientUrl, smileETag)));
+        assertThat(unchanged.statusCode()).isEqualTo(304);
+        assertThat(unchanged.headers().firstValue("ETag")).hasValue(smileETag);
+        assertThat(unchanged.headers().allValues("Vary")).anyMatch(vary -> vary.contains("Accept"));
+
+        JsonNode changed = new ObjectMapper().readTree(json.body());
+        ((ObjectNode) changed).put("phone", "+1-555-0102");
+        assertThat(driver.send(put(patientUrl, smileETag, changed.toString())).statusCode()).isEqualTo(200);
+        // The old Smile tag now names a stale version
+        assertThat(driver.send(put(patientUrl, smileETag, json.body())).statusCode()).isEqualTo(412);
+        assertThat(driver.sendForBytes(smile(conditionalGet(patientUrl, smileETag))).statusCode()).isEqualTo(200);
+    }
+
+    private static HttpRequest conditionalGet(String url, String eTag) {
+        return HttpRequest.newBuilder(URI.create(url)).header("If-None-Match", eTag).GET().build();
+    }
+
+    private static HttpRequest gzip(HttpRequest request) {
+        return HttpRequest.newBuilder(request, (name, value) -> true).header("Accept-Encoding", "gzip").build();
+    }
+
+    private static HttpRequest smile(HttpRequest request) {
+        return HttpRequest.newBuilder(request, (name, value) -> true)
+            .header("Accept", "application/x-jackson-smile")
+            .build();
+    }
+
+    private static HttpRequest put(String url, String ifMatch, String body) {
+        return HttpRequest.newBuilder(URI.create(url))
+            .header("Content-Type", "application/json")
+            .header("If-Match", ifMatch)
+            .PUT(HttpRequest.BodyPublishers.ofString(body))
+            .build();
+    }
+}
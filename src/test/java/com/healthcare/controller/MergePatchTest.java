@@ -0,0 +1,86 @@
+package com.healthcare.controller;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.healthcare.diagnostics.QueryCapture;
+import com.healthcare.diagnostics.QueryDiagnostics;
+import com.healthcare.load.LoadDriver;
+import com.healthcare.load.SeededApiTest;
+import com.healthcare.service.FacilityService;
+import com.healthcare.service.PatientService;
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+/**
+ * Applies JSON merge patches to patients and facilities over HTTP, and checks through
+ * {@link QueryDiagnostics} that the UPDATE sets only the columns the patch touched.
+ */
+class MergePatchTest extends SeededApiTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Autowired
+    private PatientService patientService;
+
+    @Autowired
+    private FacilityService facilityService;
+
+    @Test
+    void mergePatchesUpdateOnlyTheSuppliedFields() throws Exception {
+        String patientUrl = driver.url("/api/patients/" + patientIds[patientIds.length - 2]);
+        HttpResponse<String> patient = driver.send(LoadDriver.get(patientUrl));
+        String eTag = patient.headers().firstValue("ETag").orElseThrow();
+
+        HttpResponse<String> patched = driver.send(patch(patientUrl, eTag, "{\"phone\": \"+1-555-0199\"}"));
+        assertThat(patched.statusCode()).isEqualTo(200);
+        assertThat(patched.headers().firstValue("ETag")).isPresent().get().isNotEqualTo(eTag);
+
+        JsonNode expected = ((ObjectNode) objectMapper.readTree(patient.body())).put("phone", "+1-555-0199");
+        ((ObjectNode) expected).remove("version");
+        JsonNode actual = ((ObjectNode) objectMapper.readTree(patched.body())).without("version");
+        assertThat(actual).isEqualTo(expected);
+
+        // Stale versions and patches that leave the patient invalid are refused
+        assertThat(driver.send(patch(patientUrl, eTag, "{\"phone\": null}")).statusCode()).isEqualTo(412);
+        assertThat(driver.send(patch(patientUrl, "*", "{\"lastName\": null}")).statusCode()).isEqualTo(400);
+
+        String facilityUrl = driver.url("/api/facilities/" + facilityIds[1]);
+        HttpResponse<String> facility = driver.send(patch(facilityUrl, "*", "{\"name\": \"Renamed Facility\"}"));
+        assertThat(facility.statusCode()).isEqualTo(200);
+        assertThat(objectMapper.readTree(facility.body()).get("name").asText()).isEqualTo("Renamed Facility");
+    }
+
+    @Test
+    void updatesWriteOnlyThePatchedColumns() throws Exception {
+        long patientId = patientIds[patientIds.length - 3];
+        String update = updateStatement(QueryDiagnostics.capture(() -> patientService.patchPatient(patientId,
+            objectMapper.readTree("{\"phone\": \"+1-555-0198\"}"), null)));
+        assertThat(update).contains("phone").doesNotContain("first_name", "medical_record_number", "facility_id");
+
+        long facilityId = facilityIds[2];
+        update = updateStatement(QueryDiagnostics.capture(() -> facilityService.patchFacility(facilityId,
+            objectMapper.readTree("{\"name\": \"Patched Facility\"}"), null)));
+        assertThat(update).contains("name").doesNotContain("latitude", "address");
+    }
+
+    private static String updateStatement(QueryCapture capture) {
+        return capture.statementCounts().keySet().stream()
+            .filter(sql -> sql.stripLeading().regionMatches(true, 0, "update", 0, 6))
+            .findFirst()
+            .orElseThrow(() -> new AssertionError("No UPDATE among " + capture.statementCounts().keySet()));
+    }
+
+    private static HttpRequest patch(String url, String ifMatch, String body) {
+        return HttpRequest.newBuilder(URI.create(url))
+            .header("Content-Type", "application/merge-patch+json")
+            .header("If-Match", ifMatch)
+            .method("PATCH", HttpRequest.BodyPublishers.ofString(body))
+            .build();
+    }
+}
@@ -0,0 +1,36 @@
+package com.healthcare.controller;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.healthcare.load.LoadDriver;
+import com.healthcare.load.SeededApiTest;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Checks that the nearest-facility endpoint, answered from the in-memory index, returns the same
+ * facilities in the same order as a haversine ordering in the database.
+ */
+class NearestFacilitiesTest extends SeededApiTest {
+
+    @Test
+    void nearestFacilitiesMatchDistanceOrderInDatabase() throws Exception {
+        // Haversine over every active facility, the result the index must reproduce
+        List<Long> expected = new JdbcTemplate(dataSource).queryForList(
+            "SELECT id FROM facilities WHERE is_active AND type = 'HOSPITAL' ORDER BY " +
+                "asin(sqrt(power(sin(radians(latitude - 41.5) / 2), 2) + cos(radians(41.5)) * " +
+                "cos(radians(latitude)) * power(sin(radians(longitude + 87.6) / 2), 2))), id LIMIT 10", Long.class);
+
+        JsonNode nearest = new ObjectMapper().readTree(driver.send(LoadDriver.get(
+            driver.url("/api/facilities/nearest?lat=41.5&lon=-87.6&type=HOSPITAL&k=10"))).body());
+
+        assertThat(nearest).hasSize(10);
+        assertThat(nearest.findValuesAsText("id").stream().map(Long::valueOf).toList()).isEqualTo(expected);
+        assertThat(nearest).allSatisfy(facility -> assertThat(facility.get("type").asText()).isEqualTo("HOSPITAL"));
+        assertThat(driver.send(LoadDriver.get(driver.url("/api/facilities/nearest?lat=91&lon=0"))).statusCode())
+            .isEqualTo(400);
+    }
+}
@@ -0,0 +1,162 @@
+package com.healthcare.datasource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.healthcare.load.EmbeddedPostgresSupport;
+import com.healthcare.load.LoadProfile;
+import com.healthcare.load.SyntheticDataGenerator;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.net.CookieManager;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.Map;
+import javax.sql.DataSource;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+/**
+ * Runs the app against two embedded PostgreSQL servers: the primary, and a second server seeded
+ * with the same rows that never receives later writes, i.e. a replica that stopped replaying.
+ * Lag is read from a probe table so the test can move the replica in and out of rotation.
+ */
+@Tag("load")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+    "spring.jpa.show-sql=false",
+    "app.ai.openai.enabled=false",
+    "app.datasource.replica-lag-query=SELECT lag_seconds FROM replica_lag_probe",
+    "app.datasource.max-replica-lag=5s",
+    "app.datasource.read-your-writes-window=30s",
+    // Checks are triggered by the test
+    "app.datasource.lag-check-interval=PT1H",
+    "logging.level.org.hibernate.SQL=WARN"
+})
+class ReplicaRoutingIntegrationTest {
+
+    private static final String PRIMARY_DB = "routing_primary";
+    private static final String REPLICA_DB = "routing_replica";
+    private static final LoadProfile PROFILE = new LoadProfile(10, 300, 42, 0, 1);
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private ReplicaDataSources replicaDataSources;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private JdbcTemplate primary;
+    private JdbcTemplate replica;
+    private long facilityId;
+
+    @DynamicPropertySource
+    static void databases(DynamicPropertyRegistry registry) {
+        EmbeddedPostgresSupport.register(registry, PRIMARY_DB);
+        EmbeddedPostgresSupport.registerReplica(registry, REPLICA_DB);
+    }
+
+    @BeforeAll
+    void seedBothServers() throws Exception {
+        DataSource primaryDb = EmbeddedPostgresSupport.instance().getDatabase("postgres", PRIMARY_DB);
+        DataSource replicaDb = EmbeddedPostgresSupport.instance(EmbeddedPostgresSupport.REPLICA)
+            .getDatabase("postgres", REPLICA_DB);
+        primary = new JdbcTemplate(primaryDb);
+        replica = new JdbcTemplate(replicaDb);
+
+        // The app migrates the primary on startup; the replica gets the same schema
+        Flyway.configure()
+            .dataSource(replicaDb)
+            .mixed(true)
+            .configuration(Map.of("flyway.postgresql.transactional.lock", "false"))
+            .load()
+            .migrate();
+        new SyntheticDataGenerator(PROFILE).seed(primaryDb);
+        new SyntheticDataGenerator(PROFILE).seed(replicaDb);
+
+        replica.execute("CREATE TABLE replica_lag_probe (lag_seconds double precision)");
+        replica.execute("INSERT INTO replica_lag_probe VALUES (0)");
+        replicaDataSources.refresh();
+
+        facilityId = primary.queryForObject("SELECT min(id) FROM facilities WHERE is_active", Long.class);
+    }
+
+    @Test
+    void readOnlyTransactionsAreServedByReplica() throws Exception {
+        long id = primary.queryForObject("SELECT min(id) FROM patients WHERE deleted_at IS NULL", Long.class);
+        replica.update("UPDATE patients SET first_name = 'ServedByReplica' WHERE id = ?", id);
+
+        HttpResponse<String> response = get(HttpClient.newHttpClient(), "/api/patients/" + id);
+
+        assertThat(response.statusCode()).isEqualTo(200);
+        assertThat(response.body()).contains("ServedByReplica");
+        assertThat(meterRegistry.get("healthcare.datasource.routing")
+            .tags("target", "replica-1", "reason", "read_only").counter().count()).isPositive();
+    }
+
+    @Test
+    void writerReadsItsOwnWritesFromPrimary() throws Exception {
+        HttpClient writer = HttpClient.newBuilder().cookieHandler(new CookieManager()).build();
+        HttpResponse<String> created = createPatient(writer, "Pinned");
+        long id = objectMapper.readTree(created.body()).get("id").asLong();
+
+        assertThat(created.headers().allValues("Set-Cookie")).anySatisfy(
+            cookie -> assertThat(cookie).startsWith(ReadYourWritesFilter.COOKIE_NAME + "="));
+        assertThat(get(writer, "/api/patients/" + id).statusCode()).isEqualTo(200);
+        // Other clients keep reading from the replica, which has not seen the insert
+        assertThat(get(HttpClient.newHttpClient(), "/api/patients/" + id).statusCode()).isEqualTo(404);
+    }
+
+    @Test
+    void laggingReplicaIsTakenOutOfRotation() throws Exception {
+        HttpClient client = HttpClient.newHttpClient();
+        long id = objectMapper.readTree(createPatient(client, "Lagged").body()).get("id").asLong();
+        assertThat(get(client, "/api/patients/" + id).statusCode()).isEqualTo(404);
+
+        try {
+            replica.update("UPDATE replica_lag_probe SET lag_seconds = 60");
+            replicaDataSources.refresh();
+
+            assertThat(replicaDataSources.nextHealthy()).isNull();
+            assertThat(get(client, "/api/patients/" + id).statusCode()).isEqualTo(200);
+        } finally {
+            replica.update("UPDATE replica_lag_probe SET lag_seconds = 0");
+            replicaDataSources.refresh();
+        }
+        assertThat(replicaDataSources.nextHealthy()).isEqualTo("replica-1");
+    }
+
+    private HttpResponse<String> createPatient(HttpClient client, String firstName) throws Exception {
+        String body = String.format(
+            "{\"facilityId\": %d, \"firstName\": \"%s\", \"lastName\": \"Routing\", \"dateOfBirth\": \"1980-01-01\"}",
+            facilityId, firstName);
+        HttpResponse<String> response = client.send(HttpRequest.newBuilder(URI.create(url("/api/patients")))
+            .header("Content-Type", "application/json")
+            .POST(HttpRequest.BodyPublishers.ofString(body))
+            .build(), HttpResponse.BodyHandlers.ofString());
+        assertThat(response.statusCode()).as(response.body()).isEqualTo(200);
+        return response;
+    }
+
+    private HttpResponse<String> get(HttpClient client, String path) throws Exception {
+        return client.send(HttpRequest.newBuilder(URI.create(url(path))).GET().build(),
+            HttpResponse.BodyHandlers.ofString());
+    }
+
+    private String url(String path) {
+        return "http://localhost:" + port + path;
+    }
+}
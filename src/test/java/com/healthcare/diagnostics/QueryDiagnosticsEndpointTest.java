@@ -0,0 +1,47 @@
+package com.healthcare.diagnostics;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.healthcare.dto.PageRequestDTO;
+import com.healthcare.load.LoadDriver;
+import com.healthcare.load.SeededApiTest;
+import com.healthcare.service.FacilityService;
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+/**
+ * Checks the querydiagnostics endpoint against real requests: per-endpoint request and entity
+ * load counts, and no N+1 patterns on the listing endpoints.
+ */
+class QueryDiagnosticsEndpointTest extends SeededApiTest {
+
+    @Autowired
+    private FacilityService facilityService;
+
+    @Test
+    void diagnosticsReportNoNPlusOnePatterns() throws Exception {
+        driver.send(HttpRequest.newBuilder(URI.create(driver.url("/actuator/querydiagnostics"))).DELETE().build());
+        for (String path : List.of("/api/patients?size=50", "/api/facilities?size=50",
+            "/api/facilities/" + facilityIds[0] + "/patients?size=50")) {
+            assertThat(driver.send(LoadDriver.get(driver.url(path))).statusCode()).isEqualTo(200);
+        }
+
+        JsonNode endpoints = new ObjectMapper()
+            .readTree(driver.send(LoadDriver.get(driver.url("/actuator/querydiagnostics"))).body())
+            .get("endpoints");
+        assertThat(endpoints.get("GET /api/facilities").get("requests").asLong()).isEqualTo(1);
+        assertThat(endpoints.get("GET /api/facilities").get("entityLoads").get("Facility").asLong()).isEqualTo(50);
+        assertThat(endpoints).allSatisfy(endpoint -> assertThat(endpoint.get("nPlusOneRequests").asLong()).isZero());
+
+        PageRequestDTO page = new PageRequestDTO();
+        page.setSize(50);
+        QueryDiagnostics.capture(() -> facilityService.getAllFacilities(page, null, null, null))
+            .assertStatementsAtMost(3)
+            .assertNoNPlusOne();
+    }
+}
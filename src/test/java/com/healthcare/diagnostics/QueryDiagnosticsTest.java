@@ -0,0 +1,113 @@
+package com.healthcare.diagnostics;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import javax.sql.DataSource;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class QueryDiagnosticsTest {
+
+    private static final String FACILITY_BY_ID = "select f.id, f.name from facilities f where f.id=?";
+
+    private DataSource dataSource;
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        Connection connection = mock(Connection.class);
+        when(connection.prepareStatement(anyString())).thenAnswer(invocation -> mock(PreparedStatement.class));
+        DataSource target = mock(DataSource.class);
+        when(target.getConnection()).thenReturn(connection);
+
+        QueryDiagnosticsProperties properties = new QueryDiagnosticsProperties();
+        properties.setSlowQueryThreshold(Duration.ZERO);
+        meterRegistry = new SimpleMeterRegistry();
+        dataSource = ProxyDataSourceBuilder.create(target)
+            .listener(new QueryDiagnosticsListener(properties, meterRegistry))
+            .build();
+    }
+
+    @Test
+    void captureCountsStatementsAndFlagsRepeatedSelects() {
+        QueryCapture capture = QueryDiagnostics.capture(() -> {
+            execute("select p.id, p.facility_id from patients p where p.deleted_at is null", null);
+            for (long id = 1; id <= 6; id++) {
+                execute(FACILITY_BY_ID, id);
+            }
+        });
+
+        assertThat(capture.statements()).isEqualTo(7);
+        assertThat(capture.selects()).isEqualTo(7);
+        assertThat(capture.nPlusOneSuspects(5)).containsEntry(FACILITY_BY_ID, 6);
+        assertThatThrownBy(capture::assertNoNPlusOne).isInstanceOf(AssertionError.class).hasMessageContaining("N+1");
+        assertThatThrownBy(() -> capture.assertStatementsAtMost(2)).isInstanceOf(AssertionError.class);
+    }
+
+    @Test
+    void statementsOutsideAScopeAreNotRecorded() {
+        execute(FACILITY_BY_ID, 1L);
+
+        QueryCapture capture = QueryDiagnostics.capture(() -> execute(FACILITY_BY_ID, 2L));
+
+        assertThat(capture.statements()).isEqualTo(1);
+        assertThat(QueryDiagnostics.current()).isNull();
+        capture.assertStatementsAtMost(1).assertNoNPlusOne();
+    }
+
+    @Test
+    void nestedCaptureRestoresOuterScope() {
+        QueryCapture outer = QueryDiagnostics.capture(() -> {
+            execute(FACILITY_BY_ID, 1L);
+            QueryCapture inner = QueryDiagnostics.capture(() -> execute(FACILITY_BY_ID, 2L));
+            assertThat(inner.statements()).isEqualTo(1);
+            execute(FACILITY_BY_ID, 3L);
+        });
+
+        assertThat(outer.statements()).isEqualTo(2);
+    }
+
+    @Test
+    void slowQueryLogShowsParameterTypesNotValues() throws SQLException {
+        List<QueryInfo> executed = new ArrayList<>();
+        DataSource capturing = ProxyDataSourceBuilder.create(dataSource)
+            .afterQuery((execInfo, queries) -> executed.addAll(queries))
+            .build();
+
+        try (Connection connection = capturing.getConnection();
+             PreparedStatement statement = connection.prepareStatement("select * from patients where last_name=? and email=?")) {
+            statement.setString(1, "Hamdy");
+            statement.setNull(2, Types.VARCHAR);
+            statement.executeQuery();
+        }
+
+        assertThat(meterRegistry.get("healthcare.db.slow.queries").counter().count()).isEqualTo(1);
+        assertThat(QueryDiagnosticsListener.parameterShapes(executed.get(0))).containsExactly(List.of("String", "null"));
+    }
+
+    private void execute(String sql, Long id) {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement(sql)) {
+            if (id != null) {
+                statement.setLong(1, id);
+            }
+            statement.executeQuery();
+        } catch (SQLException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
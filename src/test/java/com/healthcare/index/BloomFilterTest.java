@@ -0,0 +1,35 @@
+package com.healthcare.index;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+
+class BloomFilterTest {
+
+    @Test
+    void neverMissesAnAddedValueAndStaysNearTheTargetRate() {
+        BloomFilter filter = BloomFilter.create(100_000, 0.01);
+        IntStream.range(0, 100_000).forEach(i -> filter.put(String.format("MRN%09d", i)));
+
+        assertThat(IntStream.range(0, 100_000)).allMatch(i -> filter.mightContain(String.format("MRN%09d", i)));
+        long falsePositives = IntStream.range(100_000, 200_000)
+            .filter(i -> filter.mightContain(String.format("MRN%09d", i)))
+            .count();
+        assertThat(falsePositives / 100_000.0).isLessThan(0.02);
+        assertThat(filter.expectedFalsePositiveRate()).isBetween(0.005, 0.02);
+    }
+
+    @Test
+    void sizesBitsAndHashesForTheExpectedLoad() {
+        BloomFilter filter = BloomFilter.create(1_000_000, 0.01);
+
+        // About 9.6 bits per value and 7 hashes for a 1% rate
+        assertThat(filter.bitCount()).isBetween(9_500_000L, 9_700_000L);
+        assertThat(filter.hashCount()).isEqualTo(7);
+        assertThat(filter.mightContain("MRN000000001")).isFalse();
+        assertThat(filter.expectedFalsePositiveRate()).isZero();
+        assertThatThrownBy(() -> BloomFilter.create(0, 0.01)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
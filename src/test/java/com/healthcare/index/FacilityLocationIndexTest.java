@@ -0,0 +1,76 @@
+package com.healthcare.index;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.healthcare.model.Facility;
+import com.healthcare.repository.FacilityRepository;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class FacilityLocationIndexTest {
+
+    private final FacilityRepository facilityRepository = mock(FacilityRepository.class);
+    private final FacilityLocationIndex index = new FacilityLocationIndex(facilityRepository);
+
+    @AfterEach
+    void tearDown() {
+        index.destroy();
+    }
+
+    @Test
+    void writesCommittedDuringTheReloadQuerySurviveIt() {
+        // The query returns the state from before two writes that commit while it runs
+        when(facilityRepository.findActiveLocations()).thenAnswer(invocation -> {
+            index.update(facility(2L, true));
+            index.update(facility(1L, false));
+            return List.of(location(1L));
+        });
+
+        index.reload();
+
+        assertThat(ids(index.nearest(40, -89, null, 10))).containsExactly(2L);
+    }
+
+    @Test
+    void writesReachLookupsOnceRebuilt() throws InterruptedException {
+        when(facilityRepository.findActiveLocations()).thenReturn(List.of(location(1L)));
+        index.reload();
+
+        for (long id = 2; id <= 50; id++) {
+            index.update(facility(id, true));
+        }
+        index.update(facility(1L, false));
+
+        awaitSize(49);
+        assertThat(ids(index.nearest(40, -89, Facility.FacilityType.CLINIC, 100))).hasSize(49).doesNotContain(1L);
+    }
+
+    private void awaitSize(int size) throws InterruptedException {
+        for (int attempt = 0; attempt < 100 && index.size() != size; attempt++) {
+            Thread.sleep(10);
+        }
+        assertThat(index.size()).isEqualTo(size);
+    }
+
+    private static Facility facility(long id, boolean active) {
+        return Facility.builder()
+            .id(id)
+            .name("Facility " + id)
+            .type(Facility.FacilityType.CLINIC)
+            .latitude(40 + id / 100.0)
+            .longitude(-89.0)
+            .isActive(active)
+            .build();
+    }
+
+    private static FacilityLocation location(long id) {
+        return FacilityLocation.of(facility(id, true));
+    }
+
+    private static List<Long> ids(List<KdTree.Neighbor<FacilityLocation>> neighbors) {
+        return neighbors.stream().map(neighbor -> neighbor.value().id()).toList();
+    }
+}
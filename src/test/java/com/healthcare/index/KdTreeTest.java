@@ -0,0 +1,82 @@
+package com.healthcare.index;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.SplittableRandom;
+import org.junit.jupiter.api.Test;
+
+class KdTreeTest {
+
+    private record Point(int id, double latitude, double longitude) {
+    }
+
+    private static final KdTree.Coordinates<Point> COORDINATES = new KdTree.Coordinates<>() {
+        @Override
+        public double latitude(Point point) {
+            return point.latitude();
+        }
+
+        @Override
+        public double longitude(Point point) {
+            return point.longitude();
+        }
+    };
+
+    @Test
+    void matchesBruteForceAcrossTheGlobe() {
+        SplittableRandom random = new SplittableRandom(42);
+        List<Point> points = new ArrayList<>();
+        for (int i = 0; i < 5_000; i++) {
+            points.add(new Point(i, Math.toDegrees(Math.asin(random.nextDouble(-1, 1))), random.nextDouble(-180, 180)));
+        }
+        KdTree<Point> tree = KdTree.build(points, COORDINATES);
+
+        for (int q = 0; q < 200; q++) {
+            double latitude = random.nextDouble(-90, 90);
+            double longitude = random.nextDouble(-180, 180);
+            List<Point> expected = points.stream()
+                .sorted(Comparator.comparingDouble(p -> haversineKm(latitude, longitude, p.latitude(), p.longitude())))
+                .limit(7)
+                .toList();
+
+            List<KdTree.Neighbor<Point>> nearest = tree.nearest(latitude, longitude, 7);
+
+            assertThat(nearest).extracting(KdTree.Neighbor::value).isEqualTo(expected);
+            assertThat(nearest.get(0).distanceKm()).isCloseTo(
+                haversineKm(latitude, longitude, expected.get(0).latitude(), expected.get(0).longitude()), within(1e-6));
+        }
+    }
+
+    @Test
+    void findsNeighboursAcrossTheAntimeridian() {
+        KdTree<Point> tree = KdTree.build(List.of(
+            new Point(1, 0, 179.9),
+            new Point(2, 0, -179.7),
+            new Point(3, 0, 170)), COORDINATES);
+
+        List<KdTree.Neighbor<Point>> nearest = tree.nearest(0, -179.95, 2);
+
+        assertThat(nearest).extracting(n -> n.value().id()).containsExactly(1, 2);
+        assertThat(nearest.get(0).distanceKm()).isCloseTo(16.7, within(0.1));
+    }
+
+    @Test
+    void returnsWhatItHasWhenAskedForMore() {
+        KdTree<Point> tree = KdTree.build(List.of(new Point(1, 10, 10), new Point(2, 20, 20)), COORDINATES);
+
+        assertThat(tree.nearest(0, 0, 5)).extracting(n -> n.value().id()).containsExactly(1, 2);
+        assertThat(KdTree.build(List.<Point>of(), COORDINATES).nearest(0, 0, 5)).isEmpty();
+    }
+
+    private static double haversineKm(double lat1, double lon1, double lat2, double lon2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLon = Math.toRadians(lon2 - lon1);
+        double a = Math.pow(Math.sin(dLat / 2), 2)
+            + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2)) * Math.pow(Math.sin(dLon / 2), 2);
+        return 2 * KdTree.EARTH_RADIUS_KM * Math.asin(Math.sqrt(a));
+    }
+}
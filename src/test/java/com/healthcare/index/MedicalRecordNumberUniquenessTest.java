@@ -0,0 +1,129 @@
+package com.healthcare.index;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.healthcare.diagnostics.QueryCapture;
+import com.healthcare.diagnostics.QueryDiagnostics;
+import com.healthcare.dto.PatientDTO;
+import com.healthcare.load.EmbeddedPostgresSupport;
+import com.healthcare.load.LoadDriver;
+import com.healthcare.load.SeededApiTest;
+import com.healthcare.service.PatientService;
+import java.net.http.HttpResponse;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.Map;
+import java.util.stream.IntStream;
+import org.flywaydb.core.Flyway;
+import org.flywaydb.core.api.MigrationVersion;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+/**
+ * Creates and imports patients over HTTP to check that a medical record number is held by at most
+ * one active patient, also under concurrent creates, and that the Bloom filter spares a create with
+ * a new number the duplicate check query. Also migrates a scratch database to check that V7 drops
+ * the table-wide unique constraint under any name.
+ */
+class MedicalRecordNumberUniquenessTest extends SeededApiTest {
+
+    @Autowired
+    private PatientService patientService;
+
+    @Test
+    void medicalRecordNumbersStayUniqueAmongActivePatients() throws Exception {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        String createUrl = driver.url("/api/patients");
+
+        String taken = jdbcTemplate.queryForObject("SELECT medical_record_number FROM patients " +
+            "WHERE deleted_at IS NULL AND medical_record_number IS NOT NULL ORDER BY id LIMIT 1", String.class);
+        assertThat(driver.send(LoadDriver.postJson(createUrl, newPatient(taken))).statusCode()).isEqualTo(409);
+
+        // Only active patients hold their MRN
+        String released = jdbcTemplate.queryForObject("SELECT medical_record_number FROM patients " +
+            "WHERE deleted_at IS NOT NULL AND medical_record_number IS NOT NULL ORDER BY id LIMIT 1", String.class);
+        assertThat(driver.send(LoadDriver.postJson(createUrl, newPatient(released))).statusCode()).isEqualTo(200);
+
+        // Concurrent creates all pass the checks; the unique index lets exactly one commit
+        List<CompletableFuture<Integer>> racing = IntStream.range(0, 8)
+            .mapToObj(i -> CompletableFuture.supplyAsync(() ->
+                driver.send(LoadDriver.postJson(createUrl, newPatient("MRN-RACE-1"))).statusCode()))
+            .toList();
+        assertThat(racing.stream().map(CompletableFuture::join).toList())
+            .containsOnly(200, 409)
+            .containsOnlyOnce(200);
+    }
+
+    @Test
+    void importsAreRejectedWholeOnAnyDuplicate() throws Exception {
+        String taken = new JdbcTemplate(dataSource).queryForObject("SELECT medical_record_number FROM patients " +
+            "WHERE deleted_at IS NULL AND medical_record_number IS NOT NULL ORDER BY id LIMIT 1", String.class);
+        String importUrl = driver.url("/api/patients/import");
+
+        HttpResponse<String> conflicting = driver.send(LoadDriver.postJson(importUrl,
+            "{\"patients\": [" + newPatient("MRN-IMPORT-1") + "," + newPatient(taken) + "]}"));
+        assertThat(conflicting.statusCode()).isEqualTo(409);
+        assertThat(conflicting.body()).contains(taken).doesNotContain("MRN-IMPORT-1");
+
+        HttpResponse<String> imported = driver.send(LoadDriver.postJson(importUrl,
+            "{\"patients\": [" + newPatient("MRN-IMPORT-1") + "," + newPatient("MRN-IMPORT-2") + "]}"));
+        assertThat(imported.statusCode()).isEqualTo(200);
+        assertThat(new ObjectMapper().readTree(imported.body()).findValuesAsText("medicalRecordNumber"))
+            .containsExactly("MRN-IMPORT-1", "MRN-IMPORT-2");
+        assertThat(driver.send(LoadDriver.postJson(importUrl,
+            "{\"patients\": [" + newPatient("MRN-IMPORT-3") + "," + newPatient("MRN-IMPORT-3") + "]}")).statusCode())
+            .isEqualTo(409);
+    }
+
+    // A new MRN is ruled out by the Bloom filter, so no SELECT looks for it
+    @Test
+    void newNumbersSkipTheDuplicateCheckQuery() {
+        PatientDTO patient = new PatientDTO();
+        patient.setFacilityId(facilityIds[2]);
+        patient.setFirstName("Unique");
+        patient.setLastName("Record");
+        patient.setDateOfBirth(LocalDate.of(1975, 6, 30));
+        patient.setMedicalRecordNumber("MRN-NEW-1");
+
+        QueryCapture capture = QueryDiagnostics.capture(() -> patientService.createPatient(patient));
+        assertThat(capture.statementCounts().keySet())
+            .filteredOn(sql -> sql.regionMatches(true, 0, "select", 0, 6))
+            .noneMatch(sql -> sql.contains("medical_record_number"));
+    }
+
+    // Databases created by ddl-auto=update named the table-wide constraint after a hash
+    @Test
+    void migrationDropsTheTableWideConstraintWhateverItsName() {
+        DriverManagerDataSource scratch = new DriverManagerDataSource(
+            EmbeddedPostgresSupport.createDatabase("mrn_constraint"), "postgres", "postgres");
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(scratch);
+        migrate(scratch, "6");
+        jdbcTemplate.execute("ALTER TABLE patients RENAME CONSTRAINT patients_medical_record_number_key TO uk6q4fjm0gd2dp0wmoa5c9jgbc7");
+
+        migrate(scratch, "7");
+        assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM pg_constraint " +
+            "WHERE conrelid = 'patients'::regclass AND contype = 'u'", Long.class)).isZero();
+        assertThat(jdbcTemplate.queryForObject("SELECT indisunique FROM pg_index " +
+            "WHERE indexrelid = 'idx_patients_active_mrn'::regclass", Boolean.class)).isTrue();
+    }
+
+    private static void migrate(DriverManagerDataSource dataSource, String target) {
+        Flyway.configure()
+            .dataSource(dataSource)
+            .target(MigrationVersion.fromVersion(target))
+            .mixed(true)
+            .configuration(Map.of("flyway.postgresql.transactional.lock", "false"))
+            .load()
+            .migrate();
+    }
+
+    private String newPatient(String medicalRecordNumber) {
+        return """
+            {"facilityId": %d, "firstName": "Unique", "lastName": "Record", "dateOfBirth": "1975-06-30",
+             "medicalRecordNumber": "%s"}""".formatted(facilityIds[2], medicalRecordNumber);
+    }
+}
@@ -0,0 +1,367 @@
+package com.healthcare.live;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.healthcare.dto.PatientDTO;
+import com.healthcare.load.EmbeddedPostgresSupport;
+import com.healthcare.load.LoadProfile;
+import com.healthcare.load.SyntheticDataGenerator;
+import com.healthcare.outbox.OutboxRelay;
+import com.healthcare.service.PatientService;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.Socket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Stream;
+import javax.sql.DataSource;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+/**
+ * Subscribes over HTTP and checks that each facility's stream carries exactly the relayed changes
+ * that concern it, that a client which stops reading is told to resync without holding up a fast
+ * one, even while its blocked write holds the only flush thread, and that losing the listener
+ * connection makes every subscriber resync.
+ */
+@Tag("load")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+    "spring.jpa.show-sql=false",
+    "app.ai.openai.enabled=false",
+    "app.outbox.relay-enabled=false",
+    "app.live-feed.buffer-size=64",
+    "app.live-feed.max-subscribers=12",
+    // One flush thread, so a write blocked on a client that stopped reading would stall everyone else
+    "app.live-feed.flush-threads=1",
+    "app.live-feed.send-timeout=500ms",
+    "app.live-feed.send-check-interval=100ms",
+    "app.live-feed.reconnect-delay=200ms",
+    // Also how soon subscriptions closed by the client are noticed and removed
+    "app.live-feed.heartbeat-interval=PT0.2S",
+    "logging.level.org.hibernate.SQL=WARN"
+})
+class LiveFeedTest {
+
+    private static final String DATABASE = "live_feed";
+    private static final LoadProfile PROFILE = new LoadProfile(20, 400, 20240401L, 0, 1);
+    private static final Duration TIMEOUT = Duration.ofSeconds(10);
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private PatientService patientService;
+
+    @Autowired
+    private OutboxRelay relay;
+
+    @Autowired
+    private LiveFeedHub hub;
+
+    @Autowired
+    private LiveFeedListener listener;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final HttpClient client = HttpClient.newHttpClient();
+    private final List<Subscription> subscriptions = new ArrayList<>();
+    private JdbcTemplate jdbc;
+    private List<Long> facilityIds;
+
+    @DynamicPropertySource
+    static void database(DynamicPropertyRegistry registry) {
+        EmbeddedPostgresSupport.register(registry, DATABASE);
+    }
+
+    @BeforeAll
+    void seed() throws Exception {
+        DataSource rawDataSource = EmbeddedPostgresSupport.instance().getDatabase("postgres", DATABASE);
+        new SyntheticDataGenerator(PROFILE).seed(rawDataSource);
+        jdbc = new JdbcTemplate(rawDataSource);
+        facilityIds = jdbc.queryForList("SELECT id FROM facilities WHERE is_active ORDER BY id LIMIT 3", Long.class);
+    }
+
+    @BeforeEach
+    void awaitListener() {
+        relay.drain();
+        closeSubscriptions();
+        eventually(() -> listener.isListening() && subscriberCount() == 0);
+    }
+
+    @AfterAll
+    void closeSubscriptions() {
+        subscriptions.forEach(Subscription::close);
+        subscriptions.clear();
+    }
+
+    @Test
+    void facilitiesSeeOnlyTheirOwnPatientChanges() throws Exception {
+        Subscription everything = subscribe("/api/patients/live");
+        Subscription from = subscribe("/api/facilities/" + facilityIds.get(0) + "/patients/live");
+        Subscription to = subscribe("/api/facilities/" + facilityIds.get(1) + "/patients/live");
+        Subscription unrelated = subscribe("/api/facilities/" + facilityIds.get(2) + "/patients/live");
+
+        PatientDTO patient = new PatientDTO();
+        patient.setFacilityId(facilityIds.get(0));
+        patient.setFirstName("Live");
+        patient.setLastName("Feed");
+        patient.setDateOfBirth(LocalDate.of(1990, 4, 5));
+        patient.setMedicalRecordNumber("MRN-LIVE-1");
+        PatientDTO admitted = patientService.createPatient(patient);
+        admitted.setFacilityId(facilityIds.get(1));
+        patientService.updatePatient(admitted.getId(), admitted);
+        patientService.softDeletePatient(admitted.getId());
+        // Delivered once the relay dispatches them, not when they commit
+        assertThat(everything.pollEvent(Duration.ofMillis(300))).isNull();
+        relay.drain();
+
+        List<Event> all = List.of(everything.nextEvent(), everything.nextEvent(), everything.nextEvent());
+        assertThat(all).extracting(Event::name).containsExactly("CREATED", "TRANSFERRED", "DELETED");
+        assertThat(all).extracting(event -> event.data().path("version"))
+            .allSatisfy(version -> assertThat(version.isIntegralNumber()).isTrue())
+            .extracting(JsonNode::asLong).containsExactly(0L, 1L, 2L);
+        Event created = from.nextEvent();
+        assertThat(created.name()).isEqualTo("CREATED");
+        assertThat(created.data().path("patientId").asLong()).isEqualTo(admitted.getId());
+        // No patient details go out on the channel; clients fetch the patient by id
+        assertThat(created.data().properties()).extracting(Map.Entry::getKey)
+            .containsExactlyInAnyOrder("eventId", "type", "patientId", "version", "facilityId", "previousFacilityId");
+        Event transferredOut = from.nextEvent();
+        assertThat(transferredOut.name()).isEqualTo("TRANSFERRED");
+        assertThat(transferredOut.data().path("previousFacilityId").asLong()).isEqualTo(facilityIds.get(0));
+        assertThat(transferredOut.data().path("facilityId").asLong()).isEqualTo(facilityIds.get(1));
+        assertThat(List.of(to.nextEvent(), to.nextEvent()))
+            .extracting(Event::name).containsExactly("TRANSFERRED", "DELETED");
+        // By now anything meant for the other streams would have arrived as well
+        assertThat(from.pollEvent(Duration.ofMillis(300))).isNull();
+        assertThat(unrelated.pollEvent(Duration.ofMillis(300))).isNull();
+    }
+
+    @Test
+    void aClientThatStopsReadingIsToldToResync() throws Exception {
+        long facilityId = facilityIds.get(0);
+        Subscription fast = subscribe("/api/facilities/" + facilityId + "/patients/live");
+        double resyncs = clientResyncs();
+        try (Socket stalled = new Socket("localhost", port)) {
+            // Reads nothing after the request, so the server's writes back up once the socket buffers are full
+            OutputStream request = stalled.getOutputStream();
+            request.write(("GET /api/facilities/" + facilityId + "/patients/live HTTP/1.1\r\n" +
+                "Host: localhost\r\nAccept: text/event-stream\r\n\r\n").getBytes(StandardCharsets.US_ASCII));
+            request.flush();
+            eventually(() -> subscriberCount() == 2);
+
+            String padding = "x".repeat(2_000);
+            int published = 0;
+            while (clientResyncs() == resyncs) {
+                assertThat(published).as("events published before the stalled client was resynced").isLessThan(50_000);
+                // Paced to what the fast client reads, so only the stalled one falls behind. Its queue
+                // overflows, or its write blocks past the send timeout, whichever comes first
+                for (int i = 0; i < 50; i++) {
+                    published++;
+                    hub.publish("{\"eventId\":" + published + ",\"type\":\"UPDATED\",\"facilityId\":" + facilityId +
+                        ",\"padding\":\"" + padding + "\"}");
+                }
+                for (int i = published - 49; i <= published; i++) {
+                    assertThat(fast.nextEvent().id()).isEqualTo(String.valueOf(i));
+                }
+            }
+
+            // The stalled client finds the resync event at the end of its backlog, then the stream ends
+            BufferedReader backlog = new BufferedReader(new InputStreamReader(stalled.getInputStream(), StandardCharsets.UTF_8));
+            String line;
+            String lastEvent = null;
+            while ((line = backlog.readLine()) != null && !line.equals("0")) {
+                if (line.startsWith("event:")) {
+                    lastEvent = line.substring("event:".length());
+                }
+            }
+            assertThat(lastEvent).isEqualTo("resync");
+        }
+        eventually(() -> subscriberCount() == 1);
+        assertThat(fast.pollEvent(Duration.ofMillis(300))).isNull();
+    }
+
+    @Test
+    void losingTheListenerConnectionResyncsEverySubscriber() throws Exception {
+        Subscription everything = subscribe("/api/patients/live");
+        Subscription facility = subscribe("/api/facilities/" + facilityIds.get(0) + "/patients/live");
+
+        jdbc.queryForList("SELECT pg_terminate_backend(pid) FROM pg_stat_activity " +
+            "WHERE application_name = ? AND datname = current_database()", LiveFeedListener.APPLICATION_NAME);
+
+        for (Subscription subscription : List.of(everything, facility)) {
+            Event resync = subscription.nextEvent();
+            assertThat(resync.name()).isEqualTo("resync");
+            assertThat(resync.data().path("reason").asText()).isEqualTo(LiveFeedHub.RESYNC_RECONNECT);
+            assertThat(subscription.ended()).isTrue();
+        }
+    }
+
+    @Test
+    void subscriptionsAreRefusedBeyondTheLimitOrForUnknownFacilities() throws Exception {
+        HttpResponse<Stream<String>> unknown = open("/api/facilities/999999999/patients/live");
+        assertThat(unknown.statusCode()).isEqualTo(404);
+        unknown.body().close();
+
+        HttpResponse<Stream<String>> refused = null;
+        for (int i = 0; i <= 12 && refused == null; i++) {
+            HttpResponse<Stream<String>> response = open("/api/patients/live");
+            if (response.statusCode() == 503) {
+                refused = response;
+            } else {
+                subscriptions.add(new Subscription(response));
+            }
+        }
+        assertThat(refused).isNotNull();
+        assertThat(refused.headers().firstValue("Retry-After")).hasValue("30");
+        refused.body().close();
+    }
+
+    // Resyncs a client earned itself, as opposed to a lost listener connection
+    private double clientResyncs() {
+        return Stream.of(LiveFeedHub.RESYNC_OVERFLOW, LiveFeedHub.RESYNC_STALLED)
+            .mapToDouble(reason -> meterRegistry.counter("healthcare.live.resyncs", "reason", reason).count())
+            .sum();
+    }
+
+    private int subscriberCount() {
+        return (int) meterRegistry.get("healthcare.live.subscribers").gauge().value();
+    }
+
+    private Subscription subscribe(String path) throws Exception {
+        HttpResponse<Stream<String>> response = open(path);
+        assertThat(response.statusCode()).isEqualTo(200);
+        Subscription subscription = new Subscription(response);
+        subscriptions.add(subscription);
+        subscription.awaitSubscribed();
+        return subscription;
+    }
+
+    private HttpResponse<Stream<String>> open(String path) throws Exception {
+        return client.send(HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+            .header("Accept", "text/event-stream")
+            .build(), HttpResponse.BodyHandlers.ofLines());
+    }
+
+    private static void eventually(BooleanSupplier condition) {
+        long deadline = System.nanoTime() + TIMEOUT.toNanos();
+        while (!condition.getAsBoolean()) {
+            assertThat(System.nanoTime()).as("condition met within %s", TIMEOUT).isLessThan(deadline);
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+
+    private record Event(String id, String name, JsonNode data) {
+    }
+
+    // Reads one SSE stream on its own thread; comments (subscribed, heartbeat) are kept apart from events
+    private final class Subscription {
+
+        private static final Event END = new Event(null, null, null);
+
+        private final HttpResponse<Stream<String>> response;
+        private final BlockingQueue<Event> events = new LinkedBlockingQueue<>();
+        private final BlockingQueue<String> comments = new LinkedBlockingQueue<>();
+        private volatile boolean ended;
+
+        private Subscription(HttpResponse<Stream<String>> response) {
+            this.response = response;
+            Thread.ofVirtual().start(this::read);
+        }
+
+        private void read() {
+            String id = null;
+            String name = null;
+            StringBuilder data = new StringBuilder();
+            try {
+                for (String line : (Iterable<String>) response.body()::iterator) {
+                    if (line.startsWith(":")) {
+                        comments.add(line.substring(1));
+                    } else if (line.startsWith("id:")) {
+                        id = line.substring(3);
+                    } else if (line.startsWith("event:")) {
+                        name = line.substring(6);
+                    } else if (line.startsWith("data:")) {
+                        data.append(line.substring(5));
+                    } else if (line.isEmpty() && name != null) {
+                        events.add(new Event(id, name, objectMapper.readTree(data.toString())));
+                        id = null;
+                        name = null;
+                        data.setLength(0);
+                    }
+                }
+            } catch (IOException | UncheckedIOException e) {
+                // Closed by the test
+            } finally {
+                ended = true;
+                events.add(END);
+            }
+        }
+
+        void awaitSubscribed() throws InterruptedException {
+            assertThat(comments.poll(TIMEOUT.toMillis(), TimeUnit.MILLISECONDS)).isEqualTo("subscribed");
+        }
+
+        Event nextEvent() throws InterruptedException {
+            Event event = pollEvent(TIMEOUT);
+            assertThat(event).as("event within %s", TIMEOUT).isNotNull();
+            return event;
+        }
+
+        Event pollEvent(Duration timeout) throws InterruptedException {
+            Event event = events.poll(timeout.toMillis(), TimeUnit.MILLISECONDS);
+            if (event == END) {
+                events.add(END);
+                return null;
+            }
+            return event;
+        }
+
+        boolean ended() throws InterruptedException {
+            Event event = events.poll(TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+            return event == END && ended;
+        }
+
+        void close() {
+            response.body().close();
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package com.healthcare.load;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.healthcare.index.FacilityLocationIndex;
+import com.healthcare.index.MedicalRecordNumberFilter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.function.IntFunction;
+import javax.sql.DataSource;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+/**
+ * Seeds a synthetic data set into embedded PostgreSQL, then drives the REST endpoints to record
+ * throughput and p50/p99 latency, and enforces per-endpoint query budgets so N+1 regressions fail
+ * the build.
+ */
+@Tag("load")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+    "spring.jpa.show-sql=false",
+    "spring.jpa.properties.hibernate.session_factory.statement_inspector=com.healthcare.load.QueryCounter",
+    "spring.datasource.hikari.maximum-pool-size=20",
+    "app.ai.openai.enabled=false",
+    "logging.level.com.healthcare=INFO",
+    "logging.level.org.hibernate.SQL=WARN"
+})
+class ApiLoadTest {
+
+    private static final LoadProfile PROFILE = LoadProfile.fromSystemProperties();
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private FacilityLocationIndex facilityLocationIndex;
+
+    @Autowired
+    private MedicalRecordNumberFilter medicalRecordNumberFilter;
+
+    private LoadDriver driver;
+    private long[] patientIds;
+    private long[] facilityIds;
+
+    @DynamicPropertySource
+    static void database(DynamicPropertyRegistry registry) {
+        EmbeddedPostgresSupport.register(registry, "api_load");
+    }
+
+    @BeforeAll
+    void seed() throws Exception {
+        new SyntheticDataGenerator(PROFILE).seed(dataSource);
+        facilityLocationIndex.reload();
+        medicalRecordNumberFilter.rebuild();
+        driver = new LoadDriver("http://localhost:" + port, PROFILE.concurrency());
+
+        // Deterministic sample of ids that exist and are not soft-deleted
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        patientIds = jdbcTemplate.queryForList(
+            "SELECT id FROM patients WHERE deleted_at IS NULL ORDER BY id LIMIT 10000", Long.class)
+            .stream().mapToLong(Long::longValue).toArray();
+        facilityIds = jdbcTemplate.queryForList(
+            "SELECT id FROM facilities WHERE is_active = true ORDER BY id LIMIT 50", Long.class)
+            .stream().mapToLong(Long::longValue).toArray();
+    }
+
+    @AfterAll
+    void stopDriver() {
+        driver.close();
+    }
+
+    // Budgets are per request; each list endpoint is probed at two page sizes and must issue the
+    // same number of statements for both, which is what an N+1 pattern breaks.
+    @Test
+    void endpointsStayWithinQueryBudgets() {
+        assertListBudget("/api/patients?size=%d", 2);
+        assertListBudget("/api/patients?search=mar&size=%d", 2);
+        assertListBudget("/api/patients/search?lastName=smi&size=%d", 2);
+        assertListBudget("/api/patients/facility/" + facilityIds[0] + "?size=%d", 2);
+        assertListBudget("/api/facilities?size=%d", 3);
+        assertListBudget("/api/facilities?type=CLINIC&size=%d", 3);
+        assertListBudget("/api/facilities/" + facilityIds[0] + "/patients?size=%d", 3);
+        assertListBudget("/api/facilities?city=springfield&size=%d", 3);
+        assertListBudget("/api/patients/search?city=Salem&size=%d", 2);
+
+        assertBudget("/api/patients/" + patientIds[0], 1);
+        assertBudget("/api/facilities/" + facilityIds[0], 2);
+        assertBudget("/api/facilities/nearest?lat=40.1&lon=-89.3&type=CLINIC&k=10", 0);
+    }
+
+    @Test
+    void recordsThroughputAndLatencyPerEndpoint() throws Exception {
+        SplittableRandom random = new SplittableRandom(PROFILE.seed());
+        int requests = PROFILE.requestsPerEndpoint();
+        long[] patients = random.longs(requests, 0, patientIds.length).map(i -> patientIds[(int) i]).toArray();
+        long[] facilities = random.longs(requests, 0, facilityIds.length).map(i -> facilityIds[(int) i]).toArray();
+        int[] pages = random.ints(requests, 0, 50).toArray();
+
+        List<EndpointStats> stats = new ArrayList<>();
+        // Warm up JIT, connection pool and caches before measuring
+        driver.run("warmup", requests, i -> "/api/patients?page=" + pages[i]);
+
+        stats.add(run("GET /api/patients", i -> "/api/patients?size=50&page=" + pages[i]));
+        stats.add(run("GET /api/patients?search", i -> "/api/patients?search=mar&size=20&page=" + pages[i] % 5));
+        stats.add(run("GET /api/patients/search", i -> "/api/patients/search?lastName=khan&size=20"));
+        stats.add(run("GET /api/patients/{id}", i -> "/api/patients/" + patients[i]));
+        stats.add(run("GET /api/facilities", i -> "/api/facilities?size=50&page=" + pages[i] % 4));
+        stats.add(run("GET /api/facilities/{id}", i -> "/api/facilities/" + facilities[i]));
+        stats.add(run("GET /api/facilities/nearest", i -> "/api/facilities/nearest?lat=" + (30 + pages[i] / 3.0) +
+            "&lon=" + (-120 + pages[i]) + "&k=10"));
+        stats.add(run("GET /api/facilities/{id}/patients", i -> "/api/facilities/" + facilities[i] + "/patients?size=50"));
+        stats.add(driver.runRequests("POST /api/chat", requests,
+            i -> LoadDriver.postJson(driver.url("/api/chat"), "{\"query\": \"How many patients are there?\"}")));
+
+        LoadReport.write("api-load", PROFILE, PROFILE.concurrency(), stats);
+        assertThat(stats).allSatisfy(s -> assertThat(s.requests()).isEqualTo(requests));
+    }
+
+    private EndpointStats run(String endpoint, IntFunction<String> path) throws Exception {
+        return driver.run(endpoint, PROFILE.requestsPerEndpoint(), path);
+    }
+
+    private void assertListBudget(String pathTemplate, int budget) {
+        long small = queriesFor(String.format(pathTemplate, 5));
+        long large = queriesFor(String.format(pathTemplate, 50));
+
+        assertThat(large)
+            .as("statements for %s should not grow with page size", pathTemplate)
+            .isEqualTo(small);
+        assertThat(large)
+            .as("statements for %s", pathTemplate)
+            .isLessThanOrEqualTo(budget);
+    }
+
+    private void assertBudget(String path, int budget) {
+        assertThat(queriesFor(path)).as("statements for %s", path).isLessThanOrEqualTo(budget);
+    }
+
+    private long queriesFor(String path) {
+        long before = QueryCounter.current();
+        int status = driver.send(LoadDriver.get(driver.url(path))).statusCode();
+        assertThat(status).as("status of %s", path).isEqualTo(200);
+        return QueryCounter.current() - before;
+    }
+}
@@ -0,0 +1,145 @@
+package com.healthcare.load;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+import java.util.zip.GZIPInputStream;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Compares gzipped with uncompressed responses on the wire for page, batch-get and change feed
+ * payloads, and checks that gzipped streams still deliver each NDJSON line and SSE event as it is
+ * flushed.
+ */
+@Tag("load")
+class CompressionLoadTest extends SeededApiTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void gzipsLargeResponsesOnlyForClientsThatAcceptIt() throws Exception {
+        String page = "/api/patients?size=100&sortBy=lastName";
+        HttpResponse<byte[]> gzipped = driver.sendForBytes(gzip(page));
+        HttpResponse<byte[]> plain = driver.sendForBytes(LoadDriver.get(driver.url(page)));
+
+        assertThat(gzipped.headers().firstValue("Content-Encoding")).hasValue("gzip");
+        assertThat(gzipped.headers().allValues("Vary")).anyMatch(vary -> vary.contains("Accept-Encoding"));
+        assertThat(plain.headers().firstValue("Content-Encoding")).isEmpty();
+        assertThat(gzipped.body().length).isLessThan(plain.body().length / 4);
+        assertThat(objectMapper.readTree(gunzip(gzipped.body()))).isEqualTo(objectMapper.readTree(plain.body()));
+
+        // Below app.compression.min-response-size
+        HttpResponse<byte[]> small = driver.sendForBytes(gzip("/api/patients/" + patientIds[0]));
+        assertThat(small.headers().firstValue("Content-Encoding")).isEmpty();
+        assertThat(small.headers().firstValueAsLong("Content-Length")).hasValue(small.body().length);
+        assertThat(small.headers().firstValue("ETag")).isPresent();
+
+        // Conditional requests still match on the row version
+        HttpResponse<byte[]> notModified = driver.sendForBytes(HttpRequest.newBuilder(URI.create(driver.url("/api/patients/" + patientIds[0])))
+            .header("Accept-Encoding", "gzip")
+            .header("If-None-Match", small.headers().firstValue("ETag").orElseThrow())
+            .build());
+        assertThat(notModified.statusCode()).isEqualTo(304);
+    }
+
+    @Test
+    void gzippedStreamsDeliverEachFlushAsItHappens() throws Exception {
+        HttpResponse<byte[]> changes = driver.sendForBytes(HttpRequest.newBuilder(URI.create(driver.url("/api/patients/changes?limit=2000")))
+            .header("Accept", "application/x-ndjson")
+            .header("Accept-Encoding", "gzip")
+            .build());
+        assertThat(changes.headers().firstValue("Content-Encoding")).hasValue("gzip");
+        List<String> lines = new String(gunzip(changes.body()), StandardCharsets.UTF_8).lines().toList();
+        assertThat(lines).hasSize(2000);
+        assertThat(objectMapper.readTree(lines.get(0)).has("cursor")).isTrue();
+
+        // The subscription comment arrives while the event stream stays open
+        HttpClient client = HttpClient.newHttpClient();
+        HttpResponse<InputStream> live = client.send(HttpRequest.newBuilder(URI.create(driver.url("/api/patients/live")))
+            .header("Accept-Encoding", "gzip")
+            .timeout(Duration.ofSeconds(10))
+            .build(), HttpResponse.BodyHandlers.ofInputStream());
+        assertThat(live.headers().firstValue("Content-Encoding")).hasValue("gzip");
+        try (InputStream body = live.body()) {
+            CompletableFuture<String> firstLine = CompletableFuture.supplyAsync(() -> {
+                try {
+                    return new BufferedReader(new InputStreamReader(new GZIPInputStream(body), StandardCharsets.UTF_8)).readLine();
+                } catch (IOException e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+            assertThat(firstLine.get(1, TimeUnit.SECONDS)).isEqualTo(":subscribed");
+        }
+    }
+
+    @Test
+    void comparesBytesOnTheWireAndLatency() throws Exception {
+        SplittableRandom random = new SplittableRandom(PROFILE.seed());
+        int requests = PROFILE.requestsPerEndpoint();
+        int[] pages = random.ints(requests, 0, 50).toArray();
+        String batchBody = "{\"ids\": [" + LongStream.of(patientIds).limit(500)
+            .mapToObj(Long::toString).collect(Collectors.joining(",")) + "]}";
+
+        driver.runRequests("warmup", requests, i -> gzip("/api/patients?size=100&page=" + pages[i]));
+
+        List<EndpointStats> stats = new ArrayList<>();
+        for (int size : new int[] {20, 100}) {
+            stats.add(driver.run("GET /api/patients size=" + size, requests,
+                i -> "/api/patients?size=" + size + "&page=" + pages[i]));
+            stats.add(driver.runRequests("GET /api/patients size=" + size + " gzip", requests,
+                i -> gzip("/api/patients?size=" + size + "&page=" + pages[i])));
+        }
+        stats.add(driver.runRequests("POST /api/patients/batch-get 500", requests,
+            i -> LoadDriver.postJson(driver.url("/api/patients/batch-get"), batchBody)));
+        stats.add(driver.runRequests("POST /api/patients/batch-get 500 gzip", requests,
+            i -> HttpRequest.newBuilder(URI.create(driver.url("/api/patients/batch-get")))
+                .header("Content-Type", "application/json")
+                .header("Accept-Encoding", "gzip")
+                .POST(HttpRequest.BodyPublishers.ofString(batchBody))
+                .build()));
+        stats.add(driver.runRequests("GET /api/patients/changes 5000", Math.max(1, requests / 10),
+            i -> LoadDriver.get(driver.url("/api/patients/changes?limit=5000"), "application/x-ndjson")));
+        stats.add(driver.runRequests("GET /api/patients/changes 5000 gzip", Math.max(1, requests / 10),
+            i -> HttpRequest.newBuilder(URI.create(driver.url("/api/patients/changes?limit=5000")))
+                .header("Accept", "application/x-ndjson")
+                .header("Accept-Encoding", "gzip")
+                .build()));
+
+        LoadReport.write("compression", PROFILE, PROFILE.concurrency(), stats);
+        for (int i = 0; i < stats.size(); i += 2) {
+            assertThat(stats.get(i + 1).meanBodyBytes()).as(stats.get(i + 1).endpoint())
+                .isLessThan(stats.get(i).meanBodyBytes() / 4);
+        }
+    }
+
+    private HttpRequest gzip(String path) {
+        return HttpRequest.newBuilder(URI.create(driver.url(path)))
+            .header("Accept-Encoding", "gzip")
+            .build();
+    }
+
+    private static byte[] gunzip(byte[] body) throws IOException {
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(body))) {
+            return in.readAllBytes();
+        }
+    }
+}
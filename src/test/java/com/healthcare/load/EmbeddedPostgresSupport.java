@@ -0,0 +1,92 @@
+package com.healthcare.load;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.springframework.test.context.DynamicPropertyRegistry;
+
+/**
+ * Starts embedded PostgreSQL servers on demand (one per name, shared by the test JVM) and hands out
+ * a fresh database per test class, so the harness needs no external service.
+ */
+public final class EmbeddedPostgresSupport {
+
+    public static final String PRIMARY = "primary";
+    public static final String REPLICA = "replica";
+
+    private static final Map<String, EmbeddedPostgres> servers = new LinkedHashMap<>();
+
+    private EmbeddedPostgresSupport() {
+    }
+
+    public static EmbeddedPostgres instance() {
+        return instance(PRIMARY);
+    }
+
+    public static synchronized EmbeddedPostgres instance(String server) {
+        if (servers.isEmpty()) {
+            Runtime.getRuntime().addShutdownHook(new Thread(EmbeddedPostgresSupport::close));
+        }
+        return servers.computeIfAbsent(server, name -> {
+            try {
+                return EmbeddedPostgres.builder()
+                    .setServerConfig("max_connections", "200")
+                    .setServerConfig("shared_buffers", "256MB")
+                    .setServerConfig("fsync", "off")
+                    .setServerConfig("synchronous_commit", "off")
+                    .start();
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not start embedded PostgreSQL " + name, e);
+            }
+        });
+    }
+
+    public static String createDatabase(String name) {
+        return createDatabase(PRIMARY, name);
+    }
+
+    public static String createDatabase(String server, String name) {
+        try (Connection connection = instance(server).getPostgresDatabase().getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.execute("DROP DATABASE IF EXISTS " + name);
+            statement.execute("CREATE DATABASE " + name);
+        } catch (SQLException e) {
+            throw new IllegalStateException("Could not create database " + name, e);
+        }
+        return instance(server).getJdbcUrl("postgres", name);
+    }
+
+    public static void register(DynamicPropertyRegistry registry, String databaseName) {
+        String url = createDatabase(databaseName);
+        registry.add("spring.datasource.url", () -> url);
+        registry.add("spring.datasource.username", () -> "postgres");
+        registry.add("spring.datasource.password", () -> "postgres");
+        registry.add("spring.r2dbc.url", () -> "r2dbc:postgresql://localhost:" + instance().getPort() + "/" + databaseName);
+        registry.add("spring.r2dbc.username", () -> "postgres");
+        registry.add("spring.r2dbc.password", () -> "postgres");
+    }
+
+    // Registers a database on the second server as app.datasource.replicas[0]
+    public static String registerReplica(DynamicPropertyRegistry registry, String databaseName) {
+        String url = createDatabase(REPLICA, databaseName);
+        registry.add("app.datasource.replicas[0].url", () -> url);
+        registry.add("app.datasource.replicas[0].username", () -> "postgres");
+        registry.add("app.datasource.replicas[0].password", () -> "postgres");
+        return url;
+    }
+
+    private static synchronized void close() {
+        for (EmbeddedPostgres server : servers.values()) {
+            try {
+                server.close();
+            } catch (IOException ignored) {
+                // JVM is shutting down
+            }
+        }
+    }
+}
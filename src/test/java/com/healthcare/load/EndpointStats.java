@@ -0,0 +1,31 @@
+package com.healthcare.load;
+
+import java.util.Arrays;
+
+/**
+ * Throughput, latency percentiles and mean response body size for one endpoint, computed from raw
+ * per-request samples.
+ */
+public record EndpointStats(String endpoint, int requests, double throughputPerSecond,
+                            double p50Millis, double p99Millis, double maxMillis, double meanBodyBytes) {
+
+    public static EndpointStats of(String endpoint, long[] latencyNanos, long[] bodyBytes, long elapsedNanos) {
+        long[] sorted = latencyNanos.clone();
+        Arrays.sort(sorted);
+        return new EndpointStats(endpoint, sorted.length,
+            sorted.length / (elapsedNanos / 1e9),
+            percentile(sorted, 0.50), percentile(sorted, 0.99), sorted[sorted.length - 1] / 1e6,
+            Arrays.stream(bodyBytes).average().orElse(0));
+    }
+
+    private static double percentile(long[] sorted, double quantile) {
+        int index = (int) Math.ceil(quantile * sorted.length) - 1;
+        return sorted[Math.max(0, index)] / 1e6;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%-40s %7d req %9.1f req/s  p50 %8.2f ms  p99 %8.2f ms  max %8.2f ms  body %9.0f B",
+            endpoint, requests, throughputPerSecond, p50Millis, p99Millis, maxMillis, meanBodyBytes);
+    }
+}
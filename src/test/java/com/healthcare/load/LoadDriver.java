@@ -0,0 +1,112 @@
+package com.healthcare.load;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntFunction;
+
+/**
+ * Fires a fixed number of requests at one endpoint from a fixed number of client threads and
+ * records per-request latency and response size. Any non-2xx response fails the run.
+ */
+public class LoadDriver implements AutoCloseable {
+
+    private final String baseUrl;
+    private final int concurrency;
+    private final HttpClient httpClient;
+    private final ExecutorService clients;
+
+    public LoadDriver(String baseUrl, int concurrency) {
+        this.baseUrl = baseUrl;
+        this.concurrency = concurrency;
+        this.clients = Executors.newFixedThreadPool(concurrency);
+        this.httpClient = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+    }
+
+    public static HttpRequest get(String url) {
+        return HttpRequest.newBuilder(URI.create(url)).GET().build();
+    }
+
+    public static HttpRequest postJson(String url, String body) {
+        return HttpRequest.newBuilder(URI.create(url))
+            .header("Content-Type", "application/json")
+            .POST(HttpRequest.BodyPublishers.ofString(body))
+            .build();
+    }
+
+    public static HttpRequest get(String url, String accept) {
+        return HttpRequest.newBuilder(URI.create(url)).header("Accept", accept).GET().build();
+    }
+
+    public HttpResponse<String> send(HttpRequest request) {
+        return send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    // The body exactly as it came over the wire, for binary formats
+    public HttpResponse<byte[]> sendForBytes(HttpRequest request) {
+        return send(request, HttpResponse.BodyHandlers.ofByteArray());
+    }
+
+    private <T> HttpResponse<T> send(HttpRequest request, HttpResponse.BodyHandler<T> bodyHandler) {
+        try {
+            return httpClient.send(request, bodyHandler);
+        } catch (Exception e) {
+            throw new IllegalStateException("Request failed: " + request.uri(), e);
+        }
+    }
+
+    // pathFactory receives the request index and returns a path relative to the base URL
+    public EndpointStats run(String endpoint, int requests, IntFunction<String> pathFactory) throws Exception {
+        return runRequests(endpoint, requests, i -> get(baseUrl + pathFactory.apply(i)));
+    }
+
+    public EndpointStats runRequests(String endpoint, int requests, IntFunction<HttpRequest> requestFactory)
+        throws Exception {
+        long[] latencies = new long[requests];
+        long[] bodyBytes = new long[requests];
+        AtomicInteger next = new AtomicInteger();
+        List<Future<?>> workers = new ArrayList<>(concurrency);
+
+        long start = System.nanoTime();
+        for (int worker = 0; worker < concurrency; worker++) {
+            workers.add(clients.submit(() -> {
+                for (int i = next.getAndIncrement(); i < requests; i = next.getAndIncrement()) {
+                    HttpRequest request = requestFactory.apply(i);
+                    long sent = System.nanoTime();
+                    HttpResponse<byte[]> response = sendForBytes(request);
+                    latencies[i] = System.nanoTime() - sent;
+                    bodyBytes[i] = response.body().length;
+                    if (response.statusCode() / 100 != 2) {
+                        throw new IllegalStateException(request.uri() + " returned " + response.statusCode() +
+                            ": " + new String(response.body(), StandardCharsets.UTF_8));
+                    }
+                }
+                return null;
+            }));
+        }
+        for (Future<?> worker : workers) {
+            worker.get();
+        }
+        return EndpointStats.of(endpoint, latencies, bodyBytes, System.nanoTime() - start);
+    }
+
+    public String url(String path) {
+        return baseUrl + path;
+    }
+
+    @Override
+    public void close() {
+        clients.shutdownNow();
+    }
+}
@@ -0,0 +1,17 @@
+package com.healthcare.load;
+
+/**
+ * Volumes and request mix for a harness run, read from {@code load.*} system properties
+ * (forwarded from Gradle properties by the loadTest task).
+ */
+public record LoadProfile(int facilities, int patients, long seed, int requestsPerEndpoint, int concurrency) {
+
+    public static LoadProfile fromSystemProperties() {
+        return new LoadProfile(
+            Integer.getInteger("load.facilities", 200),
+            Integer.getInteger("load.patients", 20_000),
+            Long.getLong("load.seed", 20240401L),
+            Integer.getInteger("load.requests", 400),
+            Integer.getInteger("load.concurrency", 16));
+    }
+}
@@ -0,0 +1,31 @@
+package com.healthcare.load;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Prints a run summary and writes it as JSON under {@code load.reportDir} so builds can be compared.
+ */
+public final class LoadReport {
+
+    private LoadReport() {
+    }
+
+    public static void write(String name, LoadProfile profile, int concurrency, List<EndpointStats> stats)
+        throws IOException {
+        System.out.printf("%n== %s (%d facilities, %d patients, concurrency %d)%n",
+            name, profile.facilities(), profile.patients(), concurrency);
+        stats.forEach(System.out::println);
+
+        Path dir = Path.of(System.getProperty("load.reportDir", "build/reports/load"));
+        Files.createDirectories(dir);
+        new ObjectMapper()
+            .enable(SerializationFeature.INDENT_OUTPUT)
+            .writeValue(dir.resolve(name + ".json").toFile(), Map.of("profile", profile, "concurrency", concurrency, "endpoints", stats));
+    }
+}
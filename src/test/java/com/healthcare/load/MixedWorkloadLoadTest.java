@@ -0,0 +1,125 @@
+package com.healthcare.load;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.net.http.HttpRequest;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.sql.DataSource;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+
+/**
+ * Mixed CRUD + chat workload run once per threading mode (see the subclasses). Chat requests make
+ * two blocking calls to {@link OpenAIStub}, so with platform threads concurrency is capped by the
+ * Tomcat pool while virtual threads keep accepting work.
+ */
+@Tag("load")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+    "spring.jpa.show-sql=false",
+    "spring.datasource.hikari.maximum-pool-size=20",
+    "server.tomcat.threads.max=${load.tomcatThreads:50}",
+    "app.ai.openai.enabled=true",
+    "app.ai.openai.api-key=load-test",
+    "logging.level.com.healthcare=WARN",
+    "logging.level.org.hibernate.SQL=WARN"
+})
+abstract class MixedWorkloadLoadTest {
+
+    private static final AtomicLong MRN_SEQUENCE = new AtomicLong();
+
+    protected final LoadProfile profile = LoadProfile.fromSystemProperties();
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private DataSource dataSource;
+
+    private final int concurrency = Integer.getInteger("load.mixedConcurrency", 200);
+    private LoadDriver driver;
+    private long[] patientIds;
+    private long[] facilityIds;
+
+    protected static void register(DynamicPropertyRegistry registry, String databaseName) {
+        EmbeddedPostgresSupport.register(registry, databaseName);
+        registry.add("app.ai.openai.api-url", OpenAIStub::url);
+    }
+
+    protected abstract String mode();
+
+    @BeforeAll
+    void seed() throws Exception {
+        new SyntheticDataGenerator(profile).seed(dataSource);
+        driver = new LoadDriver("http://localhost:" + port, concurrency);
+
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        patientIds = jdbcTemplate.queryForList(
+            "SELECT id FROM patients WHERE deleted_at IS NULL ORDER BY id LIMIT 10000", Long.class)
+            .stream().mapToLong(Long::longValue).toArray();
+        facilityIds = jdbcTemplate.queryForList(
+            "SELECT id FROM facilities WHERE is_active = true ORDER BY id LIMIT 20", Long.class)
+            .stream().mapToLong(Long::longValue).toArray();
+    }
+
+    @AfterAll
+    void stopDriver() {
+        driver.close();
+    }
+
+    @Test
+    void mixedCrudAndChatWorkload() throws Exception {
+        int requests = profile.requestsPerEndpoint() * 5;
+        SplittableRandom random = new SplittableRandom(profile.seed());
+        long[] patients = random.longs(requests, 0, patientIds.length).map(i -> patientIds[(int) i]).toArray();
+        long[] facilities = random.longs(requests, 0, facilityIds.length).map(i -> facilityIds[(int) i]).toArray();
+
+        driver.runRequests("warmup", profile.requestsPerEndpoint(), i -> request(i, patients, facilities));
+
+        Map<String, Long> pinned = Map.of();
+        EndpointStats mixed;
+        try (PinningRecorder recorder = new PinningRecorder().start()) {
+            mixed = driver.runRequests("mixed CRUD + chat (" + mode() + ")", requests,
+                i -> request(i, patients, facilities));
+            EndpointStats chat = driver.runRequests("POST /api/chat (" + mode() + ")", profile.requestsPerEndpoint(),
+                i -> chatRequest());
+            pinned = recorder.stop();
+            LoadReport.write("mixed-" + mode(), profile, concurrency, List.of(mixed, chat));
+        }
+
+        if (!pinned.isEmpty()) {
+            System.out.println("Virtual thread pinning sites (" + mode() + "):");
+            pinned.forEach((site, count) -> System.out.printf("  %6d  %s%n", count, site));
+        }
+        assertThat(mixed.requests()).isEqualTo(requests);
+    }
+
+    // 40% listing, 20% lookup, 10% create, 10% facility patients, 20% chat
+    private HttpRequest request(int i, long[] patients, long[] facilities) {
+        return switch (i % 10) {
+            case 0, 1, 2, 3 -> LoadDriver.get(driver.url("/api/patients?size=20&page=" + (i % 25)));
+            case 4, 5 -> LoadDriver.get(driver.url("/api/patients/" + patients[i]));
+            case 6 -> LoadDriver.postJson(driver.url("/api/patients"), """
+                {"facilityId": %d, "firstName": "Load", "lastName": "Test", "dateOfBirth": "1985-03-14",
+                 "gender": "OTHER", "medicalRecordNumber": "LT-%s-%d"}""".formatted(
+                facilities[i], mode(), MRN_SEQUENCE.incrementAndGet()));
+            case 7 -> LoadDriver.get(driver.url("/api/facilities/" + facilities[i] + "/patients?size=20"));
+            default -> chatRequest();
+        };
+    }
+
+    private HttpRequest chatRequest() {
+        return LoadDriver.postJson(driver.url("/api/chat"), "{\"query\": \"How many patients do we have?\"}");
+    }
+}
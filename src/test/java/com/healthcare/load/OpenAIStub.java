@@ -0,0 +1,57 @@
+package com.healthcare.load;
+
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.Executors;
+
+/**
+ * Local stand-in for the chat completions API with a fixed response latency. The first call of a
+ * conversation answers with a get_patient_count tool call and the follow-up returns plain text, so
+ * the chat path exercises two blocking HTTP round trips plus a database-backed tool execution.
+ */
+public final class OpenAIStub {
+
+    private static final String TOOL_CALL = """
+        {"choices":[{"message":{"role":"assistant","content":null,"tool_calls":[{"id":"call_1","type":"function",\
+        "function":{"name":"get_patient_count","arguments":"{}"}}]}}]}""";
+    private static final String FINAL_ANSWER = """
+        {"choices":[{"message":{"role":"assistant","content":"Here is the current patient count."}}]}""";
+
+    private static HttpServer server;
+
+    private OpenAIStub() {
+    }
+
+    public static synchronized String url() {
+        if (server == null) {
+            long latencyMillis = Long.getLong("load.openaiLatencyMs", 50);
+            try {
+                server = HttpServer.create(new InetSocketAddress("localhost", 0), 1024);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            server.setExecutor(Executors.newCachedThreadPool());
+            server.createContext("/v1/chat/completions", exchange -> {
+                String request = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+                byte[] body = (request.contains("\"role\":\"tool\"") ? FINAL_ANSWER : TOOL_CALL)
+                    .getBytes(StandardCharsets.UTF_8);
+                try {
+                    Thread.sleep(latencyMillis);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                exchange.getResponseHeaders().add("Content-Type", "application/json");
+                exchange.sendResponseHeaders(200, body.length);
+                try (OutputStream out = exchange.getResponseBody()) {
+                    out.write(body);
+                }
+            });
+            server.start();
+        }
+        return "http://localhost:" + server.getAddress().getPort() + "/v1/chat/completions";
+    }
+}
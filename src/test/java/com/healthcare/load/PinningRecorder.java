@@ -0,0 +1,50 @@
+package com.healthcare.load;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+
+/**
+ * Streams {@code jdk.VirtualThreadPinned} JFR events while a workload runs and groups them by the
+ * first non-JDK frame, i.e. the library or application code that held a monitor while blocking.
+ */
+public class PinningRecorder implements AutoCloseable {
+
+    private final RecordingStream stream = new RecordingStream();
+    private final Map<String, LongAdder> pinnedBySite = new ConcurrentHashMap<>();
+
+    public PinningRecorder start() {
+        stream.enable("jdk.VirtualThreadPinned").withThreshold(Duration.ofMillis(1)).withStackTrace();
+        stream.onEvent("jdk.VirtualThreadPinned", event -> {
+            String site = "unknown";
+            if (event.getStackTrace() != null) {
+                for (RecordedFrame frame : event.getStackTrace().getFrames()) {
+                    String type = frame.getMethod().getType().getName();
+                    if (!type.startsWith("java.") && !type.startsWith("jdk.") && !type.startsWith("sun.")) {
+                        site = type + "." + frame.getMethod().getName() + ":" + frame.getLineNumber();
+                        break;
+                    }
+                }
+            }
+            pinnedBySite.computeIfAbsent(site, key -> new LongAdder()).increment();
+        });
+        stream.startAsync();
+        return this;
+    }
+
+    public Map<String, Long> stop() {
+        stream.stop();
+        Map<String, Long> result = new TreeMap<>();
+        pinnedBySite.forEach((site, count) -> result.put(site, count.sum()));
+        return result;
+    }
+
+    @Override
+    public void close() {
+        stream.close();
+    }
+}
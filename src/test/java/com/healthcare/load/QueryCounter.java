@@ -0,0 +1,24 @@
+package com.healthcare.load;
+
+import java.util.concurrent.atomic.AtomicLong;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Counts every SQL statement Hibernate prepares. Registered through
+ * {@code hibernate.session_factory.statement_inspector}; budgets are measured by driving
+ * one request at a time and reading the delta.
+ */
+public class QueryCounter implements StatementInspector {
+
+    private static final AtomicLong STATEMENTS = new AtomicLong();
+
+    @Override
+    public String inspect(String sql) {
+        STATEMENTS.incrementAndGet();
+        return sql;
+    }
+
+    public static long current() {
+        return STATEMENTS.get();
+    }
+}
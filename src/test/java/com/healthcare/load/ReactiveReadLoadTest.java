@@ -0,0 +1,201 @@
+package com.healthcare.load;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import javax.sql.DataSource;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+/**
+ * Drives the R2DBC read endpoints and their JPA counterparts with the same request mix, with the
+ * JDBC pool capped below the client concurrency so pool contention shows up in the tail latencies.
+ */
+@Tag("load")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+    "spring.jpa.show-sql=false",
+    "spring.datasource.hikari.maximum-pool-size=10",
+    "spring.r2dbc.pool.max-size=10",
+    "app.ai.openai.enabled=false",
+    "app.reactive.changes.settle-time=0s",
+    "logging.level.com.healthcare=INFO",
+    "logging.level.org.hibernate.SQL=WARN"
+})
+class ReactiveReadLoadTest {
+
+    private static final LoadProfile PROFILE = LoadProfile.fromSystemProperties();
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private DataSource dataSource;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private LoadDriver driver;
+    private long[] patientIds;
+    private long[] facilityIds;
+
+    @DynamicPropertySource
+    static void database(DynamicPropertyRegistry registry) {
+        EmbeddedPostgresSupport.register(registry, "reactive_load");
+    }
+
+    @BeforeAll
+    void seed() throws Exception {
+        new SyntheticDataGenerator(PROFILE).seed(dataSource);
+        driver = new LoadDriver("http://localhost:" + port, PROFILE.concurrency() * 4);
+
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        patientIds = jdbcTemplate.queryForList(
+            "SELECT id FROM patients WHERE deleted_at IS NULL ORDER BY id LIMIT 10000", Long.class)
+            .stream().mapToLong(Long::longValue).toArray();
+        facilityIds = jdbcTemplate.queryForList(
+            "SELECT id FROM facilities WHERE is_active = true ORDER BY id LIMIT 50", Long.class)
+            .stream().mapToLong(Long::longValue).toArray();
+    }
+
+    @AfterAll
+    void stopDriver() {
+        driver.close();
+    }
+
+    @Test
+    void reactiveEndpointsMatchJpaResults() {
+        String jpaPage = driver.send(LoadDriver.get(driver.url("/api/patients?size=5"))).body();
+        String reactivePage = driver.send(LoadDriver.get(driver.url("/api/reactive/patients?size=5"))).body();
+        String jpaPatient = driver.send(LoadDriver.get(driver.url("/api/patients/" + patientIds[0]))).body();
+        String reactivePatient = driver.send(LoadDriver.get(driver.url("/api/reactive/patients/" + patientIds[0]))).body();
+
+        assertThat(jpaPage).contains(reactivePage.substring(1, reactivePage.length() - 1));
+        assertThat(reactivePatient).isEqualTo(jpaPatient);
+        assertThat(driver.send(LoadDriver.get(driver.url("/api/reactive/patients/0"))).statusCode()).isEqualTo(404);
+        assertThat(driver.send(LoadDriver.get(driver.url("/api/reactive/patients/facility/0"))).statusCode()).isEqualTo(404);
+    }
+
+    @Test
+    void streamsNdjsonForLargePages() {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(driver.url("/api/reactive/patients?size=1000")))
+            .header("Accept", "application/x-ndjson")
+            .GET()
+            .build();
+        HttpResponse<String> response = driver.send(request);
+
+        assertThat(response.statusCode()).isEqualTo(200);
+        assertThat(response.headers().firstValue("Content-Type")).hasValueSatisfying(
+            type -> assertThat(type).startsWith("application/x-ndjson"));
+        assertThat(response.body().lines()).hasSize(1000).allSatisfy(line -> assertThat(line).startsWith("{\"id\":"));
+    }
+
+    @Test
+    void changeFeedResumesFromItsCursor() throws Exception {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+
+        // A full sync, resuming from the last cursor of each response
+        List<JsonNode> all = new ArrayList<>();
+        String cursor = null;
+        List<JsonNode> page;
+        do {
+            page = changes(cursor, 7_000);
+            all.addAll(page);
+            if (!page.isEmpty()) {
+                cursor = page.get(page.size() - 1).get("cursor").asText();
+            }
+        } while (page.size() == 7_000);
+
+        assertThat(all).hasSize(jdbcTemplate.queryForObject("SELECT count(*) FROM patients", Integer.class));
+        assertThat(all.stream().map(change -> change.get("id").asLong()).distinct()).hasSameSizeAs(all);
+        assertThat(all.stream().map(change -> change.get("changedAt").asText()).toList()).isSorted();
+        assertThat(all.stream().filter(change -> change.get("type").asText().equals("DELETED")))
+            .hasSize(jdbcTemplate.queryForObject("SELECT count(*) FROM patients WHERE deleted_at IS NOT NULL", Integer.class))
+            .allSatisfy(change -> assertThat(change.get("patient").isNull()).isTrue());
+
+        // Writes made after the sync are exactly what the next request returns, in order
+        String created = driver.send(LoadDriver.postJson(driver.url("/api/patients"), """
+            {"facilityId": %d, "firstName": "Delta", "lastName": "Sync", "dateOfBirth": "1975-04-05",
+             "medicalRecordNumber": "MRN-CHANGES-1"}""".formatted(facilityIds[0]))).body();
+        HttpResponse<String> patched = driver.send(HttpRequest.newBuilder(URI.create(driver.url("/api/patients/" + patientIds[1])))
+            .header("Content-Type", "application/merge-patch+json")
+            .method("PATCH", HttpRequest.BodyPublishers.ofString("{\"phone\": \"+1-555-0199\"}"))
+            .build());
+        assertThat(patched.statusCode()).isEqualTo(200);
+        assertThat(driver.send(HttpRequest.newBuilder(URI.create(driver.url("/api/patients/" + patientIds[2])))
+            .DELETE().build()).statusCode()).isLessThan(300);
+
+        List<JsonNode> delta = changes(cursor, 100);
+        assertThat(delta).extracting(change -> change.get("type").asText())
+            .containsExactly("CREATED", "UPDATED", "DELETED");
+        assertThat(delta).extracting(change -> change.get("id").asLong())
+            .containsExactly(objectMapper.readTree(created).get("id").asLong(), patientIds[1], patientIds[2]);
+        assertThat(delta.get(1).get("patient").get("phone").asText()).isEqualTo("+1-555-0199");
+        assertThat(changes(delta.get(2).get("cursor").asText(), 100)).isEmpty();
+
+        assertThat(driver.send(LoadDriver.get(driver.url("/api/patients/changes?since=not-a-cursor"))).statusCode())
+            .isEqualTo(400);
+        assertThat(driver.send(LoadDriver.get(driver.url("/api/patients/changes?limit=0"))).statusCode()).isEqualTo(400);
+
+        // A resumed read walks the index from the cursor rather than sorting the table
+        String plan = String.join("\n", jdbcTemplate.queryForList("EXPLAIN SELECT id FROM patients " +
+            "WHERE updated_at < localtimestamp AND (updated_at, id) > (localtimestamp - interval '1 day', 0) " +
+            "ORDER BY updated_at, id LIMIT 10000", String.class));
+        assertThat(plan).contains("idx_patients_updated_at_id").doesNotContain("Sort");
+    }
+
+    private List<JsonNode> changes(String since, int limit) throws Exception {
+        String query = "/api/patients/changes?limit=" + limit + (since != null ? "&since=" + since : "");
+        HttpResponse<String> response = driver.send(HttpRequest.newBuilder(URI.create(driver.url(query)))
+            .header("Accept", "application/x-ndjson")
+            .GET()
+            .build());
+        assertThat(response.statusCode()).as("status of %s", query).isEqualTo(200);
+        List<JsonNode> changes = new ArrayList<>();
+        for (String line : response.body().lines().toList()) {
+            changes.add(objectMapper.readTree(line));
+        }
+        return changes;
+    }
+
+    @Test
+    void comparesReactiveAndJpaReadPaths() throws Exception {
+        SplittableRandom random = new SplittableRandom(PROFILE.seed());
+        int requests = PROFILE.requestsPerEndpoint() * 2;
+        long[] patients = random.longs(requests, 0, patientIds.length).map(i -> patientIds[(int) i]).toArray();
+        long[] facilities = random.longs(requests, 0, facilityIds.length).map(i -> facilityIds[(int) i]).toArray();
+        int[] pages = random.ints(requests, 0, 50).toArray();
+
+        driver.run("warmup jpa", requests, i -> "/api/patients?page=" + pages[i]);
+        driver.run("warmup reactive", requests, i -> "/api/reactive/patients?page=" + pages[i]);
+
+        List<EndpointStats> stats = new ArrayList<>();
+        stats.add(driver.run("JPA GET /api/patients", requests, i -> "/api/patients?size=50&page=" + pages[i]));
+        stats.add(driver.run("R2DBC GET /api/reactive/patients", requests,
+            i -> "/api/reactive/patients?size=50&page=" + pages[i]));
+        stats.add(driver.run("JPA GET /api/patients/{id}", requests, i -> "/api/patients/" + patients[i]));
+        stats.add(driver.run("R2DBC GET /api/reactive/patients/{id}", requests,
+            i -> "/api/reactive/patients/" + patients[i]));
+        stats.add(driver.run("JPA GET /api/patients/facility/{id}", requests,
+            i -> "/api/patients/facility/" + facilities[i] + "?size=50"));
+        stats.add(driver.run("R2DBC GET /api/reactive/patients/facility/{id}", requests,
+            i -> "/api/reactive/patients/facility/" + facilities[i] + "?size=50"));
+
+        LoadReport.write("reactive-vs-jpa", PROFILE, PROFILE.concurrency() * 4, stats);
+        assertThat(stats).allSatisfy(s -> assertThat(s.requests()).isEqualTo(requests));
+    }
+}
@@ -0,0 +1,79 @@
+package com.healthcare.load;
+
+import com.healthcare.index.FacilityLocationIndex;
+import com.healthcare.index.MedicalRecordNumberFilter;
+import javax.sql.DataSource;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+/**
+ * Base for tests that drive the REST API over HTTP against one database seeded from
+ * {@link LoadProfile#fromSystemProperties()}. Every subclass runs in the same cached application
+ * context, so the data is seeded once by whichever class starts first; subclasses must not add
+ * context configuration of their own, and only change rows they create or can leave changed.
+ * Functional tests run with {@code test}; subclasses that measure load add {@code @Tag("load")}.
+ */
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+    "spring.jpa.show-sql=false",
+    "app.ai.openai.enabled=false",
+    "app.reactive.changes.settle-time=0s",
+    "logging.level.com.healthcare=INFO",
+    "logging.level.org.hibernate.SQL=WARN"
+})
+public abstract class SeededApiTest {
+
+    protected static final LoadProfile PROFILE = LoadProfile.fromSystemProperties();
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    protected DataSource dataSource;
+
+    @Autowired
+    private FacilityLocationIndex facilityLocationIndex;
+
+    @Autowired
+    private MedicalRecordNumberFilter medicalRecordNumberFilter;
+
+    protected LoadDriver driver;
+    protected long[] patientIds;
+    protected long[] facilityIds;
+
+    @DynamicPropertySource
+    static void database(DynamicPropertyRegistry registry) {
+        EmbeddedPostgresSupport.register(registry, "seeded_api");
+    }
+
+    @BeforeAll
+    void seedOnce() throws Exception {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        if (Boolean.FALSE.equals(jdbcTemplate.queryForObject("SELECT EXISTS (SELECT 1 FROM facilities)", Boolean.class))) {
+            new SyntheticDataGenerator(PROFILE).seed(dataSource);
+            facilityLocationIndex.reload();
+            medicalRecordNumberFilter.rebuild();
+        }
+        driver = new LoadDriver("http://localhost:" + port, PROFILE.concurrency());
+
+        // Deterministic sample of ids that exist and are not soft-deleted
+        patientIds = jdbcTemplate.queryForList(
+            "SELECT id FROM patients WHERE deleted_at IS NULL ORDER BY id LIMIT 10000", Long.class)
+            .stream().mapToLong(Long::longValue).toArray();
+        facilityIds = jdbcTemplate.queryForList(
+            "SELECT id FROM facilities WHERE is_active = true ORDER BY id LIMIT 50", Long.class)
+            .stream().mapToLong(Long::longValue).toArray();
+    }
+
+    @AfterAll
+    void stopDriver() {
+        driver.close();
+    }
+}
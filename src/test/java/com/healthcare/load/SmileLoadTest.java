@@ -0,0 +1,122 @@
+package com.healthcare.load;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Compares JSON with Smile, negotiated through the Accept header, on the patient and facility APIs
+ * and the change feed: the decoded documents must be identical, and Smile responses smaller.
+ */
+@Tag("load")
+class SmileLoadTest extends SeededApiTest {
+
+    private static final String JSON = "application/json";
+    private static final String NDJSON = "application/x-ndjson";
+    private static final String SMILE = "application/x-jackson-smile";
+
+    private final ObjectMapper jsonMapper = new ObjectMapper();
+    private final ObjectMapper smileMapper = new ObjectMapper(new SmileFactory());
+
+    @Test
+    void smileResponsesDecodeToTheJsonDocuments() throws Exception {
+        for (String path : List.of(
+            "/api/patients?size=20&sortBy=lastName",
+            "/api/patients/" + patientIds[0],
+            "/api/patients?size=5&fields=firstName,lastName",
+            "/api/facilities?size=20",
+            "/api/facilities/" + facilityIds[0],
+            "/api/facilities/" + facilityIds[0] + "/patients")) {
+            HttpResponse<byte[]> smile = driver.sendForBytes(LoadDriver.get(driver.url(path), SMILE));
+            assertThat(smile.statusCode()).as(path).isEqualTo(200);
+            assertThat(smile.headers().firstValue("Content-Type")).as(path).hasValue(SMILE);
+            assertThat(smileMapper.readTree(smile.body())).as(path)
+                .isEqualTo(jsonMapper.readTree(driver.send(LoadDriver.get(driver.url(path), JSON)).body()));
+        }
+
+        // Smile request bodies as well as responses
+        String ids = "{\"ids\": [" + patientIds[3] + ", 0, " + patientIds[1] + "]}";
+        HttpResponse<byte[]> batch = driver.sendForBytes(HttpRequest.newBuilder(URI.create(driver.url("/api/patients/batch-get")))
+            .header("Content-Type", SMILE)
+            .header("Accept", SMILE)
+            .POST(HttpRequest.BodyPublishers.ofByteArray(smileMapper.writeValueAsBytes(jsonMapper.readTree(ids))))
+            .build());
+        assertThat(smileMapper.readTree(batch.body()))
+            .isEqualTo(jsonMapper.readTree(driver.send(LoadDriver.postJson(driver.url("/api/patients/batch-get"), ids)).body()));
+
+        // Errors are negotiated too
+        HttpResponse<byte[]> invalid = driver.sendForBytes(LoadDriver.get(driver.url("/api/patients/changes?limit=0"), SMILE));
+        assertThat(invalid.statusCode()).isEqualTo(400);
+        assertThat(smileMapper.readTree(invalid.body()).get("message").asText()).startsWith("limit must be");
+    }
+
+    @Test
+    void changeFeedStreamsSmileValuesAndDefaultsToNdjson() throws Exception {
+        List<JsonNode> ndjson = new ArrayList<>();
+        for (String line : driver.send(LoadDriver.get(driver.url("/api/patients/changes?limit=2000"), NDJSON)).body().lines().toList()) {
+            ndjson.add(jsonMapper.readTree(line));
+        }
+        HttpResponse<byte[]> response = driver.sendForBytes(LoadDriver.get(driver.url("/api/patients/changes?limit=2000"), SMILE));
+        assertThat(response.headers().firstValue("Content-Type")).hasValue(SMILE);
+        List<JsonNode> smile = smileMapper.readerFor(JsonNode.class).<JsonNode>readValues(response.body()).readAll();
+        assertThat(smile).hasSize(2000).isEqualTo(ndjson);
+
+        for (String accept : List.of("*/*", NDJSON + ", " + SMILE)) {
+            assertThat(driver.send(LoadDriver.get(driver.url("/api/patients/changes?limit=1"), accept))
+                .headers().firstValue("Content-Type")).as(accept).hasValueSatisfying(type -> assertThat(type).startsWith(NDJSON));
+        }
+    }
+
+    @Test
+    void comparesJsonAndSmileResponses() throws Exception {
+        SplittableRandom random = new SplittableRandom(PROFILE.seed());
+        int requests = PROFILE.requestsPerEndpoint();
+        int[] pages = random.ints(requests, 0, 50).toArray();
+        String batchBody = "{\"ids\": [" + LongStream.of(patientIds).limit(500)
+            .mapToObj(Long::toString).collect(Collectors.joining(",")) + "]}";
+        byte[] smileBatchBody = smileMapper.writeValueAsBytes(jsonMapper.readTree(batchBody));
+
+        driver.runRequests("warmup", requests, i -> LoadDriver.get(driver.url("/api/patients?size=100&page=" + pages[i]), JSON));
+        driver.runRequests("warmup smile", requests, i -> LoadDriver.get(driver.url("/api/patients?size=100&page=" + pages[i]), SMILE));
+
+        List<EndpointStats> stats = new ArrayList<>();
+        for (String accept : List.of(JSON, SMILE)) {
+            stats.add(driver.runRequests("GET /api/patients size=100 " + accept, requests,
+                i -> LoadDriver.get(driver.url("/api/patients?size=100&page=" + pages[i]), accept)));
+        }
+        for (String accept : List.of(JSON, SMILE)) {
+            stats.add(driver.runRequests("GET /api/facilities size=100 " + accept, requests,
+                i -> LoadDriver.get(driver.url("/api/facilities?size=100"), accept)));
+        }
+        stats.add(driver.runRequests("POST /api/patients/batch-get 500 " + JSON, requests,
+            i -> LoadDriver.postJson(driver.url("/api/patients/batch-get"), batchBody)));
+        stats.add(driver.runRequests("POST /api/patients/batch-get 500 " + SMILE, requests,
+            i -> HttpRequest.newBuilder(URI.create(driver.url("/api/patients/batch-get")))
+                .header("Content-Type", SMILE)
+                .header("Accept", SMILE)
+                .POST(HttpRequest.BodyPublishers.ofByteArray(smileBatchBody))
+                .build()));
+        for (String accept : List.of(NDJSON, SMILE)) {
+            stats.add(driver.runRequests("GET /api/patients/changes 5000 " + accept, Math.max(1, requests / 10),
+                i -> LoadDriver.get(driver.url("/api/patients/changes?limit=5000"), accept)));
+        }
+
+        LoadReport.write("smile", PROFILE, PROFILE.concurrency(), stats);
+        for (int i = 0; i < stats.size(); i += 2) {
+            assertThat(stats.get(i + 1).meanBodyBytes()).as(stats.get(i + 1).endpoint())
+                .isLessThan(stats.get(i).meanBodyBytes());
+        }
+    }
+}
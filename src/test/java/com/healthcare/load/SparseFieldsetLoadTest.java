@@ -0,0 +1,126 @@
+package com.healthcare.load;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.healthcare.diagnostics.QueryCapture;
+import com.healthcare.diagnostics.QueryDiagnostics;
+import com.healthcare.dto.PageRequestDTO;
+import com.healthcare.dto.PatientField;
+import com.healthcare.service.PatientService;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+/**
+ * Compares full patient responses with the sparse fieldsets a mobile client asks for
+ * (id, firstName, lastName, medicalRecordNumber) on the listing, search and batch endpoints, for
+ * payload size as well as latency, and checks that the sparse queries read only those columns.
+ */
+@Tag("load")
+class SparseFieldsetLoadTest extends SeededApiTest {
+
+    private static final String MOBILE_FIELDS = "firstName,lastName,medicalRecordNumber";
+
+    @Autowired
+    private PatientService patientService;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void returnsOnlyRequestedFieldsWithTheFullValues() throws Exception {
+        JsonNode full = get("/api/patients?size=5&sortBy=lastName").get("content");
+        JsonNode sparse = get("/api/patients?size=5&sortBy=lastName&fields=" + MOBILE_FIELDS).get("content");
+
+        assertThat(sparse).hasSize(5);
+        for (int i = 0; i < 5; i++) {
+            assertThat(fieldNames(sparse.get(i))).containsExactly("id", "firstName", "lastName", "medicalRecordNumber");
+            for (String field : fieldNames(sparse.get(i))) {
+                assertThat(sparse.get(i).get(field)).isEqualTo(full.get(i).get(field));
+            }
+        }
+
+        JsonNode withAddress = get("/api/patients/search?lastName=" + full.get(0).get("lastName").asText() +
+            "&fields=address,dateOfBirth,gender,facilityId").get("content");
+        assertThat(fieldNames(withAddress.get(0))).containsExactly("id", "facilityId", "dateOfBirth", "gender", "address");
+        assertThat(get("/api/patients/" + withAddress.get(0).get("id").asLong()).get("address"))
+            .isEqualTo(withAddress.get(0).get("address"));
+
+        JsonNode byFacility = get("/api/facilities/" + facilityIds[0] + "/patients?fields=version").get("content");
+        assertThat(byFacility).allSatisfy(patient -> assertThat(fieldNames(patient)).containsExactly("id", "version"));
+        assertThat(get("/api/patients/facility/" + facilityIds[0] + "?fields=version").get("content")).isEqualTo(byFacility);
+
+        JsonNode batch = objectMapper.readTree(driver.send(LoadDriver.postJson(
+            driver.url("/api/patients/batch-get?fields=" + MOBILE_FIELDS),
+            "{\"ids\": [" + patientIds[2] + ", 0, " + patientIds[1] + "]}")).body());
+        assertThat(batch.get("found")).extracting(patient -> patient.get("id").asLong())
+            .containsExactly(patientIds[2], patientIds[1]);
+        assertThat(batch.get("missing")).extracting(JsonNode::asLong).containsExactly(0L);
+
+        assertThat(driver.send(LoadDriver.get(driver.url("/api/patients?fields=id,ssn"))).statusCode()).isEqualTo(400);
+    }
+
+    @Test
+    void sparseQueriesReadOnlyTheRequestedColumns() {
+        PageRequestDTO page = new PageRequestDTO();
+        QueryCapture capture = QueryDiagnostics.capture(() ->
+            patientService.getAllPatients(page, null, PatientField.parse(MOBILE_FIELDS)));
+
+        String select = capture.statementCounts().keySet().stream()
+            .filter(sql -> !sql.contains("count("))
+            .collect(Collectors.joining());
+        assertThat(select).contains("first_name", "last_name", "medical_record_number")
+            .doesNotContain("address", "email", "phone", "date_of_birth");
+        capture.assertStatementsAtMost(2);
+    }
+
+    @Test
+    void comparesFullAndSparseResponses() throws Exception {
+        SplittableRandom random = new SplittableRandom(PROFILE.seed());
+        int requests = PROFILE.requestsPerEndpoint();
+        int[] pages = random.ints(requests, 0, 50).toArray();
+        String[] lastNames = {"smith", "hassan", "chen", "garcia", "ali"};
+        String batchBody = "{\"ids\": [" + Arrays.stream(LongStream.of(patientIds).limit(500).toArray())
+            .mapToObj(Long::toString).collect(Collectors.joining(",")) + "]}";
+
+        driver.run("warmup", requests, i -> "/api/patients?size=100&page=" + pages[i]);
+        driver.run("warmup sparse", requests, i -> "/api/patients?size=100&fields=" + MOBILE_FIELDS + "&page=" + pages[i]);
+
+        List<EndpointStats> stats = new ArrayList<>();
+        stats.add(driver.run("GET /api/patients size=100", requests,
+            i -> "/api/patients?size=100&page=" + pages[i]));
+        stats.add(driver.run("GET /api/patients size=100 fields", requests,
+            i -> "/api/patients?size=100&fields=" + MOBILE_FIELDS + "&page=" + pages[i]));
+        stats.add(driver.run("GET /api/patients/search", requests,
+            i -> "/api/patients/search?size=100&lastName=" + lastNames[i % lastNames.length]));
+        stats.add(driver.run("GET /api/patients/search fields", requests,
+            i -> "/api/patients/search?size=100&fields=" + MOBILE_FIELDS + "&lastName=" + lastNames[i % lastNames.length]));
+        stats.add(driver.runRequests("POST /api/patients/batch-get 500", requests,
+            i -> LoadDriver.postJson(driver.url("/api/patients/batch-get"), batchBody)));
+        stats.add(driver.runRequests("POST /api/patients/batch-get 500 fields", requests,
+            i -> LoadDriver.postJson(driver.url("/api/patients/batch-get?fields=" + MOBILE_FIELDS), batchBody)));
+
+        LoadReport.write("sparse-fieldsets", PROFILE, PROFILE.concurrency(), stats);
+        for (int i = 0; i < stats.size(); i += 2) {
+            assertThat(stats.get(i + 1).meanBodyBytes()).as(stats.get(i + 1).endpoint())
+                .isLessThan(stats.get(i).meanBodyBytes() / 2);
+        }
+    }
+
+    private JsonNode get(String path) throws Exception {
+        return objectMapper.readTree(driver.send(LoadDriver.get(driver.url(path))).body());
+    }
+
+    private static List<String> fieldNames(JsonNode node) {
+        List<String> names = new ArrayList<>();
+        node.fieldNames().forEachRemaining(names::add);
+        return names;
+    }
+}
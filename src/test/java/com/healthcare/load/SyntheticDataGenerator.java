@@ -0,0 +1,179 @@
+package com.healthcare.load;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Locale;
+import java.util.SplittableRandom;
+import javax.sql.DataSource;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+
+/**
+ * Deterministic generator for facilities and patients. The same profile and seed always produce
+ * the same rows, so runs are comparable between builds. Rows are streamed with COPY in bounded
+ * chunks, which keeps memory flat even for millions of patients.
+ */
+public class SyntheticDataGenerator {
+
+    // Ordered roughly by frequency; picks are skewed towards the front of each list
+    private static final String[] FIRST_NAMES = {
+        "James", "Mary", "Mohamed", "Maria", "John", "Fatima", "Robert", "Linda", "Ahmed", "Sarah",
+        "Michael", "Aisha", "David", "Elizabeth", "Wei", "Jennifer", "Omar", "Ana", "William", "Sofia",
+        "Carlos", "Emma", "Youssef", "Olivia", "Daniel", "Mona", "Hiroshi", "Chloe", "Ivan", "Noura"};
+    private static final String[] LAST_NAMES = {
+        "Smith", "Johnson", "Hassan", "Garcia", "Williams", "Ali", "Brown", "Chen", "Jones", "Hamdy",
+        "Miller", "Rodriguez", "Davis", "Ibrahim", "Martinez", "Wang", "Wilson", "Khan", "Anderson", "Lopez",
+        "Taylor", "Nguyen", "Thomas", "Mahmoud", "Moore", "Kim", "Jackson", "Rossi", "White", "Sato"};
+    private static final String[] CITIES = {
+        "Springfield", "Riverside", "Franklin", "Greenville", "Bristol", "Clinton", "Fairview", "Salem",
+        "Madison", "Georgetown", "Arlington", "Ashland", "Dover", "Oxford", "Jackson", "Burlington"};
+    private static final String[] REGIONS = {"IL", "CA", "TX", "NY", "MA", "OH", "WA", "GA"};
+    // Rough centroid per region, same order as REGIONS
+    private static final double[][] REGION_CENTRES = {
+        {40.0, -89.2}, {36.8, -119.4}, {31.0, -99.9}, {42.9, -75.5}, {42.3, -71.8}, {40.4, -82.9},
+        {47.4, -120.7}, {32.7, -83.4}};
+    private static final String[] STREETS = {"Main St", "Oak Ave", "Pine Rd", "Maple Dr", "Cedar Ln", "Elm St", "Park Blvd"};
+    private static final String[] FACILITY_TYPES = {"CLINIC", "CLINIC", "CLINIC", "CLINIC", "PHARMACY", "PHARMACY",
+        "PHARMACY", "LAB", "LAB", "HOSPITAL", "OTHER"};
+    private static final String[] GENDERS = {"FEMALE", "MALE", "FEMALE", "MALE", "OTHER", "UNSPECIFIED"};
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2024, 4, 1, 12, 0);
+    private static final int CHUNK_BYTES = 1 << 20;
+
+    private final LoadProfile profile;
+
+    public SyntheticDataGenerator(LoadProfile profile) {
+        this.profile = profile;
+    }
+
+    public void seed(DataSource dataSource) throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(true);
+            copyFacilities(connection);
+            copyPatients(connection);
+
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("SELECT setval(pg_get_serial_sequence('facilities', 'id'), (SELECT max(id) FROM facilities))");
+                statement.execute("SELECT setval(pg_get_serial_sequence('patients', 'id'), (SELECT max(id) FROM patients))");
+                statement.execute("ANALYZE facilities");
+                statement.execute("ANALYZE patients");
+            }
+        }
+    }
+
+    private void copyFacilities(Connection connection) throws SQLException {
+        SplittableRandom random = new SplittableRandom(profile.seed());
+        // Separate stream so adding coordinates left the rest of the facility data unchanged
+        SplittableRandom jitter = new SplittableRandom(profile.seed() * 17 + 3);
+        CopyIn copy = connection.unwrap(PGConnection.class).getCopyAPI().copyIn(
+            "COPY facilities (id, name, type, address, latitude, longitude, created_at, updated_at, deleted_at, is_active) FROM STDIN");
+        StringBuilder rows = new StringBuilder(CHUNK_BYTES + 1024);
+
+        for (long id = 1; id <= profile.facilities(); id++) {
+            String type = FACILITY_TYPES[random.nextInt(FACILITY_TYPES.length)];
+            String city = skewedPick(random, CITIES);
+            LocalDateTime createdAt = NOW.minusDays(365 + random.nextInt(3650));
+            // ~3% of facilities are closed
+            boolean active = random.nextInt(100) >= 3;
+            // Cities sit at a fixed offset from their region's centre; facilities scatter within ~20 km
+            double[] centre = REGION_CENTRES[regionIndex(city)];
+            double latitude = centre[0] + (Math.floorMod(city.hashCode() >> 4, 200) - 100) / 50.0 + jitter.nextDouble(-0.2, 0.2);
+            double longitude = centre[1] + (Math.floorMod(city.hashCode() >> 12, 200) - 100) / 50.0 + jitter.nextDouble(-0.2, 0.2);
+
+            rows.append(id).append('\t')
+                .append(city).append(' ').append(capitalize(type)).append(' ').append(id).append('\t')
+                .append(type).append('\t')
+                .append(address(random, city)).append('\t')
+                .append(String.format(Locale.ROOT, "%.6f", latitude)).append('\t')
+                .append(String.format(Locale.ROOT, "%.6f", longitude)).append('\t')
+                .append(createdAt).append('\t')
+                .append(createdAt.plusDays(random.nextInt(365))).append('\t')
+                .append(active ? "\\N" : NOW.minusDays(random.nextInt(365)).toString()).append('\t')
+                .append(active ? 't' : 'f').append('\n');
+
+            flushIfFull(copy, rows);
+        }
+        finish(copy, rows);
+    }
+
+    private void copyPatients(Connection connection) throws SQLException {
+        SplittableRandom random = new SplittableRandom(profile.seed() * 31 + 7);
+        CopyIn copy = connection.unwrap(PGConnection.class).getCopyAPI().copyIn(
+            "COPY patients (id, facility_id, first_name, last_name, email, phone, date_of_birth, gender, " +
+                "medical_record_number, address, created_at, updated_at, deleted_at) FROM STDIN");
+        StringBuilder rows = new StringBuilder(CHUNK_BYTES + 1024);
+
+        for (long id = 1; id <= profile.patients(); id++) {
+            // Quadratic skew: a few large hospitals hold most patients, the long tail holds few
+            double u = random.nextDouble();
+            long facilityId = 1 + (long) (profile.facilities() * u * u);
+            String firstName = skewedPick(random, FIRST_NAMES);
+            String lastName = skewedPick(random, LAST_NAMES);
+            LocalDateTime createdAt = NOW.minusMinutes(random.nextLong(5L * 365 * 24 * 60));
+            LocalDateTime updatedAt = random.nextInt(100) < 40
+                ? createdAt.plusMinutes(random.nextLong(Duration.between(createdAt, NOW).toMinutes() + 1))
+                : createdAt;
+            // ~7% soft-deleted; the delete is the row's last update
+            boolean deleted = random.nextInt(100) < 7;
+
+            rows.append(id).append('\t')
+                .append(facilityId).append('\t')
+                .append(firstName).append('\t')
+                .append(lastName).append('\t')
+                .append(random.nextInt(100) < 85
+                    ? (firstName + '.' + lastName + id + "@example.org").toLowerCase() : "\\N").append('\t')
+                .append(random.nextInt(100) < 70 ? "+1-555-" + (1_000_000 + random.nextInt(9_000_000)) : "\\N").append('\t')
+                .append(LocalDate.of(2024, 1, 1).minusDays(random.nextInt(95 * 365))).append('\t')
+                .append(GENDERS[random.nextInt(GENDERS.length)]).append('\t')
+                // ~2% of records predate MRN assignment
+                .append(random.nextInt(100) < 2 ? "\\N" : String.format("MRN%09d", id)).append('\t')
+                .append(random.nextInt(100) < 80 ? address(random, skewedPick(random, CITIES)) : "\\N").append('\t')
+                .append(createdAt).append('\t')
+                .append(updatedAt).append('\t')
+                .append(deleted ? updatedAt.toString() : "\\N").append('\n');
+
+            flushIfFull(copy, rows);
+        }
+        finish(copy, rows);
+    }
+
+    private static String skewedPick(SplittableRandom random, String[] values) {
+        double u = random.nextDouble();
+        return values[(int) (values.length * u * u)];
+    }
+
+    // JSONB address; the region follows from the city so region filters stay consistent
+    private static String address(SplittableRandom random, String city) {
+        return "{\"street\": \"" + (1 + random.nextInt(9999)) + " " + STREETS[random.nextInt(STREETS.length)] +
+            "\", \"city\": \"" + city +
+            "\", \"region\": \"" + REGIONS[regionIndex(city)] +
+            "\", \"postalCode\": \"" + String.format("%05d", 10_000 + random.nextInt(89_999)) + "\"}";
+    }
+
+    private static int regionIndex(String city) {
+        return Math.floorMod(city.hashCode(), REGIONS.length);
+    }
+
+    private static String capitalize(String type) {
+        return type.charAt(0) + type.substring(1).toLowerCase();
+    }
+
+    private static void flushIfFull(CopyIn copy, StringBuilder rows) throws SQLException {
+        if (rows.length() >= CHUNK_BYTES) {
+            byte[] bytes = rows.toString().getBytes(StandardCharsets.UTF_8);
+            copy.writeToCopy(bytes, 0, bytes.length);
+            rows.setLength(0);
+        }
+    }
+
+    private static void finish(CopyIn copy, StringBuilder rows) throws SQLException {
+        byte[] bytes = rows.toString().getBytes(StandardCharsets.UTF_8);
+        copy.writeToCopy(bytes, 0, bytes.length);
+        copy.endCopy();
+    }
+}
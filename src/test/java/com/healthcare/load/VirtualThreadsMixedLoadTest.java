@@ -0,0 +1,19 @@
+package com.healthcare.load;
+
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.TestPropertySource;
+
+@TestPropertySource(properties = "spring.threads.virtual.enabled=true")
+class VirtualThreadsMixedLoadTest extends MixedWorkloadLoadTest {
+
+    @DynamicPropertySource
+    static void database(DynamicPropertyRegistry registry) {
+        register(registry, "mixed_virtual");
+    }
+
+    @Override
+    protected String mode() {
+        return "virtual-threads";
+    }
+}
@@ -0,0 +1,158 @@
+package com.healthcare.maintenance;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.healthcare.dto.PatientDTO;
+import com.healthcare.load.EmbeddedPostgresSupport;
+import com.healthcare.load.LoadProfile;
+import com.healthcare.load.SyntheticDataGenerator;
+import com.healthcare.service.PatientService;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityNotFoundException;
+import java.sql.Connection;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import javax.sql.DataSource;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.TestMethodOrder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+/**
+ * Archives the seeded soft-deleted patients in small batches, including one row held by another
+ * transaction, and restores patients from the archive and from a plain soft delete.
+ */
+@Tag("load")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE, properties = {
+    "spring.jpa.show-sql=false",
+    "app.ai.openai.enabled=false",
+    "app.geo.refresh-interval=PT1H",
+    "app.archival.batch-size=200",
+    "app.archival.batch-pause=1ms",
+    "logging.level.org.hibernate.SQL=WARN"
+})
+class PatientArchiverTest {
+
+    private static final String DATABASE = "archival";
+    private static final LoadProfile PROFILE = new LoadProfile(200, 20_000, 20240401L, 0, 1);
+    // The seeded deletions span the five years up to 2024-04, so most are past this cutoff
+    private static final LocalDateTime CUTOFF = LocalDateTime.of(2023, 10, 1, 0, 0);
+
+    @Autowired
+    private PatientArchiver archiver;
+
+    @Autowired
+    private PatientService patientService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private DataSource rawDataSource;
+    private JdbcTemplate jdbc;
+    private long expired;
+
+    @DynamicPropertySource
+    static void database(DynamicPropertyRegistry registry) {
+        EmbeddedPostgresSupport.register(registry, DATABASE);
+    }
+
+    @BeforeAll
+    void seed() throws Exception {
+        rawDataSource = EmbeddedPostgresSupport.instance().getDatabase("postgres", DATABASE);
+        new SyntheticDataGenerator(PROFILE).seed(rawDataSource);
+        jdbc = new JdbcTemplate(rawDataSource);
+        expired = jdbc.queryForObject("SELECT count(*) FROM patients WHERE deleted_at < ?", Long.class, CUTOFF);
+    }
+
+    @Test
+    @Order(1)
+    void batchesUseTheDeletedAtIndex() {
+        List<String> plan = jdbc.queryForList("EXPLAIN " + PatientArchiver.ARCHIVE_BATCH, String.class, CUTOFF, 200);
+        assertThat(plan).noneMatch(line -> line.contains("Seq Scan on patients"));
+    }
+
+    @Test
+    @Order(2)
+    void archivesInBatchesAndSkipsLockedRows() throws Exception {
+        assertThat(expired).isGreaterThan(200);
+        long lockedId = jdbc.queryForObject("SELECT min(id) FROM patients WHERE deleted_at < ?", Long.class, CUTOFF);
+
+        try (Connection connection = rawDataSource.getConnection();
+             Statement statement = connection.createStatement()) {
+            connection.setAutoCommit(false);
+            statement.execute("SELECT * FROM patients WHERE id = " + lockedId + " FOR UPDATE");
+            assertThat(archiver.archiveDeletedBefore(CUTOFF)).isEqualTo(expired - 1);
+            connection.rollback();
+        }
+        assertThat(jdbc.queryForObject("SELECT count(*) FROM patients WHERE deleted_at < ?", Long.class, CUTOFF))
+            .isEqualTo(1);
+
+        // A later run picks up whatever an earlier one left behind
+        assertThat(archiver.archiveDeletedBefore(CUTOFF)).isEqualTo(1);
+        assertThat(archiver.archiveDeletedBefore(CUTOFF)).isZero();
+
+        assertThat(jdbc.queryForObject("SELECT count(*) FROM patients WHERE deleted_at < ?", Long.class, CUTOFF)).isZero();
+        assertThat(jdbc.queryForObject("SELECT count(*) FROM patients_archive", Long.class)).isEqualTo(expired);
+        assertThat(jdbc.queryForObject("SELECT count(*) FROM patients", Long.class)).isEqualTo(PROFILE.patients() - expired);
+        assertThat(meterRegistry.get("healthcare.archival.rows").counter().count()).isEqualTo(expired);
+        assertThat(meterRegistry.get("healthcare.archival.reclaimed").counter().count()).isPositive();
+        assertThat(meterRegistry.get("healthcare.archival.table.size").tag("table", "patients_archive").gauge().value())
+            .isPositive();
+    }
+
+    @Test
+    @Order(3)
+    void restoresArchivedPatients() {
+        long id = jdbc.queryForObject("SELECT min(a.id) FROM patients_archive a JOIN facilities f ON f.id = a.facility_id " +
+            "WHERE f.is_active AND a.medical_record_number IS NOT NULL", Long.class);
+
+        PatientDTO restored = patientService.restorePatient(id);
+
+        assertThat(restored.getId()).isEqualTo(id);
+        assertThat(patientService.getPatientById(id).getMedicalRecordNumber()).isEqualTo(restored.getMedicalRecordNumber());
+        assertThat(jdbc.queryForObject("SELECT count(*) FROM patients_archive WHERE id = ?", Long.class, id)).isZero();
+    }
+
+    @Test
+    @Order(4)
+    void keepsPatientArchivedWhenItsRecordNumberWasReused() {
+        long id = jdbc.queryForObject("SELECT max(id) FROM patients_archive WHERE medical_record_number IS NOT NULL",
+            Long.class);
+        PatientDTO newcomer = new PatientDTO();
+        newcomer.setFacilityId(jdbc.queryForObject("SELECT min(id) FROM facilities WHERE is_active", Long.class));
+        newcomer.setFirstName("New");
+        newcomer.setLastName("Patient");
+        newcomer.setDateOfBirth(LocalDate.of(2000, 1, 1));
+        newcomer.setMedicalRecordNumber(jdbc.queryForObject(
+            "SELECT medical_record_number FROM patients_archive WHERE id = ?", String.class, id));
+        patientService.createPatient(newcomer);
+
+        assertThatThrownBy(() -> patientService.restorePatient(id)).isInstanceOf(DuplicateKeyException.class);
+        assertThat(jdbc.queryForObject("SELECT count(*) FROM patients_archive WHERE id = ?", Long.class, id)).isEqualTo(1);
+    }
+
+    @Test
+    @Order(5)
+    void restoresSoftDeletedPatientsThatAreNotArchivedYet() {
+        long id = jdbc.queryForObject("SELECT min(p.id) FROM patients p JOIN facilities f ON f.id = p.facility_id " +
+            "WHERE f.is_active AND p.deleted_at IS NOT NULL", Long.class);
+
+        assertThat(patientService.restorePatient(id).getId()).isEqualTo(id);
+        assertThat(patientService.getPatientById(id).getId()).isEqualTo(id);
+        assertThatThrownBy(() -> patientService.restorePatient(Long.MAX_VALUE)).isInstanceOf(EntityNotFoundException.class);
+    }
+}
@@ -0,0 +1,314 @@
+package com.healthcare.maintenance;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.healthcare.dto.PatientDTO;
+import com.healthcare.load.EmbeddedPostgresSupport;
+import com.healthcare.load.LoadProfile;
+import com.healthcare.load.SyntheticDataGenerator;
+import com.healthcare.model.Patient;
+import com.healthcare.repository.PatientRepository;
+import com.healthcare.service.PatientService;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.sql.DataSource;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+/**
+ * Partitions a seeded patients table online while a writer keeps inserting, moving and deleting
+ * rows, then checks that no write was lost, that facility-scoped queries prune to one partition,
+ * that the application still works on the new table, and that the patient index migrations run
+ * against it. Listing latency and vacuum time before
+ * and after are written to {@code partitioning.json} in the load report directory.
+ */
+@Tag("load")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE, properties = {
+    "spring.jpa.show-sql=false",
+    "app.ai.openai.enabled=false",
+    "app.geo.refresh-interval=PT1H",
+    "app.partitioning.partitions=16",
+    "app.partitioning.batch-size=10000",
+    "app.partitioning.batch-pause=10ms",
+    "logging.level.org.hibernate.SQL=WARN"
+})
+class PatientPartitioningTest {
+
+    private static final String DATABASE = "partitioning";
+    private static final LoadProfile PROFILE = new LoadProfile(2_000, 200_000, 20240401L, 0, 1);
+    // The writer only touches the long tail, so listings of the large facilities stay comparable
+    private static final int WRITER_MIN_FACILITY = 1_001;
+    private static final int MEASURED_FACILITIES = 50;
+
+    @Autowired
+    private PatientPartitioningMigrator migrator;
+
+    @Autowired
+    private PartitioningProperties partitioningProperties;
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Autowired
+    private PatientService patientService;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private DataSource rawDataSource;
+    private JdbcTemplate jdbc;
+
+    @DynamicPropertySource
+    static void database(DynamicPropertyRegistry registry) {
+        EmbeddedPostgresSupport.register(registry, DATABASE);
+    }
+
+    @BeforeAll
+    void seed() throws Exception {
+        rawDataSource = EmbeddedPostgresSupport.instance().getDatabase("postgres", DATABASE);
+        new SyntheticDataGenerator(PROFILE).seed(rawDataSource);
+        jdbc = new JdbcTemplate(rawDataSource);
+        jdbc.execute("VACUUM ANALYZE");
+    }
+
+    @Test
+    void partitionsOnlineWithoutLosingWrites() throws Exception {
+        assertThatThrownBy(migrator::migrate).isInstanceOf(IllegalStateException.class)
+            .hasMessageContaining("idx_patients_active_mrn");
+        assertThat(migrator.status().phase()).isEqualTo(PatientPartitioningMigrator.Phase.NOT_STARTED);
+        partitioningProperties.setPerFacilityUniqueIndexes(true);
+        Map<Long, Long> totalsBefore = facilityTotals();
+        Map<String, Object> before = measure(List.of("patients"));
+
+        AtomicBoolean stop = new AtomicBoolean();
+        AtomicInteger writes = new AtomicInteger();
+        CompletableFuture<Void> writer = CompletableFuture.runAsync(() -> write(stop, writes));
+        try {
+            migrator.migrate();
+        } finally {
+            stop.set(true);
+        }
+        writer.get();
+
+        PatientPartitioningMigrator.Status status = migrator.status();
+        assertThat(status.phase()).isEqualTo(PatientPartitioningMigrator.Phase.PARTITIONED);
+        assertThat(status.partitions()).isEqualTo(16);
+        assertThat(writes.get()).as("writes made while the migration ran").isPositive();
+        // The writer stops at the first write that lands after the swap, so the retired table
+        // holds exactly the rows the mirror trigger had to carry over
+        assertThat(fingerprint("patients")).isEqualTo(fingerprint(PatientPartitioningMigrator.RETIRED));
+
+        assertPrunesToOnePartition();
+        assertThat(facilityTotals()).isEqualTo(totalsBefore);
+        Map<String, Object> after = measure(List.of("patients", "patients_p0"));
+        assertApplicationStillWorks();
+        assertMrnUniqueOnlyWithinFacility();
+        assertIndexMigrationsRunOnPartitionedTable();
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("profile", PROFILE);
+        report.put("concurrentWrites", writes.get());
+        report.put("unpartitioned", before);
+        report.put("partitioned", after);
+        System.out.printf("%n== partitioning (%d facilities, %d patients)%nbefore: %s%nafter:  %s%n",
+            PROFILE.facilities(), PROFILE.patients(), before, after);
+        Path dir = Path.of(System.getProperty("load.reportDir", "build/reports/load"));
+        Files.createDirectories(dir);
+        objectMapper.copy().enable(SerializationFeature.INDENT_OUTPUT)
+            .writeValue(dir.resolve("partitioning.json").toFile(), report);
+    }
+
+    // Inserts, moves between facilities, soft-deletes and hard-deletes patients until stopped or
+    // until a write lands on the partitioned table
+    private void write(AtomicBoolean stop, AtomicInteger writes) {
+        SplittableRandom random = new SplittableRandom(7);
+        try (Connection connection = rawDataSource.getConnection();
+             Statement statement = connection.createStatement()) {
+            connection.setAutoCommit(false);
+            while (!stop.get()) {
+                long facilityId = WRITER_MIN_FACILITY + random.nextInt(PROFILE.facilities() - WRITER_MIN_FACILITY + 1);
+                String target = "(SELECT id FROM patients WHERE id >= " + (1 + random.nextInt(PROFILE.patients())) +
+                    " AND facility_id >= " + WRITER_MIN_FACILITY + " ORDER BY id LIMIT 1)";
+                switch (random.nextInt(4)) {
+                    case 0 -> statement.executeUpdate("INSERT INTO patients (facility_id, first_name, last_name, " +
+                        "date_of_birth, created_at, updated_at) VALUES (" + facilityId + ", 'Online', 'Writer', " +
+                        "'1980-01-01', now(), now())");
+                    case 1 -> statement.executeUpdate("UPDATE patients SET facility_id = " + facilityId +
+                        ", updated_at = now() WHERE id = " + target);
+                    case 2 -> statement.executeUpdate("UPDATE patients SET deleted_at = now() WHERE id = " + target);
+                    default -> statement.executeUpdate("DELETE FROM patients WHERE id = " + target);
+                }
+                try (ResultSet swapped = statement.executeQuery(
+                    "SELECT to_regclass('" + PatientPartitioningMigrator.RETIRED + "') IS NOT NULL")) {
+                    swapped.next();
+                    if (swapped.getBoolean(1)) {
+                        connection.rollback();
+                        return;
+                    }
+                }
+                connection.commit();
+                writes.incrementAndGet();
+            }
+        } catch (Exception e) {
+            throw new IllegalStateException("Concurrent writer failed", e);
+        }
+    }
+
+    private String fingerprint(String table) {
+        return jdbc.queryForObject("SELECT count(*) || ':' || md5(string_agg(t::text, '|' ORDER BY t.id)) FROM " +
+            table + " t", String.class);
+    }
+
+    private Map<Long, Long> facilityTotals() {
+        Map<Long, Long> totals = new LinkedHashMap<>();
+        for (long facilityId = 1; facilityId <= MEASURED_FACILITIES; facilityId++) {
+            totals.put(facilityId, patientRepository.findByFacilityIdAndDeletedAtIsNull(facilityId,
+                PageRequest.of(0, 20, Sort.by("id"))).getTotalElements());
+        }
+        return totals;
+    }
+
+    private void assertPrunesToOnePartition() throws Exception {
+        String query = "SELECT * FROM patients WHERE facility_id = $1 AND deleted_at IS NULL ORDER BY id LIMIT 20";
+        try (Connection connection = rawDataSource.getConnection();
+             Statement statement = connection.createStatement()) {
+            List<String> scanned = new ArrayList<>();
+            collectRelations(explain(statement, "EXPLAIN (FORMAT JSON) " + query.replace("$1", "42")), scanned);
+            assertThat(scanned).as("partitions planned for a literal facility id").hasSize(1);
+
+            // Prepared statements switch to a generic plan; pruning then happens at executor startup
+            statement.execute("PREPARE by_facility(bigint) AS " + query);
+            statement.execute("SET plan_cache_mode = force_generic_plan");
+            JsonNode generic = explain(statement, "EXPLAIN (ANALYZE, FORMAT JSON) EXECUTE by_facility(42)");
+            assertThat(generic.findValues("Subplans Removed"))
+                .extracting(JsonNode::asInt)
+                .containsExactly(15);
+        }
+    }
+
+    private JsonNode explain(Statement statement, String sql) throws Exception {
+        try (ResultSet resultSet = statement.executeQuery(sql)) {
+            resultSet.next();
+            return objectMapper.readTree(resultSet.getString(1)).get(0).get("Plan");
+        }
+    }
+
+    private static void collectRelations(JsonNode plan, List<String> relations) {
+        if (plan.has("Relation Name")) {
+            relations.add(plan.get("Relation Name").asText());
+        }
+        for (JsonNode child : plan.path("Plans")) {
+            collectRelations(child, relations);
+        }
+    }
+
+    private void assertApplicationStillWorks() {
+        Long maxId = jdbc.queryForObject("SELECT max(id) FROM " + PatientPartitioningMigrator.RETIRED, Long.class);
+
+        PatientDTO patient = new PatientDTO();
+        patient.setFacilityId(3L);
+        patient.setFirstName("After");
+        patient.setLastName("Partitioning");
+        patient.setDateOfBirth(LocalDate.of(1990, 5, 17));
+        patient.setGender(Patient.Gender.OTHER);
+        PatientDTO created = patientService.createPatient(patient);
+        assertThat(created.getId()).isGreaterThan(maxId);
+
+        created.setFacilityId(4L);
+        created.setLastName("Moved");
+        patientService.updatePatient(created.getId(), created);
+        assertThat(jdbc.queryForObject("SELECT tableoid::regclass::text FROM patients WHERE id = ?", String.class,
+            created.getId())).isEqualTo(jdbc.queryForObject(
+                "SELECT tableoid::regclass::text FROM patients WHERE facility_id = 4 LIMIT 1", String.class));
+
+        patientService.softDeletePatient(created.getId());
+        Page<Patient> page = patientRepository.findByFacilityIdAndDeletedAtIsNull(4L, PageRequest.of(0, 20, Sort.by("id")));
+        assertThat(page.getContent()).extracting(Patient::getId).doesNotContain(created.getId());
+    }
+
+    // What per-facility-unique-indexes accepts: the active-MRN index now includes facility_id
+    private void assertMrnUniqueOnlyWithinFacility() {
+        String insert = "INSERT INTO patients (facility_id, first_name, last_name, date_of_birth, medical_record_number, " +
+            "created_at, updated_at) VALUES (?, 'Same', 'Number', '1980-01-01', 'MRN-PARTITIONED', now(), now())";
+        jdbc.update(insert, 5L);
+        jdbc.update(insert, 6L);
+        assertThatThrownBy(() -> jdbc.update(insert, 5L)).isInstanceOf(DuplicateKeyException.class);
+    }
+
+    // Drops the indexes the patient index migrations created and runs those migrations again, now
+    // on the partitioned table
+    private void assertIndexMigrationsRunOnPartitionedTable() {
+        List<String> indexes = List.of("idx_patients_deleted_at", "idx_patients_active_mrn", "idx_patients_updated_at_id",
+            "idx_patients_active_last_name_id");
+        indexes.forEach(index -> jdbc.execute("DROP INDEX " + index));
+        jdbc.update("DELETE FROM flyway_schema_history WHERE version IN ('5', '7', '9', '11')");
+
+        Flyway flyway = Flyway.configure()
+            .dataSource(rawDataSource)
+            .outOfOrder(true)
+            .mixed(true)
+            .configuration(Map.of("flyway.postgresql.transactional.lock", "false"))
+            .load();
+        assertThat(flyway.migrate().migrationsExecuted).isEqualTo(4);
+        flyway.validate();
+
+        for (String index : indexes) {
+            assertThat(jdbc.queryForObject("SELECT indisvalid FROM pg_index WHERE indexrelid = ?::regclass",
+                Boolean.class, index)).as(index).isTrue();
+            assertThat(jdbc.queryForObject("SELECT count(*)::int FROM pg_inherits WHERE inhparent = ?::regclass",
+                Integer.class, index)).as(index).isEqualTo(16);
+        }
+        assertThat(jdbc.queryForObject("SELECT pg_get_indexdef('idx_patients_active_mrn'::regclass)", String.class))
+            .contains("(medical_record_number, facility_id)");
+    }
+
+    // Mean latency of facility listings, and how long vacuum takes after 10% of rows were updated
+    private Map<String, Object> measure(List<String> vacuumTargets) {
+        for (int warmup = 0; warmup < 2; warmup++) {
+            facilityTotals();
+        }
+        int calls = 0;
+        long started = System.nanoTime();
+        for (int round = 0; round < 10; round++) {
+            calls += facilityTotals().size();
+        }
+        double listingMicros = (System.nanoTime() - started) / 1_000.0 / calls;
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("findByFacilityIdAndDeletedAtIsNullMicros", Math.round(listingMicros));
+        for (String table : vacuumTargets) {
+            jdbc.update("UPDATE patients SET updated_at = updated_at WHERE id % 10 = 0");
+            long vacuumStarted = System.nanoTime();
+            jdbc.execute("VACUUM " + table);
+            result.put("vacuumMillis." + table, Math.round((System.nanoTime() - vacuumStarted) / 1_000_000.0));
+        }
+        return result;
+    }
+}
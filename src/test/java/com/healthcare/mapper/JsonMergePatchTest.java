@@ -0,0 +1,78 @@
+package com.healthcare.mapper;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.healthcare.dto.PatientDTO;
+import com.healthcare.model.Address;
+import jakarta.validation.ConstraintViolationException;
+import jakarta.validation.Validation;
+import java.time.LocalDate;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+class JsonMergePatchTest {
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    private final JsonMergePatch jsonMergePatch =
+        new JsonMergePatch(objectMapper, Validation.buildDefaultValidatorFactory().getValidator());
+
+    @Test
+    void mergesAsRfc7396Describes() throws Exception {
+        // Examples from RFC 7396, appendix A
+        assertMerge("{\"a\":\"b\"}", "{\"a\":\"c\"}", "{\"a\":\"c\"}");
+        assertMerge("{\"a\":\"b\"}", "{\"b\":\"c\"}", "{\"a\":\"b\",\"b\":\"c\"}");
+        assertMerge("{\"a\":\"b\"}", "{\"a\":null}", "{}");
+        assertMerge("{\"a\":\"b\",\"b\":\"c\"}", "{\"a\":null}", "{\"b\":\"c\"}");
+        assertMerge("{\"a\":[\"b\"]}", "{\"a\":\"c\"}", "{\"a\":\"c\"}");
+        assertMerge("{\"a\":{\"b\":\"c\"}}", "{\"a\":{\"b\":\"d\",\"c\":null}}", "{\"a\":{\"b\":\"d\"}}");
+        assertMerge("{\"a\":[{\"b\":\"c\"}]}", "{\"a\":[1]}", "{\"a\":[1]}");
+        assertMerge("{\"e\":null}", "{\"a\":1}", "{\"e\":null,\"a\":1}");
+        assertMerge("[1,2]", "{\"a\":\"b\",\"c\":null}", "{\"a\":\"b\"}");
+        assertMerge("{}", "{\"a\":{\"bb\":{\"ccc\":null}}}", "{\"a\":{\"bb\":{}}}");
+    }
+
+    @Test
+    void changesOnlyTheSuppliedMembers() throws Exception {
+        PatientDTO patched = jsonMergePatch.apply(patient(), objectMapper.readTree(
+            "{\"phone\":\"555-0100\",\"email\":null,\"address\":{\"city\":\"Shelbyville\"},\"version\":99}"));
+
+        assertThat(patched.getPhone()).isEqualTo("555-0100");
+        assertThat(patched.getEmail()).isNull();
+        assertThat(patched.getAddress().getStreet()).isEqualTo("12 Main St");
+        assertThat(patched.getAddress().getCity()).isEqualTo("Shelbyville");
+        assertThat(patched.getFirstName()).isEqualTo("Ada");
+        assertThat(patched.getDateOfBirth()).isEqualTo(LocalDate.of(1980, 1, 2));
+        // Read-only members cannot be patched
+        assertThat(patched.getVersion()).isNull();
+    }
+
+    @Test
+    void validatesThePatchedResult() throws Exception {
+        assertThatThrownBy(() -> jsonMergePatch.apply(patient(), objectMapper.readTree("{\"lastName\":null}")))
+            .isInstanceOf(ConstraintViolationException.class);
+        assertThatThrownBy(() -> jsonMergePatch.apply(patient(), objectMapper.readTree("{\"dateOfBirth\":\"soon\"}")))
+            .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> jsonMergePatch.apply(patient(), objectMapper.readTree("[]")))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private void assertMerge(String target, String patch, String expected) throws Exception {
+        assertThat(JsonMergePatch.merge(objectMapper.readTree(target), objectMapper.readTree(patch)))
+            .isEqualTo(objectMapper.readTree(expected));
+    }
+
+    private static PatientDTO patient() {
+        PatientDTO patient = new PatientDTO();
+        patient.setId(7L);
+        patient.setFacilityId(3L);
+        patient.setFirstName("Ada");
+        patient.setLastName("Lovelace");
+        patient.setEmail("ada@example.com");
+        patient.setDateOfBirth(LocalDate.of(1980, 1, 2));
+        patient.setAddress(Address.builder().street("12 Main St").city("Springfield").region("IL").build());
+        patient.setVersion(4L);
+        return patient;
+    }
+}
@@ -0,0 +1,48 @@
+package com.healthcare.model;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+class AddressTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void parsesOneLineAddress() {
+        assertThat(Address.valueOf("12 Main St, Suite 4, Springfield, IL 62701-1234")).isEqualTo(Address.builder()
+            .street("12 Main St, Suite 4")
+            .city("Springfield")
+            .region("IL")
+            .postalCode("62701-1234")
+            .build());
+        assertThat(Address.valueOf("9 Elm St, Salem, 01970")).isEqualTo(Address.builder()
+            .street("9 Elm St").city("Salem").postalCode("01970").build());
+        assertThat(Address.valueOf("9 Elm St, Salem, Oregon")).isEqualTo(Address.builder()
+            .street("9 Elm St").city("Salem").region("Oregon").build());
+    }
+
+    @Test
+    void keepsUnstructuredTextAsStreet() {
+        assertThat(Address.valueOf("PO Box 12")).isEqualTo(Address.builder().street("PO Box 12").build());
+        assertThat(Address.valueOf("  ")).isNull();
+    }
+
+    @Test
+    void deserializesFromStringOrObject() throws Exception {
+        Address fromString = objectMapper.readValue("\"12 Main St, Springfield, IL 62701\"", Address.class);
+        Address fromObject = objectMapper.readValue(
+            "{\"street\":\"12 Main St\",\"city\":\"Springfield\",\"region\":\"IL\",\"postalCode\":\"62701\"}", Address.class);
+
+        assertThat(fromString).isEqualTo(fromObject);
+        assertThat(objectMapper.writeValueAsString(Address.builder().city("Springfield").build()))
+            .isEqualTo("{\"city\":\"Springfield\"}");
+    }
+
+    @Test
+    void formatsAsOneLine() {
+        assertThat(Address.valueOf("12 Main St, Springfield, IL 62701").formatted())
+            .isEqualTo("12 Main St, Springfield, IL 62701");
+    }
+}
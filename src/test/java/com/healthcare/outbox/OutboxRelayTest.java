@@ -0,0 +1,292 @@
+package com.healthcare.outbox;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.healthcare.dto.PatientDTO;
+import com.healthcare.load.EmbeddedPostgresSupport;
+import com.healthcare.load.LoadProfile;
+import com.healthcare.load.SyntheticDataGenerator;
+import com.healthcare.model.OutboxEvent;
+import com.healthcare.service.PatientService;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import javax.sql.DataSource;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+/**
+ * Writes patient changes through the services and checks that exactly the committed ones reach
+ * listeners, in order, then drains a large outbox with several relays at once and with a failing
+ * listener to check that per-aggregate order holds and that one relay never starves the others.
+ * Failed events back off and, once out of attempts, move to outbox_dead_letters.
+ */
+@Tag("load")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE, properties = {
+    "spring.jpa.show-sql=false",
+    "app.ai.openai.enabled=false",
+    "app.geo.refresh-interval=PT1H",
+    "app.outbox.relay-enabled=false",
+    "app.outbox.batch-size=50",
+    "logging.level.org.hibernate.SQL=WARN"
+})
+class OutboxRelayTest {
+
+    private static final String DATABASE = "outbox";
+    private static final LoadProfile PROFILE = new LoadProfile(20, 200, 20240401L, 0, 1);
+
+    @Autowired
+    private OutboxRelay relay;
+
+    @Autowired
+    private PatientService patientService;
+
+    @Autowired
+    private RecordingListener listener;
+
+    @Autowired
+    private HikariDataSource primaryDataSource;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private JdbcTemplate jdbc;
+
+    @DynamicPropertySource
+    static void database(DynamicPropertyRegistry registry) {
+        EmbeddedPostgresSupport.register(registry, DATABASE);
+    }
+
+    @BeforeAll
+    void seed() throws Exception {
+        DataSource rawDataSource = EmbeddedPostgresSupport.instance().getDatabase("postgres", DATABASE);
+        new SyntheticDataGenerator(PROFILE).seed(rawDataSource);
+        jdbc = new JdbcTemplate(rawDataSource);
+    }
+
+    @BeforeEach
+    void reset() {
+        relay.drain();
+        listener.events.clear();
+        listener.failing.clear();
+    }
+
+    @Test
+    void relaysCommittedChangesInOrder() {
+        PatientDTO patient = new PatientDTO();
+        patient.setFacilityId(jdbc.queryForObject("SELECT min(id) FROM facilities WHERE is_active", Long.class));
+        patient.setFirstName("Outbox");
+        patient.setLastName("Relay");
+        patient.setDateOfBirth(LocalDate.of(1970, 2, 3));
+        patient.setMedicalRecordNumber("MRN-OUTBOX-1");
+        PatientDTO created = patientService.createPatient(patient);
+
+        created.setPhone("+1-555-0142");
+        PatientDTO updated = patientService.updatePatient(created.getId(), created);
+        // Nothing changed, so nothing is announced
+        patientService.updatePatient(created.getId(), updated);
+        patientService.softDeletePatient(created.getId());
+        patientService.restorePatient(created.getId());
+        // Rolled back, so never announced
+        assertThatThrownBy(() -> patientService.createPatient(patient)).isInstanceOf(DuplicateKeyException.class);
+
+        assertThat(relay.drain()).isEqualTo(4);
+
+        assertThat(listener.events)
+            .allSatisfy(event -> assertThat(event.aggregateId()).isEqualTo(created.getId()))
+            .extracting(ChangeEvent::eventType)
+            .containsExactly(OutboxEvent.EventType.CREATED, OutboxEvent.EventType.UPDATED,
+                OutboxEvent.EventType.DELETED, OutboxEvent.EventType.RESTORED);
+        assertThat(listener.events)
+            .extracting(event -> event.payload().get("version").asLong())
+            .containsExactly(0L, 1L, 2L, 3L);
+        // Ids and the version only: no patient details are kept in the outbox
+        assertThat(listener.events.get(1).payload().properties()).extracting(Map.Entry::getKey)
+            .containsExactlyInAnyOrder("id", "version", "facilityId");
+        assertThat(jdbc.queryForObject("SELECT count(*) FROM outbox_events", Long.class)).isZero();
+        assertThat(meterRegistry.get("healthcare.outbox.lag").timer().count()).isGreaterThanOrEqualTo(4);
+        assertThat(meterRegistry.get("healthcare.outbox.pending").gauge().value()).isZero();
+    }
+
+    @Test
+    void concurrentRelaysKeepEachAggregateInOrder() {
+        // 100 aggregates with 20 events each, interleaved
+        jdbc.update("INSERT INTO outbox_events (aggregate_type, aggregate_id, event_type, payload) " +
+            "SELECT 'PATIENT', a, 'UPDATED', jsonb_build_object('seq', s) " +
+            "FROM generate_series(0, 19) s, generate_series(1, 100) a ORDER BY s, a");
+
+        List<OutboxRelay> relays = IntStream.range(0, 4)
+            .mapToObj(i -> new OutboxRelay(primaryDataSource, eventPublisher, objectMapper, smallBatches(),
+                new SimpleMeterRegistry()))
+            .toList();
+        while (jdbc.queryForObject("SELECT count(*) FROM outbox_events", Long.class) > 0) {
+            relays.stream().map(r -> CompletableFuture.runAsync(r::drain)).toList().forEach(CompletableFuture::join);
+        }
+
+        assertThat(listener.events).hasSize(2_000);
+        assertThat(sequencesByAggregate()).hasSize(100)
+            .allSatisfy((aggregate, sequence) ->
+                assertThat(sequence).isEqualTo(IntStream.range(0, 20).boxed().toList()));
+    }
+
+    @Test
+    void relaysSharingABacklogBothMakeProgress() throws Exception {
+        // 60 aggregates with 2 events each, far more distinct aggregates than one batch of 7
+        jdbc.update("INSERT INTO outbox_events (aggregate_type, aggregate_id, event_type, payload) " +
+            "SELECT 'PATIENT', a, 'UPDATED', jsonb_build_object('seq', s) " +
+            "FROM generate_series(0, 1) s, generate_series(1, 60) a ORDER BY s, a");
+
+        // Force the seq scan plus sort a small or bloated outbox gets, where a lock taken in the scan
+        // filter would cover every aggregate in the table
+        try (HikariDataSource seqScans = new HikariDataSource()) {
+            seqScans.setJdbcUrl(primaryDataSource.getJdbcUrl());
+            seqScans.setUsername(primaryDataSource.getUsername());
+            seqScans.setPassword(primaryDataSource.getPassword());
+            seqScans.setConnectionInitSql("SET enable_indexscan = off; SET enable_bitmapscan = off");
+
+            CountDownLatch claimed = new CountDownLatch(1);
+            CountDownLatch release = new CountDownLatch(1);
+            AtomicLong heldAggregate = new AtomicLong();
+            OutboxRelay holding = new OutboxRelay(seqScans, event -> {
+                heldAggregate.compareAndSet(0, ((ChangeEvent) event).aggregateId());
+                claimed.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }, objectMapper, smallBatches(), new SimpleMeterRegistry());
+            OutboxRelay other = new OutboxRelay(seqScans, eventPublisher, objectMapper, smallBatches(),
+                new SimpleMeterRegistry());
+
+            // The first relay stays inside its batch transaction while the second one drains
+            CompletableFuture<Long> first = CompletableFuture.supplyAsync(holding::drain);
+            assertThat(claimed.await(10, TimeUnit.SECONDS)).isTrue();
+            long second = other.drain();
+            release.countDown();
+
+            assertThat(first.get(10, TimeUnit.SECONDS)).isPositive();
+            assertThat(second).isPositive();
+            assertThat(sequencesByAggregate()).doesNotContainKey(heldAggregate.get())
+                .allSatisfy((aggregate, sequence) -> assertThat(sequence).isSortedAccordingTo(Integer::compare));
+        }
+    }
+
+    @Test
+    void failingListenerHoldsBackOnlyItsAggregate() {
+        jdbc.update("INSERT INTO outbox_events (aggregate_type, aggregate_id, event_type, payload) " +
+            "SELECT 'FACILITY', a, 'UPDATED', jsonb_build_object('seq', s) " +
+            "FROM generate_series(0, 2) s, generate_series(1, 3) a ORDER BY s, a");
+        listener.failing.add(2L);
+
+        assertThat(relay.drain()).isEqualTo(6);
+        assertThat(sequencesByAggregate()).containsOnlyKeys(1L, 3L);
+        assertThat(jdbc.queryForList("SELECT attempts FROM outbox_events ORDER BY id", Integer.class))
+            .containsExactly(1, 0, 0);
+        assertThat(meterRegistry.get("healthcare.outbox.events").tag("result", "failed").counter().count())
+            .isPositive();
+
+        // The failed event, and the rest of its aggregate behind it, back off
+        listener.failing.clear();
+        assertThat(relay.drain()).isZero();
+        jdbc.update("UPDATE outbox_events SET next_attempt_at = clock_timestamp() - interval '1 second' " +
+            "WHERE next_attempt_at IS NOT NULL");
+        assertThat(relay.drain()).isEqualTo(3);
+        assertThat(sequencesByAggregate().get(2L)).containsExactly(0, 1, 2);
+    }
+
+    @Test
+    void exhaustedEventsMoveToDeadLettersAndTheirAggregateGoesOn() {
+        jdbc.update("INSERT INTO outbox_events (aggregate_type, aggregate_id, event_type, payload) " +
+            "SELECT 'FACILITY', 9, 'UPDATED', jsonb_build_object('seq', s) FROM generate_series(0, 1) s");
+        listener.failing.add(9L);
+        OutboxProperties properties = new OutboxProperties();
+        properties.setMaxAttempts(3);
+        properties.setRetryBackoff(Duration.ZERO);
+        OutboxRelay retrying = new OutboxRelay(primaryDataSource, eventPublisher, objectMapper, properties,
+            new SimpleMeterRegistry());
+
+        assertThat(retrying.drain()).isZero();
+        assertThat(retrying.drain()).isZero();
+        assertThat(jdbc.queryForObject("SELECT count(*) FROM outbox_dead_letters", Long.class)).isZero();
+        assertThat(retrying.drain()).isZero();
+        assertThat(jdbc.queryForMap("SELECT attempts, payload ->> 'seq' AS seq, last_error FROM outbox_dead_letters"))
+            .containsEntry("attempts", 3)
+            .containsEntry("seq", "0")
+            .hasEntrySatisfying("last_error", error -> assertThat((String) error).contains("Listener unavailable"));
+
+        listener.failing.clear();
+        assertThat(retrying.drain()).isEqualTo(1);
+        assertThat(sequencesByAggregate().get(9L)).containsExactly(1);
+        assertThat(jdbc.queryForObject("SELECT count(*) FROM outbox_events", Long.class)).isZero();
+    }
+
+    private Map<Long, List<Integer>> sequencesByAggregate() {
+        return listener.events.stream().collect(Collectors.groupingBy(ChangeEvent::aggregateId,
+            Collectors.mapping(event -> event.payload().get("seq").asInt(), Collectors.toList())));
+    }
+
+    private static OutboxProperties smallBatches() {
+        OutboxProperties properties = new OutboxProperties();
+        properties.setBatchSize(7);
+        return properties;
+    }
+
+    static class RecordingListener {
+
+        final List<ChangeEvent> events = new CopyOnWriteArrayList<>();
+        final Set<Long> failing = ConcurrentHashMap.newKeySet();
+
+        @EventListener
+        public void onChange(ChangeEvent event) {
+            if (failing.contains(event.aggregateId())) {
+                throw new IllegalStateException("Listener unavailable for " + event.aggregateId());
+            }
+            events.add(event);
+        }
+    }
+
+    @TestConfiguration
+    static class ListenerConfig {
+
+        @Bean
+        RecordingListener recordingListener() {
+            return new RecordingListener();
+        }
+    }
+}
@@ -0,0 +1,305 @@
+package com.healthcare.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.withinPercentage;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.healthcare.ai.DataProvider;
+import com.healthcare.dto.AddressFilterDTO;
+import com.healthcare.dto.PageRequestDTO;
+import com.healthcare.dto.PatientField;
+import com.healthcare.dto.PatientSearchDTO;
+import com.healthcare.load.EmbeddedPostgresSupport;
+import com.healthcare.load.LoadProfile;
+import com.healthcare.load.SyntheticDataGenerator;
+import com.healthcare.model.Facility;
+import com.healthcare.service.FacilityService;
+import com.healthcare.service.PatientService;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.OptionalLong;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+import javax.sql.DataSource;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.proxy.ParameterSetOperation;
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+/**
+ * Runs every repository query against a migrated schema seeded at scale, captures the SQL with
+ * its bound parameters, and EXPLAINs it. A sequential scan over patients or facilities fails the
+ * test unless the query reads the whole active set by design, so a dropped or mismatched index
+ * shows up as a plan regression rather than as a slow endpoint in production.
+ */
+@Tag("load")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE, properties = {
+    "spring.jpa.show-sql=false",
+    "app.ai.openai.enabled=false",
+    "app.geo.refresh-interval=PT1H",
+    "logging.level.org.hibernate.SQL=WARN"
+})
+class QueryPlanRegressionTest {
+
+    private static final String DATABASE = "query_plans";
+    private static final LoadProfile PROFILE = new LoadProfile(20_000, 200_000, 20240401L, 0, 1);
+    private static final List<String> LARGE_TABLES = List.of("patients", "facilities");
+
+    private static final Predicate<String> NONE = sql -> false;
+    // Spring Data's total-count query for an unfiltered page counts the whole active set
+    private static final Predicate<String> PAGE_COUNT = sql -> sql.strip().toLowerCase().startsWith("select count(");
+    private static final Predicate<String> ALL = sql -> true;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Autowired
+    private FacilityRepository facilityRepository;
+
+    @Autowired
+    private PatientService patientService;
+
+    @Autowired
+    private FacilityService facilityService;
+
+    @Autowired
+    private DataProvider dataProvider;
+
+    @Autowired
+    private RowCountEstimator rowCountEstimator;
+
+    @Autowired
+    private SortPlanner sortPlanner;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final List<QueryInfo> captured = new ArrayList<>();
+    private DataSource explainDataSource;
+
+    private record Scenario(String name, Runnable query, Predicate<String> sequentialScanAllowed) {
+        @Override
+        public String toString() {
+            return name;
+        }
+    }
+
+    @DynamicPropertySource
+    static void database(DynamicPropertyRegistry registry) {
+        EmbeddedPostgresSupport.register(registry, DATABASE);
+    }
+
+    @BeforeAll
+    void seed() throws Exception {
+        explainDataSource = EmbeddedPostgresSupport.instance().getDatabase("postgres", DATABASE);
+        new SyntheticDataGenerator(PROFILE).seed(explainDataSource);
+        try (Connection connection = explainDataSource.getConnection();
+             Statement statement = connection.createStatement()) {
+            // Sets the visibility map so index-only scans are costed as they would be in production
+            statement.execute("VACUUM ANALYZE");
+        }
+
+        Thread testThread = Thread.currentThread();
+        ((ProxyDataSource) dataSource).getProxyConfig().getQueryListener().addListener(new QueryExecutionListener() {
+            @Override
+            public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+            }
+
+            @Override
+            public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+                if (Thread.currentThread() == testThread) {
+                    captured.addAll(queryInfoList);
+                }
+            }
+        });
+    }
+
+    Stream<Scenario> repositoryQueries() {
+        PageRequest firstPage = PageRequest.of(0, 20, Sort.by("id"));
+        PageRequest deepPage = PageRequest.of(200, 20, Sort.by("id"));
+        return Stream.of(
+            new Scenario("patients: active page", () -> patientRepository.findByDeletedAtIsNull(deepPage), PAGE_COUNT),
+            new Scenario("patients: sample", () -> patientRepository.findPatientsByDeletedAtIsNull(firstPage), NONE),
+            new Scenario("patients: by facility", () -> patientRepository.findByFacilityIdAndDeletedAtIsNull(1L, deepPage), NONE),
+            new Scenario("patients: search by name", () -> patientRepository.searchPatients("nour", firstPage), NONE),
+            new Scenario("patients: search by MRN", () -> patientRepository.searchPatients("MRN00012345", firstPage), NONE),
+            new Scenario("patients: search in facility", () -> patientRepository.searchPatientsByFacility(1L, "sato", firstPage), NONE),
+            new Scenario("patients: by id", () -> patientRepository.findByIdAndDeletedAtIsNull(123_456L), NONE),
+            new Scenario("patients: MRN exists", () -> patientRepository.existsByMedicalRecordNumberAndDeletedAtIsNull("MRN000123456"), NONE),
+            new Scenario("patients: specification search", () -> patientService.searchPatients(page(20), patientSearch()), NONE),
+            new Scenario("patients: sparse fields page", () -> patientRepository.findFields(
+                PatientField.parse("firstName,medicalRecordNumber"), PatientSpecifications.active(), deepPage), PAGE_COUNT),
+            new Scenario("patients: sparse fields search", () -> patientService.getAllPatients(
+                page(20), "sato", PatientField.parse("lastName")), NONE),
+            new Scenario("patients: count active", () -> patientRepository.countByDeletedAtIsNull(), ALL),
+            new Scenario("patients: count active (JPQL)", () -> patientRepository.countActivePatients(), ALL),
+            new Scenario("patients: chat count (estimated)", () -> dataProvider.getPatientCount(), NONE),
+            new Scenario("facilities: active page", () -> facilityRepository.findByIsActiveTrue(deepPage), PAGE_COUNT),
+            new Scenario("facilities: by type", () -> facilityRepository.findByTypeAndIsActiveTrue(Facility.FacilityType.HOSPITAL, deepPage), NONE),
+            new Scenario("facilities: search", () -> facilityRepository.searchActiveFacilities("riverside clinic 12", firstPage), NONE),
+            new Scenario("facilities: by id", () -> facilityRepository.findByIdAndIsActiveTrue(4_321L), NONE),
+            new Scenario("facilities: exists", () -> facilityRepository.existsByIdAndIsActiveTrue(4_321L), NONE),
+            new Scenario("facilities: patient count", () -> facilityRepository.countPatientsByFacilityId(1L), NONE),
+            new Scenario("facilities: patient counts for page",
+                () -> facilityRepository.countPatientsByFacilityIds(List.of(1L, 2L, 3L, 500L, 19_999L)), NONE),
+            new Scenario("facilities: address filter",
+                () -> facilityService.getAllFacilities(page(20), null, null, postalCode("12345")), NONE),
+            new Scenario("facilities: chat location filter", () -> dataProvider.getFacilities(null, "12345", 20), NONE),
+            new Scenario("facilities: count by type", () -> facilityRepository.countFacilitiesByType(), ALL),
+            new Scenario("facilities: count active", () -> facilityRepository.countByIsActiveTrue(), ALL),
+            // Below app.row-counts.exact-below, so counted exactly
+            new Scenario("facilities: chat count", () -> dataProvider.getFacilityCount(), ALL),
+            new Scenario("facilities: location index load", () -> facilityRepository.findActiveLocations(), ALL));
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("repositoryQueries")
+    void queryPlanAvoidsSequentialScans(Scenario scenario) throws Exception {
+        captured.clear();
+        scenario.query().run();
+        assertThat(captured).as("statements issued by %s", scenario.name()).isNotEmpty();
+
+        for (QueryInfo query : List.copyOf(captured)) {
+            List<String> scanned = sequentialScans(query);
+            if (!scenario.sequentialScanAllowed().test(query.getQuery())) {
+                assertThat(scanned)
+                    .as("sequential scans for %s: %s", scenario.name(), query.getQuery())
+                    .isEmpty();
+            }
+        }
+    }
+
+    // Right after ANALYZE the only error left is the sample's
+    @Test
+    void estimatedCountsStayCloseToExactCounts() {
+        OptionalLong patients = rowCountEstimator.estimateActivePatients();
+        OptionalLong facilities = rowCountEstimator.estimateActiveFacilities();
+        assertThat(patients).isPresent();
+        assertThat(facilities).isPresent();
+        assertThat((double) patients.getAsLong())
+            .isCloseTo(patientRepository.countByDeletedAtIsNull(), withinPercentage(2));
+        assertThat((double) facilities.getAsLong())
+            .isCloseTo(facilityRepository.countByIsActiveTrue(), withinPercentage(2));
+        assertThat(dataProvider.getPatientCount()).isEqualTo(patients.getAsLong());
+        assertThat(dataProvider.getFacilityCount()).isEqualTo(facilityRepository.countByIsActiveTrue());
+    }
+
+    // Facility-scoped pages are left out: with a facility's patients found through
+    // idx_patients_active_facility_id, the planner may sort just those ("patients: by facility")
+    Stream<Scenario> sortedPages() {
+        Stream.Builder<Scenario> scenarios = Stream.builder();
+        for (String direction : List.of("ASC", "DESC")) {
+            for (String sortBy : SortPlanner.Endpoint.PATIENTS.sortable()) {
+                Pageable pageable = sortPlanner.plan(sortedPage(sortBy, direction), SortPlanner.Endpoint.PATIENTS);
+                scenarios.add(new Scenario("patients by " + sortBy + " " + direction,
+                    () -> patientRepository.findByDeletedAtIsNull(pageable), NONE));
+            }
+            for (String sortBy : SortPlanner.Endpoint.FACILITIES.sortable()) {
+                Pageable pageable = sortPlanner.plan(sortedPage(sortBy, direction), SortPlanner.Endpoint.FACILITIES);
+                scenarios.add(new Scenario("facilities by " + sortBy + " " + direction,
+                    () -> facilityRepository.findByIsActiveTrue(pageable), NONE));
+            }
+        }
+        return scenarios.build();
+    }
+
+    // Every ordering the sort planner allows reads a deep page in index order, with at most an
+    // incremental sort to break ties, instead of sorting every active row
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("sortedPages")
+    void sortedPagesFollowAnIndex(Scenario scenario) throws Exception {
+        captured.clear();
+        scenario.query().run();
+
+        for (QueryInfo query : List.copyOf(captured)) {
+            if (PAGE_COUNT.test(query.getQuery())) {
+                continue;
+            }
+            JsonNode plan = explain(query);
+            List<String> scanned = new ArrayList<>();
+            collectSequentialScans(plan, scanned);
+            assertThat(scanned).as("sequential scans for %s: %s", scenario.name(), query.getQuery()).isEmpty();
+            assertThat(plan.toString()).as("plan for %s", scenario.name()).doesNotContain("\"Node Type\":\"Sort\"");
+        }
+    }
+
+    // Replays the statement with its bound parameters under EXPLAIN and returns the tables it seq-scans
+    private List<String> sequentialScans(QueryInfo query) throws Exception {
+        List<String> scanned = new ArrayList<>();
+        collectSequentialScans(explain(query), scanned);
+        return scanned;
+    }
+
+    private JsonNode explain(QueryInfo query) throws Exception {
+        try (Connection connection = explainDataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement("EXPLAIN (FORMAT JSON) " + query.getQuery())) {
+            if (!query.getParametersList().isEmpty()) {
+                for (ParameterSetOperation operation : query.getParametersList().get(0)) {
+                    operation.getMethod().invoke(statement, operation.getArgs());
+                }
+            }
+            try (ResultSet resultSet = statement.executeQuery()) {
+                resultSet.next();
+                return objectMapper.readTree(resultSet.getString(1)).get(0).get("Plan");
+            }
+        }
+    }
+
+    private static void collectSequentialScans(JsonNode plan, List<String> scanned) {
+        String relation = plan.path("Relation Name").asText();
+        if ("Seq Scan".equals(plan.path("Node Type").asText()) && LARGE_TABLES.contains(relation)) {
+            scanned.add(relation);
+        }
+        for (JsonNode child : plan.path("Plans")) {
+            collectSequentialScans(child, scanned);
+        }
+    }
+
+    private static PageRequestDTO page(int size) {
+        PageRequestDTO page = new PageRequestDTO();
+        page.setSize(size);
+        return page;
+    }
+
+    private static PageRequestDTO sortedPage(String sortBy, String sortDirection) {
+        PageRequestDTO page = page(20);
+        page.setPage(200);
+        page.setSortBy(sortBy);
+        page.setSortDirection(sortDirection);
+        return page;
+    }
+
+    private static PatientSearchDTO patientSearch() {
+        PatientSearchDTO search = new PatientSearchDTO();
+        search.setLastName("sato");
+        search.setAddress(postalCode("12345"));
+        return search;
+    }
+
+    private static AddressFilterDTO postalCode(String postalCode) {
+        AddressFilterDTO filter = new AddressFilterDTO();
+        filter.setPostalCode(postalCode);
+        return filter;
+    }
+}
@@ -0,0 +1,68 @@
+package com.healthcare.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.healthcare.dto.PageRequestDTO;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+class SortPlannerTest {
+
+    private final SortProperties properties = new SortProperties();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final SortPlanner sortPlanner = new SortPlanner(properties, meterRegistry);
+
+    @Test
+    void mapsSortableFieldsToIndexOrderEndingInId() {
+        Pageable pageable = sortPlanner.plan(page("lastName", "desc"), SortPlanner.Endpoint.PATIENTS);
+
+        assertThat(pageable.getPageNumber()).isEqualTo(3);
+        assertThat(pageable.getPageSize()).isEqualTo(50);
+        assertThat(pageable.getSort()).isEqualTo(Sort.by(Sort.Direction.DESC, "lastName", "firstName", "id"));
+        assertThat(sortPlanner.plan(page("name", "ASC"), SortPlanner.Endpoint.FACILITIES).getSort())
+            .isEqualTo(Sort.by(Sort.Direction.ASC, "name", "id"));
+        assertThat(sortPlanner.plan(page(null, "ASC"), SortPlanner.Endpoint.FACILITIES).getSort())
+            .isEqualTo(Sort.by("id"));
+        assertThat(plans("patients", "lastName", "index")).isEqualTo(1);
+    }
+
+    @Test
+    void downgradesUnindexedFieldsToTheDefaultOrder() {
+        assertThat(sortPlanner.plan(page("email", "DESC"), SortPlanner.Endpoint.PATIENTS).getSort())
+            .isEqualTo(Sort.by(Sort.Direction.DESC, "id"));
+        // Indexed for the whole table, but not within one facility
+        assertThat(sortPlanner.plan(page("lastName", "ASC"), SortPlanner.Endpoint.FACILITY_PATIENTS).getSort())
+            .isEqualTo(Sort.by("id"));
+        assertThat(plans("patients", "id", "downgraded")).isEqualTo(1);
+        assertThat(plans("facility-patients", "id", "downgraded")).isEqualTo(1);
+    }
+
+    @Test
+    void rejectsUnknownFieldsAndUnindexedOnesWhenConfigured() {
+        assertThatThrownBy(() -> sortPlanner.plan(page("password", "ASC"), SortPlanner.Endpoint.PATIENTS))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageContaining("sortable fields: firstName, id, lastName, medicalRecordNumber, updatedAt");
+
+        properties.setUnindexed(SortProperties.Unindexed.REJECT);
+        assertThatThrownBy(() -> sortPlanner.plan(page("phone", "ASC"), SortPlanner.Endpoint.PATIENTS))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageContaining("'phone'");
+        assertThat(plans("patients", "none", "rejected")).isEqualTo(2);
+    }
+
+    private double plans(String endpoint, String sort, String outcome) {
+        return meterRegistry.counter("healthcare.sort.plans", "endpoint", endpoint, "sort", sort, "outcome", outcome).count();
+    }
+
+    private static PageRequestDTO page(String sortBy, String sortDirection) {
+        PageRequestDTO page = new PageRequestDTO();
+        page.setPage(3);
+        page.setSize(50);
+        page.setSortBy(sortBy);
+        page.setSortDirection(sortDirection);
+        return page;
+    }
+}